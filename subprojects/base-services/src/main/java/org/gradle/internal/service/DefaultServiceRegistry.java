@@ -18,6 +18,7 @@ package org.gradle.internal.service;
 import org.gradle.api.Action;
 import org.gradle.api.Nullable;
 import org.gradle.api.specs.Spec;
+import org.gradle.internal.Cast;
 import org.gradle.internal.Factory;
 import org.gradle.internal.concurrent.CompositeStoppable;
 import org.gradle.internal.concurrent.Stoppable;
@@ -64,13 +65,18 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
     private static final ConcurrentMap<Class<?>, RelevantMethods> METHODS_CACHE = new ConcurrentHashMap<Class<?>, RelevantMethods>();
     private static final ConcurrentMap<Type, BiFunction<ServiceProvider, LookupContext, Provider>> SERVICE_TYPE_PROVIDER_CACHE = new ConcurrentHashMap<Type, BiFunction<ServiceProvider, LookupContext, Provider>>();
     private final Map<Type, ServiceProvider> providerCache = new HashMap<Type, ServiceProvider>();
+    // Services and factories that have already been located, so that repeated lookups do not need to acquire the lock
+    private final ConcurrentMap<Type, Object> locatedServices = new ConcurrentHashMap<Type, Object>();
+    private final ConcurrentMap<Class<?>, Factory<?>> locatedFactories = new ConcurrentHashMap<Class<?>, Factory<?>>();
 
     private final Object lock = new Object();
     private final CompositeProvider allServices = new CompositeProvider();
     private final OwnServices ownServices;
     private final CompositeProvider parentServices;
     private final String displayName;
-    private boolean closed;
+    private volatile boolean closed;
+    // Set before the services are stopped, so that lookups without the lock no longer return services that are being stopped
+    private volatile boolean closing;
     private boolean mutable = true; // access under lock
 
     public DefaultServiceRegistry() {
@@ -322,6 +328,9 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
      */
     public void close() {
         synchronized (lock) {
+            closing = true;
+            locatedServices.clear();
+            locatedFactories.clear();
             try {
                 CompositeStoppable.stoppable(allServices).stop();
             } finally {
@@ -380,6 +389,11 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
 
 
     private Object doGet(Type serviceType) throws IllegalArgumentException {
+        // All services are singletons, so a service that has been located once can be returned without locking
+        Object service = locatedServices.get(serviceType);
+        if (service != null && !closing) {
+            return service;
+        }
         synchronized (lock) {
             mutable = false;
             if (closed) {
@@ -390,7 +404,9 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
                 provider = getServiceProvider(serviceType);
                 providerCache.put(serviceType, provider);
             }
-            return provider.get();
+            service = provider.get();
+            locatedServices.put(serviceType, service);
+            return service;
         }
     }
 
@@ -403,6 +419,10 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
     }
 
     public <T> Factory<T> getFactory(Class<T> type) {
+        Factory<?> located = locatedFactories.get(type);
+        if (located != null && !closing) {
+            return Cast.uncheckedCast(located);
+        }
         synchronized (lock) {
             if (closed) {
                 throw new IllegalStateException(String.format("Cannot locate factory for objects of type %s, as %s has been closed.", format(type), displayName));
@@ -411,7 +431,9 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
             DefaultLookupContext context = new DefaultLookupContext();
             ServiceProvider factory = allServices.getFactory(context, type);
             if (factory != null) {
-                return (Factory<T>) factory.get();
+                Factory<T> result = Cast.uncheckedCast(factory.get());
+                locatedFactories.put(type, result);
+                return result;
             }
 
             throw new UnknownServiceException(type, String.format("No factory for objects of type %s available in %s.", format(type), displayName));
@@ -107,6 +107,41 @@ class DefaultServiceRegistryConcurrencyTest extends ConcurrentSpec {
         }
     }
 
+    def "located services can be looked up while another service is being created"() {
+        def registry = new DefaultServiceRegistry()
+        registry.addProvider(new Object() {
+            String createString() {
+                DefaultServiceRegistryConcurrencyTest.this.instant.constructing
+                DefaultServiceRegistryConcurrencyTest.this.thread.blockUntil.located
+                "hi"
+            }
+
+            Integer createInteger() {
+                return 12
+            }
+
+            Factory<Long> createLongFactory() {
+                return { 2L } as Factory
+            }
+        })
+        registry.get(Integer)
+        registry.getFactory(Long)
+
+        when:
+        async {
+            start {
+                assert registry.get(String) == "hi"
+            }
+            thread.blockUntil.constructing
+            assert registry.get(Integer) == 12
+            assert registry.getFactory(Long).create() == 2L
+            instant.located
+        }
+
+        then:
+        instant.located > instant.constructing
+    }
+
     def "close blocks while other threads are locating services"() {
         def registry = new DefaultServiceRegistry()
         registry.addProvider(new Object() {
@@ -131,4 +166,41 @@ class DefaultServiceRegistryConcurrencyTest extends ConcurrentSpec {
         then:
         instant.constructed < instant.stopped
     }
+
+    def "already located services are not returned while the registry is being closed"() {
+        def registry = new DefaultServiceRegistry()
+        registry.addProvider(new Object() {
+            Closeable createCloseable() {
+                return {
+                    DefaultServiceRegistryConcurrencyTest.this.instant.stopping
+                    DefaultServiceRegistryConcurrencyTest.this.thread.block()
+                    DefaultServiceRegistryConcurrencyTest.this.instant.stopped
+                } as Closeable
+            }
+
+            Integer createInteger() {
+                12
+            }
+        })
+        registry.get(Closeable)
+        registry.get(Integer)
+
+        when:
+        start {
+            registry.close()
+        }
+        async {
+            thread.blockUntil.stopping
+            try {
+                registry.get(Integer)
+                assert false
+            } catch (IllegalStateException e) {
+                assert e.message.contains("has been closed")
+                instant.failed
+            }
+        }
+
+        then:
+        instant.failed > instant.stopped
+    }
 }
@@ -34,8 +34,6 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.*;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Generates a subclass of the target class to mix-in some DSL behaviour.
@@ -51,7 +49,8 @@ import java.util.concurrent.locks.ReentrantLock;
  */
 public abstract class AbstractClassGenerator implements ClassGenerator {
     private static final Map<Class<?>, Map<Class<?>, Class<?>>> GENERATED_CLASSES = new HashMap<Class<?>, Map<Class<?>, Class<?>>>();
-    private static final Lock CACHE_LOCK = new ReentrantLock();
+    // Guards the generation of each type, so that different types can be generated concurrently. The lock objects do not reference the type.
+    private static final Map<Class<?>, Object> GENERATION_LOCKS = new WeakHashMap<Class<?>, Object>();
     private static final Collection<String> SKIP_PROPERTIES = Arrays.asList("class", "metaClass", "conventionMapping", "convention", "asDynamicObject", "extensions");
 
     public <T> T newInstance(Class<T> type, Object... parameters) {
@@ -59,28 +58,58 @@ public abstract class AbstractClassGenerator implements ClassGenerator {
     }
 
     public <T> Class<? extends T> generate(Class<T> type) {
-        try {
-            CACHE_LOCK.lock();
-            return generateUnderLock(type);
-        } finally {
-            CACHE_LOCK.unlock();
+        Map<Class<?>, Class<?>> cache = getCache();
+        Class<? extends T> generatedClass = getGenerated(cache, type);
+        if (generatedClass != null) {
+            return generatedClass;
+        }
+        synchronized (getGenerationLock(type)) {
+            generatedClass = getGenerated(cache, type);
+            if (generatedClass != null) {
+                return generatedClass;
+            }
+            generatedClass = generateUnderLock(type);
+            synchronized (GENERATED_CLASSES) {
+                cache.put(type, generatedClass);
+                cache.put(generatedClass, generatedClass);
+            }
+            return generatedClass;
         }
     }
 
-    private <T> Class<? extends T> generateUnderLock(Class<T> type) {
-        Map<Class<?>, Class<?>> cache = GENERATED_CLASSES.get(getClass());
-        if (cache == null) {
-            // WeakHashMap won't work here. It keeps a strong reference to the mapping value, which is the generated class in this case
-            // However, the generated class has a strong reference to the source class (by extending it), so the keys will always be
-            // strongly reachable while this Class is strongly reachable. Use weak references for both key and value of the mapping instead.
-            cache = new ReferenceMap(AbstractReferenceMap.WEAK, AbstractReferenceMap.WEAK);
-            GENERATED_CLASSES.put(getClass(), cache);
-        }
-        Class<?> generatedClass = cache.get(type);
-        if (generatedClass != null) {
-            return generatedClass.asSubclass(type);
+    private Map<Class<?>, Class<?>> getCache() {
+        synchronized (GENERATED_CLASSES) {
+            Map<Class<?>, Class<?>> cache = GENERATED_CLASSES.get(getClass());
+            if (cache == null) {
+                // WeakHashMap won't work here. It keeps a strong reference to the mapping value, which is the generated class in this case
+                // However, the generated class has a strong reference to the source class (by extending it), so the keys will always be
+                // strongly reachable while this Class is strongly reachable. Use weak references for both key and value of the mapping instead.
+                cache = new ReferenceMap(AbstractReferenceMap.WEAK, AbstractReferenceMap.WEAK);
+                GENERATED_CLASSES.put(getClass(), cache);
+            }
+            return cache;
         }
+    }
 
+    private static <T> Class<? extends T> getGenerated(Map<Class<?>, Class<?>> cache, Class<T> type) {
+        synchronized (GENERATED_CLASSES) {
+            Class<?> generatedClass = cache.get(type);
+            return generatedClass == null ? null : generatedClass.asSubclass(type);
+        }
+    }
+
+    private static Object getGenerationLock(Class<?> type) {
+        synchronized (GENERATION_LOCKS) {
+            Object lock = GENERATION_LOCKS.get(type);
+            if (lock == null) {
+                lock = new Object();
+                GENERATION_LOCKS.put(type, lock);
+            }
+            return lock;
+        }
+    }
+
+    private <T> Class<? extends T> generateUnderLock(Class<T> type) {
         if (Modifier.isPrivate(type.getModifiers())) {
             throw new GradleException(String.format("Cannot create a proxy class for private class '%s'.",
                     type.getSimpleName()));
@@ -90,7 +119,10 @@ public abstract class AbstractClassGenerator implements ClassGenerator {
                     type.getSimpleName()));
         }
 
-        Class<? extends T> subclass;
+        Class<? extends T> subclass = loadPreviouslyGenerated(type);
+        if (subclass != null) {
+            return subclass;
+        }
         try {
             ClassMetaData classMetaData = inspectType(type);
 
@@ -201,11 +233,17 @@ public abstract class AbstractClassGenerator implements ClassGenerator {
             throw new GradleException(String.format("Could not generate a proxy class for class %s.", type.getName()), e);
         }
 
-        cache.put(type, subclass);
-        cache.put(subclass, subclass);
         return subclass;
     }
 
+    /**
+     * Returns a class that was generated for the given type by an earlier generator instance, for example in another process, or null if there is none.
+     */
+    @Nullable
+    protected <T> Class<? extends T> loadPreviouslyGenerated(Class<T> type) {
+        return null;
+    }
+
     protected abstract <T> ClassBuilder<T> start(Class<T> type, ClassMetaData classMetaData);
 
     private ClassMetaData inspectType(Class<?> type) {
@@ -17,7 +17,10 @@ package org.gradle.api.internal;
 
 import com.google.common.collect.ImmutableSet;
 import groovy.lang.*;
+import org.gradle.api.Nullable;
 import org.gradle.api.Transformer;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
 import org.gradle.api.plugins.Convention;
 import org.gradle.api.plugins.ExtensionAware;
 import org.gradle.internal.UncheckedException;
@@ -44,11 +47,39 @@ import static org.objectweb.asm.Opcodes.V1_5;
 import static org.objectweb.asm.Type.VOID_TYPE;
 
 public class AsmBackedClassGenerator extends AbstractClassGenerator {
+    private static final Logger LOGGER = Logging.getLogger(AsmBackedClassGenerator.class);
     private static final JavaMethod<ClassLoader, Class> DEFINE_CLASS_METHOD = JavaReflectionUtil.method(ClassLoader.class, Class.class, "defineClass", String.class, byte[].class, Integer.TYPE, Integer.TYPE);
 
+    private final GeneratedClassCache generatedClassCache;
+
+    public AsmBackedClassGenerator() {
+        this(null);
+    }
+
+    public AsmBackedClassGenerator(@Nullable GeneratedClassCache generatedClassCache) {
+        this.generatedClassCache = generatedClassCache;
+    }
+
+    @Override
+    protected <T> Class<? extends T> loadPreviouslyGenerated(Class<T> type) {
+        if (generatedClassCache == null) {
+            return null;
+        }
+        byte[] bytecode = generatedClassCache.load(getClass(), type);
+        if (bytecode == null) {
+            return null;
+        }
+        try {
+            return DEFINE_CLASS_METHOD.invoke(type.getClassLoader(), ClassBuilderImpl.generatedTypeName(type), bytecode, 0, bytecode.length);
+        } catch (LinkageError e) {
+            LOGGER.debug("Ignoring cached class generated for {}.", type, e);
+            return null;
+        }
+    }
+
     @Override
     protected <T> ClassBuilder<T> start(Class<T> type, ClassMetaData classMetaData) {
-        return new ClassBuilderImpl<T>(type, classMetaData);
+        return new ClassBuilderImpl<T>(type, classMetaData, getClass(), generatedClassCache);
     }
 
     private static class ClassBuilderImpl<T> implements ClassBuilder<T> {
@@ -75,12 +106,16 @@ public class AsmBackedClassGenerator extends AbstractClassGenerator {
         private final boolean conventionAware;
         private final boolean extensible;
         private final boolean providesOwnDynamicObject;
+        private final Class<?> generator;
+        private final GeneratedClassCache generatedClassCache;
 
-        private ClassBuilderImpl(Class<T> type, ClassMetaData classMetaData) {
+        private ClassBuilderImpl(Class<T> type, ClassMetaData classMetaData, Class<?> generator, @Nullable GeneratedClassCache generatedClassCache) {
             this.type = type;
+            this.generator = generator;
+            this.generatedClassCache = generatedClassCache;
 
             visitor = new ClassWriter(ClassWriter.COMPUTE_MAXS);
-            typeName = type.getName() + "_Decorated";
+            typeName = generatedTypeName(type);
             generatedType = Type.getType("L" + typeName.replaceAll("\\.", "/") + ";");
             superclassType = Type.getType(type);
             extensible = classMetaData.isExtensible();
@@ -88,6 +123,10 @@ public class AsmBackedClassGenerator extends AbstractClassGenerator {
             providesOwnDynamicObject = classMetaData.providesDynamicObjectImplementation();
         }
 
+        static String generatedTypeName(Class<?> type) {
+            return type.getName() + "_Decorated";
+        }
+
         public void startClass() {
             List<String> interfaceTypes = new ArrayList<String>();
             if (conventionAware && extensible) {
@@ -898,7 +937,11 @@ public class AsmBackedClassGenerator extends AbstractClassGenerator {
             visitor.visitEnd();
 
             byte[] bytecode = visitor.toByteArray();
-            return DEFINE_CLASS_METHOD.invoke(type.getClassLoader(), typeName, bytecode, 0, bytecode.length);
+            Class<? extends T> generatedClass = DEFINE_CLASS_METHOD.invoke(type.getClassLoader(), typeName, bytecode, 0, bytecode.length);
+            if (generatedClassCache != null) {
+                generatedClassCache.store(generator, type, bytecode);
+            }
+            return generatedClass;
         }
     }
 
@@ -0,0 +1,288 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal;
+
+import com.google.common.collect.MapMaker;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Files;
+import org.gradle.api.Nullable;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.util.GFileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persists the bytecode of generated classes, so that a process can define the class generated for a type without generating it again.
+ *
+ * <p>An entry is keyed by a hash of the class files of the generator, of the type and all of its supertypes, and of the types in the
+ * signatures of their methods, so it is used only while none of these change. Types whose class files cannot be read from their class
+ * loader, such as types declared in build scripts, are not cached. The cache is not used until a cache directory has been set.</p>
+ *
+ * <p>The hashes are computed once per class and kept for as long as the class is loaded, so generating classes for many types that share
+ * supertypes reads and hashes each class file once.</p>
+ *
+ * <p>Entries that have not been used for {@value #MAX_UNUSED_DAYS} days are deleted when a cache directory is set, at most once a day.</p>
+ */
+public class GeneratedClassCache {
+    private static final Logger LOGGER = Logging.getLogger(GeneratedClassCache.class);
+    private static final int MAX_UNUSED_DAYS = 7;
+    private static final long MAX_UNUSED_MILLIS = TimeUnit.DAYS.toMillis(MAX_UNUSED_DAYS);
+    private static final long MARK_USED_INTERVAL_MILLIS = TimeUnit.DAYS.toMillis(1);
+    private static final long CLEANUP_INTERVAL_MILLIS = TimeUnit.DAYS.toMillis(1);
+    private static final long STALE_TMP_FILE_MILLIS = TimeUnit.HOURS.toMillis(1);
+    private static final String CLEANUP_MARKER = "cleanup.marker";
+
+    // hash of each generator, type and class file; empty when a class file cannot be read, as the type then cannot be cached
+    private final Map<Class<?>, String> generatorHashes = new MapMaker().weakKeys().makeMap();
+    private final Map<Class<?>, String> typeHashes = new MapMaker().weakKeys().makeMap();
+    private final Map<Class<?>, String> classFileHashes = new MapMaker().weakKeys().makeMap();
+    private volatile File cacheDir;
+
+    public void useCacheDir(File cacheDir) {
+        this.cacheDir = cacheDir;
+        cleanupIfDue(cacheDir);
+    }
+
+    /**
+     * Returns the bytecode that the given generator generated for the given type, or null if there is none.
+     */
+    @Nullable
+    public byte[] load(Class<?> generator, Class<?> type) {
+        File file = fileFor(generator, type);
+        if (file == null || !file.isFile()) {
+            return null;
+        }
+        try {
+            byte[] bytecode = Files.toByteArray(file);
+            markUsed(file);
+            return bytecode;
+        } catch (IOException e) {
+            LOGGER.debug("Ignoring generated class {} that cannot be read.", file, e);
+            return null;
+        }
+    }
+
+    public void store(Class<?> generator, Class<?> type, byte[] bytecode) {
+        File file = fileFor(generator, type);
+        if (file == null || file.isFile()) {
+            return;
+        }
+        File tmpFile = null;
+        try {
+            GFileUtils.mkdirs(file.getParentFile());
+            tmpFile = File.createTempFile(file.getName(), ".tmp", file.getParentFile());
+            Files.write(bytecode, tmpFile);
+            // entries are never changed, so another process may have written the same entry concurrently
+            if (!tmpFile.renameTo(file) && !file.isFile()) {
+                throw new IOException(String.format("Could not rename '%s' to '%s'.", tmpFile, file));
+            }
+        } catch (IOException e) {
+            LOGGER.debug("Could not store generated class for {}.", type, e);
+        } finally {
+            if (tmpFile != null) {
+                tmpFile.delete();
+            }
+        }
+    }
+
+    private static void markUsed(File file) {
+        long now = System.currentTimeMillis();
+        if (now - file.lastModified() > MARK_USED_INTERVAL_MILLIS) {
+            file.setLastModified(now);
+        }
+    }
+
+    private static void cleanupIfDue(File dir) {
+        File marker = new File(dir, CLEANUP_MARKER);
+        long now = System.currentTimeMillis();
+        if (now - marker.lastModified() < CLEANUP_INTERVAL_MILLIS) {
+            return;
+        }
+        try {
+            GFileUtils.touch(marker);
+        } catch (RuntimeException e) {
+            LOGGER.debug("Could not mark cleanup of generated classes in {}.", dir, e);
+            return;
+        }
+        File[] typeDirs = dir.listFiles();
+        if (typeDirs == null) {
+            return;
+        }
+        for (File typeDir : typeDirs) {
+            File[] entries = typeDir.listFiles();
+            if (entries == null) {
+                continue;
+            }
+            int deleted = 0;
+            for (File entry : entries) {
+                long age = now - entry.lastModified();
+                if (entry.getName().endsWith(".class") ? age > MAX_UNUSED_MILLIS : age > STALE_TMP_FILE_MILLIS) {
+                    if (entry.delete()) {
+                        deleted++;
+                    }
+                }
+            }
+            if (deleted == entries.length) {
+                typeDir.delete();
+            }
+        }
+    }
+
+    @Nullable
+    private File fileFor(Class<?> generator, Class<?> type) {
+        File dir = cacheDir;
+        if (dir == null) {
+            return null;
+        }
+        String generatorHash = generatorHashes.get(generator);
+        if (generatorHash == null) {
+            Hasher hasher = Hashing.md5().newHasher();
+            generatorHash = hashGenerator(generator, hasher) ? hasher.hash().toString() : "";
+            generatorHashes.put(generator, generatorHash);
+        }
+        String typeHash = typeHashes.get(type);
+        if (typeHash == null) {
+            Hasher hasher = Hashing.md5().newHasher();
+            typeHash = hashType(type, hasher) ? hasher.hash().toString() : "";
+            typeHashes.put(type, typeHash);
+        }
+        if (generatorHash.length() == 0 || typeHash.length() == 0) {
+            return null;
+        }
+        String hash = Hashing.md5().newHasher().putUnencodedChars(generatorHash).putUnencodedChars(typeHash).hash().toString();
+        return new File(dir, type.getName() + "/" + hash + ".class");
+    }
+
+    private boolean hashGenerator(Class<?> generator, Hasher hasher) {
+        for (Class<?> current = generator; current != null && current != Object.class; current = current.getSuperclass()) {
+            if (!hashClassFile(current, hasher)) {
+                return false;
+            }
+            for (Class<?> nested : current.getDeclaredClasses()) {
+                if (!hashClassFile(nested, hasher)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Hashes the class files of the type and its supertypes, and of the types used in the signatures of their methods along with the
+     * supertypes of those. The generated class depends on the latter too, for example on whether a parameter type is an {@link org.gradle.api.Action}.
+     */
+    private boolean hashType(Class<?> type, Hasher hasher) {
+        Set<Class<?>> hierarchy = new LinkedHashSet<Class<?>>();
+        collectHierarchy(type, hierarchy);
+        for (Class<?> current : hierarchy) {
+            if (!hashClassFile(current, hasher)) {
+                return false;
+            }
+        }
+
+        // the order of declared methods is not defined, so sort the signature types to get a stable hash
+        Map<String, Class<?>> signatureTypes = new TreeMap<String, Class<?>>();
+        for (Class<?> current : hierarchy) {
+            for (Method method : current.getDeclaredMethods()) {
+                collectSignatureType(method.getReturnType(), hierarchy, signatureTypes);
+                for (Class<?> parameterType : method.getParameterTypes()) {
+                    collectSignatureType(parameterType, hierarchy, signatureTypes);
+                }
+            }
+        }
+        for (Class<?> signatureType : signatureTypes.values()) {
+            if (!hashClassFile(signatureType, hasher)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void collectSignatureType(Class<?> type, Set<Class<?>> hierarchy, Map<String, Class<?>> signatureTypes) {
+        while (type.isArray()) {
+            type = type.getComponentType();
+        }
+        if (type.isPrimitive() || hierarchy.contains(type) || signatureTypes.containsKey(type.getName())) {
+            return;
+        }
+        Set<Class<?>> supertypes = new LinkedHashSet<Class<?>>();
+        collectHierarchy(type, supertypes);
+        for (Class<?> supertype : supertypes) {
+            if (!hierarchy.contains(supertype)) {
+                signatureTypes.put(supertype.getName(), supertype);
+            }
+        }
+    }
+
+    private static void collectHierarchy(Class<?> type, Set<Class<?>> hierarchy) {
+        if (!hierarchy.add(type)) {
+            return;
+        }
+        if (type.getSuperclass() != null) {
+            collectHierarchy(type.getSuperclass(), hierarchy);
+        }
+        for (Class<?> superInterface : type.getInterfaces()) {
+            collectHierarchy(superInterface, hierarchy);
+        }
+    }
+
+    private boolean hashClassFile(Class<?> type, Hasher hasher) {
+        hasher.putUnencodedChars(type.getName());
+        ClassLoader classLoader = type.getClassLoader();
+        if (classLoader == null) {
+            // a JDK class
+            return true;
+        }
+        String hash = classFileHashes.get(type);
+        if (hash == null) {
+            hash = readClassFileHash(type, classLoader);
+            classFileHashes.put(type, hash);
+        }
+        if (hash.length() == 0) {
+            return false;
+        }
+        hasher.putUnencodedChars(hash);
+        return true;
+    }
+
+    private static String readClassFileHash(Class<?> type, ClassLoader classLoader) {
+        InputStream inputStream = classLoader.getResourceAsStream(type.getName().replace('.', '/') + ".class");
+        if (inputStream == null) {
+            return "";
+        }
+        try {
+            try {
+                return Hashing.md5().hashBytes(ByteStreams.toByteArray(inputStream)).toString();
+            } finally {
+                inputStream.close();
+            }
+        } catch (IOException e) {
+            return "";
+        }
+    }
+}
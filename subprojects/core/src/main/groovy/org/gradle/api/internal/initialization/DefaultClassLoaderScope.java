@@ -138,13 +138,13 @@ public class DefaultClassLoaderScope implements ClassLoaderScope {
     }
 
     @Override
-    public ClassLoader getExportClassLoader() {
+    public synchronized ClassLoader getExportClassLoader() {
         buildEffectiveLoaders();
         return effectiveExportClassLoader;
     }
 
     @Override
-    public ClassLoader getLocalClassLoader() {
+    public synchronized ClassLoader getLocalClassLoader() {
         buildEffectiveLoaders();
         return effectiveLocalClassLoader;
     }
@@ -155,7 +155,7 @@ public class DefaultClassLoaderScope implements ClassLoaderScope {
     }
 
     @Override
-    public boolean defines(Class<?> clazz) {
+    public synchronized boolean defines(Class<?> clazz) {
         if (ownLoaders != null) {
             for (ClassLoader ownLoader : ownLoaders) {
                 if (ownLoader.equals(clazz.getClassLoader())) {
@@ -176,7 +176,7 @@ public class DefaultClassLoaderScope implements ClassLoaderScope {
     }
 
     @Override
-    public ClassLoaderScope local(ClassPath classPath) {
+    public synchronized ClassLoaderScope local(ClassPath classPath) {
         if (classPath.isEmpty()) {
             return this;
         }
@@ -193,7 +193,7 @@ public class DefaultClassLoaderScope implements ClassLoaderScope {
     }
 
     @Override
-    public ClassLoaderScope export(ClassPath classPath) {
+    public synchronized ClassLoaderScope export(ClassPath classPath) {
         if (classPath.isEmpty()) {
             return this;
         }
@@ -209,7 +209,7 @@ public class DefaultClassLoaderScope implements ClassLoaderScope {
     }
 
     @Override
-    public ClassLoaderScope export(ClassLoader classLoader) {
+    public synchronized ClassLoaderScope export(ClassLoader classLoader) {
         assertNotLocked();
         if (exportingClassLoader != null) {
             exportingClassLoader.addParent(classLoader);
@@ -238,13 +238,13 @@ public class DefaultClassLoaderScope implements ClassLoaderScope {
     }
 
     @Override
-    public ClassLoaderScope lock() {
+    public synchronized ClassLoaderScope lock() {
         locked = true;
         return this;
     }
 
     @Override
-    public boolean isLocked() {
+    public synchronized boolean isLocked() {
         return locked;
     }
 }
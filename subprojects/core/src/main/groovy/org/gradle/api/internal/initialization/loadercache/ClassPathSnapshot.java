@@ -16,10 +16,20 @@
 
 package org.gradle.api.internal.initialization.loadercache;
 
+import org.gradle.api.Nullable;
+import org.gradle.internal.hash.HashValue;
+
 /**
  * Represents the snapshot of given classpath
  */
 public interface ClassPathSnapshot {
+    /**
+     * Returns a hash of the content of the class path, which is the same for class paths with the same content in different locations,
+     * or null if the content of the class path is not known.
+     */
+    @Nullable
+    HashValue getContentHash();
+
     boolean equals(Object other);
     int hashCode();
 }
@@ -23,16 +23,26 @@ import com.google.common.collect.Maps;
 import com.google.common.collect.Multiset;
 import org.gradle.api.Nullable;
 import org.gradle.internal.classloader.FilteringClassLoader;
-import org.gradle.internal.classloader.MutableURLClassLoader;
 import org.gradle.internal.classpath.ClassPath;
+import org.gradle.internal.hash.HashValue;
 
+import java.util.Iterator;
 import java.util.Map;
 
+/**
+ * Caches class loaders by the parent and the snapshot of the class path of each class loader. Class paths that have the same content but are in
+ * different locations share a class loader, when the snapshotter knows the content of class paths.
+ *
+ * <p>The class path of a shared class loader is snapshotted again each time the class loader is about to be shared, outside of the lock. When the
+ * files have changed since the class loader was created, the class loader is no longer shared: class paths that were sharing it get a class loader
+ * of their own the next time they are requested.</p>
+ */
 public class DefaultClassLoaderCache implements ClassLoaderCache {
 
     private final Object lock = new Object();
     private final Map<ClassLoaderId, CachedClassLoader> byId = Maps.newHashMap();
     private final Map<ClassLoaderSpec, CachedClassLoader> bySpec = Maps.newHashMap();
+    private final Map<ContentKey, CachedClassLoader> byContent = Maps.newHashMap();
     private final ClassPathSnapshotter snapshotter;
 
     public DefaultClassLoaderCache(ClassPathSnapshotter snapshotter) {
@@ -43,19 +53,70 @@ public class DefaultClassLoaderCache implements ClassLoaderCache {
         ClassPathSnapshot classPathSnapshot = snapshotter.snapshot(classPath);
         ClassLoaderSpec spec = new ClassLoaderSpec(parent, classPathSnapshot, filterSpec);
 
-        synchronized (lock) {
-            CachedClassLoader cachedLoader = byId.get(id);
-            if (cachedLoader == null || !cachedLoader.is(spec)) {
-                CachedClassLoader newLoader = getAndRetainLoader(classPath, spec, id);
-                byId.put(id, newLoader);
-
-                if (cachedLoader != null) {
-                    cachedLoader.release(id);
+        CachedClassLoader validatedOwner = null;
+        while (true) {
+            CachedClassLoader owner;
+            synchronized (lock) {
+                owner = sharedOwnerFor(spec);
+                if (owner == null || owner == validatedOwner) {
+                    return getFromCache(id, classPath, spec);
                 }
+            }
+            // Snapshotting may need to hash the files of the class path, so do it without holding the lock
+            boolean unchanged = snapshotter.snapshot(owner.classPath).equals(owner.spec.classPathSnapshot);
+            synchronized (lock) {
+                if (!unchanged) {
+                    stopSharing(owner);
+                }
+            }
+            validatedOwner = owner;
+        }
+    }
 
-                return newLoader.classLoader;
-            } else {
-                return cachedLoader.classLoader;
+    private ClassLoader getFromCache(ClassLoaderId id, ClassPath classPath, ClassLoaderSpec spec) {
+        CachedClassLoader cachedLoader = byId.get(id);
+        if (cachedLoader == null || !cachedLoader.is(spec) || cachedLoader.stale) {
+            CachedClassLoader newLoader = getAndRetainLoader(classPath, spec, id);
+            byId.put(id, newLoader);
+
+            if (cachedLoader != null) {
+                cachedLoader.release(id);
+            }
+
+            return newLoader.classLoader;
+        } else {
+            return cachedLoader.classLoader;
+        }
+    }
+
+    /**
+     * Returns the cached class loader whose class loader would be shared for the given spec, if any.
+     */
+    @Nullable
+    private CachedClassLoader sharedOwnerFor(ClassLoaderSpec spec) {
+        ClassLoaderSpec unfiltered = spec.unfiltered();
+        CachedClassLoader cachedLoader = bySpec.get(unfiltered);
+        if (cachedLoader != null) {
+            return cachedLoader.parent;
+        }
+        ContentKey contentKey = unfiltered.contentKey();
+        return contentKey == null ? null : byContent.get(contentKey);
+    }
+
+    /**
+     * Stops sharing the class loader of the given cached class loader, whose files have changed. The class paths that share it are evicted, so that
+     * they get their own class loader the next time they are requested.
+     */
+    private void stopSharing(CachedClassLoader owner) {
+        ContentKey contentKey = owner.spec.contentKey();
+        if (contentKey != null && byContent.get(contentKey) == owner) {
+            byContent.remove(contentKey);
+        }
+        for (Iterator<CachedClassLoader> iterator = bySpec.values().iterator(); iterator.hasNext();) {
+            CachedClassLoader cachedLoader = iterator.next();
+            if (cachedLoader.sharesLoaderOf(owner)) {
+                cachedLoader.stale = true;
+                iterator.remove();
             }
         }
     }
@@ -74,20 +135,42 @@ public class DefaultClassLoaderCache implements ClassLoaderCache {
         CachedClassLoader cachedLoader = bySpec.get(spec);
         if (cachedLoader == null) {
             ClassLoader classLoader;
-            CachedClassLoader parentCachedLoader = null;
+            CachedClassLoader parentCachedLoader;
             if (spec.isFiltered()) {
                 parentCachedLoader = getAndRetainLoader(classPath, spec.unfiltered(), id);
                 classLoader = new FilteringClassLoader(parentCachedLoader.classLoader, spec.filterSpec);
             } else {
-                classLoader = new MutableURLClassLoader(spec.parent, classPath);
+                parentCachedLoader = getAndRetainLoaderWithSameContent(spec, id);
+                if (parentCachedLoader != null) {
+                    classLoader = parentCachedLoader.classLoader;
+                } else {
+                    classLoader = new LoadedClassCountingClassLoader(spec.parent, classPath);
+                }
             }
-            cachedLoader = new CachedClassLoader(classLoader, spec, parentCachedLoader);
+            cachedLoader = new CachedClassLoader(classLoader, spec, classPath, parentCachedLoader);
             bySpec.put(spec, cachedLoader);
+            ContentKey contentKey = spec.contentKey();
+            if (parentCachedLoader == null && contentKey != null) {
+                byContent.put(contentKey, cachedLoader);
+            }
         }
 
         return cachedLoader.retain(id);
     }
 
+    @Nullable
+    private CachedClassLoader getAndRetainLoaderWithSameContent(ClassLoaderSpec spec, ClassLoaderId id) {
+        ContentKey contentKey = spec.contentKey();
+        if (contentKey == null) {
+            return null;
+        }
+        CachedClassLoader cachedLoader = byContent.get(contentKey);
+        if (cachedLoader == null) {
+            return null;
+        }
+        return cachedLoader.retain(id);
+    }
+
     @Override
     public int size() {
         synchronized (lock) {
@@ -95,6 +178,68 @@ public class DefaultClassLoaderCache implements ClassLoaderCache {
         }
     }
 
+    /**
+     * Returns the number of class loaders created by this cache and the classes they have loaded, and the class paths that share one of these class
+     * loaders with a class path in a different location.
+     */
+    public Statistics getStatistics() {
+        synchronized (lock) {
+            int classLoaders = 0;
+            int loadedClasses = 0;
+            int sharedClassPaths = 0;
+            int classesNotLoadedAgain = 0;
+            for (CachedClassLoader cachedLoader : bySpec.values()) {
+                if (cachedLoader.classLoader instanceof LoadedClassCountingClassLoader) {
+                    int count = ((LoadedClassCountingClassLoader) cachedLoader.classLoader).getLoadedClassCount();
+                    if (cachedLoader.parent == null) {
+                        classLoaders++;
+                        loadedClasses += count;
+                    } else if (!cachedLoader.spec.isFiltered()) {
+                        sharedClassPaths++;
+                        classesNotLoadedAgain += count;
+                    }
+                }
+            }
+            return new Statistics(classLoaders, loadedClasses, sharedClassPaths, classesNotLoadedAgain);
+        }
+    }
+
+    public static class Statistics {
+        private final int classLoaders;
+        private final int loadedClasses;
+        private final int sharedClassPaths;
+        private final int classesNotLoadedAgain;
+
+        Statistics(int classLoaders, int loadedClasses, int sharedClassPaths, int classesNotLoadedAgain) {
+            this.classLoaders = classLoaders;
+            this.loadedClasses = loadedClasses;
+            this.sharedClassPaths = sharedClassPaths;
+            this.classesNotLoadedAgain = classesNotLoadedAgain;
+        }
+
+        public int getClassLoaders() {
+            return classLoaders;
+        }
+
+        public int getLoadedClasses() {
+            return loadedClasses;
+        }
+
+        /**
+         * The number of class paths that use the class loader of a class path with the same content in a different location.
+         */
+        public int getSharedClassPaths() {
+            return sharedClassPaths;
+        }
+
+        /**
+         * The number of classes that would have been loaded again, had each of the shared class paths had its own class loader.
+         */
+        public int getClassesNotLoadedAgain() {
+            return classesNotLoadedAgain;
+        }
+    }
+
     private static class ClassLoaderSpec {
         private final ClassLoader parent;
         private final ClassPathSnapshot classPathSnapshot;
@@ -114,6 +259,15 @@ public class DefaultClassLoaderCache implements ClassLoaderCache {
             return filterSpec != null;
         }
 
+        @Nullable
+        public ContentKey contentKey() {
+            HashValue contentHash = classPathSnapshot.getContentHash();
+            if (isFiltered() || contentHash == null) {
+                return null;
+            }
+            return new ContentKey(parent, contentHash);
+        }
+
         @SuppressWarnings("EqualsWhichDoesntCheckParameterClass")
         @Override
         public boolean equals(Object o) {
@@ -132,15 +286,41 @@ public class DefaultClassLoaderCache implements ClassLoaderCache {
         }
     }
 
+    private static class ContentKey {
+        private final ClassLoader parent;
+        private final HashValue contentHash;
+
+        public ContentKey(ClassLoader parent, HashValue contentHash) {
+            this.parent = parent;
+            this.contentHash = contentHash;
+        }
+
+        @SuppressWarnings("EqualsWhichDoesntCheckParameterClass")
+        @Override
+        public boolean equals(Object o) {
+            ContentKey that = (ContentKey) o;
+            return Objects.equal(this.parent, that.parent) && this.contentHash.equals(that.contentHash);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * contentHash.hashCode() + (parent != null ? parent.hashCode() : 0);
+        }
+    }
+
     private class CachedClassLoader {
         private final ClassLoader classLoader;
         private final ClassLoaderSpec spec;
+        private final ClassPath classPath;
         private final CachedClassLoader parent;
         private final Multiset<ClassLoaderId> usedBy = HashMultiset.create();
+        // Set when the class loader it shares is no longer shared, as its files have changed
+        private boolean stale;
 
-        private CachedClassLoader(ClassLoader classLoader, ClassLoaderSpec spec, @Nullable CachedClassLoader parent) {
+        private CachedClassLoader(ClassLoader classLoader, ClassLoaderSpec spec, ClassPath classPath, @Nullable CachedClassLoader parent) {
             this.classLoader = classLoader;
             this.spec = spec;
+            this.classPath = classPath;
             this.parent = parent;
         }
 
@@ -148,6 +328,18 @@ public class DefaultClassLoaderCache implements ClassLoaderCache {
             return this.spec.equals(spec);
         }
 
+        /**
+         * Returns true if this is, or filters, a class path that shares the class loader of the given cached class loader.
+         */
+        public boolean sharesLoaderOf(CachedClassLoader owner) {
+            for (CachedClassLoader current = this; current != null; current = current.parent) {
+                if (current.parent == owner && !current.spec.isFiltered()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
         public CachedClassLoader retain(ClassLoaderId loaderId) {
             usedBy.add(loaderId);
             return this;
@@ -163,7 +355,13 @@ public class DefaultClassLoaderCache implements ClassLoaderCache {
                     if (parent != null) {
                         parent.release(loaderId);
                     }
-                    bySpec.remove(spec);
+                    if (bySpec.get(spec) == this) {
+                        bySpec.remove(spec);
+                    }
+                    ContentKey contentKey = spec.contentKey();
+                    if (contentKey != null && byContent.get(contentKey) == this) {
+                        byContent.remove(contentKey);
+                    }
                 }
             } else {
                 throw new IllegalStateException("Classloader '" + this + "' not used by '" + loaderId + "'");
@@ -177,7 +375,7 @@ public class DefaultClassLoaderCache implements ClassLoaderCache {
         synchronized (lock) {
             Map<ClassLoaderId, CachedClassLoader> orphaned = Maps.newHashMap();
             for (Map.Entry<ClassLoaderId, CachedClassLoader> entry : byId.entrySet()) {
-                if (!bySpec.containsKey(entry.getValue().spec)) {
+                if (!entry.getValue().stale && !bySpec.containsKey(entry.getValue().spec)) {
                     orphaned.put(entry.getKey(), entry.getValue());
                 }
             }
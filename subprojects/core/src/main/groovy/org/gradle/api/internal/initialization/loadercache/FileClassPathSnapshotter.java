@@ -17,6 +17,7 @@
 package org.gradle.api.internal.initialization.loadercache;
 
 import org.gradle.internal.classpath.ClassPath;
+import org.gradle.internal.hash.HashValue;
 
 /**
  * Creates snapshot based on file paths.
@@ -32,6 +33,9 @@ public class FileClassPathSnapshotter implements ClassPathSnapshotter {
             assert classPath != null;
             this.classPath = classPath;
         }
+        public HashValue getContentHash() {
+            return null;
+        }
         public boolean equals(Object o) {
             if (this == o) {
                 return true;
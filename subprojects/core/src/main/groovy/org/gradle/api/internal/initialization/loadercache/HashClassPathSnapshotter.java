@@ -16,20 +16,25 @@
 
 package org.gradle.api.internal.initialization.loadercache;
 
-import com.google.common.collect.Iterators;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import org.gradle.api.internal.changedetection.state.FileSnapshotter;
 import org.gradle.cache.CacheAccess;
 import org.gradle.internal.classpath.ClassPath;
+import org.gradle.internal.hash.HashValue;
 import org.gradle.util.GFileUtils;
 
 import java.io.File;
-import java.util.Iterator;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
-import java.util.zip.Adler32;
 
+/**
+ * Creates snapshots based on file paths and file contents. The content hash of a snapshot does not depend on the location of the class path:
+ * it covers the content of each file, and the path of each file relative to the class path directory that contains it.
+ */
 public class HashClassPathSnapshotter implements ClassPathSnapshotter {
 
     private final FileSnapshotter fileSnapshotter;
@@ -45,42 +50,52 @@ public class HashClassPathSnapshotter implements ClassPathSnapshotter {
         final Set<File> visitedDirs = Sets.newLinkedHashSet();
         final List<File> cpFiles = classPath.getAsFiles();
 
-        final Adler32 checksum = new Adler32();
+        final Hasher hasher = Hashing.md5().newHasher();
         cacheAccess.useCache("Snapshot classpath", new Runnable() {
             @Override
             public void run() {
-                hash(checksum, visitedFilePaths, visitedDirs, cpFiles.iterator());
+                for (File file : cpFiles) {
+                    hash(hasher, visitedFilePaths, visitedDirs, GFileUtils.canonicalise(file), null);
+                }
             }
         });
-        return new ClassPathSnapshotImpl(visitedFilePaths, checksum.getValue());
+        return new ClassPathSnapshotImpl(visitedFilePaths, new HashValue(hasher.hash().asBytes()));
     }
 
-    private void hash(Adler32 combinedHash, List<String> visitedFilePaths, Set<File> visitedDirs, Iterator<File> toHash) {
-        while (toHash.hasNext()) {
-            File file = GFileUtils.canonicalise(toHash.next());
-            if (file.isDirectory()) {
-                if (visitedDirs.add(file)) {
-                    //in theory, awkward symbolic links can lead to recursion problems.
-                    //TODO - figure out a way to test it. I only tested it 'manually' and the feature is needed.
-                    hash(combinedHash, visitedFilePaths, visitedDirs, Iterators.forArray(file.listFiles()));
+    private void hash(Hasher hasher, List<String> visitedFilePaths, Set<File> visitedDirs, File file, String relativePath) {
+        if (file.isDirectory()) {
+            if (visitedDirs.add(file)) {
+                //in theory, awkward symbolic links can lead to recursion problems.
+                //TODO - figure out a way to test it. I only tested it 'manually' and the feature is needed.
+                File[] children = file.listFiles();
+                Arrays.sort(children);
+                for (File child : children) {
+                    String childPath = relativePath == null ? child.getName() : relativePath + "/" + child.getName();
+                    hash(hasher, visitedFilePaths, visitedDirs, GFileUtils.canonicalise(child), childPath);
                 }
-            } else if (file.isFile()) {
-                visitedFilePaths.add(file.getAbsolutePath());
-                combinedHash.update(fileSnapshotter.snapshot(file).getHash());
             }
-            //else an empty folder - a legit situation
+        } else if (file.isFile()) {
+            visitedFilePaths.add(file.getAbsolutePath());
+            hasher.putUnencodedChars(relativePath == null ? "" : relativePath);
+            hasher.putBytes(fileSnapshotter.snapshot(file).getHash());
         }
+        //else an empty folder - a legit situation
     }
 
     private static class ClassPathSnapshotImpl implements ClassPathSnapshot {
         private final List<String> files;
-        private final long hash;
+        private final HashValue contentHash;
 
-        public ClassPathSnapshotImpl(List<String> files, long hash) {
+        public ClassPathSnapshotImpl(List<String> files, HashValue contentHash) {
             assert files != null;
 
             this.files = files;
-            this.hash = hash;
+            this.contentHash = contentHash;
+        }
+
+        @Override
+        public HashValue getContentHash() {
+            return contentHash;
         }
 
         @Override
@@ -94,13 +109,13 @@ public class HashClassPathSnapshotter implements ClassPathSnapshotter {
 
             ClassPathSnapshotImpl that = (ClassPathSnapshotImpl) o;
 
-            return hash == that.hash && files.equals(that.files);
+            return contentHash.equals(that.contentHash) && files.equals(that.files);
         }
 
         @Override
         public int hashCode() {
             int result = files.hashCode();
-            result = 31 * result + (int) (hash ^ (hash >>> 32));
+            result = 31 * result + contentHash.hashCode();
             return result;
         }
     }
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.initialization.loadercache;
+
+import org.gradle.internal.classloader.MutableURLClassLoader;
+import org.gradle.internal.classpath.ClassPath;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A class loader that counts the classes it defines.
+ */
+class LoadedClassCountingClassLoader extends MutableURLClassLoader {
+    private final AtomicInteger loadedClasses = new AtomicInteger();
+
+    LoadedClassCountingClassLoader(ClassLoader parent, ClassPath classPath) {
+        super(parent, classPath);
+    }
+
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+        Class<?> type = super.findClass(name);
+        loadedClasses.incrementAndGet();
+        return type;
+    }
+
+    public int getLoadedClassCount() {
+        return loadedClasses.get();
+    }
+}
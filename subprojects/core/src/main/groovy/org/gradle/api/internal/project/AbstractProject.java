@@ -276,6 +276,7 @@ public abstract class AbstractProject extends AbstractPluginAware implements Pro
     }
 
     public ProjectInternal getRootProject() {
+        ProjectConfigurationConflicts.beforeAccessing(rootProject);
         return rootProject;
     }
 
@@ -318,6 +319,7 @@ public abstract class AbstractProject extends AbstractPluginAware implements Pro
     }
 
     public ProjectInternal getParent() {
+        ProjectConfigurationConflicts.beforeAccessing(parent);
         return parent;
     }
 
@@ -351,7 +353,7 @@ public abstract class AbstractProject extends AbstractPluginAware implements Pro
         } else if (this == rootProject) {
             return "";
         }
-        return rootProject.getName() + (getParent() == rootProject ? "" : "." + getParent().getPath().substring(1).replace(':', '.'));
+        return rootProject.getName() + (parent == rootProject ? "" : "." + parent.getPath().substring(1).replace(':', '.'));
     }
 
     public void setGroup(Object group) {
@@ -484,7 +486,9 @@ public abstract class AbstractProject extends AbstractPluginAware implements Pro
         if (!isTrue(path)) {
             throw new InvalidUserDataException("A path must be specified!");
         }
-        return getProjectRegistry().getProject(absoluteProjectPath(path));
+        ProjectInternal project = getProjectRegistry().getProject(absoluteProjectPath(path));
+        ProjectConfigurationConflicts.beforeAccessing(project);
+        return project;
     }
 
     public Set<Project> getAllprojects() {
@@ -505,6 +509,7 @@ public abstract class AbstractProject extends AbstractPluginAware implements Pro
 
     public <T> Iterable<T> configure(Iterable<T> objects, Action<? super T> configureAction) {
         for (T object : objects) {
+            ProjectConfigurationConflicts.beforeAccessing(object);
             configureAction.execute(object);
         }
         return objects;
@@ -593,7 +598,7 @@ public abstract class AbstractProject extends AbstractPluginAware implements Pro
     }
 
     private Project evaluationDependsOn(DefaultProject projectToEvaluate) {
-        if (projectToEvaluate.getState().getExecuting()) {
+        if (projectToEvaluate.getState().isExecutingInCurrentThread()) {
             throw new CircularReferenceException(String.format("Circular referencing during evaluation for %s.",
                 projectToEvaluate));
         }
@@ -865,6 +870,7 @@ public abstract class AbstractProject extends AbstractPluginAware implements Pro
     }
 
     public Object configure(Object object, Closure configureClosure) {
+        ProjectConfigurationConflicts.beforeAccessing(object);
         return ConfigureUtil.configure(configureClosure, object);
     }
 
@@ -1006,7 +1012,7 @@ public abstract class AbstractProject extends AbstractPluginAware implements Pro
     public void model(Closure<?> modelRules) {
         ModelRegistry modelRegistry = getModelRegistry();
         if (TransformedModelDslBacking.isTransformedBlock(modelRules)) {
-            ClosureBackedAction.execute(new TransformedModelDslBacking(modelRegistry, this.getRootProject().getFileResolver()), modelRules);
+            ClosureBackedAction.execute(new TransformedModelDslBacking(modelRegistry, rootProject.getFileResolver()), modelRules);
         } else {
             new NonTransformedModelDslBacking(modelRegistry).configure(modelRules);
         }
@@ -0,0 +1,221 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.project;
+
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.UncheckedException;
+
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.Set;
+
+/**
+ * Coordinates the threads that configure the projects of a build in parallel, so that a project that reaches into another project is configured serially.
+ *
+ * <p>A project may safely configure itself and its descendants, as these are configured after it. A project that looks up any other project, for example
+ * its parent, the root project or a sibling using {@code project(':other')}, may touch objects that belong to a project configured at the same time by
+ * another thread. Domain object containers are not thread-safe, so from that point on the project is configured serially: its thread waits until no
+ * other project is being configured, and no other project starts being configured until it is done.</p>
+ *
+ * <p>A thread that waits for a project being evaluated by another thread, see {@link #suspend()}, lets the other projects be configured while it waits.</p>
+ *
+ * <p>Objects of another project reached without looking up that project, for example through a closure or a property of an ancestor, are not
+ * detected.</p>
+ */
+public class ProjectConfigurationConflicts {
+    private static final Logger LOGGER = Logging.getLogger(ProjectConfigurationConflicts.class);
+    private static final ThreadLocal<ProjectConfigurationConflicts> CURRENT = new ThreadLocal<ProjectConfigurationConflicts>();
+    private static final ThreadLocal<ProjectInternal> EVALUATING = new ThreadLocal<ProjectInternal>();
+
+    private final Object lock = new Object();
+    // Threads configuring a project in parallel with other threads
+    private final Set<Thread> running = new HashSet<Thread>();
+    // Threads configuring a project serially, whether configuring, waiting for their turn or suspended
+    private final Set<Thread> serial = new HashSet<Thread>();
+    // Serial threads waiting for their turn
+    private final LinkedList<Thread> queued = new LinkedList<Thread>();
+    // Parallel threads waiting for a project being evaluated by another thread
+    private final Set<Thread> suspended = new HashSet<Thread>();
+    private Thread owner;
+
+    /**
+     * Configures the given project in the current thread, in parallel with the other projects until it reaches into another project.
+     */
+    public void configure(ProjectInternal project) {
+        CURRENT.set(this);
+        try {
+            start();
+            try {
+                project.evaluate();
+            } finally {
+                finish();
+            }
+        } finally {
+            CURRENT.remove();
+        }
+    }
+
+    private void start() {
+        Thread current = Thread.currentThread();
+        synchronized (lock) {
+            while (!serial.isEmpty()) {
+                await();
+            }
+            running.add(current);
+        }
+    }
+
+    private void finish() {
+        Thread current = Thread.currentThread();
+        synchronized (lock) {
+            running.remove(current);
+            serial.remove(current);
+            queued.remove(current);
+            suspended.remove(current);
+            if (owner == current) {
+                owner = null;
+            }
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Marks the given project as being evaluated by the current thread.
+     *
+     * @return the project that was previously being evaluated by the current thread, to pass to {@link #finishEvaluating(ProjectInternal)}.
+     */
+    public static ProjectInternal startEvaluating(ProjectInternal project) {
+        ProjectInternal previous = EVALUATING.get();
+        EVALUATING.set(project);
+        return previous;
+    }
+
+    public static void finishEvaluating(ProjectInternal previous) {
+        if (previous == null) {
+            EVALUATING.remove();
+        } else {
+            EVALUATING.set(previous);
+        }
+    }
+
+    /**
+     * Called before the current thread accesses the given object. When the object is a project outside of the project being evaluated and
+     * its descendants, the rest of the configuration of that project is done serially.
+     */
+    public static void beforeAccessing(Object target) {
+        ProjectConfigurationConflicts conflicts = CURRENT.get();
+        if (conflicts == null || !(target instanceof ProjectInternal)) {
+            return;
+        }
+        ProjectInternal source = EVALUATING.get();
+        if (source != null && isSameOrDescendant((ProjectInternal) target, source)) {
+            return;
+        }
+        conflicts.configureSerially(source, (ProjectInternal) target);
+    }
+
+    private static boolean isSameOrDescendant(ProjectInternal project, ProjectInternal ancestor) {
+        String path = project.getPath();
+        String ancestorPath = ancestor.getPath();
+        return path.equals(ancestorPath) || path.startsWith(ancestorPath.endsWith(":") ? ancestorPath : ancestorPath + ":");
+    }
+
+    private void configureSerially(ProjectInternal source, ProjectInternal target) {
+        Thread current = Thread.currentThread();
+        synchronized (lock) {
+            if (serial.contains(current)) {
+                return;
+            }
+            LOGGER.info("{} accesses {} while projects are configured in parallel, configuring it serially.", source == null ? "Project configuration" : source, target);
+            running.remove(current);
+            serial.add(current);
+            queued.addLast(current);
+            lock.notifyAll();
+            awaitTurn();
+        }
+    }
+
+    /**
+     * Called before the current thread waits for a project being evaluated by another thread. Lets the other projects be configured while the current
+     * thread waits. Must be followed by {@link #resume()} once the wait is over.
+     */
+    public static void suspend() {
+        ProjectConfigurationConflicts conflicts = CURRENT.get();
+        if (conflicts != null) {
+            conflicts.doSuspend();
+        }
+    }
+
+    /**
+     * Called after the current thread has waited for a project being evaluated by another thread. Waits until the current thread may carry on configuring
+     * its project.
+     */
+    public static void resume() {
+        ProjectConfigurationConflicts conflicts = CURRENT.get();
+        if (conflicts != null) {
+            conflicts.doResume();
+        }
+    }
+
+    private void doSuspend() {
+        Thread current = Thread.currentThread();
+        synchronized (lock) {
+            if (owner == current) {
+                owner = null;
+            } else if (running.remove(current)) {
+                suspended.add(current);
+            }
+            lock.notifyAll();
+        }
+    }
+
+    private void doResume() {
+        Thread current = Thread.currentThread();
+        synchronized (lock) {
+            if (serial.contains(current)) {
+                if (owner != current) {
+                    // Carry on before the projects that have not yet had their turn
+                    queued.addFirst(current);
+                    awaitTurn();
+                }
+            } else if (suspended.remove(current)) {
+                while (owner != null || !queued.isEmpty()) {
+                    await();
+                }
+                running.add(current);
+            }
+        }
+    }
+
+    private void awaitTurn() {
+        Thread current = Thread.currentThread();
+        while (queued.getFirst() != current || owner != null || !running.isEmpty()) {
+            await();
+        }
+        queued.removeFirst();
+        owner = current;
+    }
+
+    private void await() {
+        try {
+            lock.wait();
+        } catch (InterruptedException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+}
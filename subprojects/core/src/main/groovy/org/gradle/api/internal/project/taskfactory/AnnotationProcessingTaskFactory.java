@@ -30,8 +30,8 @@ import org.gradle.api.specs.Spec;
 import org.gradle.api.tasks.*;
 import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
 import org.gradle.internal.Factory;
+import org.gradle.internal.UncheckedException;
 import org.gradle.internal.reflect.Instantiator;
-import org.gradle.internal.reflect.JavaReflectionUtil;
 import org.gradle.util.DeprecationLogger;
 
 import java.io.File;
@@ -42,6 +42,7 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.*;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A {@link ITaskFactory} which determines task actions, inputs and outputs based on annotation attached to the task properties. Also provides some validation based on these annotations.
@@ -75,6 +76,8 @@ public class AnnotationProcessingTaskFactory implements ITaskFactory {
             new InputPropertyAnnotationHandler(),
             new NestedBeanPropertyAnnotationHandler());
 
+    private final static MethodInvokerGenerator INVOKER_GENERATOR = new MethodInvokerGenerator();
+
     private final static ValidationAction NOT_NULL_VALIDATOR = new ValidationAction() {
         public void validate(String propertyName, Object value, Collection<String> messages) {
             if (value == null) {
@@ -85,7 +88,7 @@ public class AnnotationProcessingTaskFactory implements ITaskFactory {
 
     public AnnotationProcessingTaskFactory(ITaskFactory taskFactory) {
         this.taskFactory = taskFactory;
-        this.classInfos = new HashMap<Class, TaskClassInfo>();
+        this.classInfos = new ConcurrentHashMap<Class, TaskClassInfo>();
     }
 
     private AnnotationProcessingTaskFactory(Map<Class, TaskClassInfo> classInfos, ITaskFactory taskFactory) {
@@ -190,12 +193,13 @@ public class AnnotationProcessingTaskFactory implements ITaskFactory {
     }
 
     private Factory<Action<Task>> createActionFactory(final Method method, final Class<?>[] parameterTypes) {
+        final MethodInvoker invoker = INVOKER_GENERATOR.create(method);
         return new Factory<Action<Task>>() {
             public Action<Task> create() {
                 if (parameterTypes.length == 1) {
-                    return new IncrementalTaskAction(method);
+                    return new IncrementalTaskAction(method, invoker);
                 } else {
-                    return new StandardTaskAction(method);
+                    return new StandardTaskAction(method, invoker);
                 }
             }
         };
@@ -209,23 +213,27 @@ public class AnnotationProcessingTaskFactory implements ITaskFactory {
 
     private static class StandardTaskAction implements Action<Task> {
         private final Method method;
+        private final MethodInvoker invoker;
 
-        public StandardTaskAction(Method method) {
+        public StandardTaskAction(Method method, MethodInvoker invoker) {
             this.method = method;
+            this.invoker = invoker;
         }
 
         public void execute(Task task) {
             ClassLoader original = Thread.currentThread().getContextClassLoader();
             Thread.currentThread().setContextClassLoader(method.getDeclaringClass().getClassLoader());
             try {
-                doExecute(task, method.getName());
+                doExecute(task, invoker);
+            } catch (Exception e) {
+                throw UncheckedException.throwAsUncheckedException(e);
             } finally {
                 Thread.currentThread().setContextClassLoader(original);
             }
         }
 
-        protected void doExecute(Task task, String methodName) {
-            JavaReflectionUtil.method(task, Object.class, methodName).invoke(task);
+        protected void doExecute(Task task, MethodInvoker invoker) throws Exception {
+            invoker.invoke(task, null);
         }
     }
 
@@ -233,16 +241,16 @@ public class AnnotationProcessingTaskFactory implements ITaskFactory {
 
         private TaskArtifactState taskArtifactState;
 
-        public IncrementalTaskAction(Method method) {
-            super(method);
+        public IncrementalTaskAction(Method method, MethodInvoker invoker) {
+            super(method, invoker);
         }
 
         public void contextualise(TaskExecutionContext context) {
             this.taskArtifactState = context == null ? null : context.getTaskArtifactState();
         }
 
-        protected void doExecute(Task task, String methodName) {
-            JavaReflectionUtil.method(task, Object.class, methodName, IncrementalTaskInputs.class).invoke(task, taskArtifactState.getInputChanges());
+        protected void doExecute(Task task, MethodInvoker invoker) throws Exception {
+            invoker.invoke(task, taskArtifactState.getInputChanges());
             taskArtifactState = null;
         }
     }
@@ -390,6 +398,7 @@ public class AnnotationProcessingTaskFactory implements ITaskFactory {
         private final PropertyInfo parent;
         private final String propertyName;
         private final Method method;
+        private MethodInvoker getter;
         private ValidationAction validationAction = NO_OP_VALIDATION_ACTION;
         private ValidationAction notNullValidator = NO_OP_VALIDATION_ACTION;
         private UpdateAction configureAction = NO_OP_CONFIGURATION_ACTION;
@@ -454,7 +463,11 @@ public class AnnotationProcessingTaskFactory implements ITaskFactory {
             final Object finalBean = bean;
             final Object value = DeprecationLogger.whileDisabled(new Factory<Object>() {
                 public Object create() {
-                    return JavaReflectionUtil.method(finalBean, Object.class, method).invoke(finalBean);
+                    try {
+                        return getter.invoke(finalBean, null);
+                    } catch (Exception e) {
+                        throw UncheckedException.throwAsUncheckedException(e);
+                    }
                 }
             });
 
@@ -477,6 +490,9 @@ public class AnnotationProcessingTaskFactory implements ITaskFactory {
 
         public void attachActions(PropertyAnnotationHandler handler) {
             handler.attachActions(this);
+            if (!required) {
+                getter = INVOKER_GENERATOR.create(method);
+            }
             required = true;
         }
     }
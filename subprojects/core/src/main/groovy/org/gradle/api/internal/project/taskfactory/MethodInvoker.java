@@ -0,0 +1,33 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.project.taskfactory;
+
+import org.gradle.api.Nullable;
+
+/**
+ * Invokes a method that takes at most one parameter. Implementations are usually generated by {@link MethodInvokerGenerator}.
+ */
+public interface MethodInvoker {
+    /**
+     * Invokes the method on the given target, passing the given parameter if the method takes one.
+     *
+     * @return the return value of the method, boxed if it is primitive, or null if the method is void.
+     */
+    @Nullable
+    Object invoke(Object target, @Nullable Object parameter) throws Exception;
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.project.taskfactory;
+
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.reflect.JavaMethod;
+import org.gradle.internal.reflect.JavaReflectionUtil;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Creates {@link MethodInvoker} implementations that call a method directly rather than through reflection, so that the invocation can be
+ * inlined by the JIT compiler.
+ *
+ * <p>The invoker class is defined in the class loader and package of the class that declares the method, so that it can call package private
+ * and protected methods. Generated classes are reused for as long as the declaring class is loaded. Methods that cannot be called this way,
+ * such as private methods or methods of JDK classes, are invoked using reflection.</p>
+ */
+public class MethodInvokerGenerator {
+    private static final Logger LOGGER = Logging.getLogger(MethodInvokerGenerator.class);
+    private static final JavaMethod<ClassLoader, Class> DEFINE_CLASS_METHOD = JavaReflectionUtil.method(ClassLoader.class, Class.class, "defineClass", String.class, byte[].class, Integer.TYPE, Integer.TYPE);
+    private static final String INVOKE_DESCRIPTOR = Type.getMethodDescriptor(Type.getType(Object.class), Type.getType(Object.class), Type.getType(Object.class));
+    // The generated classes are strongly referenced by their class loader, and so also by the declaring class. Reference them weakly here, so that the
+    // declaring class can be collected
+    private static final Map<Class<?>, Map<String, WeakReference<Class<?>>>> GENERATED_CLASSES = new WeakHashMap<Class<?>, Map<String, WeakReference<Class<?>>>>();
+
+    public MethodInvoker create(Method method) {
+        if (!canGenerate(method)) {
+            return new ReflectiveMethodInvoker(method);
+        }
+        Map<String, WeakReference<Class<?>>> generatedClasses;
+        synchronized (GENERATED_CLASSES) {
+            generatedClasses = GENERATED_CLASSES.get(method.getDeclaringClass());
+            if (generatedClasses == null) {
+                generatedClasses = new HashMap<String, WeakReference<Class<?>>>();
+                GENERATED_CLASSES.put(method.getDeclaringClass(), generatedClasses);
+            }
+        }
+        try {
+            Class<?> invokerClass;
+            synchronized (generatedClasses) {
+                String key = method.getName() + Type.getMethodDescriptor(method);
+                WeakReference<Class<?>> reference = generatedClasses.get(key);
+                invokerClass = reference == null ? null : reference.get();
+                if (invokerClass == null) {
+                    invokerClass = generate(method, generatedClasses.size());
+                    generatedClasses.put(key, new WeakReference<Class<?>>(invokerClass));
+                }
+            }
+            return (MethodInvoker) invokerClass.newInstance();
+        } catch (Exception e) {
+            LOGGER.debug("Could not generate an invoker for {}, using reflection instead.", method, e);
+        } catch (LinkageError e) {
+            LOGGER.debug("Could not generate an invoker for {}, using reflection instead.", method, e);
+        }
+        return new ReflectiveMethodInvoker(method);
+    }
+
+    private static boolean canGenerate(Method method) {
+        Class<?> declaringClass = method.getDeclaringClass();
+        if (Modifier.isPrivate(method.getModifiers()) || Modifier.isStatic(method.getModifiers()) || method.getParameterTypes().length > 1) {
+            return false;
+        }
+        if (method.getParameterTypes().length == 1 && method.getParameterTypes()[0].isPrimitive()) {
+            return false;
+        }
+        return declaringClass.getClassLoader() != null && !declaringClass.getName().startsWith("java.");
+    }
+
+    private static Class<?> generate(Method method, int index) {
+        Class<?> declaringClass = method.getDeclaringClass();
+        String className = declaringClass.getName() + "$$Invoker$" + method.getName() + "$" + index;
+        Type declaringType = Type.getType(declaringClass);
+        Type returnType = Type.getReturnType(method);
+
+        ClassWriter visitor = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        visitor.visit(Opcodes.V1_5, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SYNTHETIC, className.replace('.', '/'), null,
+            Type.getInternalName(Object.class), new String[]{Type.getInternalName(MethodInvoker.class)});
+
+        // GENERATE public <init>() { super(); }
+        MethodVisitor constructor = visitor.visitMethod(Opcodes.ACC_PUBLIC, "<init>", Type.getMethodDescriptor(Type.VOID_TYPE), null, null);
+        constructor.visitCode();
+        constructor.visitVarInsn(Opcodes.ALOAD, 0);
+        constructor.visitMethodInsn(Opcodes.INVOKESPECIAL, Type.getInternalName(Object.class), "<init>", Type.getMethodDescriptor(Type.VOID_TYPE));
+        constructor.visitInsn(Opcodes.RETURN);
+        constructor.visitMaxs(0, 0);
+        constructor.visitEnd();
+
+        // GENERATE public Object invoke(Object target, Object parameter) { return ((<type>) target).<method>((<param-type>) parameter); }
+        MethodVisitor invoke = visitor.visitMethod(Opcodes.ACC_PUBLIC, "invoke", INVOKE_DESCRIPTOR, null, new String[]{Type.getInternalName(Exception.class)});
+        invoke.visitCode();
+        invoke.visitVarInsn(Opcodes.ALOAD, 1);
+        invoke.visitTypeInsn(Opcodes.CHECKCAST, declaringType.getInternalName());
+        if (method.getParameterTypes().length == 1) {
+            invoke.visitVarInsn(Opcodes.ALOAD, 2);
+            invoke.visitTypeInsn(Opcodes.CHECKCAST, Type.getInternalName(method.getParameterTypes()[0]));
+        }
+        int opcode = declaringClass.isInterface() ? Opcodes.INVOKEINTERFACE : Opcodes.INVOKEVIRTUAL;
+        invoke.visitMethodInsn(opcode, declaringType.getInternalName(), method.getName(), Type.getMethodDescriptor(method));
+        if (returnType.getSort() == Type.VOID) {
+            invoke.visitInsn(Opcodes.ACONST_NULL);
+        } else if (method.getReturnType().isPrimitive()) {
+            Type boxedType = Type.getType(JavaReflectionUtil.getWrapperTypeForPrimitiveType(method.getReturnType()));
+            invoke.visitMethodInsn(Opcodes.INVOKESTATIC, boxedType.getInternalName(), "valueOf", Type.getMethodDescriptor(boxedType, returnType));
+        }
+        invoke.visitInsn(Opcodes.ARETURN);
+        invoke.visitMaxs(0, 0);
+        invoke.visitEnd();
+
+        visitor.visitEnd();
+        byte[] bytecode = visitor.toByteArray();
+        return DEFINE_CLASS_METHOD.invoke(declaringClass.getClassLoader(), className, bytecode, 0, bytecode.length);
+    }
+
+    private static class ReflectiveMethodInvoker implements MethodInvoker {
+        private final Method method;
+
+        ReflectiveMethodInvoker(Method method) {
+            this.method = method;
+            method.setAccessible(true);
+        }
+
+        public Object invoke(Object target, Object parameter) throws Exception {
+            try {
+                if (method.getParameterTypes().length == 0) {
+                    return method.invoke(target);
+                }
+                return method.invoke(target, parameter);
+            } catch (InvocationTargetException e) {
+                if (e.getCause() instanceof Error) {
+                    throw (Error) e.getCause();
+                }
+                throw (Exception) e.getCause();
+            }
+        }
+    }
+}
@@ -24,6 +24,7 @@ import org.gradle.api.internal.NamedDomainObjectContainerConfigureDelegate;
 import org.gradle.api.internal.TaskInternal;
 import org.gradle.api.internal.project.ProjectInternal;
 import org.gradle.api.internal.project.taskfactory.ITaskFactory;
+import org.gradle.api.specs.Spec;
 import org.gradle.api.tasks.TaskCollection;
 import org.gradle.initialization.ProjectAccessListener;
 import org.gradle.internal.Transformers;
@@ -43,6 +44,8 @@ public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements
     private final ITaskFactory taskFactory;
     private final ProjectAccessListener projectAccessListener;
     private final Set<String> placeholders = Sets.newHashSet();
+    // Registered tasks that have not been created yet
+    private final Map<String, Class<? extends Task>> registeredTasks = new HashMap<String, Class<? extends Task>>();
     private final NamedEntityInstantiator<Task> instantiator;
 
     public DefaultTaskContainer(MutableModelNode modelNode, ProjectInternal project, Instantiator instantiator, ITaskFactory taskFactory, ProjectAccessListener projectAccessListener) {
@@ -62,6 +65,14 @@ public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements
         Task task = taskFactory.createTask(mutableOptions);
         String name = task.getName();
 
+        if (registeredTasks.containsKey(name)) {
+            if (!replace) {
+                throw new InvalidUserDataException(String.format(
+                    "Cannot add %s as a task with that name has already been registered.", task));
+            }
+            registeredTasks.remove(name);
+            modelNode.removeLink(name);
+        }
         if (placeholders.remove(name)) {
             modelNode.removeLink(name);
         }
@@ -129,6 +140,80 @@ public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements
         return task;
     }
 
+    public <T extends Task> void register(String name, Class<T> type, Action<? super T> configuration) throws InvalidUserDataException {
+        if (findByNameWithoutRules(name) != null || modelNode.hasLink(name)) {
+            throw new InvalidUserDataException(String.format("Cannot register task '%s' as a task with that name already exists.", name));
+        }
+        registeredTasks.put(name, type);
+        addTaskCreator(name, type, configuration, true, "tasks.register(" + name + ")");
+    }
+
+    /**
+     * Creates the registered tasks of the given type, or of a subtype of it, that have not been created yet.
+     */
+    void realizeRegisteredTasks(Class<?> type) {
+        if (registeredTasks.isEmpty()) {
+            return;
+        }
+        List<String> names = new ArrayList<String>();
+        for (Map.Entry<String, Class<? extends Task>> entry : registeredTasks.entrySet()) {
+            if (type.isAssignableFrom(entry.getValue())) {
+                names.add(entry.getKey());
+            }
+        }
+        Collections.sort(names);
+        for (String name : names) {
+            findByName(name);
+        }
+    }
+
+    /**
+     * Creates the task with the given name if it has been registered and has not been created yet.
+     */
+    void realizeRegisteredTask(String name) {
+        if (registeredTasks.containsKey(name)) {
+            findByName(name);
+        }
+    }
+
+    @Override
+    public Iterator<Task> iterator() {
+        realizeRegisteredTasks(Task.class);
+        return super.iterator();
+    }
+
+    @Override
+    public int size() {
+        realizeRegisteredTasks(Task.class);
+        return super.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return registeredTasks.isEmpty() && super.isEmpty();
+    }
+
+    @Override
+    public SortedMap<String, Task> getAsMap() {
+        realizeRegisteredTasks(Task.class);
+        return super.getAsMap();
+    }
+
+    @Override
+    public Set<Task> findAll(Closure cl) {
+        realizeRegisteredTasks(Task.class);
+        return super.findAll(cl);
+    }
+
+    @Override
+    public void all(Action<? super Task> action) {
+        // Registered tasks are passed to the action when they are created, so there is no need to create them here
+        action = whenObjectAdded(action);
+        for (Task task : new ArrayList<Task>(getStore())) {
+            action.execute(task);
+        }
+    }
+
     public <T extends Task> T replace(String name, Class<T> type) {
         return type.cast(create(GUtil.map(Task.TASK_NAME, name, Task.TASK_TYPE, type, Task.TASK_OVERWRITE, true)));
     }
@@ -230,21 +315,25 @@ public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements
 
     public <T extends TaskInternal> void addPlaceholderAction(final String placeholderName, final Class<T> taskType, final Action<? super T> configure) {
         if (!modelNode.hasLink(placeholderName)) {
-            final ModelType<T> taskModelType = ModelType.of(taskType);
-            ModelPath path = MODEL_PATH.child(placeholderName);
-            modelNode.addLink(
-                ModelRegistrations.of(path)
-                    .action(ModelActionRole.Create, new TaskCreator<T>(placeholderName, taskType, configure, taskModelType))
-                    .withProjection(new UnmanagedModelProjection<T>(taskModelType))
-                    .descriptor(new SimpleModelRuleDescriptor("tasks.addPlaceholderAction(" + placeholderName + ")"))
-                    .build()
-            );
+            addTaskCreator(placeholderName, taskType, configure, false, "tasks.addPlaceholderAction(" + placeholderName + ")");
         }
         if (findByNameWithoutRules(placeholderName) == null) {
             placeholders.add(placeholderName);
         }
     }
 
+    private <T extends Task> void addTaskCreator(String name, Class<T> taskType, Action<? super T> configure, boolean addBeforeConfigure, String descriptor) {
+        ModelType<T> taskModelType = ModelType.of(taskType);
+        ModelPath path = MODEL_PATH.child(name);
+        modelNode.addLink(
+            ModelRegistrations.of(path)
+                .action(ModelActionRole.Create, new TaskCreator<T>(name, taskType, configure, addBeforeConfigure, taskModelType))
+                .withProjection(new UnmanagedModelProjection<T>(taskModelType))
+                .descriptor(new SimpleModelRuleDescriptor(descriptor))
+                .build()
+        );
+    }
+
     public <U extends Task> NamedDomainObjectContainer<U> containerWithType(Class<U> type) {
         throw new UnsupportedOperationException();
     }
@@ -269,31 +358,46 @@ public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements
         }
     }
 
-    private static class TaskCreator<T extends TaskInternal> implements Action<MutableModelNode> {
+    private static class TaskCreator<T extends Task> implements Action<MutableModelNode> {
         private final String placeholderName;
         private final Class<T> taskType;
         private final Action<? super T> configure;
+        private final boolean addBeforeConfigure;
         private final ModelType<T> taskModelType;
 
-        public TaskCreator(String placeholderName, Class<T> taskType, Action<? super T> configure, ModelType<T> taskModelType) {
+        public TaskCreator(String placeholderName, Class<T> taskType, Action<? super T> configure, boolean addBeforeConfigure, ModelType<T> taskModelType) {
             this.placeholderName = placeholderName;
             this.taskType = taskType;
             this.configure = configure;
+            this.addBeforeConfigure = addBeforeConfigure;
             this.taskModelType = taskModelType;
         }
 
         @Override
         public void execute(final MutableModelNode mutableModelNode) {
             DefaultTaskContainer taskContainer = mutableModelNode.getParent().getPrivateData(ModelType.of(DefaultTaskContainer.class));
-            T task = taskContainer.taskFactory.create(placeholderName, taskType);
-            configure.execute(task);
-            taskContainer.add(task);
+            T task = taskContainer.instantiator.create(placeholderName, taskType);
+            taskContainer.registeredTasks.remove(placeholderName);
+            if (addBeforeConfigure) {
+                // Registered tasks are added before they are configured, as create(name, type, action) does,
+                // so that all() and withType() actions have been applied when the register action runs
+                taskContainer.add(task);
+                configure.execute(task);
+            } else {
+                configure.execute(task);
+                taskContainer.add(task);
+            }
             mutableModelNode.setPrivateData(taskModelType, task);
         }
     }
 
     @Override
     public <S extends Task> TaskCollection<S> withType(Class<S> type) {
-        return new RealizableTaskCollection<S>(type, super.withType(type), modelNode);
+        return new RealizableTaskCollection<S>(type, super.withType(type), modelNode, this);
+    }
+
+    @Override
+    public TaskCollection<Task> matching(Spec<? super Task> spec) {
+        return new RealizableTaskCollection<Task>(Task.class, super.matching(spec), modelNode, this);
     }
 }
@@ -33,13 +33,19 @@ public class RealizableTaskCollection<T extends Task> implements TaskCollection<
     private final Class<T> type;
     private final AtomicBoolean realized = new AtomicBoolean(false);
     private final MutableModelNode modelNode;
+    private final DefaultTaskContainer container;
 
     public RealizableTaskCollection(Class<T> type, TaskCollection<T> delegate, MutableModelNode modelNode) {
+        this(type, delegate, modelNode, null);
+    }
+
+    public RealizableTaskCollection(Class<T> type, TaskCollection<T> delegate, MutableModelNode modelNode, DefaultTaskContainer container) {
         assert !(delegate instanceof RealizableTaskCollection) : "Attempt to wrap already realizable task collection in realizable wrapper: " + delegate;
 
         this.delegate = delegate;
         this.type = type;
         this.modelNode = modelNode;
+        this.container = container;
     }
 
     public void realizeRuleTaskTypes() {
@@ -54,7 +60,22 @@ public class RealizableTaskCollection<T extends Task> implements TaskCollection<
     }
 
     private <S extends T> RealizableTaskCollection<S> realizable(Class<S> type, TaskCollection<S> collection) {
-        return new RealizableTaskCollection<S>(type, collection, modelNode);
+        return new RealizableTaskCollection<S>(type, collection, modelNode, container);
+    }
+
+    private void realizeRegisteredTask(String name) {
+        if (container != null) {
+            container.realizeRegisteredTask(name);
+        }
+    }
+
+    /**
+     * Creates the registered tasks that may be members of this collection, before the members of this collection are queried.
+     */
+    private void realizeRegisteredTasks() {
+        if (container != null) {
+            container.realizeRegisteredTasks(type);
+        }
     }
 
     @Override
@@ -69,11 +90,13 @@ public class RealizableTaskCollection<T extends Task> implements TaskCollection<
 
     @Override
     public T getByName(String name, Closure configureClosure) throws UnknownTaskException {
+        realizeRegisteredTask(name);
         return delegate.getByName(name, configureClosure);
     }
 
     @Override
     public T getByName(String name) throws UnknownTaskException {
+        realizeRegisteredTask(name);
         return delegate.getByName(name);
     }
 
@@ -94,11 +117,13 @@ public class RealizableTaskCollection<T extends Task> implements TaskCollection<
 
     @Override
     public T getAt(String name) throws UnknownTaskException {
+        realizeRegisteredTask(name);
         return delegate.getAt(name);
     }
 
     @Override
     public Set<T> findAll(Closure spec) {
+        realizeRegisteredTasks();
         return delegate.findAll(spec);
     }
 
@@ -119,6 +144,7 @@ public class RealizableTaskCollection<T extends Task> implements TaskCollection<
 
     @Override
     public SortedMap<String, T> getAsMap() {
+        realizeRegisteredTasks();
         return delegate.getAsMap();
     }
 
@@ -129,6 +155,7 @@ public class RealizableTaskCollection<T extends Task> implements TaskCollection<
 
     @Override
     public T findByName(String name) {
+        realizeRegisteredTask(name);
         return delegate.findByName(name);
     }
 
@@ -189,31 +216,37 @@ public class RealizableTaskCollection<T extends Task> implements TaskCollection<
 
     @Override
     public int size() {
+        realizeRegisteredTasks();
         return delegate.size();
     }
 
     @Override
     public boolean isEmpty() {
+        realizeRegisteredTasks();
         return delegate.isEmpty();
     }
 
     @Override
     public boolean contains(Object o) {
+        realizeRegisteredTasks();
         return delegate.contains(o);
     }
 
     @Override
     public Iterator<T> iterator() {
+        realizeRegisteredTasks();
         return delegate.iterator();
     }
 
     @Override
     public Object[] toArray() {
+        realizeRegisteredTasks();
         return delegate.toArray();
     }
 
     @Override
     public <R> R[] toArray(R[] a) {
+        realizeRegisteredTasks();
         return delegate.toArray(a);
     }
 
@@ -224,6 +257,7 @@ public class RealizableTaskCollection<T extends Task> implements TaskCollection<
 
     @Override
     public boolean containsAll(Collection<?> c) {
+        realizeRegisteredTasks();
         return delegate.containsAll(c);
     }
 
@@ -161,6 +161,23 @@ public interface TaskContainer extends TaskCollection<Task>, PolymorphicDomainOb
      */
     <T extends Task> T create(String name, Class<T> type, Action<? super T> configuration) throws InvalidUserDataException;
 
+    /**
+     * <p>Registers a {@link Task} with the given name and type, without creating it. The task is created, configured with the given
+     * action and added to this container when it is first required: when it is located by name or path, when this container or a
+     * collection of tasks of a matching type is iterated, or when it is needed by the task graph. A task that is never required is
+     * never created.</p>
+     *
+     * <p>Actions registered using {@link #all(Action)} or {@link #whenTaskAdded(Action)} are applied to the task when it is created.</p>
+     *
+     * @param name The name of the task to register.
+     * @param type The type of task to create.
+     * @param configuration The action to configure the task with when it is created.
+     * @throws InvalidUserDataException If a task with the given name already exists or has already been registered in this project.
+     * @since 2.13
+     */
+    @Incubating
+    <T extends Task> void register(String name, Class<T> type, Action<? super T> configuration) throws InvalidUserDataException;
+
     /**
      * <p>Creates a {@link Task} with the given name and adds it to this container, replacing any existing task with the
      * same name.</p>
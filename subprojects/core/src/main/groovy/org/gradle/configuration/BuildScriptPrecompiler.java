@@ -0,0 +1,154 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.configuration;
+
+import org.codehaus.groovy.ast.ClassNode;
+import org.gradle.BuildAdapter;
+import org.gradle.BuildResult;
+import org.gradle.api.Action;
+import org.gradle.api.Project;
+import org.gradle.api.ProjectEvaluationListener;
+import org.gradle.api.ProjectState;
+import org.gradle.api.internal.file.TemporaryFileProvider;
+import org.gradle.api.internal.initialization.ClassLoaderScope;
+import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.api.invocation.Gradle;
+import org.gradle.groovy.scripts.CachingScriptSource;
+import org.gradle.groovy.scripts.ScriptSource;
+import org.gradle.groovy.scripts.internal.CompileOperation;
+import org.gradle.groovy.scripts.internal.FileCacheBackedScriptClassCompiler;
+import org.gradle.internal.Actions;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.concurrent.StoppableExecutor;
+import org.gradle.model.dsl.internal.transform.ClosureCreationInterceptingVerifier;
+
+/**
+ * Compiles the build scripts of the projects of a build on a pool of worker threads, ahead of the configuration of each project, so that
+ * scripts that are not in the cache do not have to be compiled one at a time while the projects are evaluated.
+ *
+ * <p>A script is compiled against the class loader it is most likely to be compiled against when the project is evaluated. The first pass of
+ * every build script is compiled against the base class loader of the build as soon as the projects have been loaded. The second pass of a
+ * build script is compiled against the class loader of the parent project, which is the class loader of the project when its build script
+ * adds no classpath or plugins, once the parent project has been evaluated. The result is discarded when the project ends up with a different
+ * class loader.</p>
+ */
+public class BuildScriptPrecompiler extends BuildAdapter implements ProjectEvaluationListener, Stoppable {
+    public static final String PRECOMPILE_PROPERTY = "org.gradle.scripts.precompile";
+
+    private final FileCacheBackedScriptClassCompiler scriptClassCompiler;
+    private final CompileOperationFactory compileOperationFactory;
+    private final TemporaryFileProvider temporaryFileProvider;
+    private final ExecutorFactory executorFactory;
+    private final int maxWorkers;
+    private StoppableExecutor executor;
+    private boolean stopped;
+
+    public BuildScriptPrecompiler(FileCacheBackedScriptClassCompiler scriptClassCompiler, CompileOperationFactory compileOperationFactory,
+                                  TemporaryFileProvider temporaryFileProvider, ExecutorFactory executorFactory, int maxWorkers) {
+        this.scriptClassCompiler = scriptClassCompiler;
+        this.compileOperationFactory = compileOperationFactory;
+        this.temporaryFileProvider = temporaryFileProvider;
+        this.executorFactory = executorFactory;
+        this.maxWorkers = maxWorkers;
+    }
+
+    /**
+     * Returns true if build scripts should be compiled ahead of time by a build using the given number of workers.
+     */
+    public static boolean isEnabled(int maxWorkers) {
+        return maxWorkers > 1 && Boolean.getBoolean(PRECOMPILE_PROPERTY);
+    }
+
+    @Override
+    public void projectsLoaded(Gradle gradle) {
+        ProjectInternal rootProject = (ProjectInternal) gradle.getRootProject();
+        precompilePluginRequests(rootProject);
+        precompileScript(rootProject);
+        for (Project project : rootProject.getSubprojects()) {
+            precompilePluginRequests((ProjectInternal) project);
+        }
+    }
+
+    public void beforeEvaluate(Project project) {
+    }
+
+    public void afterEvaluate(Project project, ProjectState state) {
+        for (Project child : project.getChildProjects().values()) {
+            precompileScript((ProjectInternal) child);
+        }
+    }
+
+    @Override
+    public void buildFinished(BuildResult result) {
+        stop();
+    }
+
+    private void precompilePluginRequests(ProjectInternal project) {
+        ScriptSource source = CachingScriptSource.of(project.getBuildScriptSource());
+        ScriptTarget target = new ProjectScriptTarget(project);
+        ClassLoaderScope baseScope = project.getBaseClassLoaderScope();
+        precompile(source, target, compileOperationFactory.getPluginRequestsCompileOperation(source, target), baseScope.getExportClassLoader(), Actions.doNothing());
+    }
+
+    private void precompileScript(ProjectInternal project) {
+        ClassLoaderScope parentScope = project.getClassLoaderScope().getParent();
+        if (!parentScope.isLocked()) {
+            return;
+        }
+        ScriptSource source = CachingScriptSource.of(project.getBuildScriptSource());
+        ScriptTarget target = new ProjectScriptTarget(project);
+        precompile(source, target, compileOperationFactory.getScriptCompileOperation(source, target), parentScope.getExportClassLoader(), ClosureCreationInterceptingVerifier.INSTANCE);
+    }
+
+    private synchronized void precompile(final ScriptSource source, final ScriptTarget target, final CompileOperation<?> operation,
+                                         final ClassLoader classLoader, final Action<? super ClassNode> verifier) {
+        if (stopped) {
+            return;
+        }
+        if (executor == null) {
+            executor = executorFactory.create("Precompile build scripts", maxWorkers);
+        }
+        executor.execute(new Runnable() {
+            public void run() {
+                if (isStopped()) {
+                    return;
+                }
+                scriptClassCompiler.precompile(source, classLoader, operation, target.getScriptClass(), verifier, temporaryFileProvider.createTemporaryDirectory("script", "classes"));
+            }
+        });
+    }
+
+    private synchronized boolean isStopped() {
+        return stopped;
+    }
+
+    /**
+     * Discards the scripts that are waiting to be compiled, and waits for the scripts that are being compiled.
+     */
+    public void stop() {
+        StoppableExecutor executor;
+        synchronized (this) {
+            stopped = true;
+            executor = this.executor;
+            this.executor = null;
+        }
+        if (executor != null) {
+            executor.stop();
+        }
+    }
+}
@@ -15,13 +15,19 @@
  */
 package org.gradle.configuration.project;
 
+import org.gradle.api.CircularReferenceException;
 import org.gradle.api.ProjectConfigurationException;
 import org.gradle.api.ProjectEvaluationListener;
+import org.gradle.api.internal.project.ProjectConfigurationConflicts;
 import org.gradle.api.internal.project.ProjectInternal;
 import org.gradle.api.internal.project.ProjectStateInternal;
+import org.gradle.internal.UncheckedException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * Manages lifecycle concerns while delegating actual evaluation to another evaluator
  *
@@ -31,17 +37,87 @@ public class LifecycleProjectEvaluator implements ProjectEvaluator {
     private static final Logger LOGGER = LoggerFactory.getLogger(LifecycleProjectEvaluator.class);
 
     private final ProjectEvaluator delegate;
+    private final Object lock = new Object();
+    private final Map<ProjectStateInternal, Thread> evaluatingThreads = new HashMap<ProjectStateInternal, Thread>();
+    private final Map<Thread, ProjectStateInternal> awaitedProjects = new HashMap<Thread, ProjectStateInternal>();
 
     public LifecycleProjectEvaluator(ProjectEvaluator delegate) {
         this.delegate = delegate;
     }
 
     public void evaluate(ProjectInternal project, ProjectStateInternal state) {
-        //TODO this is one of the places to look into thread safety when we implement parallel configuration
-        if (state.getExecuted() || state.getExecuting()) {
+        if (!startEvaluation(project, state)) {
             return;
         }
+        try {
+            doEvaluate(project, state);
+        } finally {
+            finishEvaluation(state);
+        }
+    }
+
+    /**
+     * Claims the evaluation of the given project for the current thread. Waits when another thread is evaluating the project, as projects
+     * may be configured in parallel.
+     *
+     * @return false when the project has already been evaluated, or is being evaluated by the current thread.
+     */
+    private boolean startEvaluation(ProjectInternal project, ProjectStateInternal state) {
+        Thread current = Thread.currentThread();
+        while (true) {
+            synchronized (lock) {
+                Thread owner = evaluatingThreads.get(state);
+                if (owner == null) {
+                    if (state.getExecuted() || state.getExecuting()) {
+                        return false;
+                    }
+                    evaluatingThreads.put(state, current);
+                    return true;
+                }
+                if (owner == current) {
+                    return false;
+                }
+                for (Thread thread = owner; thread != null; ) {
+                    ProjectStateInternal waitingFor = awaitedProjects.get(thread);
+                    thread = waitingFor == null ? null : evaluatingThreads.get(waitingFor);
+                    if (thread == current) {
+                        throw new CircularReferenceException(String.format("Circular referencing during evaluation for %s.", project));
+                    }
+                }
+                awaitedProjects.put(current, state);
+                // Let the owner carry on when it waits for its turn to configure serially
+                ProjectConfigurationConflicts.suspend();
+                try {
+                    while (evaluatingThreads.get(state) == owner) {
+                        lock.wait();
+                    }
+                } catch (InterruptedException e) {
+                    throw UncheckedException.throwAsUncheckedException(e);
+                } finally {
+                    awaitedProjects.remove(current);
+                }
+            }
+            ProjectConfigurationConflicts.resume();
+        }
+    }
+
+    private void finishEvaluation(ProjectStateInternal state) {
+        synchronized (lock) {
+            evaluatingThreads.remove(state);
+            lock.notifyAll();
+        }
+    }
+
+    private void doEvaluate(ProjectInternal project, ProjectStateInternal state) {
+        ProjectInternal previous = ProjectConfigurationConflicts.startEvaluating(project);
+        try {
+            doEvaluateWithListeners(project, state);
+        } finally {
+            ProjectConfigurationConflicts.finishEvaluating(previous);
+        }
+    }
 
+    private void doEvaluateWithListeners(ProjectInternal project, ProjectStateInternal state) {
         ProjectEvaluationListener listener = project.getProjectEvaluationBroadcaster();
         try {
             listener.beforeEvaluate(project);
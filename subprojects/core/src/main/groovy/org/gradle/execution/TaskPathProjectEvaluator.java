@@ -18,14 +18,36 @@ package org.gradle.execution;
 
 import org.gradle.api.BuildCancelledException;
 import org.gradle.api.Project;
+import org.gradle.api.internal.project.ProjectConfigurationConflicts;
 import org.gradle.api.internal.project.ProjectInternal;
 import org.gradle.initialization.BuildCancellationToken;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.StoppableExecutor;
+
+import java.util.Map;
+import java.util.TreeMap;
 
 public class TaskPathProjectEvaluator implements ProjectConfigurer {
+    /**
+     * When set to true, the projects of a hierarchy are configured in parallel, using the maximum number of workers of the build.
+     * A project is configured once its parent has been configured. A project that accesses another project is configured serially from then on,
+     * see {@link ProjectConfigurationConflicts}.
+     */
+    public static final String PARALLEL_CONFIGURATION_PROPERTY = "org.gradle.configure.parallel";
+
     private final BuildCancellationToken cancellationToken;
+    private final ExecutorFactory executorFactory;
+    private final int maxWorkers;
 
     public TaskPathProjectEvaluator(BuildCancellationToken cancellationToken) {
+        this(cancellationToken, null, 1);
+    }
+
+    public TaskPathProjectEvaluator(BuildCancellationToken cancellationToken, ExecutorFactory executorFactory, int maxWorkers) {
         this.cancellationToken = cancellationToken;
+        this.executorFactory = executorFactory;
+        this.maxWorkers = maxWorkers;
     }
 
     public void configure(ProjectInternal project) {
@@ -39,6 +61,10 @@ public class TaskPathProjectEvaluator implements ProjectConfigurer {
         if (cancellationToken.isCancellationRequested()) {
             throw new BuildCancelledException();
         }
+        if (executorFactory != null && maxWorkers > 1 && Boolean.getBoolean(PARALLEL_CONFIGURATION_PROPERTY)) {
+            new ParallelHierarchyConfiguration().configure(project);
+            return;
+        }
         project.evaluate();
         for (Project sub : project.getSubprojects()) {
             if (cancellationToken.isCancellationRequested()) {
@@ -47,4 +73,78 @@ public class TaskPathProjectEvaluator implements ProjectConfigurer {
             ((ProjectInternal) sub).evaluate();
         }
     }
-}
\ No newline at end of file
+
+    private class ParallelHierarchyConfiguration {
+        private final Object lock = new Object();
+        private final ProjectConfigurationConflicts conflicts = new ProjectConfigurationConflicts();
+        private final Map<String, Throwable> failures = new TreeMap<String, Throwable>();
+        private StoppableExecutor executor;
+        private int pending;
+
+        void configure(ProjectInternal project) {
+            // The root of the hierarchy usually injects configuration into the other projects, so configure it before starting any workers
+            project.evaluate();
+            executor = executorFactory.create("Configure projects", maxWorkers);
+            try {
+                scheduleChildren(project);
+                waitForCompletion();
+            } finally {
+                executor.stop();
+            }
+            synchronized (lock) {
+                if (!failures.isEmpty()) {
+                    // Report the failure of the first project in path order, which is the one a serial configuration would have reported
+                    throw UncheckedException.throwAsUncheckedException(failures.values().iterator().next());
+                }
+            }
+        }
+
+        private void scheduleChildren(ProjectInternal parent) {
+            for (Project child : parent.getChildProjects().values()) {
+                final ProjectInternal project = (ProjectInternal) child;
+                synchronized (lock) {
+                    if (!failures.isEmpty()) {
+                        return;
+                    }
+                    pending++;
+                }
+                executor.execute(new Runnable() {
+                    public void run() {
+                        configureAndScheduleChildren(project);
+                    }
+                });
+            }
+        }
+
+        private void configureAndScheduleChildren(ProjectInternal project) {
+            try {
+                if (cancellationToken.isCancellationRequested()) {
+                    throw new BuildCancelledException();
+                }
+                conflicts.configure(project);
+                scheduleChildren(project);
+            } catch (Throwable t) {
+                synchronized (lock) {
+                    failures.put(project.getPath(), t);
+                }
+            } finally {
+                synchronized (lock) {
+                    pending--;
+                    lock.notifyAll();
+                }
+            }
+        }
+
+        private void waitForCompletion() {
+            synchronized (lock) {
+                while (pending > 0) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        throw UncheckedException.throwAsUncheckedException(e);
+                    }
+                }
+            }
+        }
+    }
+}
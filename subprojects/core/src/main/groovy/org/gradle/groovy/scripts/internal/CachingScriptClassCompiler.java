@@ -15,18 +15,22 @@
  */
 package org.gradle.groovy.scripts.internal;
 
-import com.google.common.collect.Maps;
 import groovy.lang.Script;
 import org.codehaus.groovy.ast.ClassNode;
 import org.gradle.api.Action;
 import org.gradle.api.internal.initialization.loadercache.ClassLoaderId;
 import org.gradle.groovy.scripts.ScriptSource;
 import org.gradle.internal.Cast;
+import org.gradle.internal.UncheckedException;
 
-import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
 public class CachingScriptClassCompiler implements ScriptClassCompiler {
-    private final Map<Key, CompiledScript<?, ?>> cachedCompiledScripts = Maps.newHashMap();
+    private final ConcurrentMap<Key, FutureTask<CompiledScript<?, ?>>> cachedCompiledScripts = new ConcurrentHashMap<Key, FutureTask<CompiledScript<?, ?>>>();
     private final ScriptClassCompiler scriptClassCompiler;
 
     public CachingScriptClassCompiler(ScriptClassCompiler scriptClassCompiler) {
@@ -34,25 +38,43 @@ public class CachingScriptClassCompiler implements ScriptClassCompiler {
     }
 
     @Override
-    public <T extends Script, M> CompiledScript<T, M> compile(ScriptSource source, ClassLoader classLoader, ClassLoaderId classLoaderId, CompileOperation<M> operation, Class<T> scriptBaseClass, Action<? super ClassNode> verifier) {
-        Key key = new Key(source.getClassName(), classLoader, operation.getId());
-        CompiledScript<T, M> compiledScript = Cast.uncheckedCast(cachedCompiledScripts.get(key));
-        if (compiledScript == null) {
-            compiledScript = scriptClassCompiler.compile(source, classLoader, classLoaderId, operation, scriptBaseClass, verifier);
-            cachedCompiledScripts.put(key, compiledScript);
+    public <T extends Script, M> CompiledScript<T, M> compile(final ScriptSource source, final ClassLoader classLoader, final ClassLoaderId classLoaderId, final CompileOperation<M> operation, final Class<T> scriptBaseClass, final Action<? super ClassNode> verifier) {
+        Key key = new Key(source.getClassName(), classLoader, operation.getId(), scriptBaseClass);
+        // Projects may be configured concurrently, and may apply the same script. Only compilations of the same script wait for each other.
+        FutureTask<CompiledScript<?, ?>> compilation = new FutureTask<CompiledScript<?, ?>>(new Callable<CompiledScript<?, ?>>() {
+            @Override
+            public CompiledScript<?, ?> call() {
+                return scriptClassCompiler.compile(source, classLoader, classLoaderId, operation, scriptBaseClass, verifier);
+            }
+        });
+        FutureTask<CompiledScript<?, ?>> existing = cachedCompiledScripts.putIfAbsent(key, compilation);
+        if (existing == null) {
+            compilation.run();
+        } else {
+            compilation = existing;
+        }
+        try {
+            return Cast.uncheckedCast(compilation.get());
+        } catch (ExecutionException e) {
+            // Let a later request compile the script again
+            cachedCompiledScripts.remove(key, compilation);
+            throw UncheckedException.throwAsUncheckedException(e.getCause());
+        } catch (InterruptedException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
         }
-        return compiledScript;
     }
 
     private static class Key {
         private final String className;
         private final ClassLoader classLoader;
         private final String dslId;
+        private final Class<?> scriptBaseClass;
 
-        public Key(String className, ClassLoader classLoader, String dslId) {
+        public Key(String className, ClassLoader classLoader, String dslId, Class<?> scriptBaseClass) {
             this.className = className;
             this.classLoader = classLoader;
             this.dslId = dslId;
+            this.scriptBaseClass = scriptBaseClass;
         }
 
         @Override
@@ -68,7 +90,8 @@ public class CachingScriptClassCompiler implements ScriptClassCompiler {
 
             return classLoader.equals(key.classLoader)
                 && className.equals(key.className)
-                && dslId.equals(key.dslId);
+                && dslId.equals(key.dslId)
+                && scriptBaseClass.equals(key.scriptBaseClass);
         }
 
         @Override
@@ -76,6 +99,7 @@ public class CachingScriptClassCompiler implements ScriptClassCompiler {
             int result = className.hashCode();
             result = 31 * result + classLoader.hashCode();
             result = 31 * result + dslId.hashCode();
+            result = 31 * result + scriptBaseClass.hashCode();
             return result;
         }
     }
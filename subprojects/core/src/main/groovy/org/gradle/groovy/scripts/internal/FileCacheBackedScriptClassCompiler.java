@@ -15,32 +15,56 @@
  */
 package org.gradle.groovy.scripts.internal;
 
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import groovy.lang.Script;
 import org.codehaus.groovy.ast.ClassNode;
 import org.gradle.api.Action;
+import org.apache.commons.io.FileUtils;
+import org.gradle.api.Nullable;
 import org.gradle.api.internal.changedetection.state.CachingFileSnapshotter;
 import org.gradle.api.internal.initialization.loadercache.ClassLoaderCache;
 import org.gradle.api.internal.initialization.loadercache.ClassLoaderId;
+import org.gradle.api.internal.initialization.loadercache.ClassPathSnapshotter;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
 import org.gradle.cache.CacheRepository;
 import org.gradle.cache.CacheValidator;
 import org.gradle.cache.PersistentCache;
 import org.gradle.groovy.scripts.NonExistentFileScriptSource;
 import org.gradle.groovy.scripts.ScriptSource;
+import org.gradle.internal.classloader.ClassLoaderVisitor;
+import org.gradle.internal.classpath.DefaultClassPath;
 import org.gradle.internal.concurrent.CompositeStoppable;
 import org.gradle.internal.hash.HashUtil;
+import org.gradle.internal.UncheckedException;
 import org.gradle.internal.hash.HashValue;
 import org.gradle.logging.ProgressLogger;
 import org.gradle.logging.ProgressLoggerFactory;
+import org.gradle.util.GFileUtils;
+import org.gradle.util.GradleVersion;
 
 import java.io.Closeable;
 import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * A {@link ScriptClassCompiler} which compiles scripts to a cache directory, and loads them from there.
+ *
+ * <p>Scripts can also be compiled ahead of time, see {@link #precompile}.</p>
  */
 public class FileCacheBackedScriptClassCompiler implements ScriptClassCompiler, Closeable {
+    private static final Logger LOGGER = Logging.getLogger(FileCacheBackedScriptClassCompiler.class);
     private final ScriptCompilationHandler scriptCompilationHandler;
     private final ProgressLoggerFactory progressLoggerFactory;
     private final CacheRepository cacheRepository;
@@ -48,9 +72,33 @@ public class FileCacheBackedScriptClassCompiler implements ScriptClassCompiler,
     private final CompositeStoppable caches = new CompositeStoppable();
     private final CachingFileSnapshotter snapshotter;
     private final ClassLoaderCache classLoaderCache;
+    private final SharedScriptClassStore sharedStore;
+    private final File rootDir;
+    private final ClassPathSnapshotter classPathSnapshotter;
+    // Class path hashes of the class loaders scripts are compiled against, only used for the shared store
+    private final LoadingCache<ClassLoader, String> classPathHashes = CacheBuilder.newBuilder().weakKeys().build(new CacheLoader<ClassLoader, String>() {
+        @Override
+        public String load(ClassLoader classLoader) {
+            return hashClassPath(classLoader);
+        }
+    });
+    private final ConcurrentMap<String, PrecompiledScript> precompiledScripts = new ConcurrentHashMap<String, PrecompiledScript>();
 
     public FileCacheBackedScriptClassCompiler(CacheRepository cacheRepository, CacheValidator validator, ScriptCompilationHandler scriptCompilationHandler,
                                               ProgressLoggerFactory progressLoggerFactory, CachingFileSnapshotter snapshotter, ClassLoaderCache classLoaderCache) {
+        this(cacheRepository, validator, scriptCompilationHandler, progressLoggerFactory, snapshotter, classLoaderCache, null, null, null);
+    }
+
+    /**
+     * Creates a compiler that also uses the given shared store. Scripts are identified in the shared store by their path relative to the given root
+     * directory and by the class path they are compiled against, so that builds checked out at different locations can share compiled scripts.
+     */
+    public FileCacheBackedScriptClassCompiler(CacheRepository cacheRepository, CacheValidator validator, ScriptCompilationHandler scriptCompilationHandler,
+                                              ProgressLoggerFactory progressLoggerFactory, CachingFileSnapshotter snapshotter, ClassLoaderCache classLoaderCache,
+                                              @Nullable SharedScriptClassStore sharedStore, @Nullable File rootDir, @Nullable ClassPathSnapshotter classPathSnapshotter) {
+        this.sharedStore = sharedStore;
+        this.rootDir = rootDir;
+        this.classPathSnapshotter = classPathSnapshotter;
         this.cacheRepository = cacheRepository;
         this.validator = validator;
         this.scriptCompilationHandler = scriptCompilationHandler;
@@ -78,7 +126,7 @@ public class FileCacheBackedScriptClassCompiler implements ScriptClassCompiler,
             .withProperties(properties)
             .withValidator(validator)
             .withDisplayName(String.format("%s class cache for %s", dslId, source.getDisplayName()))
-            .withInitializer(new ProgressReportingInitializer(progressLoggerFactory, new CacheInitializer(source, classLoader, operation, verifier, scriptBaseClass)))
+            .withInitializer(new ProgressReportingInitializer(progressLoggerFactory, new CacheInitializer(source, classLoader, operation, verifier, scriptBaseClass, sharedKey(source, dslId, properties, classLoader))))
             .open();
 
         // This isn't quite right. The cache will be closed at the end of the build, releasing the shared lock on the classes. Instead, the cache for a script should be
@@ -91,6 +139,65 @@ public class FileCacheBackedScriptClassCompiler implements ScriptClassCompiler,
         return scriptCompilationHandler.loadFromDir(source, classLoader, classesDir, metadataDir, operation, scriptBaseClass, classLoaderId);
     }
 
+    /**
+     * Compiles the given script into the given directory, unless it is already cached, so that a later call to {@link #compile} can use the
+     * result instead of compiling the script. The result is only used when the script is later compiled against the same class loader,
+     * as the compiled classes depend on which classes are visible to the compiler. Safe to call from any thread.
+     */
+    public <T extends Script> void precompile(ScriptSource source, ClassLoader classLoader, CompileOperation<?> operation, Class<T> scriptBaseClass,
+                                              Action<? super ClassNode> verifier, File workDir) {
+        if (source instanceof NonExistentFileScriptSource) {
+            return;
+        }
+
+        Map<String, Object> properties = createCacheProperties(source);
+        String cacheName = String.format("scripts/%s/%s", source.getClassName(), operation.getId());
+        String key = sharedKey(source, operation.getId(), properties, classLoader);
+        PrecompiledScript script = new PrecompiledScript(classLoader, workDir);
+        if (precompiledScripts.putIfAbsent(key, script) != null) {
+            return;
+        }
+        if (isCached(cacheName, properties, source) || (sharedStore != null && validator.isValid() && sharedStore.contains(key))) {
+            precompiledScripts.remove(key, script);
+            script.discard();
+            return;
+        }
+        if (!script.start()) {
+            // Already required by the build, which compiled it in the meantime
+            return;
+        }
+        boolean succeeded = false;
+        try {
+            scriptCompilationHandler.compileToDir(source, classLoader, classesDir(workDir), metadataDir(workDir), operation, scriptBaseClass, verifier);
+            succeeded = true;
+        } catch (Exception e) {
+            // Report any failure when the script is compiled for the build
+            LOGGER.debug("Could not precompile {}.", source.getDisplayName(), e);
+        } finally {
+            script.finish(succeeded);
+        }
+    }
+
+    private boolean isCached(String cacheName, Map<String, Object> properties, ScriptSource source) {
+        PersistentCache cache;
+        try {
+            cache = cacheRepository.cache(cacheName)
+                .withProperties(properties)
+                .withValidator(validator)
+                .withDisplayName(String.format("class cache for %s", source.getDisplayName()))
+                .withInitializer(new Action<PersistentCache>() {
+                    public void execute(PersistentCache cache) {
+                        throw new ScriptNotCachedException();
+                    }
+                })
+                .open();
+        } catch (RuntimeException e) {
+            return false;
+        }
+        cache.close();
+        return true;
+    }
+
     private Map<String, Object> createCacheProperties(ScriptSource source) {
         Map<String, Object> properties = new HashMap<String, Object>();
         properties.put("source.filename", source.getFileName());
@@ -98,6 +205,55 @@ public class FileCacheBackedScriptClassCompiler implements ScriptClassCompiler,
         return properties;
     }
 
+    /**
+     * Returns the key of a script. Unlike the local cache key, it does not depend on the location of the build: it is made of the Gradle version,
+     * the DSL, the path of the script relative to the root directory, the content of the script and the content of the class path it is compiled against.
+     * Precompiled scripts are also identified by this key.
+     */
+    private String sharedKey(ScriptSource source, String dslId, Map<String, Object> properties, ClassLoader classLoader) {
+        StringBuilder key = new StringBuilder();
+        key.append(GradleVersion.current().getVersion()).append('/').append(dslId).append('/').append(relativePath(source)).append('/').append(properties.get("source.hash"));
+        if (sharedStore != null && classPathSnapshotter != null) {
+            key.append('/').append(classPathHashes.getUnchecked(classLoader));
+        }
+        return HashUtil.createCompactMD5(key.toString());
+    }
+
+    private String relativePath(ScriptSource source) {
+        File file = source.getResource().getFile();
+        if (file != null && rootDir != null) {
+            String path = GFileUtils.relativePath(rootDir, file);
+            if (!path.startsWith("..")) {
+                return path.replace(File.separatorChar, '/');
+            }
+        }
+        // Scripts outside the build, such as init scripts, are identified by their location
+        return source.getClassName();
+    }
+
+    private String hashClassPath(ClassLoader classLoader) {
+        final List<File> files = new ArrayList<File>();
+        new ClassLoaderVisitor() {
+            @Override
+            public void visitClassPath(URL[] classPath) {
+                for (URL url : classPath) {
+                    if (url.getProtocol().equals("file")) {
+                        files.add(new File(toURI(url)));
+                    }
+                }
+            }
+        }.visit(classLoader);
+        return classPathSnapshotter.snapshot(new DefaultClassPath(files)).getContentHash().asCompactString();
+    }
+
+    private static URI toURI(URL url) {
+        try {
+            return url.toURI();
+        } catch (URISyntaxException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
     private <T extends Script, M> CompiledScript<T, M> emptyCompiledScript(ClassLoaderId classLoaderId, CompileOperation<M> operation) {
         classLoaderCache.remove(classLoaderId);
         return new EmptyCompiledScript<T, M>(operation);
@@ -116,15 +272,30 @@ public class FileCacheBackedScriptClassCompiler implements ScriptClassCompiler,
     }
 
     public void close() {
-        caches.stop();
+        try {
+            caches.stop();
+        } finally {
+            for (PrecompiledScript script : precompiledScripts.values()) {
+                script.discard();
+            }
+            precompiledScripts.clear();
+        }
     }
 
     private File classesDir(PersistentCache cache) {
-        return new File(cache.getBaseDir(), "classes");
+        return classesDir(cache.getBaseDir());
     }
 
     private File metadataDir(PersistentCache cache) {
-        return new File(cache.getBaseDir(), "metadata");
+        return metadataDir(cache.getBaseDir());
+    }
+
+    private static File classesDir(File baseDir) {
+        return new File(baseDir, "classes");
+    }
+
+    private static File metadataDir(File baseDir) {
+        return new File(baseDir, "metadata");
     }
 
     private class CacheInitializer implements Action<PersistentCache> {
@@ -133,10 +304,12 @@ public class FileCacheBackedScriptClassCompiler implements ScriptClassCompiler,
         private final ClassLoader classLoader;
         private final CompileOperation<?> transformer;
         private final ScriptSource source;
+        private final String sharedKey;
 
         public <T extends Script> CacheInitializer(ScriptSource source, ClassLoader classLoader, CompileOperation<?> transformer,
-                                                   Action<? super ClassNode> verifier, Class<T> scriptBaseClass) {
+                                                   Action<? super ClassNode> verifier, Class<T> scriptBaseClass, String sharedKey) {
             this.source = source;
+            this.sharedKey = sharedKey;
             this.classLoader = classLoader;
             this.transformer = transformer;
             this.verifier = verifier;
@@ -146,8 +319,101 @@ public class FileCacheBackedScriptClassCompiler implements ScriptClassCompiler,
         public void execute(PersistentCache cache) {
             File classesDir = classesDir(cache);
             File metadataDir = metadataDir(cache);
+            PrecompiledScript precompiled = precompiledScripts.remove(sharedKey);
+            if (precompiled != null && precompiled.copyTo(classLoader, classesDir, metadataDir)) {
+                if (sharedStore != null) {
+                    sharedStore.store(sharedKey, cache.getBaseDir(), source.getClassName());
+                }
+                return;
+            }
+            boolean useSharedStore = sharedStore != null && validator.isValid();
+            if (useSharedStore && sharedStore.load(sharedKey, cache.getBaseDir(), source.getClassName())) {
+                return;
+            }
             scriptCompilationHandler.compileToDir(source, classLoader, classesDir, metadataDir, transformer, scriptBaseClass, verifier);
+            if (sharedStore != null) {
+                sharedStore.store(sharedKey, cache.getBaseDir(), source.getClassName());
+            }
+        }
+    }
+
+    /**
+     * The result of compiling a script ahead of time. The build either adopts the result, or compiles the script itself if the script has
+     * not started compiling yet or was compiled against a different class loader.
+     */
+    private static class PrecompiledScript {
+        private final ClassLoader classLoader;
+        private final File dir;
+        private boolean started;
+        private boolean finished;
+        private boolean succeeded;
+        private boolean abandoned;
+
+        PrecompiledScript(ClassLoader classLoader, File dir) {
+            this.classLoader = classLoader;
+            this.dir = dir;
+        }
+
+        synchronized boolean start() {
+            if (abandoned) {
+                discard();
+                return false;
+            }
+            started = true;
+            return true;
+        }
+
+        synchronized void finish(boolean succeeded) {
+            this.succeeded = succeeded;
+            finished = true;
+            notifyAll();
         }
+
+        /**
+         * Copies the compiled script to the given directories, waiting for the compilation to finish.
+         *
+         * @return true if the compiled script was copied, false if the caller should compile the script itself.
+         */
+        boolean copyTo(ClassLoader requiredClassLoader, File classesDir, File metadataDir) {
+            try {
+                if (!awaitResult() || classLoader != requiredClassLoader) {
+                    return false;
+                }
+                FileUtils.copyDirectory(classesDir(dir), classesDir);
+                FileUtils.copyDirectory(metadataDir(dir), metadataDir);
+                return true;
+            } catch (IOException e) {
+                LOGGER.debug("Could not use precompiled script, compiling it instead.", e);
+                GFileUtils.deleteQuietly(classesDir);
+                GFileUtils.deleteQuietly(metadataDir);
+                return false;
+            } finally {
+                discard();
+            }
+        }
+
+        private synchronized boolean awaitResult() {
+            if (!started) {
+                // Do not wait for a compilation that has not started, as checking whether the script is cached requires the cache lock held by the caller
+                abandoned = true;
+                return false;
+            }
+            try {
+                while (!finished) {
+                    wait();
+                }
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+            return succeeded;
+        }
+
+        void discard() {
+            GFileUtils.deleteQuietly(dir);
+        }
+    }
+
+    private static class ScriptNotCachedException extends RuntimeException {
     }
 
     static class ProgressReportingInitializer implements Action<PersistentCache> {
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.groovy.scripts.internal;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+import org.apache.commons.io.FileUtils;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.util.GFileUtils;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.commons.Remapper;
+import org.objectweb.asm.commons.RemappingClassAdapter;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * A second level store for compiled scripts, kept in a directory that may be shared by several machines, for example on a network volume.
+ *
+ * <p>Each entry is a directory containing the compiled classes and metadata of a script. An entry is written to a temporary directory and then
+ * renamed into place, so that other processes never see a partially written entry. Entries are never modified once published.</p>
+ *
+ * <p>The name of a script class depends on the location of the script, so the same entry can be used by builds checked out at different
+ * locations. Each entry records the name of its script class, and the classes are renamed when they are loaded for a script with another name.</p>
+ *
+ * <p>The store is enabled by setting the {@value #SHARED_CACHE_DIR_PROPERTY} system property to the path of the shared directory.</p>
+ */
+public class SharedScriptClassStore {
+    public static final String SHARED_CACHE_DIR_PROPERTY = "org.gradle.scripts.sharedcache";
+    private static final Logger LOGGER = Logging.getLogger(SharedScriptClassStore.class);
+    private static final String[] ENTRY_DIRS = {"classes", "metadata"};
+    private static final String CLASSES_DIR = "classes";
+    private static final String CLASS_NAME_FILE = "script-class";
+
+    private final File baseDir;
+
+    public SharedScriptClassStore(File baseDir) {
+        this.baseDir = baseDir;
+    }
+
+    /**
+     * Returns the store configured for this process, or null if none is configured.
+     */
+    public static SharedScriptClassStore fromSystemProperties() {
+        String dir = System.getProperty(SHARED_CACHE_DIR_PROPERTY);
+        if (dir == null || dir.trim().isEmpty()) {
+            return null;
+        }
+        return new SharedScriptClassStore(new File(dir.trim()).getAbsoluteFile());
+    }
+
+    /**
+     * Returns true if the store contains an entry with the given key.
+     */
+    public boolean contains(String key) {
+        return new File(baseDir, key).isDirectory();
+    }
+
+    /**
+     * Copies the entry with the given key into the given cache directory, renaming the script classes to the given class name.
+     *
+     * @return true if the entry was found and copied, false if the script needs to be compiled.
+     */
+    public boolean load(String key, File cacheDir, String className) {
+        File entry = new File(baseDir, key);
+        if (!entry.isDirectory()) {
+            return false;
+        }
+        try {
+            File classNameFile = new File(entry, CLASS_NAME_FILE);
+            String entryClassName = classNameFile.isFile() ? Files.toString(classNameFile, Charsets.UTF_8) : className;
+            for (String dir : ENTRY_DIRS) {
+                File source = new File(entry, dir);
+                if (!source.isDirectory()) {
+                    continue;
+                }
+                if (dir.equals(CLASSES_DIR) && !entryClassName.equals(className)) {
+                    copyRenamed(source, new File(cacheDir, dir), entryClassName, className);
+                } else {
+                    FileUtils.copyDirectory(source, new File(cacheDir, dir));
+                }
+            }
+            LOGGER.debug("Loaded compiled script {} from shared cache {}.", key, baseDir);
+            return true;
+        } catch (IOException e) {
+            LOGGER.warn("Could not load compiled script from shared cache {}, compiling it instead: {}", baseDir, e.getMessage());
+            for (String dir : ENTRY_DIRS) {
+                GFileUtils.deleteQuietly(new File(cacheDir, dir));
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Publishes the compiled script with the given class name in the given cache directory under the given key, unless another process has already done so.
+     */
+    public void store(String key, File cacheDir, String className) {
+        File entry = new File(baseDir, key);
+        if (entry.isDirectory()) {
+            return;
+        }
+        File tmpDir = new File(baseDir, key + "-" + UUID.randomUUID() + ".tmp");
+        try {
+            for (String dir : ENTRY_DIRS) {
+                File source = new File(cacheDir, dir);
+                if (source.isDirectory()) {
+                    FileUtils.copyDirectory(source, new File(tmpDir, dir));
+                }
+            }
+            GFileUtils.mkdirs(tmpDir);
+            Files.write(className, new File(tmpDir, CLASS_NAME_FILE), Charsets.UTF_8);
+            if (tmpDir.renameTo(entry)) {
+                LOGGER.debug("Stored compiled script {} in shared cache {}.", key, baseDir);
+            } else if (!entry.isDirectory()) {
+                LOGGER.warn("Could not store compiled script in shared cache {}.", baseDir);
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Could not store compiled script in shared cache {}: {}", baseDir, e.getMessage());
+        } finally {
+            GFileUtils.deleteQuietly(tmpDir);
+        }
+    }
+
+    private static void copyRenamed(File sourceDir, File targetDir, String fromClassName, String toClassName) throws IOException {
+        GFileUtils.mkdirs(targetDir);
+        File[] files = sourceDir.listFiles();
+        if (files == null) {
+            throw new IOException(String.format("Could not list %s.", sourceDir));
+        }
+        for (File file : files) {
+            String name = file.getName();
+            if (file.isFile() && name.endsWith(".class")) {
+                String typeName = rename(name.substring(0, name.length() - ".class".length()), fromClassName, toClassName);
+                byte[] bytecode;
+                try {
+                    bytecode = rename(Files.toByteArray(file), fromClassName, toClassName);
+                } catch (RuntimeException e) {
+                    throw new IOException(String.format("Could not rename classes in %s.", file), e);
+                }
+                Files.write(bytecode, new File(targetDir, typeName + ".class"));
+            } else if (file.isDirectory()) {
+                FileUtils.copyDirectory(file, new File(targetDir, name));
+            } else {
+                FileUtils.copyFile(file, new File(targetDir, name));
+            }
+        }
+    }
+
+    private static byte[] rename(byte[] bytecode, final String fromClassName, final String toClassName) {
+        ClassWriter writer = new ClassWriter(0);
+        new ClassReader(bytecode).accept(new RemappingClassAdapter(writer, new Remapper() {
+            @Override
+            public String map(String typeName) {
+                return rename(typeName, fromClassName, toClassName);
+            }
+        }), 0);
+        return writer.toByteArray();
+    }
+
+    /**
+     * Renames the script class and its nested classes, such as closures. Script classes are in the default package.
+     */
+    private static String rename(String typeName, String fromClassName, String toClassName) {
+        if (typeName.equals(fromClassName) || typeName.startsWith(fromClassName + "$")) {
+            return toClassName + typeName.substring(fromClassName.length());
+        }
+        return typeName;
+    }
+
+    @Override
+    public String toString() {
+        return baseDir.toString();
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.initialization;
+
+import org.gradle.BuildAdapter;
+import org.gradle.BuildResult;
+import org.gradle.api.internal.initialization.loadercache.DefaultClassLoaderCache;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+
+/**
+ * Reports how many classes the class loaders of the class loader cache have loaded, and how many classes were not loaded again because class paths
+ * with the same content share a class loader.
+ */
+public class ClassLoaderCacheStatisticsReporter extends BuildAdapter {
+    private static final Logger LOGGER = Logging.getLogger(ClassLoaderCacheStatisticsReporter.class);
+
+    private final DefaultClassLoaderCache classLoaderCache;
+
+    public ClassLoaderCacheStatisticsReporter(DefaultClassLoaderCache classLoaderCache) {
+        this.classLoaderCache = classLoaderCache;
+    }
+
+    @Override
+    public void buildFinished(BuildResult result) {
+        if (!LOGGER.isInfoEnabled()) {
+            return;
+        }
+        DefaultClassLoaderCache.Statistics statistics = classLoaderCache.getStatistics();
+        LOGGER.info("Class loader cache: {} class loaders have loaded {} classes. {} class paths share the class loader of a class path with the same content, which saved loading {} classes again.",
+            statistics.getClassLoaders(), statistics.getLoadedClasses(), statistics.getSharedClassPaths(), statistics.getClassesNotLoadedAgain());
+    }
+}
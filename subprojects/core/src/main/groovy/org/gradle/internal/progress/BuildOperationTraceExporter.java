@@ -0,0 +1,234 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.internal.progress;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Converts a binary log written by {@link BuildOperationTraceRecorder} to the Chrome trace event format, which can be loaded into
+ * {@code chrome://tracing} to view the build operations of each thread as a flame chart.
+ *
+ * <p>Each finished operation becomes a complete event on the thread that started it, and operations that did not finish become begin events.
+ * Ends are matched to starts by operation id, as an operation can finish on a different thread from the one that started it.</p>
+ */
+public class BuildOperationTraceExporter {
+
+    public void export(InputStream inputStream, Writer writer) throws IOException {
+        DataInputStream input = new DataInputStream(inputStream);
+        if (input.readInt() != BuildOperationTraceRecorder.MAGIC) {
+            throw new IOException("Not a build operation trace.");
+        }
+        int version = input.readInt();
+        if (version != BuildOperationTraceRecorder.VERSION) {
+            throw new IOException("Unsupported build operation trace version " + version + ".");
+        }
+        long startMillis = input.readLong();
+
+        writer.write("{\"displayTimeUnit\":\"ms\",\"otherData\":{\"startTime\":");
+        writer.write(String.valueOf(startMillis));
+        writer.write("},\"traceEvents\":[");
+        boolean first = true;
+        Map<Long, Started> running = new LinkedHashMap<Long, Started>();
+        List<Finished> finished = new ArrayList<Finished>();
+        while (input.readBoolean()) {
+            long threadId = input.readLong();
+            String threadName = input.readUTF();
+            byte[] records = new byte[input.readInt()];
+            input.readFully(records);
+            first = writeThreadName(writer, first, threadId, threadName);
+            readEvents(threadId, new Records(records), running, finished);
+        }
+        writeEvents(writer, first, running, finished);
+        writer.write("]}");
+        writer.flush();
+    }
+
+    private boolean writeThreadName(Writer writer, boolean first, long threadId, String threadName) throws IOException {
+        separator(writer, first);
+        writer.write("{\"ph\":\"M\",\"pid\":1,\"tid\":");
+        writer.write(String.valueOf(threadId));
+        writer.write(",\"name\":\"thread_name\",\"args\":{\"name\":");
+        writeString(writer, threadName);
+        writer.write("}}");
+        return false;
+    }
+
+    private void readEvents(long threadId, Records records, Map<Long, Started> running, List<Finished> finished) throws IOException {
+        while (records.hasMore()) {
+            byte type = records.readByte();
+            long time = records.readVarLong();
+            long id = records.readVarLong();
+            if (type == BuildOperationTraceRecorder.STARTED) {
+                long parentId = records.readVarLong() - 1;
+                running.put(id, new Started(threadId, time, parentId, records.readString()));
+            } else {
+                finished.add(new Finished(type, time, id));
+            }
+        }
+    }
+
+    private void writeEvents(Writer writer, boolean first, Map<Long, Started> running, List<Finished> finished) throws IOException {
+        for (Finished end : finished) {
+            Started started = running.remove(end.id);
+            if (started == null) {
+                continue;
+            }
+            separator(writer, first);
+            first = false;
+            writeEvent(writer, "X", end.id, started);
+            writer.write(",\"dur\":");
+            writeMicros(writer, end.time - started.time);
+            writer.write(",\"args\":{\"id\":");
+            writer.write(String.valueOf(end.id));
+            if (started.parentId >= 0) {
+                writer.write(",\"parentId\":");
+                writer.write(String.valueOf(started.parentId));
+            }
+            if (end.type == BuildOperationTraceRecorder.FAILED) {
+                writer.write(",\"failed\":true");
+            }
+            writer.write("}}");
+        }
+        for (Map.Entry<Long, Started> entry : running.entrySet()) {
+            separator(writer, first);
+            first = false;
+            writeEvent(writer, "B", entry.getKey(), entry.getValue());
+            writer.write("}");
+        }
+    }
+
+    private void writeEvent(Writer writer, String phase, long id, Started started) throws IOException {
+        writer.write("{\"ph\":\"");
+        writer.write(phase);
+        writer.write("\",\"pid\":1,\"tid\":");
+        writer.write(String.valueOf(started.threadId));
+        writer.write(",\"name\":");
+        writeString(writer, started.displayName);
+        writer.write(",\"ts\":");
+        writeMicros(writer, started.time);
+    }
+
+    private static void separator(Writer writer, boolean first) throws IOException {
+        if (!first) {
+            writer.write(',');
+        }
+        writer.write('\n');
+    }
+
+    private static void writeMicros(Writer writer, long nanos) throws IOException {
+        writer.write(String.valueOf(nanos / 1000));
+        writer.write('.');
+        String fraction = String.valueOf(nanos % 1000);
+        for (int i = fraction.length(); i < 3; i++) {
+            writer.write('0');
+        }
+        writer.write(fraction);
+    }
+
+    private static void writeString(Writer writer, String value) throws IOException {
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                writer.write('\\');
+                writer.write(c);
+            } else if (c < 0x20) {
+                writer.write(String.format("\\u%04x", (int) c));
+            } else {
+                writer.write(c);
+            }
+        }
+        writer.write('"');
+    }
+
+    private static class Started {
+        final long threadId;
+        final long time;
+        final long parentId;
+        final String displayName;
+
+        Started(long threadId, long time, long parentId, String displayName) {
+            this.threadId = threadId;
+            this.time = time;
+            this.parentId = parentId;
+            this.displayName = displayName;
+        }
+    }
+
+    private static class Finished {
+        final byte type;
+        final long time;
+        final long id;
+
+        Finished(byte type, long time, long id) {
+            this.type = type;
+            this.time = time;
+            this.id = id;
+        }
+    }
+
+    private static class Records {
+        private final byte[] bytes;
+        private int pos;
+
+        Records(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        boolean hasMore() {
+            return pos < bytes.length;
+        }
+
+        byte readByte() throws IOException {
+            if (pos >= bytes.length) {
+                throw new EOFException();
+            }
+            return bytes[pos++];
+        }
+
+        long readVarLong() throws IOException {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = readByte();
+                value |= (long) (b & 0x7f) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+
+        String readString() throws IOException {
+            int length = (int) readVarLong();
+            if (pos + length > bytes.length) {
+                throw new EOFException();
+            }
+            String value = new String(bytes, pos, length, "UTF-8");
+            pos += length;
+            return value;
+        }
+    }
+}
@@ -0,0 +1,248 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.internal.progress;
+
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.initialization.BuildCompletionListener;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Records the start and end of every build operation, together with the thread it runs on and its parent, into a compact binary log.
+ * When the build completes, the log is written to {@code <trace>.bin} and exported in the Chrome trace event format to {@code <trace>.json},
+ * where {@code <trace>} is the value of the {@value #TRACE_PROPERTY} system property.
+ *
+ * <p>Each thread appends to its own buffer, so recording an operation does not contend with other threads. Each buffer is locked while a
+ * record is appended and while it is written out, so that the trace can be written while other threads are still running operations.
+ * An operation's end is recorded by the thread that finishes it, which need not be the thread that started it, and is matched to its start
+ * by operation id. The buffers are released once the trace has been written, and operations that start or finish after that are not recorded.</p>
+ */
+public class BuildOperationTraceRecorder implements InternalBuildListener, BuildCompletionListener {
+    public static final String TRACE_PROPERTY = "org.gradle.internal.operations.trace";
+    private static final Logger LOGGER = Logging.getLogger(BuildOperationTraceRecorder.class);
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    static final int MAGIC = 0x47544f50;
+    static final int VERSION = 1;
+    static final byte STARTED = 1;
+    static final byte FINISHED = 2;
+    static final byte FAILED = 3;
+
+    private final File traceFile;
+    private final long startNanos = System.nanoTime();
+    private final long startMillis = System.currentTimeMillis();
+    private final Queue<ThreadBuffer> buffers = new ConcurrentLinkedQueue<ThreadBuffer>();
+    private volatile boolean completed;
+    private final ThreadLocal<ThreadBuffer> threadBuffer = new ThreadLocal<ThreadBuffer>() {
+        @Override
+        protected ThreadBuffer initialValue() {
+            ThreadBuffer buffer = new ThreadBuffer(Thread.currentThread());
+            buffers.add(buffer);
+            return buffer;
+        }
+    };
+
+    /**
+     * Creates a recorder for the trace file requested by the {@value #TRACE_PROPERTY} system property, or returns null when no trace was requested.
+     */
+    public static BuildOperationTraceRecorder maybeCreate() {
+        String trace = System.getProperty(TRACE_PROPERTY);
+        if (trace == null || trace.length() == 0) {
+            return null;
+        }
+        return new BuildOperationTraceRecorder(new File(trace).getAbsoluteFile());
+    }
+
+    public BuildOperationTraceRecorder(File traceFile) {
+        this.traceFile = traceFile;
+    }
+
+    @Override
+    public void started(BuildOperationInternal buildOperation, OperationStartEvent startEvent) {
+        if (completed) {
+            return;
+        }
+        long now = System.nanoTime() - startNanos;
+        long parentId = buildOperation.getParentId() == null ? 0 : idOf(buildOperation.getParentId()) + 1;
+        threadBuffer.get().writeStarted(now, idOf(buildOperation.getId()), parentId, buildOperation.getDisplayName());
+    }
+
+    @Override
+    public void finished(BuildOperationInternal buildOperation, OperationResult finishEvent) {
+        if (completed) {
+            return;
+        }
+        long now = System.nanoTime() - startNanos;
+        threadBuffer.get().writeFinished(finishEvent.getFailure() == null ? FINISHED : FAILED, now, idOf(buildOperation.getId()));
+    }
+
+    @Override
+    public void completed() {
+        completed = true;
+        File binaryFile = new File(traceFile.getPath() + ".bin");
+        File jsonFile = new File(traceFile.getPath() + ".json");
+        try {
+            OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(binaryFile));
+            try {
+                writeTo(outputStream);
+            } finally {
+                outputStream.close();
+            }
+            InputStream inputStream = new FileInputStream(binaryFile);
+            try {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(jsonFile), UTF_8));
+                try {
+                    new BuildOperationTraceExporter().export(inputStream, writer);
+                } finally {
+                    writer.close();
+                }
+            } finally {
+                inputStream.close();
+            }
+            LOGGER.lifecycle("Build operation trace written to {}", jsonFile);
+        } catch (IOException e) {
+            LOGGER.warn(String.format("Could not write build operation trace to %s.", jsonFile), e);
+        } finally {
+            releaseBuffers();
+        }
+    }
+
+    private void releaseBuffers() {
+        for (ThreadBuffer buffer : buffers) {
+            buffer.release();
+        }
+        buffers.clear();
+        threadBuffer.remove();
+    }
+
+    /**
+     * Writes the binary log: a header followed by the records of each thread that ran a build operation. Times are in nanoseconds since the recorder was created.
+     */
+    public void writeTo(OutputStream outputStream) throws IOException {
+        DataOutputStream output = new DataOutputStream(outputStream);
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+        output.writeLong(startMillis);
+        for (ThreadBuffer buffer : buffers) {
+            buffer.writeTo(output);
+        }
+        output.writeBoolean(false);
+        output.flush();
+    }
+
+    private static long idOf(Object id) {
+        if (id instanceof OperationIdentifier) {
+            return ((OperationIdentifier) id).getId();
+        }
+        return id.hashCode() & 0xffffffffL;
+    }
+
+    /**
+     * An append-only buffer that is written by a single thread. Each record is appended while holding the buffer's lock, which is only
+     * contended while the buffer is written out or released, so the records that are read are always complete.
+     */
+    private static class ThreadBuffer {
+        private final long threadId;
+        private final String threadName;
+        private byte[] bytes = new byte[4096];
+        private int count;
+        private boolean released;
+
+        ThreadBuffer(Thread thread) {
+            this.threadId = thread.getId();
+            this.threadName = thread.getName();
+        }
+
+        synchronized void writeStarted(long time, long id, long parentId, String displayName) {
+            if (released) {
+                return;
+            }
+            writeByte(STARTED);
+            writeVarLong(time);
+            writeVarLong(id);
+            writeVarLong(parentId);
+            writeString(displayName);
+        }
+
+        synchronized void writeFinished(byte type, long time, long id) {
+            if (released) {
+                return;
+            }
+            writeByte(type);
+            writeVarLong(time);
+            writeVarLong(id);
+        }
+
+        synchronized void writeTo(DataOutputStream output) throws IOException {
+            output.writeBoolean(true);
+            output.writeLong(threadId);
+            output.writeUTF(threadName);
+            output.writeInt(count);
+            output.write(bytes, 0, count);
+        }
+
+        synchronized void release() {
+            released = true;
+            bytes = new byte[0];
+            count = 0;
+        }
+
+        private void writeByte(int value) {
+            ensureCapacity(1);
+            bytes[count++] = (byte) value;
+        }
+
+        private void writeVarLong(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7fL) != 0) {
+                bytes[count++] = (byte) ((value & 0x7f) | 0x80);
+                value >>>= 7;
+            }
+            bytes[count++] = (byte) value;
+        }
+
+        private void writeString(String value) {
+            byte[] encoded = value.getBytes(UTF_8);
+            writeVarLong(encoded.length);
+            ensureCapacity(encoded.length);
+            System.arraycopy(encoded, 0, bytes, count, encoded.length);
+            count += encoded.length;
+        }
+
+        private void ensureCapacity(int length) {
+            if (count + length > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, count + length));
+            }
+        }
+    }
+}
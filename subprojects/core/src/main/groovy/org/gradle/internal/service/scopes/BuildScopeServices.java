@@ -32,10 +32,13 @@ import org.gradle.api.internal.component.ComponentTypeRegistry;
 import org.gradle.api.internal.component.DefaultComponentTypeRegistry;
 import org.gradle.api.internal.file.FileLookup;
 import org.gradle.api.internal.file.FileResolver;
+import org.gradle.api.internal.file.TemporaryFileProvider;
 import org.gradle.api.internal.file.collections.DirectoryFileTreeFactory;
 import org.gradle.api.internal.initialization.DefaultScriptHandlerFactory;
 import org.gradle.api.internal.initialization.ScriptHandlerFactory;
 import org.gradle.api.internal.initialization.loadercache.ClassLoaderCache;
+import org.gradle.api.internal.initialization.loadercache.ClassPathSnapshotter;
+import org.gradle.api.internal.initialization.loadercache.HashClassPathSnapshotter;
 import org.gradle.api.internal.plugins.DefaultPluginRegistry;
 import org.gradle.api.internal.plugins.PluginInspector;
 import org.gradle.api.internal.plugins.PluginRegistry;
@@ -47,6 +50,7 @@ import org.gradle.api.internal.project.taskfactory.ITaskFactory;
 import org.gradle.api.internal.project.taskfactory.TaskFactory;
 import org.gradle.cache.CacheRepository;
 import org.gradle.cache.CacheValidator;
+import org.gradle.cache.internal.MapBackedInMemoryStore;
 import org.gradle.configuration.*;
 import org.gradle.configuration.project.*;
 import org.gradle.execution.ProjectConfigurer;
@@ -57,6 +61,7 @@ import org.gradle.groovy.scripts.ScriptExecutionListener;
 import org.gradle.groovy.scripts.internal.*;
 import org.gradle.initialization.*;
 import org.gradle.initialization.buildsrc.BuildSourceBuilder;
+import org.gradle.initialization.layout.BuildLayoutConfiguration;
 import org.gradle.initialization.layout.BuildLayoutFactory;
 import org.gradle.internal.TimeProvider;
 import org.gradle.internal.TrueTimeProvider;
@@ -84,11 +89,17 @@ import org.gradle.logging.ProgressLoggerFactory;
 import org.gradle.logging.ShowStacktrace;
 import org.gradle.messaging.actor.ActorFactory;
 import org.gradle.messaging.actor.internal.DefaultActorFactory;
+import org.gradle.model.internal.inspect.ModelRuleExtractor;
 import org.gradle.model.internal.inspect.ModelRuleSourceDetector;
+import org.gradle.model.internal.manage.binding.DefaultStructBindingsStore;
+import org.gradle.model.internal.manage.schema.extract.DefaultModelSchemaStore;
 import org.gradle.plugin.use.internal.PluginRequestApplicator;
+import org.gradle.profile.ModelMetadataCacheStatistics;
 import org.gradle.profile.ProfileEventAdapter;
 import org.gradle.profile.ProfileListener;
 
+import java.io.File;
+
 /**
  * Contains the singleton services for a single build invocation.
  */
@@ -201,22 +212,38 @@ public class BuildScopeServices extends DefaultServiceRegistry {
     protected FileCacheBackedScriptClassCompiler createFileCacheBackedScriptClassCompiler(
         CacheRepository cacheRepository, final StartParameter startParameter,
         ProgressLoggerFactory progressLoggerFactory, ClassLoaderCache classLoaderCache, ImportsReader importsReader,
-        CachingFileSnapshotter snapshotter) {
+        CachingFileSnapshotter snapshotter, MapBackedInMemoryStore inMemoryStore) {
         CacheValidator scriptCacheInvalidator = new CacheValidator() {
             public boolean isValid() {
                 return !startParameter.isRecompileScripts();
             }
         };
+        SharedScriptClassStore sharedStore = SharedScriptClassStore.fromSystemProperties();
+        File rootDir = null;
+        ClassPathSnapshotter classPathSnapshotter = null;
+        if (sharedStore != null) {
+            rootDir = new BuildLayoutFactory().getLayoutFor(new BuildLayoutConfiguration(startParameter)).getRootDirectory();
+            // Compiled scripts are shared between machines, so the class path is identified by its content rather than its location
+            classPathSnapshotter = new HashClassPathSnapshotter(snapshotter, inMemoryStore);
+        }
         return new FileCacheBackedScriptClassCompiler(
             cacheRepository,
             scriptCacheInvalidator,
             new DefaultScriptCompilationHandler(classLoaderCache, importsReader),
             progressLoggerFactory,
             snapshotter,
-            classLoaderCache
+            classLoaderCache,
+            sharedStore,
+            rootDir,
+            classPathSnapshotter
         );
     }
 
+    protected BuildScriptPrecompiler createBuildScriptPrecompiler(FileCacheBackedScriptClassCompiler scriptCompiler, DocumentationRegistry documentationRegistry,
+                                                                  TemporaryFileProvider temporaryFileProvider, ExecutorFactory executorFactory, StartParameter startParameter) {
+        return new BuildScriptPrecompiler(scriptCompiler, new CompileOperationFactory(documentationRegistry), temporaryFileProvider, executorFactory, startParameter.getMaxWorkerCount());
+    }
+
     protected ScriptPluginFactory createScriptObjectConfigurerFactory() {
         return new DefaultScriptPluginFactory(
             get(ScriptCompilerFactory.class),
@@ -292,8 +319,8 @@ public class BuildScopeServices extends DefaultServiceRegistry {
         );
     }
 
-    protected ProjectConfigurer createProjectConfigurer(BuildCancellationToken cancellationToken) {
-        return new TaskPathProjectEvaluator(cancellationToken);
+    protected ProjectConfigurer createProjectConfigurer(BuildCancellationToken cancellationToken, ExecutorFactory executorFactory, StartParameter startParameter) {
+        return new TaskPathProjectEvaluator(cancellationToken, executorFactory, startParameter.getMaxWorkerCount());
     }
 
     protected BuildConfigurer createBuildConfigurer(ProjectConfigurer projectConfigurer) {
@@ -305,7 +332,11 @@ public class BuildScopeServices extends DefaultServiceRegistry {
     }
 
     protected ProfileEventAdapter createProfileEventAdapter() {
-        return new ProfileEventAdapter(get(BuildRequestMetaData.class), get(TimeProvider.class), get(ListenerManager.class).getBroadcaster(ProfileListener.class));
+        return new ProfileEventAdapter(get(BuildRequestMetaData.class), get(TimeProvider.class), get(ListenerManager.class).getBroadcaster(ProfileListener.class), get(ModelMetadataCacheStatistics.class));
+    }
+
+    protected ModelMetadataCacheStatistics createModelMetadataCacheStatistics(ModelRuleExtractor ruleExtractor, DefaultModelSchemaStore schemaStore, DefaultStructBindingsStore structBindingsStore) {
+        return new ModelMetadataCacheStatistics(ruleExtractor, schemaStore, structBindingsStore);
     }
 
     protected PluginRegistry createPluginRegistry(ClassLoaderScopeRegistry scopeRegistry, PluginInspector pluginInspector) {
@@ -21,10 +21,13 @@ import org.gradle.api.Action;
 import org.gradle.api.internal.ClassPathRegistry;
 import org.gradle.api.internal.DefaultClassPathProvider;
 import org.gradle.api.internal.DefaultClassPathRegistry;
+import org.gradle.api.internal.GeneratedClassCache;
 import org.gradle.api.internal.classpath.ModuleRegistry;
 import org.gradle.api.internal.file.TemporaryFileProvider;
+import org.gradle.cache.CacheBuilder;
 import org.gradle.cache.CacheRepository;
 import org.gradle.cache.internal.CacheRepositoryServices;
+import org.gradle.cache.internal.DefaultCacheScopeMapping;
 import org.gradle.deployment.internal.DefaultDeploymentRegistry;
 import org.gradle.deployment.internal.DeploymentRegistry;
 import org.gradle.internal.Factory;
@@ -39,6 +42,7 @@ import org.gradle.process.internal.DefaultWorkerProcessFactory;
 import org.gradle.process.internal.ExecHandleFactory;
 import org.gradle.process.internal.WorkerProcessBuilder;
 import org.gradle.process.internal.child.WorkerProcessClassPathProvider;
+import org.gradle.util.GradleVersion;
 
 /**
  * Contains the services for a single build session, which could be a single build or multiple builds when in continuous mode.
@@ -58,6 +62,10 @@ public class BuildSessionScopeServices extends DefaultServiceRegistry {
         });
         add(InjectedPluginClasspath.class, new InjectedPluginClasspath(injectedPluginClassPath));
         addProvider(new CacheRepositoryServices(startParameter.getGradleUserHomeDir(), startParameter.getProjectCacheDir()));
+        for (GeneratedClassCache generatedClassCache : parent.getAll(GeneratedClassCache.class)) {
+            DefaultCacheScopeMapping cacheScopeMapping = new DefaultCacheScopeMapping(startParameter.getGradleUserHomeDir(), null, GradleVersion.current());
+            generatedClassCache.useCacheDir(cacheScopeMapping.getBaseDirectory(null, "generated-classes", CacheBuilder.VersionStrategy.CachePerVersion));
+        }
     }
 
     DeploymentRegistry createDeploymentRegistry() {
@@ -166,8 +166,12 @@ public class GlobalScopeServices {
         return messagingServices.get(MessagingServer.class);
     }
 
-    ClassGenerator createClassGenerator() {
-        return new AsmBackedClassGenerator();
+    GeneratedClassCache createGeneratedClassCache() {
+        return new GeneratedClassCache();
+    }
+
+    ClassGenerator createClassGenerator(GeneratedClassCache generatedClassCache) {
+        return new AsmBackedClassGenerator(generatedClassCache);
     }
 
     Instantiator createInstantiator(ClassGenerator classGenerator) {
@@ -238,7 +242,7 @@ public class GlobalScopeServices {
         return new CachingFileSnapshotter(new DefaultHasher(), inMemoryStore, stringInterner);
     }
 
-    ClassLoaderCache createClassLoaderCache(ClassPathSnapshotter classPathSnapshotter) {
+    DefaultClassLoaderCache createClassLoaderCache(ClassPathSnapshotter classPathSnapshotter) {
         return new DefaultClassLoaderCache(classPathSnapshotter);
     }
 
@@ -255,11 +259,11 @@ public class GlobalScopeServices {
         return DefaultModelSchemaExtractor.withDefaultStrategies(serviceRegistry.getAll(ModelSchemaExtractionStrategy.class), aspectExtractor);
     }
 
-    protected ModelSchemaStore createModelSchemaStore(ModelSchemaExtractor modelSchemaExtractor) {
+    protected DefaultModelSchemaStore createModelSchemaStore(ModelSchemaExtractor modelSchemaExtractor) {
         return new DefaultModelSchemaStore(modelSchemaExtractor);
     }
 
-    protected StructBindingsStore createStructBindingsStore(ModelSchemaStore schemaStore) {
+    protected DefaultStructBindingsStore createStructBindingsStore(ModelSchemaStore schemaStore) {
         return new DefaultStructBindingsStore(schemaStore);
     }
 
@@ -31,6 +31,7 @@ import org.gradle.api.internal.initialization.ScriptHandlerFactory;
 import org.gradle.api.internal.plugins.DefaultObjectConfigurationAction;
 import org.gradle.api.internal.plugins.PluginManagerInternal;
 import org.gradle.api.internal.project.AbstractPluginAware;
+import org.gradle.api.internal.project.ProjectConfigurationConflicts;
 import org.gradle.api.internal.project.ProjectInternal;
 import org.gradle.api.invocation.Gradle;
 import org.gradle.configuration.ScriptPluginFactory;
@@ -116,6 +117,7 @@ public class DefaultGradle extends AbstractPluginAware implements GradleInternal
             rootProjectActions.add(action);
         } else {
             assert rootProject != null;
+            ProjectConfigurationConflicts.beforeAccessing(rootProject);
             action.execute(rootProject);
         }
     }
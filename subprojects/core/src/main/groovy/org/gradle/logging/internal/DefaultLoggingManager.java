@@ -69,6 +69,7 @@ public class DefaultLoggingManager implements LoggingManagerInternal, Closeable
 
     public DefaultLoggingManager stop() {
         try {
+            loggingOutput.flush();
             CompositeStoppable.stoppable(loggingSystem, javaUtilLoggingSystem, stdOutLoggingSystem, stdErrLoggingSystem).stop();
             for (StandardOutputListener stdoutListener : stdoutListeners) {
                 loggingOutput.removeStandardOutputListener(stdoutListener);
@@ -184,6 +185,10 @@ public class DefaultLoggingManager implements LoggingManagerInternal, Closeable
         loggingOutput.attachSystemOutAndErr();
     }
 
+    public void flush() {
+        loggingOutput.flush();
+    }
+
     private static class StartableLoggingSystem implements Stoppable {
         private final LoggingSystem loggingSystem;
         private LogLevel level;
@@ -71,4 +71,9 @@ public interface LoggingOutputInternal extends LoggingOutput {
      * Removes all non-standard output event listeners (also the ones attached with attachConsole)
      */
     void removeAllOutputEventListeners();
+
+    /**
+     * Waits, up to a timeout, until the output generated so far has been delivered to the logging destinations.
+     */
+    void flush();
 }
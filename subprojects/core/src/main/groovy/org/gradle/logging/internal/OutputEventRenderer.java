@@ -26,20 +26,44 @@ import org.gradle.logging.ConsoleOutput;
 
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * A {@link org.gradle.logging.internal.OutputEventListener} implementation which renders output events to various
  * destinations. This implementation is thread-safe.
+ *
+ * <p>Events are filtered by log level without locking and then added to a bounded queue, which a single renderer thread drains in the order
+ * the events were added. Producers only block when the queue is full. Changes to the logging destinations and {@link #flush()} first wait for
+ * the events queued so far to be rendered, for at most {@link #FLUSH_TIMEOUT_MILLIS}. A destination that fails to render an event does not stop the
+ * remaining events from being rendered, and the failure is rethrown to the producer by the next flush.</p>
  */
 @ThreadSafe
 public class OutputEventRenderer implements OutputEventListener, LoggingConfigurer, LoggingOutputInternal {
+    static final int MAX_PENDING_EVENTS = 10000;
+    static final long FLUSH_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    private static final long RENDERER_IDLE_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(10);
+
     private final ListenerBroadcast<OutputEventListener> stdOutAndErrorFormatters = new ListenerBroadcast<OutputEventListener>(OutputEventListener.class);
     private final ListenerBroadcast<OutputEventListener> formatters = new ListenerBroadcast<OutputEventListener>(OutputEventListener.class);
     private final ListenerBroadcast<StandardOutputListener> stdoutListeners = new ListenerBroadcast<StandardOutputListener>(StandardOutputListener.class);
     private final ListenerBroadcast<StandardOutputListener> stderrListeners = new ListenerBroadcast<StandardOutputListener>(StandardOutputListener.class);
-    private final Object lock = new Object();
+    // held while rendering and while changing the destinations
+    private final ReentrantLock lock = new ReentrantLock();
+    private final BlockingQueue<OutputEvent> pendingEvents = new LinkedBlockingQueue<OutputEvent>(MAX_PENDING_EVENTS);
+    // guards the renderer thread and the event counts
+    private final Object renderState = new Object();
+    private volatile Thread rendererThread;
+    private long queuedCount;
+    private long renderedCount;
+    private RuntimeException renderFailure;
     private final DefaultColorMap colourMap = new DefaultColorMap();
-    private LogLevel logLevel = LogLevel.LIFECYCLE;
+    private final AtomicReference<LogLevel> logLevel = new AtomicReference<LogLevel>(LogLevel.LIFECYCLE);
     private final Action<? super OutputEventRenderer> consoleConfigureAction;
     private OutputStream originalStdOut;
     private OutputStream originalStdErr;
@@ -72,17 +96,23 @@ public class OutputEventRenderer implements OutputEventListener, LoggingConfigur
     }
 
     public void attachProcessConsole(ConsoleOutput consoleOutput) {
-        synchronized (lock) {
+        flushAndLock();
+        try {
             this.consoleOutput = consoleOutput;
             consoleConfigureAction.execute(this);
+        } finally {
+            lock.unlock();
         }
     }
 
     public void attachAnsiConsole(OutputStream outputStream) {
-        synchronized (lock) {
+        flushAndLock();
+        try {
             OutputStreamWriter writer = new OutputStreamWriter(outputStream);
             Console console = new AnsiConsole(writer, writer, colourMap, true);
             addConsole(console, true, true, new FallbackConsoleMetaData());
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -92,24 +122,30 @@ public class OutputEventRenderer implements OutputEventListener, LoggingConfigur
     }
 
     private void addStandardOutputListener() {
-        synchronized (lock) {
+        flushAndLock();
+        try {
             originalStdOut = System.out;
             if (stdOutListener != null) {
                 stdoutListeners.remove(stdOutListener);
             }
             stdOutListener = new StreamBackedStandardOutputListener((Appendable) System.out);
             addStandardOutputListener(stdOutListener);
+        } finally {
+            lock.unlock();
         }
     }
 
     private void addStandardErrorListener() {
-        synchronized (lock) {
+        flushAndLock();
+        try {
             originalStdErr = System.err;
             if(stdErrListener != null) {
                 stderrListeners.remove(stdErrListener);
             }
             stdErrListener = new StreamBackedStandardOutputListener((Appendable) System.err);
             addStandardErrorListener(stdErrListener);
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -119,38 +155,53 @@ public class OutputEventRenderer implements OutputEventListener, LoggingConfigur
     }
 
     private void removeStandardOutputListener() {
-        synchronized (lock) {
+        flushAndLock();
+        try {
             if (stdOutListener != null) {
                 stdoutListeners.remove(stdOutListener);
                 stdOutListener = null;
             }
+        } finally {
+            lock.unlock();
         }
     }
 
     private void removeStandardErrorListener() {
-        synchronized (lock) {
+        flushAndLock();
+        try {
             if(stdErrListener != null) {
                 stderrListeners.remove(stdErrListener);
                 stdErrListener = null;
             }
+        } finally {
+            lock.unlock();
         }
     }
 
     public void addOutputEventListener(OutputEventListener listener) {
-        synchronized (lock) {
+        flushAndLock();
+        try {
             formatters.add(listener);
+        } finally {
+            lock.unlock();
         }
     }
 
     public void removeOutputEventListener(OutputEventListener listener) {
-        synchronized (lock) {
+        flushAndLock();
+        try {
             formatters.remove(listener);
+        } finally {
+            lock.unlock();
         }
     }
 
     public void removeAllOutputEventListeners() {
-        synchronized (lock) {
+        flushAndLock();
+        try {
             formatters.removeAll();
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -160,7 +211,8 @@ public class OutputEventRenderer implements OutputEventListener, LoggingConfigur
                         new StyledTextOutputBackedRenderer(console.getMainArea()), true),
                 console,
                 new DefaultStatusBarFormatter(consoleMetaData));
-        synchronized (lock) {
+        flushAndLock();
+        try {
             if (stdout && stderr) {
                 formatters.add(consoleChain);
                 removeStandardOutputAndError();
@@ -171,7 +223,9 @@ public class OutputEventRenderer implements OutputEventListener, LoggingConfigur
                 formatters.add(onError(consoleChain));
                 removeStandardErrorListener();
             }
-            consoleChain.onOutput(new LogLevelChangeEvent(logLevel));
+            consoleChain.onOutput(new LogLevelChangeEvent(logLevel.get()));
+        } finally {
+            lock.unlock();
         }
         return this;
     }
@@ -197,14 +251,20 @@ public class OutputEventRenderer implements OutputEventListener, LoggingConfigur
     }
 
     public void addStandardErrorListener(StandardOutputListener listener) {
-        synchronized (lock) {
+        flushAndLock();
+        try {
             stderrListeners.add(listener);
+        } finally {
+            lock.unlock();
         }
     }
 
     public void addStandardOutputListener(StandardOutputListener listener) {
-        synchronized (lock) {
+        flushAndLock();
+        try {
             stdoutListeners.add(listener);
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -218,14 +278,20 @@ public class OutputEventRenderer implements OutputEventListener, LoggingConfigur
 
 
     public void removeStandardOutputListener(StandardOutputListener listener) {
-        synchronized (lock) {
+        flushAndLock();
+        try {
             stdoutListeners.remove(listener);
+        } finally {
+            lock.unlock();
         }
     }
 
     public void removeStandardErrorListener(StandardOutputListener listener) {
-        synchronized (lock) {
+        flushAndLock();
+        try {
             stderrListeners.remove(listener);
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -234,20 +300,161 @@ public class OutputEventRenderer implements OutputEventListener, LoggingConfigur
     }
 
     public void onOutput(OutputEvent event) {
-        synchronized (lock) {
-            if (event.getLogLevel() != null && event.getLogLevel().compareTo(logLevel) < 0) {
+        if (event.getLogLevel() != null && event.getLogLevel().compareTo(logLevel.get()) < 0) {
+            return;
+        }
+        if (event instanceof LogLevelChangeEvent) {
+            LogLevelChangeEvent changeEvent = (LogLevelChangeEvent) event;
+            LogLevel newLogLevel = changeEvent.getNewLogLevel();
+            if (logLevel.getAndSet(newLogLevel) == newLogLevel) {
                 return;
             }
-            if (event instanceof LogLevelChangeEvent) {
-                LogLevelChangeEvent changeEvent = (LogLevelChangeEvent) event;
-                LogLevel newLogLevel = changeEvent.getNewLogLevel();
-                if (newLogLevel == this.logLevel) {
-                    return;
+        }
+        if (Thread.currentThread() == rendererThread) {
+            // generated while rendering, for example by a listener that logs. Queuing it could block the renderer on its own queue
+            render(event);
+            return;
+        }
+        synchronized (renderState) {
+            queuedCount++;
+        }
+        try {
+            pendingEvents.put(event);
+        } catch (InterruptedException e) {
+            synchronized (renderState) {
+                queuedCount--;
+                renderState.notifyAll();
+            }
+            Thread.currentThread().interrupt();
+            return;
+        }
+        synchronized (renderState) {
+            if (rendererThread == null) {
+                startRenderer();
+            }
+        }
+    }
+
+    /**
+     * Waits until the events generated so far have been rendered, for at most {@link #FLUSH_TIMEOUT_MILLIS}. Called before the logging
+     * destinations change and at the end of a build, so that no output is lost or sent to the wrong destination. Rethrows the first failure
+     * of a destination to render an event since the previous flush.
+     */
+    public void flush() {
+        if (Thread.currentThread() == rendererThread || lock.isHeldByCurrentThread()) {
+            // the renderer cannot make progress until this thread returns
+            return;
+        }
+        RuntimeException failure;
+        synchronized (renderState) {
+            long target = queuedCount;
+            long deadline = System.currentTimeMillis() + FLUSH_TIMEOUT_MILLIS;
+            while (renderedCount < target) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    // leave the events queued and carry on, rather than hang the build on a stuck destination
+                    break;
+                }
+                try {
+                    renderState.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
                 }
-                this.logLevel = newLogLevel;
             }
+            failure = renderFailure;
+            renderFailure = null;
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void flushAndLock() {
+        flush();
+        lock.lock();
+    }
+
+    private void startRenderer() {
+        rendererThread = new Thread(new Renderer(), "Render output events");
+        rendererThread.setDaemon(true);
+        rendererThread.start();
+    }
+
+    private void render(OutputEvent event) {
+        lock.lock();
+        try {
             stdOutAndErrorFormatters.getSource().onOutput(event);
             formatters.getSource().onOutput(event);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private class Renderer implements Runnable {
+        public void run() {
+            try {
+                renderEvents();
+            } catch (InterruptedException e) {
+                // stop rendering
+            } finally {
+                synchronized (renderState) {
+                    if (rendererThread == Thread.currentThread()) {
+                        rendererThread = null;
+                        if (!pendingEvents.isEmpty()) {
+                            // a destination failed, carry on with the remaining events on a new thread
+                            startRenderer();
+                        }
+                    }
+                }
+            }
+        }
+
+        private void renderEvents() throws InterruptedException {
+            List<OutputEvent> batch = new ArrayList<OutputEvent>();
+            while (true) {
+                OutputEvent first = pendingEvents.poll(RENDERER_IDLE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    synchronized (renderState) {
+                        if (pendingEvents.isEmpty()) {
+                            rendererThread = null;
+                            return;
+                        }
+                    }
+                    continue;
+                }
+                batch.add(first);
+                pendingEvents.drainTo(batch);
+                try {
+                    lock.lock();
+                    try {
+                        for (OutputEvent event : batch) {
+                            try {
+                                stdOutAndErrorFormatters.getSource().onOutput(event);
+                                formatters.getSource().onOutput(event);
+                            } catch (RuntimeException e) {
+                                recordFailure(e);
+                            }
+                        }
+                    } finally {
+                        lock.unlock();
+                    }
+                } finally {
+                    synchronized (renderState) {
+                        renderedCount += batch.size();
+                        renderState.notifyAll();
+                    }
+                    batch.clear();
+                }
+            }
+        }
+
+        private void recordFailure(RuntimeException failure) {
+            synchronized (renderState) {
+                if (renderFailure == null) {
+                    renderFailure = failure;
+                }
+            }
         }
     }
 }
@@ -15,6 +15,7 @@
  */
 package org.gradle.profile;
 
+import com.google.common.cache.CacheStats;
 import org.gradle.StartParameter;
 import org.gradle.util.CollectionUtils;
 
@@ -46,6 +47,7 @@ public class BuildProfile {
 
     private final Map<String, ProjectProfile> projects = new LinkedHashMap<String, ProjectProfile>();
     private final Map<String, ContinuousOperation> dependencySets = new LinkedHashMap<String, ContinuousOperation>();
+    private final Map<String, CacheStats> modelMetadataCaches = new LinkedHashMap<String, CacheStats>();
     private long profilingStarted;
     private long buildStarted;
     private long settingsEvaluated;
@@ -136,6 +138,18 @@ public class BuildProfile {
         return new CompositeOperation<ContinuousOperation>(profiles);
     }
 
+    /**
+     * Get the statistics of the model metadata caches for the requests made during this build, keyed by the description of the cache.
+     */
+    public Map<String, CacheStats> getModelMetadataCaches() {
+        return modelMetadataCaches;
+    }
+
+    public void setModelMetadataCaches(Map<String, CacheStats> modelMetadataCaches) {
+        this.modelMetadataCaches.clear();
+        this.modelMetadataCaches.putAll(modelMetadataCaches);
+    }
+
     /**
      * Should be set with a time as soon as possible after startup.
      * @param profilingStarted
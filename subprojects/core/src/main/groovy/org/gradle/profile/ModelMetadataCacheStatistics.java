@@ -0,0 +1,70 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.profile;
+
+import com.google.common.cache.CacheStats;
+import org.gradle.model.internal.inspect.ModelRuleExtractor;
+import org.gradle.model.internal.manage.binding.DefaultStructBindingsStore;
+import org.gradle.model.internal.manage.schema.extract.DefaultModelSchemaStore;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Tracks the use of the process wide caches of model metadata during a build: the rule sources extracted from plugin classes, the schemas of model types
+ * and the struct bindings of managed types.
+ */
+public class ModelMetadataCacheStatistics {
+    private final ModelRuleExtractor ruleExtractor;
+    private final DefaultModelSchemaStore schemaStore;
+    private final DefaultStructBindingsStore structBindingsStore;
+    private Map<String, CacheStats> atStart;
+
+    public ModelMetadataCacheStatistics(ModelRuleExtractor ruleExtractor, DefaultModelSchemaStore schemaStore, DefaultStructBindingsStore structBindingsStore) {
+        this.ruleExtractor = ruleExtractor;
+        this.schemaStore = schemaStore;
+        this.structBindingsStore = structBindingsStore;
+    }
+
+    public void buildStarted() {
+        // Discard the schemas and bindings of classes unloaded since the previous build
+        schemaStore.cleanUp();
+        structBindingsStore.cleanUp();
+        atStart = snapshot();
+    }
+
+    /**
+     * Returns the statistics of each cache for the requests made since the build started.
+     */
+    public Map<String, CacheStats> sinceBuildStarted() {
+        Map<String, CacheStats> result = snapshot();
+        if (atStart != null) {
+            for (Map.Entry<String, CacheStats> entry : result.entrySet()) {
+                entry.setValue(entry.getValue().minus(atStart.get(entry.getKey())));
+            }
+        }
+        return result;
+    }
+
+    private Map<String, CacheStats> snapshot() {
+        Map<String, CacheStats> stats = new LinkedHashMap<String, CacheStats>();
+        stats.put("Rule sources", ruleExtractor.getCacheStats());
+        stats.put("Model schemas", schemaStore.getCacheStats());
+        stats.put("Struct bindings", structBindingsStore.getCacheStats());
+        return stats;
+    }
+}
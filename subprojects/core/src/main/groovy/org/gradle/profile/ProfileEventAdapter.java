@@ -38,12 +38,14 @@ public class ProfileEventAdapter implements BuildListener, ProjectEvaluationList
     private final BuildRequestMetaData buildMetaData;
     private final TimeProvider timeProvider;
     private final ProfileListener listener;
+    private final ModelMetadataCacheStatistics modelMetadataCacheStatistics;
     private BuildProfile buildProfile;
 
-    public ProfileEventAdapter(BuildRequestMetaData buildMetaData, TimeProvider timeProvider, ProfileListener listener) {
+    public ProfileEventAdapter(BuildRequestMetaData buildMetaData, TimeProvider timeProvider, ProfileListener listener, ModelMetadataCacheStatistics modelMetadataCacheStatistics) {
         this.buildMetaData = buildMetaData;
         this.timeProvider = timeProvider;
         this.listener = listener;
+        this.modelMetadataCacheStatistics = modelMetadataCacheStatistics;
     }
 
     // BuildListener
@@ -52,6 +54,7 @@ public class ProfileEventAdapter implements BuildListener, ProjectEvaluationList
         buildProfile = new BuildProfile(gradle.getStartParameter());
         buildProfile.setBuildStarted(now);
         buildProfile.setProfilingStarted(buildMetaData.getBuildTimeClock().getStartTime());
+        modelMetadataCacheStatistics.buildStarted();
     }
 
     public void settingsEvaluated(Settings settings) {
@@ -68,6 +71,7 @@ public class ProfileEventAdapter implements BuildListener, ProjectEvaluationList
 
     public void buildFinished(BuildResult result) {
         buildProfile.setSuccessful(result.getFailure() == null);
+        buildProfile.setModelMetadataCaches(modelMetadataCacheStatistics.sinceBuildStarted());
     }
 
     public void completed() {
@@ -15,6 +15,7 @@
  */
 package org.gradle.profile;
 
+import com.google.common.cache.CacheStats;
 import org.gradle.internal.html.SimpleHtmlWriter;
 import org.gradle.reporting.DurationFormatter;
 import org.gradle.reporting.HtmlReportRenderer;
@@ -24,6 +25,7 @@ import org.gradle.reporting.TabbedPageRenderer;
 import java.io.File;
 import java.io.IOException;
 import java.net.URL;
+import java.util.Map;
 
 public class ProfileReportRenderer {
     private static final DurationFormatter DURATION_FORMAT = new DurationFormatter();
@@ -107,6 +109,28 @@ public class ProfileReportRenderer {
                                     htmlWriter.startElement("td").attribute("class", "numeric").characters(DURATION_FORMAT.format(model.getElapsedTotalExecutionTime())).endElement();
                                 htmlWriter.endElement();
                             htmlWriter.endElement();
+                            if (!model.getModelMetadataCaches().isEmpty()) {
+                                htmlWriter.startElement("h2").characters("Model Metadata Caches").endElement();
+                                htmlWriter.startElement("table");
+                                    htmlWriter.startElement("thead");
+                                        htmlWriter.startElement("tr");
+                                            htmlWriter.startElement("th").characters("Cache").endElement();
+                                            htmlWriter.startElement("th").attribute("class", "numeric").characters("Hits").endElement();
+                                            htmlWriter.startElement("th").attribute("class", "numeric").characters("Misses").endElement();
+                                            htmlWriter.startElement("th").attribute("class", "numeric").characters("Hit Rate").endElement();
+                                        htmlWriter.endElement();
+                                    htmlWriter.endElement();
+                                    for (Map.Entry<String, CacheStats> entry : model.getModelMetadataCaches().entrySet()) {
+                                        CacheStats stats = entry.getValue();
+                                        htmlWriter.startElement("tr");
+                                            htmlWriter.startElement("td").characters(entry.getKey()).endElement();
+                                            htmlWriter.startElement("td").attribute("class", "numeric").characters(String.valueOf(stats.hitCount())).endElement();
+                                            htmlWriter.startElement("td").attribute("class", "numeric").characters(String.valueOf(stats.missCount())).endElement();
+                                            htmlWriter.startElement("td").attribute("class", "numeric").characters(String.format("%.0f%%", stats.hitRate() * 100)).endElement();
+                                        htmlWriter.endElement();
+                                    }
+                                htmlWriter.endElement();
+                            }
                         htmlWriter.endElement();
                         htmlWriter.startElement("div").attribute("class", "tab").attribute("id", "tab1");
                             htmlWriter.startElement("h2").characters("Configuration").endElement();
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal
+
+import org.codehaus.groovy.control.CompilationUnit
+import org.codehaus.groovy.control.CompilerConfiguration
+import org.gradle.internal.classloader.ClasspathUtil
+import org.gradle.internal.classloader.FilteringClassLoader
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+import java.util.concurrent.TimeUnit
+
+class GeneratedClassCacheTest extends Specification {
+    @Rule
+    final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    final GeneratedClassCache cache = new GeneratedClassCache()
+
+    def setup() {
+        cache.useCacheDir(tmpDir.file("cache"))
+    }
+
+    def "loads bytecode stored for the same generator and type"() {
+        def bytecode = [1, 2, 3] as byte[]
+
+        when:
+        cache.store(AsmBackedClassGenerator, Bean, bytecode)
+
+        then:
+        cache.load(AsmBackedClassGenerator, Bean) == bytecode
+        cache.load(AsmBackedClassGenerator, OtherBean) == null
+        cache.load(CountingClassGenerator, Bean) == null
+    }
+
+    def "does not cache types whose class files are not available"() {
+        def type = new GroovyClassLoader(getClass().classLoader).parseClass("class ScriptBean { String prop }")
+
+        when:
+        cache.store(AsmBackedClassGenerator, type, [1, 2, 3] as byte[])
+
+        then:
+        cache.load(AsmBackedClassGenerator, type) == null
+    }
+
+    def "entry depends on the types used in method signatures"() {
+        def bytecode = [1, 2, 3] as byte[]
+        def original = tmpDir.file("original")
+        def changed = tmpDir.file("changed")
+        compile(original, "class Param {}", "class BeanWithParam { void setValue(Param p) {} }")
+        compile(changed, "class Param implements org.gradle.api.Action { void execute(Object o) {} }")
+        original.file("BeanWithParam.class").copyTo(changed.file("BeanWithParam.class"))
+
+        when:
+        cache.store(AsmBackedClassGenerator, load(original, "BeanWithParam"), bytecode)
+
+        then:
+        cache.load(AsmBackedClassGenerator, load(original, "BeanWithParam")) == bytecode
+        cache.load(AsmBackedClassGenerator, load(changed, "BeanWithParam")) == null
+    }
+
+    def "deletes entries that have not been used recently"() {
+        def dir = tmpDir.file("other")
+        def old = dir.file("Bean/old.class").createFile()
+        old.lastModified = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(8)
+        def staleTmp = dir.file("Bean/fresh.class123.tmp").createFile()
+        staleTmp.lastModified = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(2)
+        def recent = dir.file("Bean/recent.class").createFile()
+        def unused = dir.file("OtherBean/old.class").createFile()
+        unused.lastModified = old.lastModified
+
+        when:
+        new GeneratedClassCache().useCacheDir(dir)
+
+        then:
+        !old.exists()
+        !staleTmp.exists()
+        recent.exists()
+        !dir.file("OtherBean").exists()
+    }
+
+    def "deletes unused entries at most once a day"() {
+        def dir = tmpDir.file("other")
+        new GeneratedClassCache().useCacheDir(dir)
+        def old = dir.file("Bean/old.class").createFile()
+        old.lastModified = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(8)
+
+        when:
+        new GeneratedClassCache().useCacheDir(dir)
+
+        then:
+        old.exists()
+    }
+
+    def "is not used until a cache directory is set"() {
+        def cache = new GeneratedClassCache()
+
+        when:
+        cache.store(AsmBackedClassGenerator, Bean, [1, 2, 3] as byte[])
+
+        then:
+        cache.load(AsmBackedClassGenerator, Bean) == null
+    }
+
+    def "generator defines class generated by another generator from cache"() {
+        def generator = new CountingClassGenerator(cache)
+
+        when:
+        def first = generator.generate(isolatedBeanType())
+
+        then:
+        generator.generated == 1
+
+        when:
+        def type = isolatedBeanType()
+        def otherGenerator = new CountingClassGenerator(cache)
+        def second = otherGenerator.generate(type)
+
+        then:
+        otherGenerator.generated == 0
+        second.superclass == type
+        second.name == Bean.name + "_Decorated"
+        second != first
+        second.newInstance().prop == null
+        second.newInstance() instanceof DynamicObjectAware
+    }
+
+    def "generator loads cached class only once per type"() {
+        def generator = new CountingClassGenerator(cache)
+        def type = isolatedBeanType()
+
+        expect:
+        generator.generate(type).is(generator.generate(type))
+        generator.generated == 1
+    }
+
+    private static void compile(File dir, String... sources) {
+        def configuration = new CompilerConfiguration()
+        configuration.targetDirectory = dir
+        def unit = new CompilationUnit(configuration)
+        sources.eachWithIndex { String source, int index -> unit.addSource("Source${index}.groovy", source) }
+        unit.compile()
+    }
+
+    private static Class<?> load(File dir, String className) {
+        return new URLClassLoader([dir.toURI().toURL()] as URL[], GeneratedClassCacheTest.classLoader).loadClass(className)
+    }
+
+    private static Class<?> isolatedBeanType() {
+        def parent = new FilteringClassLoader(GeneratedClassCacheTest.classLoader)
+        parent.allowPackage("org.gradle")
+        parent.allowPackage("groovy")
+        parent.allowPackage("org.codehaus.groovy")
+        parent.disallowClass(Bean.name)
+        def loader = new URLClassLoader([ClasspathUtil.getClasspathForClass(Bean).toURI().toURL()] as URL[], parent)
+        return loader.loadClass(Bean.name)
+    }
+
+    static class CountingClassGenerator extends AsmBackedClassGenerator {
+        int generated
+
+        CountingClassGenerator(GeneratedClassCache cache) {
+            super(cache)
+        }
+
+        @Override
+        protected <T> AbstractClassGenerator.ClassBuilder<T> start(Class<T> type, AbstractClassGenerator.ClassMetaData classMetaData) {
+            generated++
+            return super.start(type, classMetaData)
+        }
+    }
+
+    static class Bean {
+        String prop
+    }
+
+    static class OtherBean {
+        String prop
+    }
+}
@@ -16,6 +16,10 @@
 
 package org.gradle.api.internal.initialization.loadercache
 
+import org.gradle.api.internal.cache.StringInterner
+import org.gradle.api.internal.changedetection.state.CachingFileSnapshotter
+import org.gradle.api.internal.hash.DefaultHasher
+import org.gradle.cache.internal.MapBackedInMemoryStore
 import org.gradle.internal.classloader.FilteringClassLoader
 import org.gradle.internal.classpath.ClassPath
 import org.gradle.internal.classpath.DefaultClassPath
@@ -165,4 +169,100 @@ class DefaultClassLoaderCacheTest extends Specification {
         then:
         cache.size() == 0
     }
+
+    def "class loaders are shared by class paths with the same content in different locations"() {
+        def inMemoryStore = new MapBackedInMemoryStore()
+        def cache = new DefaultClassLoaderCache(new HashClassPathSnapshotter(new CachingFileSnapshotter(new DefaultHasher(), inMemoryStore, new StringInterner()), inMemoryStore))
+        def root = classLoader(classPath("root"))
+        file("p1/lib.jar") << "content"
+        file("p2/lib.jar") << "content"
+        file("p3/lib.jar") << "other content"
+
+        when:
+        def l1 = cache.get(id1, classPath("p1/lib.jar"), root, null)
+        def l2 = cache.get(id2, classPath("p2/lib.jar"), root, null)
+        def l3 = cache.get(new ClassLoaderId() {}, classPath("p3/lib.jar"), root, null)
+
+        then:
+        l1.is(l2)
+        !l1.is(l3)
+        cache.statistics.classLoaders == 2
+        cache.statistics.sharedClassPaths == 1
+
+        when:
+        cache.remove(id1)
+
+        then:
+        cache.get(id2, classPath("p2/lib.jar"), root, null).is(l2)
+        cache.statistics.sharedClassPaths == 1
+
+        when:
+        cache.remove(id2)
+
+        then:
+        cache.statistics.classLoaders == 1
+        cache.statistics.sharedClassPaths == 0
+    }
+
+    def "class loader is not shared once its class path has changed"() {
+        def inMemoryStore = new MapBackedInMemoryStore()
+        def cache = new DefaultClassLoaderCache(new HashClassPathSnapshotter(new CachingFileSnapshotter(new DefaultHasher(), inMemoryStore, new StringInterner()), inMemoryStore))
+        def root = classLoader(classPath("root"))
+        def jar = file("p1/lib.jar") << "content"
+        file("p2/lib.jar") << "content"
+        def l1 = cache.get(id1, classPath("p1/lib.jar"), root, null)
+
+        when:
+        jar.text = "changed content"
+        def l2 = cache.get(id2, classPath("p2/lib.jar"), root, null)
+
+        then:
+        !l1.is(l2)
+    }
+
+    def "class path that shares a class loader gets its own class loader once the shared class path has changed"() {
+        def inMemoryStore = new MapBackedInMemoryStore()
+        def cache = new DefaultClassLoaderCache(new HashClassPathSnapshotter(new CachingFileSnapshotter(new DefaultHasher(), inMemoryStore, new StringInterner()), inMemoryStore))
+        def root = classLoader(classPath("root"))
+        def jar = file("p1/lib.jar") << "content"
+        file("p2/lib.jar") << "content"
+        def l1 = cache.get(id1, classPath("p1/lib.jar"), root, null)
+        def l2 = cache.get(id2, classPath("p2/lib.jar"), root, null)
+        def filtered = cache.get(id2, classPath("p2/lib.jar"), root, new FilteringClassLoader.Spec())
+        assert l1.is(l2)
+
+        when:
+        jar.text = "changed content"
+        def l2Again = cache.get(id2, classPath("p2/lib.jar"), root, null)
+
+        then:
+        !l2Again.is(l1)
+        cache.get(id2, classPath("p2/lib.jar"), root, null).is(l2Again)
+        !cache.get(new ClassLoaderId() {}, classPath("p2/lib.jar"), root, new FilteringClassLoader.Spec()).is(filtered)
+        cache.statistics.sharedClassPaths == 0
+        cache.assertInternalIntegrity()
+    }
+
+    def "snapshots class paths without holding the lock"() {
+        def inMemoryStore = new MapBackedInMemoryStore()
+        def delegate = new HashClassPathSnapshotter(new CachingFileSnapshotter(new DefaultHasher(), inMemoryStore, new StringInterner()), inMemoryStore)
+        DefaultClassLoaderCache cache
+        def snapshotter = Stub(ClassPathSnapshotter) {
+            snapshot(_) >> { ClassPath classPath ->
+                assert !Thread.holdsLock(cache.@lock)
+                delegate.snapshot(classPath)
+            }
+        }
+        cache = new DefaultClassLoaderCache(snapshotter)
+        def root = classLoader(classPath("root"))
+        file("p1/lib.jar") << "content"
+        file("p2/lib.jar") << "content"
+
+        when:
+        def l1 = cache.get(id1, classPath("p1/lib.jar"), root, null)
+        def l2 = cache.get(id2, classPath("p2/lib.jar"), root, null)
+
+        then:
+        l1.is(l2)
+    }
 }
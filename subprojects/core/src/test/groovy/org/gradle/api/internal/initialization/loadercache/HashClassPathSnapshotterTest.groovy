@@ -114,4 +114,26 @@ class HashClassPathSnapshotterTest extends Specification {
         then:
         s1 == s2
     }
+
+    def "content hashes are the same for class paths with the same content in different locations"() {
+        temp.file("dir1/a.txt") << "a"; temp.file("dir1/lib/b.txt") << "b"
+        temp.file("dir2/a.txt") << "a"; temp.file("dir2/lib/b.txt") << "b"
+        temp.file("dir3/a.txt") << "a"; temp.file("dir3/b.txt") << "b"
+        def a = snapshotter.snapshot(new DefaultClassPath(temp.createDir("dir1")))
+        def b = snapshotter.snapshot(new DefaultClassPath(temp.createDir("dir2")))
+        def c = snapshotter.snapshot(new DefaultClassPath(temp.createDir("dir3")))
+
+        expect:
+        a != b
+        a.contentHash == b.contentHash
+        a.contentHash != c.contentHash
+    }
+
+    def "content hashes of files do not depend on the file names"() {
+        def fa = temp.file("a.jar") << "a"
+        def fb = temp.file("b.jar") << "a"
+
+        expect:
+        snapshotter.snapshot(new DefaultClassPath(fa)).contentHash == snapshotter.snapshot(new DefaultClassPath(fb)).contentHash
+    }
 }
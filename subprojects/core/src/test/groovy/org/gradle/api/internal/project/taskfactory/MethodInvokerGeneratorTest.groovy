@@ -0,0 +1,128 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.project.taskfactory
+
+import spock.lang.Specification
+
+class MethodInvokerGeneratorTest extends Specification {
+    final MethodInvokerGenerator generator = new MethodInvokerGenerator()
+
+    def "generates invoker for getter"() {
+        def bean = new Bean(prop: "value")
+
+        when:
+        def invoker = generator.create(Bean.getMethod("getProp"))
+
+        then:
+        invoker.class.name.startsWith(Bean.name + '$$Invoker$getProp')
+        invoker.invoke(bean, null) == "value"
+    }
+
+    def "boxes primitive return value"() {
+        when:
+        def invoker = generator.create(Bean.getMethod("getCount"))
+
+        then:
+        invoker.invoke(new Bean(count: 12), null) == 12
+    }
+
+    def "passes parameter and returns null for void method"() {
+        def bean = new Bean(prop: "")
+
+        when:
+        def invoker = generator.create(Bean.getMethod("append", String))
+
+        then:
+        invoker.invoke(bean, "a") == null
+        invoker.invoke(bean, "b") == null
+        bean.prop == "ab"
+    }
+
+    def "calls overriding method"() {
+        when:
+        def invoker = generator.create(Bean.getMethod("getProp"))
+
+        then:
+        invoker.invoke(new SubBean(prop: "value"), null) == "overridden value"
+    }
+
+    def "reuses generated class for the same method"() {
+        expect:
+        generator.create(Bean.getMethod("getProp")).class == new MethodInvokerGenerator().create(Bean.getMethod("getProp")).class
+        generator.create(Bean.getMethod("getProp")).class != generator.create(Bean.getMethod("getCount")).class
+    }
+
+    def "uses reflection for methods that cannot be called from a generated class"() {
+        def method = Bean.getDeclaredMethod("secret")
+
+        when:
+        def invoker = generator.create(method)
+
+        then:
+        !invoker.class.name.contains('$$Invoker$')
+        invoker.invoke(new Bean(), null) == "secret"
+    }
+
+    def "propagates exception thrown by method"() {
+        def failure = new IOException("broken")
+        def bean = new Bean(failure: failure)
+
+        when:
+        generator.create(Bean.getMethod("fail")).invoke(bean, null)
+
+        then:
+        def e = thrown(IOException)
+        e.is(failure)
+
+        when:
+        generator.create(Bean.getDeclaredMethod("failPrivately")).invoke(bean, null)
+
+        then:
+        e = thrown(IOException)
+        e.is(failure)
+    }
+
+    static class Bean {
+        String prop
+        int count
+        Exception failure
+
+        void append(String value) {
+            prop += value
+        }
+
+        void fail() throws Exception {
+            throw failure
+        }
+
+        private void failPrivately() throws Exception {
+            throw failure
+        }
+
+        private String secret() {
+            return "secret"
+        }
+    }
+
+    static class SubBean extends Bean {
+        @Override
+        String getProp() {
+            return "overridden " + super.getProp()
+        }
+    }
+}
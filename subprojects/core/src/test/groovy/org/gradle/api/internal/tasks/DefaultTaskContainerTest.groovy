@@ -346,6 +346,121 @@ public class DefaultTaskContainerTest extends Specification {
         container.names == ['task1', 'task2'] as SortedSet
     }
 
+    void "registered task is not created until it is located by name"() {
+        def action = Mock(Action)
+
+        when:
+        container.register("task", DefaultTask, action)
+
+        then:
+        0 * taskFactory._
+        0 * action._
+        container.names == ['task'] as SortedSet
+
+        when:
+        def task = container.getByName("task")
+
+        then:
+        1 * taskFactory.create("task", DefaultTask) >> { task(it[0], it[1]) }
+        1 * action.execute({ it.name == "task" })
+        task.name == "task"
+    }
+
+    void "registered task receives actions registered for all tasks when it is created"() {
+        def action = Mock(Action)
+        addTask("task1")
+        container.register("task2", DefaultTask, Mock(Action))
+
+        when:
+        container.all(action)
+
+        then:
+        1 * action.execute({ it.name == "task1" })
+        0 * taskFactory._
+        0 * action._
+
+        when:
+        container.getByName("task2")
+
+        then:
+        1 * taskFactory.create("task2", DefaultTask) >> { task(it[0], it[1]) }
+        1 * action.execute({ it.name == "task2" })
+    }
+
+    void "registered tasks are created when the container is iterated"() {
+        given:
+        container.register("task1", DefaultTask, Mock(Action))
+        container.register("task2", CustomTask, Mock(Action))
+
+        when:
+        def tasks = container.toList()
+
+        then:
+        1 * taskFactory.create("task1", DefaultTask) >> { task(it[0], it[1]) }
+        1 * taskFactory.create("task2", CustomTask) >> { task(it[0], it[1]) }
+        tasks*.name == ["task1", "task2"]
+    }
+
+    void "only registered tasks of matching type are created when a typed collection is iterated"() {
+        given:
+        container.register("task1", DefaultTask, Mock(Action))
+        container.register("task2", CustomTask, Mock(Action))
+
+        when:
+        def tasks = container.withType(CustomTask).toList()
+
+        then:
+        1 * taskFactory.create("task2", CustomTask) >> { task(it[0], it[1]) }
+        0 * taskFactory._
+        tasks*.name == ["task2"]
+    }
+
+    void "registered task is added to the container before the register action runs"() {
+        def events = []
+        container.whenTaskAdded { events << "added ${it.name}" }
+        container.register("task", DefaultTask, { events << "configured ${it.name}" } as Action)
+        taskFactory.create("task", DefaultTask) >> { task(it[0], it[1]) }
+
+        when:
+        container.getByName("task")
+
+        then:
+        events == ["added task", "configured task"]
+    }
+
+    void "registered tasks are created when a filtered collection is iterated"() {
+        given:
+        container.register("task1", DefaultTask, Mock(Action))
+        container.register("task2", CustomTask, Mock(Action))
+
+        when:
+        def tasks = container.matching { it.name.endsWith("2") }.toList()
+
+        then:
+        1 * taskFactory.create("task1", DefaultTask) >> { task(it[0], it[1]) }
+        1 * taskFactory.create("task2", CustomTask) >> { task(it[0], it[1]) }
+        tasks*.name == ["task2"]
+    }
+
+    void "cannot register or create a task with the same name as a registered task"() {
+        given:
+        container.register("task", DefaultTask, Mock(Action))
+
+        when:
+        container.register("task", DefaultTask, Mock(Action))
+
+        then:
+        InvalidUserDataException e = thrown()
+        e.message == "Cannot register task 'task' as a task with that name already exists."
+
+        when:
+        addTask("task")
+
+        then:
+        e = thrown()
+        e.message.contains("as a task with that name has already been registered.")
+    }
+
     void "maybeCreate creates new task"() {
         given:
         def options = singletonMap(Task.TASK_NAME, "task")
@@ -17,11 +17,19 @@
 package org.gradle.execution
 
 import org.gradle.api.BuildCancelledException
+import org.gradle.api.internal.project.ProjectConfigurationConflicts
 import org.gradle.api.internal.project.ProjectInternal
 import org.gradle.initialization.BuildCancellationToken
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.util.SetSystemProperties
+import org.junit.Rule
 import spock.lang.Specification
 
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
 class TaskPathProjectEvaluatorTest extends Specification {
+    @Rule SetSystemProperties systemProperties = new SetSystemProperties((TaskPathProjectEvaluator.PARALLEL_CONFIGURATION_PROPERTY): "true")
     private cancellationToken = Mock(BuildCancellationToken)
     private project = Mock(ProjectInternal)
     private evaluator = new TaskPathProjectEvaluator(cancellationToken)
@@ -60,4 +68,101 @@ class TaskPathProjectEvaluatorTest extends Specification {
         1 * child1.evaluate()
         0 * child2._
     }
+
+    def "configures children in parallel once their parent has been configured"() {
+        def executorFactory = new DefaultExecutorFactory()
+        def parallelEvaluator = new TaskPathProjectEvaluator(cancellationToken, executorFactory, 2)
+        def child1 = Mock(ProjectInternal)
+        def child2 = Mock(ProjectInternal)
+        def grandChild = Mock(ProjectInternal)
+        def bothStarted = new CountDownLatch(2)
+        def childrenEvaluated = false
+
+        given:
+        project.childProjects >> [child1: child1, child2: child2]
+        child1.childProjects >> [grandChild: grandChild]
+        child2.childProjects >> [:]
+        grandChild.childProjects >> [:]
+
+        when:
+        parallelEvaluator.configureHierarchy(project)
+
+        then:
+        1 * project.evaluate()
+
+        then:
+        1 * child1.evaluate() >> { bothStarted.countDown(); assert bothStarted.await(10, TimeUnit.SECONDS) }
+        1 * child2.evaluate() >> { bothStarted.countDown(); assert bothStarted.await(10, TimeUnit.SECONDS) }
+        1 * grandChild.evaluate() >> { childrenEvaluated = bothStarted.count == 0 }
+        childrenEvaluated
+
+        cleanup:
+        executorFactory.stop()
+    }
+
+    def "configures the rest of a project serially once it accesses another project"() {
+        def executorFactory = new DefaultExecutorFactory()
+        def parallelEvaluator = new TaskPathProjectEvaluator(cancellationToken, executorFactory, 2)
+        def child1 = Mock(ProjectInternal)
+        def child2 = Mock(ProjectInternal)
+        def bothStarted = new CountDownLatch(2)
+        def child2Configured = false
+        def child2ConfiguredBeforeAccess = false
+
+        given:
+        project.childProjects >> [child1: child1, child2: child2]
+        child1.childProjects >> [:]
+        child2.childProjects >> [:]
+        child1.path >> ":child1"
+        child2.path >> ":child2"
+
+        when:
+        parallelEvaluator.configureHierarchy(project)
+
+        then:
+        1 * child1.evaluate() >> {
+            def previous = ProjectConfigurationConflicts.startEvaluating(child1)
+            bothStarted.countDown()
+            assert bothStarted.await(10, TimeUnit.SECONDS)
+            ProjectConfigurationConflicts.beforeAccessing(child2)
+            child2ConfiguredBeforeAccess = child2Configured
+            ProjectConfigurationConflicts.finishEvaluating(previous)
+        }
+        1 * child2.evaluate() >> {
+            bothStarted.countDown()
+            assert bothStarted.await(10, TimeUnit.SECONDS)
+            Thread.sleep(100)
+            child2Configured = true
+        }
+        child2ConfiguredBeforeAccess
+
+        cleanup:
+        executorFactory.stop()
+    }
+
+    def "reports the failure of the first project when configuring in parallel"() {
+        def executorFactory = new DefaultExecutorFactory()
+        def parallelEvaluator = new TaskPathProjectEvaluator(cancellationToken, executorFactory, 2)
+        def child1 = Mock(ProjectInternal)
+        def child2 = Mock(ProjectInternal)
+        def failure1 = new RuntimeException("child1")
+        def failure2 = new RuntimeException("child2")
+
+        given:
+        project.childProjects >> [child1: child1, child2: child2]
+        child1.path >> ":child1"
+        child2.path >> ":child2"
+        child1.evaluate() >> { throw failure1 }
+        child2.evaluate() >> { throw failure2 }
+
+        when:
+        parallelEvaluator.configureHierarchy(project)
+
+        then:
+        RuntimeException e = thrown()
+        e == failure1
+
+        cleanup:
+        executorFactory.stop()
+    }
 }
@@ -21,9 +21,9 @@ import org.gradle.groovy.scripts.Script
 import org.gradle.groovy.scripts.ScriptSource
 import org.gradle.groovy.scripts.TestScript
 import org.gradle.groovy.scripts.Transformer
-import spock.lang.Specification
+import org.gradle.test.fixtures.concurrent.ConcurrentSpec
 
-class CachingScriptClassCompilerTest extends Specification {
+class CachingScriptClassCompilerTest extends ConcurrentSpec {
     private final ScriptClassCompiler target = Mock()
     private final CachingScriptClassCompiler compiler = new CachingScriptClassCompiler(target)
     private final CompiledScript<?, ?> compiledScript = Mock(CompiledScript)
@@ -109,6 +109,63 @@ class CachingScriptClassCompilerTest extends Specification {
         1 * target.compile(script2, parentClassLoader, classLoaderId, transformer, TestScript.class, verifier)
     }
 
+    def "compiles script once when requested concurrently and compiles other scripts meanwhile"() {
+        ScriptSource script1 = scriptSource('script')
+        ScriptSource script2 = scriptSource('script')
+        ScriptSource other = scriptSource('other')
+        ClassLoader parentClassLoader = Mock()
+        CompileOperation<?> transformer = operation()
+        def results = [].asSynchronized()
+
+        when:
+        async {
+            start {
+                results << compiler.compile(script1, parentClassLoader, classLoaderId, transformer, Script.class, verifier)
+            }
+            start {
+                thread.blockUntil.compiling
+                results << compiler.compile(script2, parentClassLoader, classLoaderId, transformer, Script.class, verifier)
+            }
+            start {
+                thread.blockUntil.compiling
+                compiler.compile(other, parentClassLoader, classLoaderId, transformer, Script.class, verifier)
+                instant.otherCompiled
+            }
+        }
+
+        then:
+        1 * target.compile(script1, parentClassLoader, classLoaderId, transformer, Script.class, verifier) >> {
+            instant.compiling
+            thread.blockUntil.otherCompiled
+            compiledScript
+        }
+        1 * target.compile(other, parentClassLoader, classLoaderId, transformer, Script.class, verifier)
+        0 * target._
+        results == [compiledScript, compiledScript]
+    }
+
+    def "compiles script again after compilation failed"() {
+        ScriptSource script = scriptSource('script')
+        ClassLoader parentClassLoader = Mock()
+        CompileOperation<?> transformer = operation()
+        def failure = new RuntimeException("broken")
+
+        when:
+        compiler.compile(script, parentClassLoader, classLoaderId, transformer, Script.class, verifier)
+
+        then:
+        1 * target.compile(script, parentClassLoader, classLoaderId, transformer, Script.class, verifier) >> { throw failure }
+        def e = thrown(RuntimeException)
+        e.is(failure)
+
+        when:
+        def result = compiler.compile(script, parentClassLoader, classLoaderId, transformer, Script.class, verifier)
+
+        then:
+        1 * target.compile(script, parentClassLoader, classLoaderId, transformer, Script.class, verifier) >> compiledScript
+        result == compiledScript
+    }
+
     def scriptSource(String className = 'script') {
         ScriptSource script = Mock()
         _ * script.className >> className
@@ -19,6 +19,8 @@ import org.gradle.api.Action
 import org.gradle.api.internal.changedetection.state.CachingFileSnapshotter
 import org.gradle.api.internal.initialization.ClassLoaderIds
 import org.gradle.api.internal.initialization.loadercache.ClassLoaderCache
+import org.gradle.api.internal.initialization.loadercache.ClassPathSnapshot
+import org.gradle.api.internal.initialization.loadercache.ClassPathSnapshotter
 import org.gradle.cache.CacheBuilder
 import org.gradle.cache.CacheRepository
 import org.gradle.cache.CacheValidator
@@ -26,12 +28,17 @@ import org.gradle.cache.PersistentCache
 import org.gradle.groovy.scripts.Script
 import org.gradle.groovy.scripts.ScriptSource
 import org.gradle.groovy.scripts.Transformer
+import org.gradle.internal.hash.HashValue
 import org.gradle.internal.resource.Resource
 import org.gradle.logging.ProgressLogger
 import org.gradle.logging.ProgressLoggerFactory
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
 import spock.lang.Specification
 
 class FileCacheBackedScriptClassCompilerTest extends Specification {
+    @Rule
+    final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
     final ScriptCompilationHandler scriptCompilationHandler = Mock()
     final CacheRepository cacheRepository = Mock()
     final CacheBuilder cacheBuilder = Mock()
@@ -147,4 +154,170 @@ class FileCacheBackedScriptClassCompilerTest extends Specification {
         then:
         1 * logger.completed()
     }
+
+    def "does not compile script ahead of time when it is already cached"() {
+        def cachedScript = Mock(PersistentCache)
+        def workDir = tmpDir.createDir("work")
+
+        when:
+        compiler.precompile(source, classLoader, operation, Script, verifier, workDir)
+
+        then:
+        1 * cacheRepository.cache("scripts/ScriptClassName/TransformerId") >> cacheBuilder
+        1 * cacheBuilder.open() >> cachedScript
+        _ * cacheBuilder._ >> cacheBuilder
+        1 * cachedScript.close()
+        0 * scriptCompilationHandler._
+        !workDir.exists()
+    }
+
+    def "uses script compiled ahead of time when compiled against the same class loader"() {
+        given:
+        def workDir = tmpDir.createDir("work")
+        def scriptCache = Stub(PersistentCache) {
+            getBaseDir() >> tmpDir.createDir("cache")
+        }
+        def initializer
+        _ * cacheRepository.cache("scripts/ScriptClassName/TransformerId") >> cacheBuilder
+        _ * cacheBuilder.withInitializer(!null) >> { args -> initializer = args[0]; return cacheBuilder }
+        _ * cacheBuilder.open() >> {
+            initializer.execute(scriptCache)
+            return scriptCache
+        }
+        _ * cacheBuilder._ >> cacheBuilder
+        _ * scriptCompilationHandler.compileToDir(source, classLoader, new File(workDir, "classes"), new File(workDir, "metadata"), operation, Script, verifier) >> {
+            new File(workDir, "classes").mkdirs()
+            new File(workDir, "classes/ScriptClassName.class").text = "compiled"
+            new File(workDir, "metadata").mkdirs()
+        }
+        compiler.precompile(source, classLoader, operation, Script, verifier, workDir)
+
+        when:
+        compiler.compile(source, classLoader, classLoaderId, operation, Script, verifier)
+
+        then:
+        1 * scriptCompilationHandler.loadFromDir(source, classLoader, tmpDir.file("cache/classes"), tmpDir.file("cache/metadata"), operation, Script, classLoaderId) >> compiledScript
+        0 * scriptCompilationHandler._
+        tmpDir.file("cache/classes/ScriptClassName.class").text == "compiled"
+        !workDir.exists()
+    }
+
+    def "compiles script when it was compiled ahead of time against a different class loader"() {
+        given:
+        def workDir = tmpDir.createDir("work")
+        def scriptCache = Stub(PersistentCache) {
+            getBaseDir() >> tmpDir.createDir("cache")
+        }
+        def otherClassLoader = Mock(ClassLoader)
+        def initializer
+        _ * cacheRepository.cache("scripts/ScriptClassName/TransformerId") >> cacheBuilder
+        _ * cacheBuilder.withInitializer(!null) >> { args -> initializer = args[0]; return cacheBuilder }
+        _ * cacheBuilder.open() >> {
+            initializer.execute(scriptCache)
+            return scriptCache
+        }
+        _ * cacheBuilder._ >> cacheBuilder
+        compiler.precompile(source, otherClassLoader, operation, Script, verifier, workDir)
+
+        when:
+        compiler.compile(source, classLoader, classLoaderId, operation, Script, verifier)
+
+        then:
+        1 * scriptCompilationHandler.compileToDir(source, classLoader, tmpDir.file("cache/classes"), tmpDir.file("cache/metadata"), operation, Script, verifier)
+        1 * scriptCompilationHandler.loadFromDir(source, classLoader, tmpDir.file("cache/classes"), tmpDir.file("cache/metadata"), operation, Script, classLoaderId) >> compiledScript
+        0 * scriptCompilationHandler._
+        !workDir.exists()
+    }
+
+    def "uses script from shared store instead of compiling it when it was compiled in a build at another location"() {
+        given:
+        def sharedStore = new SharedScriptClassStore(tmpDir.file("shared"))
+        def firstCompiler = compilerWithSharedStore(sharedStore, tmpDir.file("checkout1"), "1234")
+        def secondCompiler = compilerWithSharedStore(sharedStore, tmpDir.file("checkout2"), "1234")
+        def firstCacheDir = tmpDir.createDir("cache1")
+        def secondCacheDir = tmpDir.createDir("cache2")
+        givenScriptCachesAreCreatedIn(firstCacheDir, secondCacheDir)
+
+        when:
+        firstCompiler.compile(scriptIn(tmpDir.file("checkout1")), classLoader, classLoaderId, operation, Script, verifier)
+
+        then:
+        1 * scriptCompilationHandler.compileToDir(_, classLoader, new File(firstCacheDir, "classes"), new File(firstCacheDir, "metadata"), operation, Script, verifier) >> {
+            firstCacheDir.file("classes/ScriptClassName.class").text = "compiled"
+            firstCacheDir.file("metadata/metadata.bin").text = "metadata"
+        }
+        1 * scriptCompilationHandler.loadFromDir(_, classLoader, new File(firstCacheDir, "classes"), new File(firstCacheDir, "metadata"), operation, Script, classLoaderId) >> compiledScript
+        0 * scriptCompilationHandler._
+
+        when:
+        secondCompiler.compile(scriptIn(tmpDir.file("checkout2")), classLoader, classLoaderId, operation, Script, verifier)
+
+        then:
+        0 * scriptCompilationHandler.compileToDir(*_)
+        1 * scriptCompilationHandler.loadFromDir(_, classLoader, new File(secondCacheDir, "classes"), new File(secondCacheDir, "metadata"), operation, Script, classLoaderId) >> compiledScript
+        0 * scriptCompilationHandler._
+        secondCacheDir.file("classes/ScriptClassName.class").text == "compiled"
+        secondCacheDir.file("metadata/metadata.bin").text == "metadata"
+    }
+
+    def "compiles script when the shared store only contains it for another class path"() {
+        given:
+        def sharedStore = new SharedScriptClassStore(tmpDir.file("shared"))
+        def firstCompiler = compilerWithSharedStore(sharedStore, tmpDir.file("checkout1"), "1234")
+        def secondCompiler = compilerWithSharedStore(sharedStore, tmpDir.file("checkout2"), "5678")
+        def firstCacheDir = tmpDir.createDir("cache1")
+        def secondCacheDir = tmpDir.createDir("cache2")
+        givenScriptCachesAreCreatedIn(firstCacheDir, secondCacheDir)
+        _ * scriptCompilationHandler.loadFromDir(*_) >> compiledScript
+
+        when:
+        firstCompiler.compile(scriptIn(tmpDir.file("checkout1")), classLoader, classLoaderId, operation, Script, verifier)
+        secondCompiler.compile(scriptIn(tmpDir.file("checkout2")), classLoader, classLoaderId, operation, Script, verifier)
+
+        then:
+        1 * scriptCompilationHandler.compileToDir(_, classLoader, new File(firstCacheDir, "classes"), new File(firstCacheDir, "metadata"), operation, Script, verifier) >> {
+            firstCacheDir.file("classes/ScriptClassName.class").text = "compiled"
+        }
+        1 * scriptCompilationHandler.compileToDir(_, classLoader, new File(secondCacheDir, "classes"), new File(secondCacheDir, "metadata"), operation, Script, verifier)
+    }
+
+    private FileCacheBackedScriptClassCompiler compilerWithSharedStore(SharedScriptClassStore sharedStore, File rootDir, String classPathHash) {
+        def classPathSnapshotter = Stub(ClassPathSnapshotter) {
+            snapshot(_) >> Stub(ClassPathSnapshot) {
+                getContentHash() >> new HashValue(classPathHash)
+            }
+        }
+        return new FileCacheBackedScriptClassCompiler(cacheRepository, validator, scriptCompilationHandler, Stub(ProgressLoggerFactory), snapshotter, classLoaderCache,
+            sharedStore, rootDir, classPathSnapshotter)
+    }
+
+    private void givenScriptCachesAreCreatedIn(File... cacheDirs) {
+        def remaining = cacheDirs as List
+        def initializer
+        _ * cacheRepository.cache("scripts/ScriptClassName/TransformerId") >> cacheBuilder
+        _ * cacheBuilder.withInitializer(!null) >> { args -> initializer = args[0]; return cacheBuilder }
+        _ * cacheBuilder.open() >> {
+            def dir = remaining.remove(0)
+            def scriptCache = Stub(PersistentCache) {
+                getBaseDir() >> dir
+            }
+            initializer.execute(scriptCache)
+            return scriptCache
+        }
+        _ * cacheBuilder._ >> cacheBuilder
+    }
+
+    private ScriptSource scriptIn(File rootDir) {
+        def scriptFile = new File(rootDir, "sub/build.gradle")
+        def resource = Stub(Resource) {
+            getFile() >> scriptFile
+            getText() >> "this is the script"
+        }
+        return Stub(ScriptSource) {
+            getResource() >> resource
+            getClassName() >> "ScriptClassName"
+            getFileName() >> scriptFile.path
+            getDisplayName() >> "build file '${scriptFile}'"
+        }
+    }
 }
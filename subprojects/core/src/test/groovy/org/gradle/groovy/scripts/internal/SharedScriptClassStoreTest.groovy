@@ -0,0 +1,120 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.groovy.scripts.internal
+
+import org.codehaus.groovy.control.CompilationUnit
+import org.codehaus.groovy.control.CompilerConfiguration
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class SharedScriptClassStoreTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def sharedDir = tmpDir.file("shared")
+    def store = new SharedScriptClassStore(sharedDir)
+
+    def "stores compiled script and loads it into another cache directory"() {
+        def cacheDir = tmpDir.createDir("cache1")
+        cacheDir.file("classes/Script.class").text = "classes"
+        cacheDir.file("metadata/metadata.bin").text = "metadata"
+        cacheDir.file("cache.properties").text = "local"
+        def otherCacheDir = tmpDir.createDir("cache2")
+
+        when:
+        store.store("key", cacheDir, "Script")
+
+        then:
+        sharedDir.list() as List == ["key"]
+        sharedDir.file("key/script-class").text == "Script"
+
+        when:
+        def loaded = store.load("key", otherCacheDir, "Script")
+
+        then:
+        loaded
+        otherCacheDir.file("classes/Script.class").text == "classes"
+        otherCacheDir.file("metadata/metadata.bin").text == "metadata"
+        !otherCacheDir.file("cache.properties").exists()
+    }
+
+    def "does not load unknown entry"() {
+        def cacheDir = tmpDir.createDir("cache")
+
+        expect:
+        !store.load("unknown", cacheDir, "Script")
+        cacheDir.list().length == 0
+    }
+
+    def "does not replace an entry that has already been published"() {
+        def cacheDir = tmpDir.createDir("cache1")
+        cacheDir.file("classes/Script.class").text = "first"
+        def otherCacheDir = tmpDir.createDir("cache2")
+        otherCacheDir.file("classes/Script.class").text = "second"
+
+        when:
+        store.store("key", cacheDir, "Script")
+        store.store("key", otherCacheDir, "Script")
+
+        then:
+        sharedDir.list() as List == ["key"]
+        sharedDir.file("key/classes/Script.class").text == "first"
+    }
+
+    def "renames script classes when loading them for a script at another location"() {
+        def cacheDir = tmpDir.createDir("cache1")
+        compile(cacheDir.file("classes"), "build_abc", "def greet = { 'hello' }; greet()")
+        def otherCacheDir = tmpDir.createDir("cache2")
+
+        when:
+        store.store("key", cacheDir, "build_abc")
+        def loaded = store.load("key", otherCacheDir, "build_def")
+
+        then:
+        loaded
+        otherCacheDir.file("classes").list().sort() == ["build_def.class", 'build_def$_run_closure1.class']
+
+        when:
+        def loader = new URLClassLoader([otherCacheDir.file("classes").toURI().toURL()] as URL[], getClass().classLoader)
+        def script = loader.loadClass("build_def").newInstance()
+
+        then:
+        script.run() == "hello"
+    }
+
+    def "compiles script when classes of an entry cannot be renamed"() {
+        def cacheDir = tmpDir.createDir("cache1")
+        cacheDir.file("classes/build_abc.class").text = "not a class"
+        def otherCacheDir = tmpDir.createDir("cache2")
+
+        when:
+        store.store("key", cacheDir, "build_abc")
+        def loaded = store.load("key", otherCacheDir, "build_def")
+
+        then:
+        !loaded
+        !otherCacheDir.file("classes").exists()
+    }
+
+    private static void compile(File dir, String className, String source) {
+        def configuration = new CompilerConfiguration()
+        configuration.targetDirectory = dir
+        def unit = new CompilationUnit(configuration)
+        unit.addSource("${className}.groovy", source)
+        unit.compile()
+    }
+}
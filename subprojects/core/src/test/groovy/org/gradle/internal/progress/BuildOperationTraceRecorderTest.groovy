@@ -0,0 +1,175 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.internal.progress
+
+import groovy.json.JsonSlurper
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+import java.util.concurrent.atomic.AtomicBoolean
+
+class BuildOperationTraceRecorderTest extends Specification {
+    @Rule
+    final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+
+    def "exports finished operations as complete events of the thread that ran them"() {
+        def recorder = new BuildOperationTraceRecorder(tmpDir.file("trace"))
+        def parent = new BuildOperationInternal(new OperationIdentifier(1), null, "parent")
+        def child = new BuildOperationInternal(new OperationIdentifier(2), new OperationIdentifier(1), "child \"quoted\"")
+
+        when:
+        recorder.started(parent, new OperationStartEvent(0))
+        recorder.started(child, new OperationStartEvent(0))
+        recorder.finished(child, new OperationResult(0, 0, new RuntimeException()))
+        recorder.finished(parent, new OperationResult(0, 0, null))
+        def events = export(recorder)
+
+        then:
+        def threadName = events.find { it.ph == "M" }
+        threadName.args.name == Thread.currentThread().name
+        threadName.tid == Thread.currentThread().id
+
+        def completed = events.findAll { it.ph == "X" }
+        completed.name == ["child \"quoted\"", "parent"]
+        completed.tid == [Thread.currentThread().id] * 2
+        completed[0].args == [id: 2, parentId: 1, failed: true]
+        completed[1].args == [id: 1]
+        completed[0].ts >= completed[1].ts
+        completed[0].ts + completed[0].dur <= completed[1].ts + completed[1].dur
+    }
+
+    def "records operations of each thread separately"() {
+        def recorder = new BuildOperationTraceRecorder(tmpDir.file("trace"))
+        def threads = (1..3).collect { index ->
+            new Thread({
+                def operation = new BuildOperationInternal(new OperationIdentifier(index), null, "operation $index")
+                recorder.started(operation, new OperationStartEvent(0))
+                recorder.finished(operation, new OperationResult(0, 0, null))
+            }, "worker $index")
+        }
+
+        when:
+        threads*.start()
+        threads*.join()
+        def events = export(recorder)
+
+        then:
+        events.findAll { it.ph == "M" }.args.name.sort() == ["worker 1", "worker 2", "worker 3"]
+        def completed = events.findAll { it.ph == "X" }.sort { it.name }
+        completed.name == ["operation 1", "operation 2", "operation 3"]
+        completed.tid == threads.id
+    }
+
+    def "matches operations that finish on a different thread to their start"() {
+        def recorder = new BuildOperationTraceRecorder(tmpDir.file("trace"))
+        def operation = new BuildOperationInternal(new OperationIdentifier(1), null, "operation")
+        def worker = new Thread({ recorder.finished(operation, new OperationResult(0, 0, null)) }, "worker")
+
+        when:
+        recorder.started(operation, new OperationStartEvent(0))
+        worker.start()
+        worker.join()
+        def events = export(recorder)
+
+        then:
+        def completed = events.findAll { it.ph != "M" }
+        completed*.subMap(["ph", "name", "tid"]) == [[ph: "X", name: "operation", tid: Thread.currentThread().id]]
+    }
+
+    def "writes complete records while other threads are recording"() {
+        def recorder = new BuildOperationTraceRecorder(tmpDir.file("trace"))
+        def running = new AtomicBoolean(true)
+        def threads = (1..3).collect { index ->
+            new Thread({
+                def id = index * 1000000
+                while (running.get()) {
+                    def operation = new BuildOperationInternal(new OperationIdentifier(id++), null, "operation $index")
+                    recorder.started(operation, new OperationStartEvent(0))
+                    recorder.finished(operation, new OperationResult(0, 0, null))
+                }
+            }, "worker $index")
+        }
+
+        when:
+        threads*.start()
+        def exports = (1..20).collect { export(recorder) }
+        running.set(false)
+        threads*.join()
+
+        then:
+        exports.every { events -> events.findAll { it.ph != "M" }.every { it.ph == "X" || it.ph == "B" } }
+    }
+
+    def "exports operations that did not finish as begin events"() {
+        def recorder = new BuildOperationTraceRecorder(tmpDir.file("trace"))
+
+        when:
+        recorder.started(new BuildOperationInternal(new OperationIdentifier(1), null, "running"), new OperationStartEvent(0))
+        def events = export(recorder)
+
+        then:
+        events.findAll { it.ph != "M" }*.subMap(["ph", "name"]) == [[ph: "B", name: "running"]]
+    }
+
+    def "writes binary log and chrome trace when build completes"() {
+        def recorder = new BuildOperationTraceRecorder(tmpDir.file("trace"))
+        def operation = new BuildOperationInternal(new OperationIdentifier(1), null, "operation")
+
+        when:
+        recorder.started(operation, new OperationStartEvent(0))
+        recorder.finished(operation, new OperationResult(0, 0, null))
+        recorder.completed()
+
+        then:
+        tmpDir.file("trace.bin").file
+        new JsonSlurper().parse(tmpDir.file("trace.json")).traceEvents.find { it.ph == "X" }.name == "operation"
+    }
+
+    def "does not fail the build when trace cannot be written"() {
+        def recorder = new BuildOperationTraceRecorder(tmpDir.file("missing/dir/trace"))
+        tmpDir.file("missing").createFile()
+
+        when:
+        recorder.started(new BuildOperationInternal(new OperationIdentifier(1), null, "operation"), new OperationStartEvent(0))
+        recorder.completed()
+
+        then:
+        noExceptionThrown()
+    }
+
+    def "releases buffers and ignores operations once build completes"() {
+        def recorder = new BuildOperationTraceRecorder(tmpDir.file("trace"))
+
+        when:
+        recorder.started(new BuildOperationInternal(new OperationIdentifier(1), null, "before"), new OperationStartEvent(0))
+        recorder.completed()
+        recorder.started(new BuildOperationInternal(new OperationIdentifier(2), null, "after"), new OperationStartEvent(0))
+
+        then:
+        export(recorder).empty
+    }
+
+    private static List<Map> export(BuildOperationTraceRecorder recorder) {
+        def binary = new ByteArrayOutputStream()
+        recorder.writeTo(binary)
+        def json = new StringWriter()
+        new BuildOperationTraceExporter().export(new ByteArrayInputStream(binary.toByteArray()), json)
+        return new JsonSlurper().parseText(json.toString()).traceEvents
+    }
+}
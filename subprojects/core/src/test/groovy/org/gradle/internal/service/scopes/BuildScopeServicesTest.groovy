@@ -31,6 +31,7 @@ import org.gradle.api.internal.project.*
 import org.gradle.api.internal.project.antbuilder.DefaultIsolatedAntBuilder
 import org.gradle.cache.CacheRepository
 import org.gradle.cache.internal.CacheFactory
+import org.gradle.cache.internal.MapBackedInMemoryStore
 import org.gradle.configuration.*
 import org.gradle.groovy.scripts.DefaultScriptCompilerFactory
 import org.gradle.groovy.scripts.ScriptCompilerFactory
@@ -45,7 +46,10 @@ import org.gradle.internal.reflect.Instantiator
 import org.gradle.logging.LoggingConfiguration
 import org.gradle.logging.LoggingManagerInternal
 import org.gradle.logging.ProgressLoggerFactory
+import org.gradle.model.internal.inspect.ModelRuleExtractor
 import org.gradle.model.internal.inspect.ModelRuleSourceDetector
+import org.gradle.model.internal.manage.binding.DefaultStructBindingsStore
+import org.gradle.model.internal.manage.schema.extract.DefaultModelSchemaStore
 import org.gradle.plugin.use.internal.PluginRequestApplicator
 import org.gradle.profile.ProfileEventAdapter
 import spock.lang.Specification
@@ -84,6 +88,7 @@ public class BuildScopeServicesTest extends Specification {
         sessionServices.get(ImportsReader) >> Mock(ImportsReader)
         sessionServices.get(StartParameter) >> startParameter
         sessionServices.get(CachingFileSnapshotter) >> Mock(CachingFileSnapshotter)
+        sessionServices.get(MapBackedInMemoryStore) >> new MapBackedInMemoryStore()
         sessionServices.getAll(_) >> []
 
         registry = new BuildScopeServices(sessionServices, false)
@@ -264,6 +269,9 @@ public class BuildScopeServicesTest extends Specification {
     def providesAProfileEventAdapter() {
         setup:
         expectParentServiceLocated(BuildRequestMetaData)
+        expectParentServiceLocated(ModelRuleExtractor)
+        expectParentServiceLocated(DefaultModelSchemaStore)
+        expectParentServiceLocated(DefaultStructBindingsStore)
         expectListenerManagerCreated()
 
         expect:
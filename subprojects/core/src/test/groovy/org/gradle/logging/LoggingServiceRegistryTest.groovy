@@ -80,6 +80,7 @@ class LoggingServiceRegistryTest extends Specification {
         when:
         def loggingManager = registry.newInstance(LoggingManagerInternal)
         logger.warn("before")
+        loggingManager.flush()
 
         then:
         outputEventListener.toString() == '[WARN before]'
@@ -89,6 +90,7 @@ class LoggingServiceRegistryTest extends Specification {
         loggingManager.start()
         logger.info("ignored")
         logger.warn("warning")
+        loggingManager.flush()
 
         then:
         outputEventListener.toString() == '[WARN before]'
@@ -105,6 +107,7 @@ class LoggingServiceRegistryTest extends Specification {
 
         when:
         logger.warn("before")
+        loggingManager.flush()
 
         then:
         0 * listener._
@@ -114,6 +117,7 @@ class LoggingServiceRegistryTest extends Specification {
         loggingManager.start()
         logger.info("ignored")
         logger.warn("warning")
+        loggingManager.flush()
 
         then:
         1 * listener.onOutput('warning')
@@ -123,6 +127,7 @@ class LoggingServiceRegistryTest extends Specification {
         when:
         loggingManager.stop()
         logger.warn("after")
+        loggingManager.flush()
 
         then:
         0 * listener._
@@ -139,6 +144,7 @@ class LoggingServiceRegistryTest extends Specification {
 
         when:
         logger.warning("before")
+        loggingManager.flush()
 
         then:
         0 * listener._
@@ -148,6 +154,7 @@ class LoggingServiceRegistryTest extends Specification {
         loggingManager.start()
         logger.info("ignored")
         logger.warning("warning")
+        loggingManager.flush()
 
         then:
         1 * listener.onOutput('warning')
@@ -157,6 +164,7 @@ class LoggingServiceRegistryTest extends Specification {
         when:
         loggingManager.stop()
         logger.warning("after")
+        loggingManager.flush()
 
         then:
         0 * listener._
@@ -185,6 +193,7 @@ class LoggingServiceRegistryTest extends Specification {
         when:
         System.out.println("info")
         System.err.println("error")
+        loggingManager.flush()
 
         then:
         1 * listener.onOutput(TextUtil.toPlatformLineSeparators("info\n"))
@@ -217,6 +226,7 @@ class LoggingServiceRegistryTest extends Specification {
 
         def textOutput = registry.get(StyledTextOutputFactory).create("category")
         textOutput.println("info")
+        loggingManager.flush()
 
         then:
         1 * listener.onOutput(TextUtil.toPlatformLineSeparators("info\n"))
@@ -232,6 +242,7 @@ class LoggingServiceRegistryTest extends Specification {
         when:
         logger.warn("before")
         logger.error("before")
+        loggingManager.flush()
 
         then:
         outputs.stdOut == ''
@@ -242,6 +253,7 @@ class LoggingServiceRegistryTest extends Specification {
         loggingManager.start()
         logger.warn("warning")
         logger.error("error")
+        loggingManager.flush()
 
         then:
         outputs.stdOut == TextUtil.toPlatformLineSeparators('warning\n')
@@ -262,6 +274,7 @@ class LoggingServiceRegistryTest extends Specification {
         loggingManager.start()
         logger.warn("warning")
         logger.error("error")
+        loggingManager.flush()
 
         then:
         1 * listener.onOutput("warning")
@@ -284,6 +297,7 @@ class LoggingServiceRegistryTest extends Specification {
         when:
         def logger = LoggerFactory.getLogger("category")
         logger.info("info")
+        loggingManager.flush()
 
         then:
         1 * listener.onOutput("info")
@@ -306,6 +320,7 @@ class LoggingServiceRegistryTest extends Specification {
         when:
         logger.warning("warning")
         logger.severe("error")
+        loggingManager.flush()
 
         then:
         outputs.stdOut == ''
@@ -325,6 +340,7 @@ class LoggingServiceRegistryTest extends Specification {
 
         when:
         logger.warning("before")
+        loggingManager.flush()
 
         then:
         0 * listener._
@@ -333,6 +349,7 @@ class LoggingServiceRegistryTest extends Specification {
         loggingManager.captureSystemSources()
         logger.info("ignored")
         logger.warning("warning")
+        loggingManager.flush()
 
         then:
         1 * listener.onOutput('warning')
@@ -342,6 +359,7 @@ class LoggingServiceRegistryTest extends Specification {
         when:
         loggingManager.stop()
         logger.warning("after")
+        loggingManager.flush()
 
         then:
         0 * listener._
@@ -383,6 +401,7 @@ class LoggingServiceRegistryTest extends Specification {
         when:
         System.out.println("info")
         System.err.println("error")
+        loggingManager.flush()
 
         then:
         1 * listener.onOutput(TextUtil.toPlatformLineSeparators("info\n"))
@@ -411,6 +430,7 @@ class LoggingServiceRegistryTest extends Specification {
         loggingManager.start()
         logger.warn("warning")
         logger.error("error")
+        loggingManager.flush()
 
         then:
         0 * listener._
@@ -427,6 +447,7 @@ class LoggingServiceRegistryTest extends Specification {
         when:
         logger.warning("warning")
         logger.severe("error")
+        loggingManager.flush()
 
         then:
         outputs.stdOut == ''
@@ -456,6 +477,7 @@ class LoggingServiceRegistryTest extends Specification {
 
         def textOutput = registry.get(StyledTextOutputFactory).create("category")
         textOutput.println("info")
+        loggingManager.flush()
 
         then:
         1 * listener.onOutput(TextUtil.toPlatformLineSeparators("info\n"))
@@ -22,6 +22,9 @@ import org.gradle.util.RedirectStdOutAndErr
 import org.junit.Rule
 import org.gradle.internal.nativeintegration.console.ConsoleMetaData
 
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
 class OutputEventRendererTest extends OutputSpecification {
     @Rule public final RedirectStdOutAndErr outputs = new RedirectStdOutAndErr()
     private final ConsoleStub console = new ConsoleStub()
@@ -38,6 +41,7 @@ class OutputEventRendererTest extends OutputSpecification {
         when:
         renderer.attachSystemOutAndErr()
         renderer.onOutput(event('message', LogLevel.INFO))
+        renderer.flush()
 
         then:
         outputs.stdOut.readLines() == ['message']
@@ -48,6 +52,7 @@ class OutputEventRendererTest extends OutputSpecification {
         when:
         renderer.attachSystemOutAndErr()
         renderer.onOutput(event('message', LogLevel.ERROR))
+        renderer.flush()
 
         then:
         outputs.stdOut == ''
@@ -61,6 +66,7 @@ class OutputEventRendererTest extends OutputSpecification {
         renderer.configure(LogLevel.DEBUG)
         renderer.addStandardOutputListener(listener)
         renderer.onOutput(event(tenAm, 'message', LogLevel.INFO))
+        renderer.flush()
 
         then:
         listener.value.readLines() == ['10:00:00.000 [INFO] [category] message']
@@ -72,6 +78,7 @@ class OutputEventRendererTest extends OutputSpecification {
         renderer.attachSystemOutAndErr()
         renderer.onOutput(event(tenAm, 'info', LogLevel.INFO))
         renderer.onOutput(event(tenAm, 'error', LogLevel.ERROR))
+        renderer.flush()
 
         then:
         outputs.stdOut.readLines() == ['10:00:00.000 [INFO] [category] info']
@@ -85,6 +92,7 @@ class OutputEventRendererTest extends OutputSpecification {
         renderer.addStandardOutputListener(listener)
         renderer.onOutput(event('info', LogLevel.INFO))
         renderer.onOutput(event('error', LogLevel.ERROR))
+        renderer.flush()
 
         then:
         listener.value.readLines() == ['info']
@@ -98,6 +106,7 @@ class OutputEventRendererTest extends OutputSpecification {
         renderer.removeStandardOutputListener(listener)
         renderer.onOutput(event('info', LogLevel.INFO))
         renderer.onOutput(event('error', LogLevel.ERROR))
+        renderer.flush()
 
         then:
         listener.value == ''
@@ -110,6 +119,7 @@ class OutputEventRendererTest extends OutputSpecification {
         renderer.configure(LogLevel.DEBUG)
         renderer.addStandardOutputListener(listener)
         renderer.onOutput(event(tenAm, 'message', LogLevel.INFO))
+        renderer.flush()
 
         then:
         listener.value.readLines() == ['10:00:00.000 [INFO] [category] message']
@@ -122,6 +132,7 @@ class OutputEventRendererTest extends OutputSpecification {
         renderer.addStandardErrorListener(listener)
         renderer.onOutput(event('info', LogLevel.INFO))
         renderer.onOutput(event('error', LogLevel.ERROR))
+        renderer.flush()
 
         then:
         listener.value.readLines() == ['error']
@@ -135,6 +146,7 @@ class OutputEventRendererTest extends OutputSpecification {
         renderer.removeStandardErrorListener(listener)
         renderer.onOutput(event('info', LogLevel.INFO))
         renderer.onOutput(event('error', LogLevel.ERROR))
+        renderer.flush()
 
         then:
         listener.value == ''
@@ -147,6 +159,7 @@ class OutputEventRendererTest extends OutputSpecification {
         renderer.configure(LogLevel.DEBUG)
         renderer.addStandardErrorListener(listener)
         renderer.onOutput(event(tenAm, 'message', LogLevel.ERROR))
+        renderer.flush()
 
         then:
         listener.value.readLines() == ['10:00:00.000 [ERROR] [category] message']
@@ -162,6 +175,7 @@ class OutputEventRendererTest extends OutputSpecification {
         renderer.addOutputEventListener(listener)
         renderer.onOutput(ignored)
         renderer.onOutput(event)
+        renderer.flush()
 
         then:
         1 * listener.onOutput(event)
@@ -177,6 +191,7 @@ class OutputEventRendererTest extends OutputSpecification {
         renderer.addOutputEventListener(listener)
         renderer.removeOutputEventListener(listener)
         renderer.onOutput(event)
+        renderer.flush()
 
         then:
         0 * listener._
@@ -187,6 +202,7 @@ class OutputEventRendererTest extends OutputSpecification {
         renderer.attachSystemOutAndErr()
         renderer.onOutput(start(loggingHeader: 'description'))
         renderer.onOutput(complete('status'))
+        renderer.flush()
 
         then:
         outputs.stdOut.readLines() == ['description status']
@@ -199,6 +215,7 @@ class OutputEventRendererTest extends OutputSpecification {
         renderer.configure(LogLevel.QUIET)
         renderer.onOutput(start('description'))
         renderer.onOutput(complete('status'))
+        renderer.flush()
 
         then:
         outputs.stdOut == ''
@@ -213,6 +230,7 @@ class OutputEventRendererTest extends OutputSpecification {
         renderer.onOutput(event('info', LogLevel.INFO))
         renderer.onOutput(event('error', LogLevel.ERROR))
         renderer.onOutput(complete('status'))
+        renderer.flush()
 
         then:
         console.value.readLines() == ['description', 'info', '{error}error', '{normal}description {progressstatus}status{normal}']
@@ -226,6 +244,7 @@ class OutputEventRendererTest extends OutputSpecification {
         renderer.onOutput(event('info', LogLevel.INFO))
         renderer.onOutput(event('error', LogLevel.ERROR))
         renderer.onOutput(complete('status'))
+        renderer.flush()
 
         then:
         console.value.readLines() == ['description', 'info', 'description {progressstatus}status{normal}']
@@ -239,6 +258,7 @@ class OutputEventRendererTest extends OutputSpecification {
         renderer.onOutput(event('info', LogLevel.INFO))
         renderer.onOutput(event('error', LogLevel.ERROR))
         renderer.onOutput(complete('status'))
+        renderer.flush()
 
         then:
         console.value.readLines() == ['{error}error', '{normal}']
@@ -251,6 +271,7 @@ class OutputEventRendererTest extends OutputSpecification {
         when:
         renderer.onOutput(event(tenAm, 'info', LogLevel.INFO))
         renderer.onOutput(event(tenAm, 'error', LogLevel.ERROR))
+        renderer.flush()
 
         then:
         console.value.readLines() == ['10:00:00.000 [INFO] [category] info', '{error}10:00:00.000 [ERROR] [category] error', '{normal}']
@@ -262,6 +283,7 @@ class OutputEventRendererTest extends OutputSpecification {
         renderer.addConsole(console, true, true, metaData)
         renderer.onOutput(event('info', LogLevel.INFO))
         renderer.onOutput(event('error', LogLevel.ERROR))
+        renderer.flush()
 
         then:
         console.value.readLines() == ['info', '{error}error', '{normal}']
@@ -275,6 +297,7 @@ class OutputEventRendererTest extends OutputSpecification {
         renderer.addConsole(console, true, false, metaData)
         renderer.onOutput(event('info', LogLevel.INFO))
         renderer.onOutput(event('error', LogLevel.ERROR))
+        renderer.flush()
 
         then:
         console.value.readLines() == ['info']
@@ -288,12 +311,132 @@ class OutputEventRendererTest extends OutputSpecification {
         renderer.addConsole(console, false, true, metaData)
         renderer.onOutput(event('info', LogLevel.INFO))
         renderer.onOutput(event('error', LogLevel.ERROR))
+        renderer.flush()
 
         then:
         console.value.readLines() == ['{error}error', '{normal}']
         outputs.stdOut.readLines() == ['info']
         outputs.stdErr == ''
     }
+
+    def doesNotBlockProducersWhileRenderingAndPreservesOrder() {
+        def rendering = new CountDownLatch(1)
+        def release = new CountDownLatch(1)
+        def messages = []
+        renderer.addOutputEventListener({ OutputEvent event ->
+            if (event instanceof LogEvent) {
+                messages << event.message
+                if (event.message == 'first') {
+                    rendering.countDown()
+                    release.await(10, TimeUnit.SECONDS)
+                }
+            }
+        } as OutputEventListener)
+
+        when:
+        renderer.onOutput(event('first', LogLevel.INFO))
+        rendering.await(10, TimeUnit.SECONDS)
+        renderer.onOutput(event('second', LogLevel.INFO))
+        renderer.onOutput(event('third', LogLevel.INFO))
+
+        then:
+        messages == ['first']
+
+        when:
+        release.countDown()
+        renderer.flush()
+
+        then:
+        messages == ['first', 'second', 'third']
+    }
+
+    def blocksProducersWhenTooManyEventsArePending() {
+        def rendering = new CountDownLatch(1)
+        def release = new CountDownLatch(1)
+        renderer.addOutputEventListener({ OutputEvent event ->
+            if (event instanceof LogEvent && event.message == 'first') {
+                rendering.countDown()
+                release.await(10, TimeUnit.SECONDS)
+            }
+        } as OutputEventListener)
+        renderer.onOutput(event('first', LogLevel.INFO))
+        rendering.await(10, TimeUnit.SECONDS)
+
+        when:
+        def producer = Thread.start {
+            (OutputEventRenderer.MAX_PENDING_EVENTS + 1).times { renderer.onOutput(event('next', LogLevel.INFO)) }
+        }
+        producer.join(500)
+
+        then:
+        producer.alive
+
+        when:
+        release.countDown()
+        producer.join(10000)
+
+        then:
+        !producer.alive
+    }
+
+    def rendersEventsGeneratedWhileRendering() {
+        def messages = []
+        renderer.addOutputEventListener({ OutputEvent e ->
+            if (e instanceof LogEvent) {
+                messages << e.message
+                if (e.message == 'outer') {
+                    renderer.onOutput(event('inner', LogLevel.INFO))
+                }
+            }
+        } as OutputEventListener)
+
+        when:
+        renderer.onOutput(event('outer', LogLevel.INFO))
+        renderer.flush()
+
+        then:
+        messages == ['outer', 'inner']
+    }
+
+    def rendersRemainingEventsWhenDestinationFailsAndRethrowsFailureFromFlush() {
+        def messages = []
+        renderer.addOutputEventListener({ OutputEvent e ->
+            if (e instanceof LogEvent) {
+                messages << e.message
+                if (e.message == 'broken') {
+                    throw new RuntimeException('broken destination')
+                }
+            }
+        } as OutputEventListener)
+
+        when:
+        renderer.onOutput(event('broken', LogLevel.INFO))
+        renderer.onOutput(event('after', LogLevel.INFO))
+        renderer.flush()
+
+        then:
+        RuntimeException e = thrown()
+        (e.message == 'broken destination' || e.cause?.message == 'broken destination')
+        messages == ['broken', 'after']
+
+        when:
+        renderer.flush()
+
+        then:
+        noExceptionThrown()
+    }
+
+    def flushWaitsForPendingEventsBeforeDestinationIsRemoved() {
+        def listener = new TestListener()
+        renderer.addStandardOutputListener(listener)
+
+        when:
+        renderer.onOutput(event('info', LogLevel.INFO))
+        renderer.removeStandardOutputListener(listener)
+
+        then:
+        listener.value.readLines() == ['info']
+    }
 }
 
 class TestListener implements StandardOutputListener {
@@ -16,6 +16,7 @@
 
 package org.gradle.profile
 
+import com.google.common.cache.CacheStats
 import org.gradle.StartParameter
 import org.gradle.api.tasks.TaskState
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
@@ -218,6 +219,35 @@ class ProfileReportRendererTest extends Specification {
 </div>"""))
     }
 
+    def "renders statistics of model metadata caches"() {
+        def model = new BuildProfile(new StartParameter())
+        def file = temp.file("report.html")
+        model.modelMetadataCaches = ["Rule sources": new CacheStats(3, 1, 0, 0, 0, 0)]
+
+        when:
+        new ProfileReportRenderer().writeTo(model, file)
+
+        then:
+        file.text.contains(toPlatformLineSeparators("""<h2>Model Metadata Caches</h2>
+<table>
+<thead>
+<tr>
+<th>Cache</th>
+<th class="numeric">Hits</th>
+<th class="numeric">Misses</th>
+<th class="numeric">Hit Rate</th>
+</tr>
+</thead>
+<tr>
+<td>Rule sources</td>
+<td class="numeric">3</td>
+<td class="numeric">1</td>
+<td class="numeric">75%</td>
+</tr>
+</table>
+</div>"""))
+    }
+
     private long time(int hour, int mins, int secs, int ms = 0) {
         def cal = new GregorianCalendar(2010, 1, 5, hour, mins, secs)
         cal.add(Calendar.MILLISECOND, ms)
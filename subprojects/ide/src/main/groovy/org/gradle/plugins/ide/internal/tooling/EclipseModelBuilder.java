@@ -35,7 +35,7 @@ public class EclipseModelBuilder implements ToolingModelBuilder {
 
     private boolean projectDependenciesOnly;
     private DefaultEclipseProject result;
-    private final Map<String, DefaultEclipseProject> projectMapping = new HashMap<String, DefaultEclipseProject>();
+    private Map<String, DefaultEclipseProject> projectMapping;
     private TasksFactory tasksFactory;
     private DefaultGradleProject<?> rootGradleProject;
     private Project currentProject;
@@ -54,6 +54,7 @@ public class EclipseModelBuilder implements ToolingModelBuilder {
         tasksFactory = new TasksFactory(includeTasks);
         projectDependenciesOnly = modelName.equals("org.gradle.tooling.model.eclipse.HierarchicalEclipseProject");
         currentProject = project;
+        projectMapping = new HashMap<String, DefaultEclipseProject>();
         Project root = project.getRootProject();
         rootGradleProject = gradleProjectBuilder.buildAll(project);
         tasksFactory.collectTasks(root);
@@ -100,40 +101,16 @@ public class EclipseModelBuilder implements ToolingModelBuilder {
     }
 
     private void populate(Project project) {
-        EclipseModel eclipseModel = project.getExtensions().getByType(EclipseModel.class);
-        EclipseClasspath classpath = eclipseModel.getClasspath();
-
-        classpath.setProjectDependenciesOnly(projectDependenciesOnly);
-        List<ClasspathEntry> entries = classpath.resolveDependencies();
-
-        final List<DefaultEclipseExternalDependency> externalDependencies = new LinkedList<DefaultEclipseExternalDependency>();
-        final List<DefaultEclipseProjectDependency> projectDependencies = new LinkedList<DefaultEclipseProjectDependency>();
-        final List<DefaultEclipseSourceDirectory> sourceDirectories = new LinkedList<DefaultEclipseSourceDirectory>();
-
-        for (ClasspathEntry entry : entries) {
-            //we don't handle Variables at the moment because users didn't request it yet
-            //and it would probably push us to add support in the tooling api to retrieve the variable mappings.
-            if (entry instanceof Library) {
-                AbstractLibrary library = (AbstractLibrary) entry;
-                final File file = library.getLibrary().getFile();
-                final File source = library.getSourcePath() == null ? null : library.getSourcePath().getFile();
-                final File javadoc = library.getJavadocPath() == null ? null : library.getJavadocPath().getFile();
-                externalDependencies.add(new DefaultEclipseExternalDependency(file, javadoc, source, library.getModuleVersion(), library.isExported()));
-            } else if (entry instanceof ProjectDependency) {
-                final ProjectDependency projectDependency = (ProjectDependency) entry;
-                final String path = StringUtils.removeStart(projectDependency.getPath(), "/");
-                projectDependencies.add(new DefaultEclipseProjectDependency(path, projectMapping.get(projectDependency.getGradlePath()), projectDependency.isExported()));
-            } else if (entry instanceof SourceFolder) {
-                final SourceFolder sourceFolder = (SourceFolder) entry;
-                String path = sourceFolder.getPath();
-                sourceDirectories.add(new DefaultEclipseSourceDirectory(path, sourceFolder.getDir()));
+        final EclipseModel eclipseModel = project.getExtensions().getByType(EclipseModel.class);
+        final DefaultEclipseProject eclipseProject = projectMapping.get(project.getPath());
+        // the builder is reused for later requests, so capture the state of this request
+        final boolean dependenciesOnly = projectDependenciesOnly;
+        final Map<String, DefaultEclipseProject> mapping = projectMapping;
+        eclipseProject.setClasspathResolver(new Runnable() {
+            public void run() {
+                resolveClasspath(eclipseModel, eclipseProject, dependenciesOnly, mapping);
             }
-        }
-
-        DefaultEclipseProject eclipseProject = projectMapping.get(project.getPath());
-        eclipseProject.setClasspath(externalDependencies);
-        eclipseProject.setProjectDependencies(projectDependencies);
-        eclipseProject.setSourceDirectories(sourceDirectories);
+        });
 
         List<DefaultEclipseLinkedResource> linkedResources = new LinkedList<DefaultEclipseLinkedResource>();
         for (Link r : eclipseModel.getProject().getLinkedResources()) {
@@ -171,4 +148,39 @@ public class EclipseModelBuilder implements ToolingModelBuilder {
             populate(childProject);
         }
     }
+
+    private static void resolveClasspath(EclipseModel eclipseModel, DefaultEclipseProject eclipseProject, boolean projectDependenciesOnly, Map<String, DefaultEclipseProject> projectMapping) {
+        EclipseClasspath classpath = eclipseModel.getClasspath();
+
+        classpath.setProjectDependenciesOnly(projectDependenciesOnly);
+        List<ClasspathEntry> entries = classpath.resolveDependencies();
+
+        final List<DefaultEclipseExternalDependency> externalDependencies = new LinkedList<DefaultEclipseExternalDependency>();
+        final List<DefaultEclipseProjectDependency> projectDependencies = new LinkedList<DefaultEclipseProjectDependency>();
+        final List<DefaultEclipseSourceDirectory> sourceDirectories = new LinkedList<DefaultEclipseSourceDirectory>();
+
+        for (ClasspathEntry entry : entries) {
+            //we don't handle Variables at the moment because users didn't request it yet
+            //and it would probably push us to add support in the tooling api to retrieve the variable mappings.
+            if (entry instanceof Library) {
+                AbstractLibrary library = (AbstractLibrary) entry;
+                final File file = library.getLibrary().getFile();
+                final File source = library.getSourcePath() == null ? null : library.getSourcePath().getFile();
+                final File javadoc = library.getJavadocPath() == null ? null : library.getJavadocPath().getFile();
+                externalDependencies.add(new DefaultEclipseExternalDependency(file, javadoc, source, library.getModuleVersion(), library.isExported()));
+            } else if (entry instanceof ProjectDependency) {
+                final ProjectDependency projectDependency = (ProjectDependency) entry;
+                final String path = StringUtils.removeStart(projectDependency.getPath(), "/");
+                projectDependencies.add(new DefaultEclipseProjectDependency(path, projectMapping.get(projectDependency.getGradlePath()), projectDependency.isExported()));
+            } else if (entry instanceof SourceFolder) {
+                final SourceFolder sourceFolder = (SourceFolder) entry;
+                String path = sourceFolder.getPath();
+                sourceDirectories.add(new DefaultEclipseSourceDirectory(path, sourceFolder.getDir()));
+            }
+        }
+
+        eclipseProject.setClasspath(externalDependencies);
+        eclipseProject.setProjectDependencies(projectDependencies);
+        eclipseProject.setSourceDirectories(sourceDirectories);
+    }
 }
@@ -73,12 +73,18 @@ public class IdeaModelBuilder implements ToolingModelBuilder {
                 .setTargetBytecodeVersion(projectTargetBytecodeLevel)
                 .setJdk(DefaultInstalledJdk.current()));
 
-        Map<String, DefaultIdeaModule> modules = new HashMap<String, DefaultIdeaModule>();
+        final Map<String, DefaultIdeaModule> modules = new HashMap<String, DefaultIdeaModule>();
         for (IdeaModule module : projectModel.getModules()) {
             appendModule(modules, module, out, rootGradleProject);
         }
-        for (IdeaModule module : projectModel.getModules()) {
-            buildDependencies(modules, module);
+        // the builder is reused for later requests, so capture the state of this request
+        final boolean offline = offlineDependencyResolution;
+        for (final IdeaModule module : projectModel.getModules()) {
+            modules.get(module.getName()).setDependencyResolver(new Runnable() {
+                public void run() {
+                    buildDependencies(modules, module, offline);
+                }
+            });
         }
         final Collection<DefaultIdeaModule> ideaModules = modules.values();
         out.setChildren(new LinkedList<DefaultIdeaModule>(ideaModules));
@@ -89,8 +95,8 @@ public class IdeaModelBuilder implements ToolingModelBuilder {
         return project.getPlugins().getPlugin(IdeaPlugin.class);
     }
 
-    private void buildDependencies(Map<String, DefaultIdeaModule> modules, IdeaModule ideaModule) {
-        ideaModule.setOffline(offlineDependencyResolution);
+    private void buildDependencies(Map<String, DefaultIdeaModule> modules, IdeaModule ideaModule, boolean offline) {
+        ideaModule.setOffline(offline);
         Set<Dependency> resolved = ideaModule.resolveDependencies();
         List<DefaultIdeaDependency> dependencies = new LinkedList<DefaultIdeaDependency>();
         for (Dependency dependency : resolved) {
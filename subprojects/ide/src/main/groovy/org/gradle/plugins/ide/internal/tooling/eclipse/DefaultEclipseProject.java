@@ -17,17 +17,24 @@ package org.gradle.plugins.ide.internal.tooling.eclipse;
 
 import com.google.common.collect.Lists;
 import org.gradle.tooling.internal.gradle.DefaultGradleProject;
+import org.gradle.tooling.internal.gradle.DeferredDependenciesModel;
 import org.gradle.tooling.internal.gradle.GradleProjectIdentity;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * An implementation for {@link org.gradle.tooling.model.eclipse.EclipseProject}.
  */
-public class DefaultEclipseProject implements Serializable, GradleProjectIdentity {
+public class DefaultEclipseProject implements Serializable, GradleProjectIdentity, DeferredDependenciesModel {
     private final String name;
     private final String path;
     private DefaultEclipseProject parent;
@@ -43,6 +50,9 @@ public class DefaultEclipseProject implements Serializable, GradleProjectIdentit
     private List<DefaultEclipseProjectNature> projectNatures;
     private List<DefaultEclipseBuildCommand> buildCommands;
     private DefaultEclipseJavaSourceSettings javaSourceSettings;
+    private transient Runnable classpathResolver;
+    private boolean classpathDeferred;
+    private transient volatile DependenciesFetcher classpathFetcher;
 
     public DefaultEclipseProject(String name, String path, String description, File projectDirectory, Iterable<? extends DefaultEclipseProject> children) {
         this.name = name;
@@ -92,6 +102,7 @@ public class DefaultEclipseProject implements Serializable, GradleProjectIdentit
     }
 
     public Iterable<? extends DefaultEclipseSourceDirectory> getSourceDirectories() {
+        resolveClasspath();
         return sourceDirectories;
     }
 
@@ -100,6 +111,7 @@ public class DefaultEclipseProject implements Serializable, GradleProjectIdentit
     }
 
     public Iterable<? extends DefaultEclipseProjectDependency> getProjectDependencies() {
+        resolveClasspath();
         return projectDependencies;
     }
 
@@ -108,6 +120,7 @@ public class DefaultEclipseProject implements Serializable, GradleProjectIdentit
     }
 
     public List<DefaultEclipseExternalDependency> getClasspath() {
+        resolveClasspath();
         return classpath;
     }
 
@@ -163,4 +176,104 @@ public class DefaultEclipseProject implements Serializable, GradleProjectIdentit
     public void setJavaSourceSettings(DefaultEclipseJavaSourceSettings javaSourceSettings) {
         this.javaSourceSettings = javaSourceSettings;
     }
+
+    /**
+     * Defers resolving the classpath, source directories and project dependencies of this project until one of them is first queried, or
+     * until this project is serialized. A build action that only inspects the project hierarchy then does not resolve any dependencies.
+     */
+    public void setClasspathResolver(Runnable classpathResolver) {
+        this.classpathResolver = classpathResolver;
+    }
+
+    public void deferDependencies(Set<String> resolvedProjectPaths) {
+        for (DefaultEclipseProject project : getAllProjects()) {
+            if (project.classpathResolver != null && !resolvedProjectPaths.contains(project.path)) {
+                project.classpathResolver = null;
+                project.classpathDeferred = true;
+            }
+        }
+    }
+
+    public void setDependenciesFetcher(DependenciesFetcher fetcher) {
+        for (DefaultEclipseProject project : getAllProjects()) {
+            if (project.classpathDeferred) {
+                project.classpathFetcher = fetcher;
+            }
+        }
+    }
+
+    private void resolveClasspath() {
+        Runnable resolver = classpathResolver;
+        if (resolver != null) {
+            resolver.run();
+            classpathResolver = null;
+        }
+        DependenciesFetcher fetcher = classpathFetcher;
+        if (fetcher != null) {
+            synchronized (fetcher) {
+                if (classpathFetcher != null) {
+                    copyClasspathFrom((DefaultEclipseProject) fetcher.fetch(path, getDeferredProjectPaths()));
+                }
+            }
+        }
+    }
+
+    private List<String> getDeferredProjectPaths() {
+        List<String> paths = new ArrayList<String>();
+        for (DefaultEclipseProject project : getAllProjects()) {
+            if (project.classpathDeferred) {
+                paths.add(project.path);
+            }
+        }
+        return paths;
+    }
+
+    /**
+     * Copies the classpath of each deferred project in this hierarchy from the project with the same path in the given hierarchy,
+     * where that project's classpath was resolved.
+     */
+    private void copyClasspathFrom(DefaultEclipseProject resolvedModel) {
+        Map<String, DefaultEclipseProject> projectsByPath = new HashMap<String, DefaultEclipseProject>();
+        for (DefaultEclipseProject project : getAllProjects()) {
+            projectsByPath.put(project.path, project);
+        }
+        for (DefaultEclipseProject resolved : resolvedModel.getAllProjects()) {
+            DefaultEclipseProject project = projectsByPath.get(resolved.path);
+            if (project == null || !project.classpathDeferred || resolved.classpathDeferred) {
+                continue;
+            }
+            List<DefaultEclipseProjectDependency> projectDependencies = new ArrayList<DefaultEclipseProjectDependency>(resolved.projectDependencies.size());
+            for (DefaultEclipseProjectDependency dependency : resolved.projectDependencies) {
+                DefaultEclipseProject target = dependency.getTargetProject() == null ? null : projectsByPath.get(dependency.getTargetProject().path);
+                projectDependencies.add(new DefaultEclipseProjectDependency(dependency.getPath(), target, dependency.isExported()));
+            }
+            project.classpath = resolved.classpath;
+            project.sourceDirectories = resolved.sourceDirectories;
+            project.projectDependencies = projectDependencies;
+            project.classpathDeferred = false;
+            project.classpathFetcher = null;
+        }
+    }
+
+    private List<DefaultEclipseProject> getAllProjects() {
+        DefaultEclipseProject root = this;
+        while (root.parent != null) {
+            root = root.parent;
+        }
+        List<DefaultEclipseProject> projects = new ArrayList<DefaultEclipseProject>();
+        root.collectProjects(projects);
+        return projects;
+    }
+
+    private void collectProjects(List<DefaultEclipseProject> projects) {
+        projects.add(this);
+        for (DefaultEclipseProject child : children) {
+            child.collectProjects(projects);
+        }
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        resolveClasspath();
+        out.defaultWriteObject();
+    }
 }
@@ -17,9 +17,12 @@
 package org.gradle.plugins.ide.internal.tooling.idea;
 
 import org.gradle.tooling.internal.gradle.DefaultGradleProject;
+import org.gradle.tooling.internal.gradle.DeferredDependenciesModel.DependenciesFetcher;
 import org.gradle.tooling.internal.gradle.GradleProjectIdentity;
 import org.gradle.tooling.model.idea.IdeaCompilerOutput;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.Collection;
 import java.util.Collections;
@@ -38,6 +41,10 @@ public class DefaultIdeaModule implements Serializable, GradleProjectIdentity {
 
     private DefaultIdeaJavaLanguageSettings javaLanguageSettings;
 
+    private transient Runnable dependencyResolver;
+    private boolean dependenciesDeferred;
+    private transient volatile DependenciesFetcher dependenciesFetcher;
+
     public String getName() {
         return name;
     }
@@ -70,6 +77,7 @@ public class DefaultIdeaModule implements Serializable, GradleProjectIdentity {
     }
 
     public Collection<DefaultIdeaDependency> getDependencies() {
+        resolveDependencies();
         return dependencies;
     }
 
@@ -117,6 +125,58 @@ public class DefaultIdeaModule implements Serializable, GradleProjectIdentity {
         return this;
     }
 
+    /**
+     * Defers resolving the dependencies of this module until they are first queried, or until this module is serialized.
+     */
+    public DefaultIdeaModule setDependencyResolver(Runnable dependencyResolver) {
+        this.dependencyResolver = dependencyResolver;
+        return this;
+    }
+
+    void deferDependencies() {
+        if (dependencyResolver != null) {
+            dependencyResolver = null;
+            dependenciesDeferred = true;
+        }
+    }
+
+    void setDependenciesFetcher(DependenciesFetcher fetcher) {
+        if (dependenciesDeferred) {
+            dependenciesFetcher = fetcher;
+        }
+    }
+
+    boolean isDependenciesDeferred() {
+        return dependenciesDeferred;
+    }
+
+    void setFetchedDependencies(List<DefaultIdeaDependency> dependencies) {
+        this.dependencies = dependencies;
+        dependenciesDeferred = false;
+        dependenciesFetcher = null;
+    }
+
+    private void resolveDependencies() {
+        Runnable resolver = dependencyResolver;
+        if (resolver != null) {
+            resolver.run();
+            dependencyResolver = null;
+        }
+        DependenciesFetcher fetcher = dependenciesFetcher;
+        if (fetcher != null) {
+            synchronized (fetcher) {
+                if (dependenciesFetcher != null) {
+                    parent.copyDependenciesFrom((DefaultIdeaProject) fetcher.fetch(getPath(), parent.getDeferredProjectPaths()));
+                }
+            }
+        }
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        resolveDependencies();
+        out.defaultWriteObject();
+    }
+
     @Override
     public String toString() {
         return "IdeaModule{"
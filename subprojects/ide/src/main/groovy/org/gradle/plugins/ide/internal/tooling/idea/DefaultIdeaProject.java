@@ -16,13 +16,19 @@
 
 package org.gradle.plugins.ide.internal.tooling.idea;
 
+import org.gradle.tooling.internal.gradle.DeferredDependenciesModel;
 import org.gradle.tooling.model.idea.IdeaLanguageLevel;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
-public class DefaultIdeaProject implements Serializable {
+public class DefaultIdeaProject implements Serializable, DeferredDependenciesModel {
     private String name;
     private String description;
     private Collection<DefaultIdeaModule> children = new LinkedList<DefaultIdeaModule>();
@@ -93,6 +99,57 @@ public class DefaultIdeaProject implements Serializable {
         return this;
     }
 
+    public void deferDependencies(Set<String> resolvedProjectPaths) {
+        for (DefaultIdeaModule module : children) {
+            if (!resolvedProjectPaths.contains(module.getPath())) {
+                module.deferDependencies();
+            }
+        }
+    }
+
+    public void setDependenciesFetcher(DependenciesFetcher fetcher) {
+        for (DefaultIdeaModule module : children) {
+            module.setDependenciesFetcher(fetcher);
+        }
+    }
+
+    List<String> getDeferredProjectPaths() {
+        List<String> paths = new ArrayList<String>();
+        for (DefaultIdeaModule module : children) {
+            if (module.isDependenciesDeferred()) {
+                paths.add(module.getPath());
+            }
+        }
+        return paths;
+    }
+
+    /**
+     * Copies the dependencies of each deferred module of this project from the module with the same name in the given project, where
+     * that module's dependencies were resolved.
+     */
+    void copyDependenciesFrom(DefaultIdeaProject resolvedModel) {
+        Map<String, DefaultIdeaModule> modulesByName = new HashMap<String, DefaultIdeaModule>();
+        for (DefaultIdeaModule module : children) {
+            modulesByName.put(module.getName(), module);
+        }
+        for (DefaultIdeaModule resolved : resolvedModel.children) {
+            DefaultIdeaModule module = modulesByName.get(resolved.getName());
+            if (module == null || !module.isDependenciesDeferred() || resolved.isDependenciesDeferred()) {
+                continue;
+            }
+            List<DefaultIdeaDependency> dependencies = new LinkedList<DefaultIdeaDependency>();
+            for (DefaultIdeaDependency dependency : resolved.getDependencies()) {
+                if (dependency instanceof DefaultIdeaModuleDependency) {
+                    DefaultIdeaModuleDependency moduleDependency = (DefaultIdeaModuleDependency) dependency;
+                    DefaultIdeaModule target = moduleDependency.getDependencyModule();
+                    moduleDependency.setDependencyModule(target == null ? null : modulesByName.get(target.getName()));
+                }
+                dependencies.add(dependency);
+            }
+            module.setFetchedDependencies(dependencies);
+        }
+    }
+
     @Override
     public String toString() {
         return "DefaultIdeaProject{"
@@ -15,6 +15,7 @@
  */
 package org.gradle.plugins.ide.internal.tooling.eclipse
 
+import org.gradle.tooling.internal.gradle.DeferredDependenciesModel
 import spock.lang.Specification
 
 class DefaultEclipseProjectTest extends Specification {
@@ -38,4 +39,115 @@ class DefaultEclipseProjectTest extends Specification {
         expect:
         project.buildCommands.isEmpty()
     }
+
+    def resolvesClasspathWhenFirstQueried() {
+        def project = new DefaultEclipseProject("name", ":path", null, null, [])
+        def resolver = Mock(Runnable)
+        project.classpathResolver = resolver
+
+        when:
+        project.classpath
+        project.projectDependencies
+        project.sourceDirectories
+
+        then:
+        1 * resolver.run()
+    }
+
+    def resolvesClasspathWhenSerialized() {
+        def project = new DefaultEclipseProject("name", ":path", null, null, [])
+        def library = new DefaultEclipseExternalDependency(new File("lib.jar"), null, null, null, true)
+        project.classpathResolver = { project.classpath = [library] } as Runnable
+
+        when:
+        def copy = serialize(project)
+
+        then:
+        copy.classpath*.file == [new File("lib.jar")]
+    }
+
+    def doesNotResolveDeferredClasspathWhenSerialized() {
+        def project = new DefaultEclipseProject("name", ":path", null, null, [])
+        def resolver = Mock(Runnable)
+        project.classpathResolver = resolver
+
+        when:
+        project.deferDependencies([] as Set)
+        def copy = serialize(project)
+
+        then:
+        0 * resolver.run()
+        copy.classpath.empty
+    }
+
+    def resolvesClasspathOfProjectsThatAreNotDeferred() {
+        def project = hierarchy()
+        def library = new DefaultEclipseExternalDependency(new File("lib.jar"), null, null, null, true)
+        project.children[0].classpathResolver = { project.children[0].classpath = [library] } as Runnable
+        def resolver = Mock(Runnable)
+        project.children[1].classpathResolver = resolver
+
+        when:
+        project.deferDependencies([":child1"] as Set)
+        def copy = serialize(project)
+
+        then:
+        0 * resolver.run()
+        copy.children[0].classpath == [library]
+    }
+
+    def fetchesDeferredClasspathOfQueriedProjectWhenFirstQueried() {
+        def project = hierarchy()
+        project.children.each { it.classpathResolver = Stub(Runnable) }
+        project.deferDependencies([] as Set)
+        def copy = serialize(project)
+
+        def resolved = hierarchy()
+        def library = new DefaultEclipseExternalDependency(new File("lib.jar"), null, null, null, true)
+        resolved.children[0].classpath = [library]
+        resolved.children[0].projectDependencies = [new DefaultEclipseProjectDependency("child2", resolved.children[1], false)]
+        resolved.children[1].classpathResolver = Stub(Runnable)
+        resolved.deferDependencies([":", ":child1"] as Set)
+        def fetcher = Mock(DeferredDependenciesModel.DependenciesFetcher)
+        copy.dependenciesFetcher = fetcher
+
+        when:
+        def classpath = copy.children[0].classpath
+        def projectDependencies = copy.children[0].projectDependencies
+
+        then:
+        1 * fetcher.fetch(":child1", [":child1", ":child2"]) >> serialize(resolved)
+        classpath == [library]
+        projectDependencies*.path == ["child2"]
+        projectDependencies[0].targetProject.is(copy.children[1])
+
+        when:
+        def otherClasspath = copy.children[1].classpath
+
+        then:
+        1 * fetcher.fetch(":child2", [":child2"]) >> serialize(hierarchy())
+        otherClasspath.empty
+
+        when:
+        copy.children[0].classpath
+        copy.children[1].classpath
+
+        then:
+        0 * fetcher._
+    }
+
+    def hierarchy() {
+        def child1 = new DefaultEclipseProject("child1", ":child1", null, null, [])
+        def child2 = new DefaultEclipseProject("child2", ":child2", null, null, [])
+        def root = new DefaultEclipseProject("root", ":", null, null, [child1, child2])
+        child1.parent = root
+        child2.parent = root
+        return root
+    }
+
+    def serialize(DefaultEclipseProject project) {
+        def bytes = new ByteArrayOutputStream()
+        new ObjectOutputStream(bytes).writeObject(project)
+        return new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject()
+    }
 }
@@ -243,6 +243,29 @@ class EclipseModelBuilderTest extends Specification {
         eclipseModel.javaSourceSettings.sourceLanguageLevel == JavaVersion.current()
     }
 
+    def "resolves classpath of a project when it is first queried"() {
+        given:
+        [child1, child2].each { it.pluginManager.apply(JavaPlugin) }
+        child1.dependencies.add("compile", child2)
+        def modelBuilder = createEclipseModelBuilder()
+
+        when:
+        def eclipseModel = modelBuilder.buildAll("org.gradle.tooling.model.eclipse.EclipseProject", project)
+        def eclipseChild1 = eclipseModel.children[0]
+
+        then:
+        eclipseChild1.@classpathResolver != null
+
+        when:
+        def projectDependencies = eclipseChild1.projectDependencies
+
+        then:
+        eclipseChild1.@classpathResolver == null
+        eclipseModel.children[1].@classpathResolver != null
+        projectDependencies*.path == ["child2"]
+        projectDependencies[0].targetProject.is(eclipseModel.children[1])
+    }
+
     private def createEclipseModelBuilder() {
         def gradleProjectBuilder = Mock(GradleProjectBuilder)
         gradleProjectBuilder.buildAll(_) >> Mock(DefaultGradleProject)
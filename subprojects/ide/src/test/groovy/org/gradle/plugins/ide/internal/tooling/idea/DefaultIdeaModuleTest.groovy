@@ -0,0 +1,131 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.plugins.ide.internal.tooling.idea
+
+import org.gradle.tooling.internal.gradle.DefaultGradleProject
+import org.gradle.tooling.internal.gradle.DeferredDependenciesModel
+import spock.lang.Specification
+
+class DefaultIdeaModuleTest extends Specification {
+    def "resolves dependencies when first queried"() {
+        def module = new DefaultIdeaModule().setName("module")
+        def resolver = Mock(Runnable)
+        module.setDependencyResolver(resolver)
+
+        when:
+        module.dependencies
+        module.dependencies
+
+        then:
+        1 * resolver.run()
+    }
+
+    def "resolves dependencies when serialized"() {
+        def module = new DefaultIdeaModule().setName("module")
+        def dependency = new DefaultIdeaSingleEntryLibraryDependency().setFile(new File("lib.jar"))
+        module.setDependencyResolver({ module.setDependencies([dependency]) } as Runnable)
+
+        when:
+        def copy = serialize(module)
+
+        then:
+        copy.dependencies*.file == [new File("lib.jar")]
+    }
+
+    def "does not resolve deferred dependencies when serialized"() {
+        def project = project()
+        def resolver = Mock(Runnable)
+        project.modules.each { it.setDependencyResolver(resolver) }
+
+        when:
+        project.deferDependencies([] as Set)
+        def copy = serialize(project)
+
+        then:
+        0 * resolver.run()
+        copy.modules.every { it.dependencies.empty }
+    }
+
+    def "resolves dependencies of modules that are not deferred"() {
+        def project = project()
+        def (moduleA, moduleB) = project.modules as List
+        moduleA.setDependencyResolver({ moduleA.setDependencies([new DefaultIdeaSingleEntryLibraryDependency().setFile(new File("lib.jar"))]) } as Runnable)
+        def resolver = Mock(Runnable)
+        moduleB.setDependencyResolver(resolver)
+
+        when:
+        project.deferDependencies([":a"] as Set)
+        def copy = serialize(project)
+
+        then:
+        0 * resolver.run()
+        copy.modules[0].dependencies*.file == [new File("lib.jar")]
+    }
+
+    def "fetches deferred dependencies of queried module when first queried"() {
+        def project = project()
+        project.modules.each { it.setDependencyResolver(Stub(Runnable)) }
+        project.deferDependencies([] as Set)
+        def copy = serialize(project)
+
+        def resolved = project()
+        def (resolvedA, resolvedB) = resolved.modules as List
+        def library = new DefaultIdeaSingleEntryLibraryDependency().setFile(new File("lib.jar"))
+        resolvedA.setDependencies([library, new DefaultIdeaModuleDependency().setDependencyModule(resolvedB)])
+        resolvedB.setDependencyResolver(Stub(Runnable))
+        resolved.deferDependencies([":a"] as Set)
+        def fetcher = Mock(DeferredDependenciesModel.DependenciesFetcher)
+        copy.dependenciesFetcher = fetcher
+        def (moduleA, moduleB) = copy.modules as List
+
+        when:
+        def dependencies = moduleA.dependencies as List
+
+        then:
+        1 * fetcher.fetch(":a", [":a", ":b"]) >> serialize(resolved)
+        dependencies.size() == 2
+        dependencies[0].file == new File("lib.jar")
+        dependencies[1].dependencyModule.is(moduleB)
+
+        when:
+        def otherDependencies = moduleB.dependencies
+
+        then:
+        1 * fetcher.fetch(":b", [":b"]) >> serialize(project())
+        otherDependencies.empty
+
+        when:
+        moduleA.dependencies
+        moduleB.dependencies
+
+        then:
+        0 * fetcher._
+    }
+
+    def project() {
+        def project = new DefaultIdeaProject().setName("project")
+        def moduleA = new DefaultIdeaModule().setName("a").setParent(project).setGradleProject(new DefaultGradleProject().setPath(":a"))
+        def moduleB = new DefaultIdeaModule().setName("b").setParent(project).setGradleProject(new DefaultGradleProject().setPath(":b"))
+        return project.setChildren([moduleA, moduleB])
+    }
+
+    def serialize(Object model) {
+        def bytes = new ByteArrayOutputStream()
+        new ObjectOutputStream(bytes).writeObject(model)
+        return new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject()
+    }
+}
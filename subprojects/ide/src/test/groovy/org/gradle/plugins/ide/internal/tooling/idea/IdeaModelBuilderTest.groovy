@@ -284,6 +284,29 @@ class IdeaModelBuilderTest extends Specification {
         ideaProject.javaLanguageSettings.languageLevel == defaultIdeaPluginLanguageLevelForJavaProjects
     }
 
+    def "resolves dependencies of a module when they are first queried"() {
+        given:
+        [child1, child2].each { it.plugins.apply(JavaPlugin) }
+        child1.dependencies.add("compile", child2)
+
+        when:
+        def ideaProject = buildIdeaProjectModel()
+        def ideaChild1 = ideaProject.modules.find { it.name == 'child1' }
+        def ideaChild2 = ideaProject.modules.find { it.name == 'child2' }
+
+        then:
+        ideaChild1.@dependencyResolver != null
+
+        when:
+        def dependencies = ideaChild1.dependencies
+
+        then:
+        ideaChild1.@dependencyResolver == null
+        ideaChild2.@dependencyResolver != null
+        dependencies.findAll { it instanceof DefaultIdeaModuleDependency }*.dependencyModule.every { it.is(ideaChild2) }
+        dependencies.any { it instanceof DefaultIdeaModuleDependency }
+    }
+
     private DefaultIdeaProject buildIdeaProjectModel() {
         def builder = createIdeaModelBuilder()
         buildIdeaProject(builder, root)
@@ -0,0 +1,370 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.compile;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.primitives.Longs;
+import org.gradle.api.Nullable;
+import org.gradle.api.internal.changedetection.state.FileSnapshotter;
+import org.gradle.cache.CacheAccess;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.Stoppable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps idle javac file managers, and with them the indexes of the jars they have opened, for reuse by later compilations with the same search paths.
+ * <p>
+ * A file manager keeps the search paths set by the options of a compilation, such as the classpath, the source path and the processor path. It is therefore
+ * only reused by a compilation with exactly the same search paths, and its output locations are set again for each compilation. It is used by a single
+ * compilation at a time, and is closed instead of being reused when an archive on any of its search paths has changed since it was created. Directories
+ * are not checked, as the file manager lists them again for each compilation.
+ * <p>
+ * Open file managers keep their jars open, which prevents the jars from being replaced or deleted on Windows. Idle file managers are therefore closed after
+ * {@link #IDLE_TIMEOUT_MILLIS}, and straight away on Windows. The least recently used file managers are closed when more than {@link #MAX_IDLE_FILE_MANAGERS}
+ * are kept.
+ */
+public class JavaFileManagerCache implements Stoppable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(JavaFileManagerCache.class);
+    private static final int MAX_IDLE_FILE_MANAGERS = 16;
+    private static final long IDLE_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    private static final Set<String> PATH_OPTIONS = ImmutableSet.of("-classpath", "-cp", "-bootclasspath", "-extdirs", "-endorseddirs", "-processorpath", "-sourcepath");
+
+    private final Map<Key, Entry> idle = new LinkedHashMap<Key, Entry>(MAX_IDLE_FILE_MANAGERS, 0.75f, true);
+    private final FileSnapshotter fileSnapshotter;
+    private final CacheAccess cacheAccess;
+    private final boolean closeWhenIdle;
+    private final long idleTimeoutMillis;
+    private ScheduledExecutorService expiry;
+    private boolean stopped;
+
+    public JavaFileManagerCache(FileSnapshotter fileSnapshotter, CacheAccess cacheAccess, boolean closeWhenIdle) {
+        this(fileSnapshotter, cacheAccess, closeWhenIdle, IDLE_TIMEOUT_MILLIS);
+    }
+
+    JavaFileManagerCache(FileSnapshotter fileSnapshotter, CacheAccess cacheAccess, boolean closeWhenIdle, long idleTimeoutMillis) {
+        this.fileSnapshotter = fileSnapshotter;
+        this.cacheAccess = cacheAccess;
+        this.closeWhenIdle = closeWhenIdle;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+    }
+
+    /**
+     * Leases a file manager suitable for a compilation with the given options. The file manager must be given back using {@link #release(Lease)}.
+     */
+    public Lease acquire(JavaCompiler compiler, @Nullable Charset charset, List<String> options) {
+        List<String> pathOptions = pathOptionsOf(options);
+        Key key = new Key(compiler.getClass(), charset, pathOptions);
+        byte[] signature = signatureOf(pathEntriesOf(pathOptions));
+
+        Entry entry;
+        synchronized (idle) {
+            entry = idle.remove(key);
+        }
+        if (entry != null && !Arrays.equals(entry.signature, signature)) {
+            LOGGER.debug("Search path archives of compilation with options {} have changed, discarding Java compiler file manager.", options);
+            close(entry.fileManager);
+            entry = null;
+        }
+        if (entry != null) {
+            LOGGER.debug("Reusing Java compiler file manager for options {}.", options);
+        } else {
+            entry = new Entry(compiler.getStandardFileManager(null, null, charset), signature);
+        }
+        setOutputLocations(entry.fileManager, options);
+        return new Lease(key, entry);
+    }
+
+    /**
+     * Gives back a leased file manager, so that it can be reused by later compilations.
+     */
+    public void release(Lease lease) {
+        if (closeWhenIdle) {
+            close(lease.entry.fileManager);
+            return;
+        }
+        List<Entry> evicted = new ArrayList<Entry>();
+        synchronized (idle) {
+            if (stopped) {
+                evicted.add(lease.entry);
+            } else {
+                lease.entry.idleSince = System.currentTimeMillis();
+                Entry previous = idle.put(lease.key, lease.entry);
+                if (previous != null) {
+                    // Another compilation with the same search paths released its file manager first
+                    evicted.add(previous);
+                }
+                Iterator<Entry> iterator = idle.values().iterator();
+                while (idle.size() > MAX_IDLE_FILE_MANAGERS && iterator.hasNext()) {
+                    evicted.add(iterator.next());
+                    iterator.remove();
+                }
+                scheduleExpiry();
+            }
+        }
+        for (Entry entry : evicted) {
+            close(entry.fileManager);
+        }
+    }
+
+    /**
+     * Closes a leased file manager, which cannot be reused, for example because the compilation failed unexpectedly.
+     */
+    public void discard(Lease lease) {
+        close(lease.entry.fileManager);
+    }
+
+    /**
+     * Closes the idle file managers, and the file managers released from now on, and stops the timer that closes idle file managers.
+     */
+    @Override
+    public void stop() {
+        List<Entry> entries;
+        synchronized (idle) {
+            stopped = true;
+            entries = new ArrayList<Entry>(idle.values());
+            idle.clear();
+            if (expiry != null) {
+                expiry.shutdownNow();
+                expiry = null;
+            }
+        }
+        for (Entry entry : entries) {
+            close(entry.fileManager);
+        }
+    }
+
+    /**
+     * Closes the file managers that have been idle for longer than the idle timeout at the given time.
+     */
+    void closeExpired(long now) {
+        List<Entry> expired = new ArrayList<Entry>();
+        synchronized (idle) {
+            long expiredBefore = now - idleTimeoutMillis;
+            Iterator<Entry> iterator = idle.values().iterator();
+            while (iterator.hasNext()) {
+                Entry entry = iterator.next();
+                if (entry.idleSince <= expiredBefore) {
+                    expired.add(entry);
+                    iterator.remove();
+                }
+            }
+            if (!idle.isEmpty() && !stopped) {
+                scheduleExpiry();
+            }
+        }
+        for (Entry entry : expired) {
+            close(entry.fileManager);
+        }
+    }
+
+    private void scheduleExpiry() {
+        if (expiry == null) {
+            expiry = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "Close idle Java compiler file managers");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        expiry.schedule(new Runnable() {
+            @Override
+            public void run() {
+                closeExpired(System.currentTimeMillis());
+            }
+        }, idleTimeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns the options that set a search path of the compiler, with their values.
+     */
+    private static List<String> pathOptionsOf(List<String> options) {
+        ImmutableList.Builder<String> builder = ImmutableList.builder();
+        for (int i = 0; i < options.size(); i++) {
+            String option = options.get(i);
+            if (PATH_OPTIONS.contains(option) && i + 1 < options.size()) {
+                builder.add(option, options.get(++i));
+            } else if (option.startsWith("-Xbootclasspath") && option.indexOf(':') > 0) {
+                builder.add(option);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Returns the entries of the search paths set by the given options.
+     */
+    private static List<File> pathEntriesOf(List<String> pathOptions) {
+        ImmutableList.Builder<File> builder = ImmutableList.builder();
+        for (int i = 0; i < pathOptions.size(); i++) {
+            String option = pathOptions.get(i);
+            String path = PATH_OPTIONS.contains(option) ? pathOptions.get(++i) : option.substring(option.indexOf(':') + 1);
+            for (String entry : path.split(File.pathSeparator)) {
+                if (entry.length() > 0) {
+                    builder.add(new File(entry));
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Points the output locations of a leased file manager at the directories given by the options of the compilation that uses it.
+     */
+    private static void setOutputLocations(StandardJavaFileManager fileManager, List<String> options) {
+        setOutputLocation(fileManager, StandardLocation.CLASS_OUTPUT, valueOf("-d", options));
+        setOutputLocation(fileManager, StandardLocation.SOURCE_OUTPUT, valueOf("-s", options));
+    }
+
+    private static void setOutputLocation(StandardJavaFileManager fileManager, StandardLocation location, @Nullable String dir) {
+        // A missing directory is left for the compiler to report
+        if (dir != null && !new File(dir).isDirectory()) {
+            return;
+        }
+        try {
+            fileManager.setLocation(location, dir == null ? null : Collections.singleton(new File(dir)));
+        } catch (IOException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    @Nullable
+    private static String valueOf(String option, List<String> options) {
+        int index = options.lastIndexOf(option);
+        return index >= 0 && index + 1 < options.size() ? options.get(index + 1) : null;
+    }
+
+    /**
+     * A signature of the archives on the given search path entries, which the file manager keeps open and indexed. Archives are identified by their
+     * content hash, which is memoized by the file snapshotter until the length or modification time of the archive changes. Other entries are identified
+     * by their kind only, as the file manager does not keep their content.
+     */
+    private byte[] signatureOf(final List<File> entries) {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+        cacheAccess.useCache("Snapshot Java compiler search path", new Runnable() {
+            @Override
+            public void run() {
+                for (File entry : entries) {
+                    digest.update(entry.getAbsolutePath().getBytes(Charsets.UTF_8));
+                    if (entry.isDirectory()) {
+                        digest.update((byte) 'd');
+                    } else if (!entry.isFile()) {
+                        digest.update((byte) 'm');
+                    } else if (isArchive(entry)) {
+                        digest.update((byte) 'a');
+                        digest.update(fileSnapshotter.snapshot(entry).getHash());
+                    } else {
+                        digest.update((byte) 'f');
+                        digest.update(Longs.toByteArray(entry.length()));
+                        digest.update(Longs.toByteArray(entry.lastModified()));
+                    }
+                }
+            }
+        });
+        return digest.digest();
+    }
+
+    private static boolean isArchive(File file) {
+        String name = file.getName().toLowerCase(Locale.US);
+        return name.endsWith(".jar") || name.endsWith(".zip");
+    }
+
+    private static void close(StandardJavaFileManager fileManager) {
+        try {
+            fileManager.close();
+        } catch (IOException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    public static class Lease {
+        private final Key key;
+        private final Entry entry;
+
+        private Lease(Key key, Entry entry) {
+            this.key = key;
+            this.entry = entry;
+        }
+
+        public StandardJavaFileManager getFileManager() {
+            return entry.fileManager;
+        }
+    }
+
+    private static class Entry {
+        private final StandardJavaFileManager fileManager;
+        private final byte[] signature;
+        private long idleSince;
+
+        private Entry(StandardJavaFileManager fileManager, byte[] signature) {
+            this.fileManager = fileManager;
+            this.signature = signature;
+        }
+    }
+
+    private static class Key {
+        private final Class<?> compilerType;
+        private final Charset charset;
+        private final List<String> pathOptions;
+
+        private Key(Class<?> compilerType, @Nullable Charset charset, List<String> pathOptions) {
+            this.compilerType = compilerType;
+            this.charset = charset;
+            this.pathOptions = pathOptions;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key other = (Key) o;
+            return compilerType.equals(other.compilerType) && Objects.equal(charset, other.charset) && pathOptions.equals(other.pathOptions);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(compilerType, charset, pathOptions);
+        }
+    }
+}
@@ -15,6 +15,7 @@
  */
 package org.gradle.api.internal.tasks.compile;
 
+import org.gradle.api.Nullable;
 import org.gradle.api.internal.tasks.SimpleWorkResult;
 import org.gradle.api.tasks.WorkResult;
 import org.gradle.api.tasks.compile.CompileOptions;
@@ -33,17 +34,24 @@ import java.util.List;
 public class JdkJavaCompiler implements Compiler<JavaCompileSpec>, Serializable {
     private static final Logger LOGGER = LoggerFactory.getLogger(JdkJavaCompiler.class);
     private final Factory<JavaCompiler> javaHomeBasedJavaCompilerFactory;
+    // Not available when this compiler runs in a compiler daemon
+    private final transient JavaFileManagerCache fileManagerCache;
 
-    public JdkJavaCompiler(Factory<JavaCompiler> javaHomeBasedJavaCompilerFactory) {
+    public JdkJavaCompiler(Factory<JavaCompiler> javaHomeBasedJavaCompilerFactory, @Nullable JavaFileManagerCache fileManagerCache) {
         this.javaHomeBasedJavaCompilerFactory = javaHomeBasedJavaCompilerFactory;
+        this.fileManagerCache = fileManagerCache;
     }
 
     @Override
     public WorkResult execute(JavaCompileSpec spec) {
         LOGGER.info("Compiling with JDK Java compiler API.");
 
-        JavaCompiler.CompilationTask task = createCompileTask(spec);
-        boolean success = task.call();
+        boolean success;
+        if (spec.getCompileOptions().isReuseFileManager() && fileManagerCache != null) {
+            success = compileWithCachedFileManager(spec, fileManagerCache);
+        } else {
+            success = createCompileTask(spec).call();
+        }
         if (!success) {
             throw new CompilationFailedException();
         }
@@ -51,6 +59,28 @@ public class JdkJavaCompiler implements Compiler<JavaCompileSpec>, Serializable
         return new SimpleWorkResult(true);
     }
 
+    private boolean compileWithCachedFileManager(JavaCompileSpec spec, JavaFileManagerCache cache) {
+        JavaCompiler compiler = javaHomeBasedJavaCompilerFactory.create();
+        CompileOptions compileOptions = spec.getCompileOptions();
+        List<String> options = new JavaCompilerArgumentsBuilder(spec).build();
+        JavaFileManagerCache.Lease lease = cache.acquire(compiler, compileOptions.getEncoding() != null ? Charset.forName(compileOptions.getEncoding()) : null, options);
+        boolean completed = false;
+        boolean success;
+        try {
+            StandardJavaFileManager fileManager = lease.getFileManager();
+            Iterable<? extends JavaFileObject> compilationUnits = fileManager.getJavaFileObjectsFromFiles(spec.getSource());
+            success = compiler.getTask(null, fileManager, null, options, null, compilationUnits).call();
+            completed = true;
+        } finally {
+            if (completed) {
+                cache.release(lease);
+            } else {
+                cache.discard(lease);
+            }
+        }
+        return success;
+    }
+
     private JavaCompiler.CompilationTask createCompileTask(JavaCompileSpec spec) {
         List<String> options = new JavaCompilerArgumentsBuilder(spec).build();
         JavaCompiler compiler = javaHomeBasedJavaCompilerFactory.create();
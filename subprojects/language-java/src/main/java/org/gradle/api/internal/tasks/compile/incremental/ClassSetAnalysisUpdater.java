@@ -25,6 +25,7 @@ import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassFilesAnal
 import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysisData;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
+import org.gradle.internal.operations.BuildOperationProcessor;
 import org.gradle.util.Clock;
 
 public class ClassSetAnalysisUpdater {
@@ -33,18 +34,20 @@ public class ClassSetAnalysisUpdater {
 
     private final Stash<ClassSetAnalysisData> stash;
     private final FileOperations fileOperations;
-    private ClassDependenciesAnalyzer analyzer;
+    private final ClassDependenciesAnalyzer analyzer;
+    private final BuildOperationProcessor buildOperationProcessor;
 
-    public ClassSetAnalysisUpdater(Stash<ClassSetAnalysisData> stash, FileOperations fileOperations, ClassDependenciesAnalyzer analyzer) {
+    public ClassSetAnalysisUpdater(Stash<ClassSetAnalysisData> stash, FileOperations fileOperations, ClassDependenciesAnalyzer analyzer, BuildOperationProcessor buildOperationProcessor) {
         this.stash = stash;
         this.fileOperations = fileOperations;
         this.analyzer = analyzer;
+        this.buildOperationProcessor = buildOperationProcessor;
     }
 
     public void updateAnalysis(JavaCompileSpec spec) {
         Clock clock = new Clock();
         FileTree tree = fileOperations.fileTree(spec.getDestinationDir());
-        ClassFilesAnalyzer analyzer = new ClassFilesAnalyzer(this.analyzer);
+        ClassFilesAnalyzer analyzer = new ClassFilesAnalyzer(this.analyzer, buildOperationProcessor);
         tree.visit(analyzer);
         ClassSetAnalysisData data = analyzer.getAnalysis();
         stash.put(data);
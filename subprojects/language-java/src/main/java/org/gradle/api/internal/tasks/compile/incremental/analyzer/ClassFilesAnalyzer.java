@@ -16,29 +16,60 @@
 
 package org.gradle.api.internal.tasks.compile.incremental.analyzer;
 
+import org.gradle.api.Nullable;
 import org.gradle.api.file.FileVisitDetails;
 import org.gradle.api.file.FileVisitor;
 import org.gradle.api.internal.tasks.compile.incremental.deps.ClassDependentsAccumulator;
 import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysisData;
+import org.gradle.internal.operations.BuildOperation;
+import org.gradle.internal.operations.BuildOperationProcessor;
+import org.gradle.internal.operations.BuildOperationQueue;
+import org.gradle.internal.operations.BuildOperationWorker;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
 
-import static org.gradle.internal.FileUtils.hasExtension;
-
+/**
+ * Analyzes visited class files and accumulates their dependents.
+ * When created with a {@link BuildOperationProcessor}, the analysis of the individual class files is performed concurrently,
+ * while the results are still accumulated in visiting order.
+ */
 public class ClassFilesAnalyzer implements FileVisitor {
 
+    private static final String CLASS_FILE_EXTENSION = ".class";
+
     private final ClassDependenciesAnalyzer analyzer;
     private final String packagePrefix;
     private final ClassDependentsAccumulator accumulator;
+    private final BuildOperationQueue<ClassFileAnalysisOperation> queue;
+    private final List<ClassFileAnalysisOperation> operations = new ArrayList<ClassFileAnalysisOperation>();
 
     public ClassFilesAnalyzer(ClassDependenciesAnalyzer analyzer) {
-        this(analyzer, "", new ClassDependentsAccumulator(""));
+        this(analyzer, "", new ClassDependentsAccumulator(""), null);
+    }
+
+    public ClassFilesAnalyzer(ClassDependenciesAnalyzer analyzer, BuildOperationProcessor buildOperationProcessor) {
+        this(analyzer, "", new ClassDependentsAccumulator(""), buildOperationProcessor);
     }
 
     ClassFilesAnalyzer(ClassDependenciesAnalyzer analyzer, String packagePrefix, ClassDependentsAccumulator accumulator) {
+        this(analyzer, packagePrefix, accumulator, null);
+    }
+
+    ClassFilesAnalyzer(ClassDependenciesAnalyzer analyzer, String packagePrefix, ClassDependentsAccumulator accumulator, @Nullable BuildOperationProcessor buildOperationProcessor) {
         this.analyzer = analyzer;
         this.packagePrefix = packagePrefix;
         this.accumulator = accumulator;
+        this.queue = buildOperationProcessor == null ? null : buildOperationProcessor.newQueue(new ClassFileAnalysisWorker(), null);
+    }
+
+    /**
+     * Converts the relative path of a class file, e.g. 'org/foo/Foo.class', into a class name, e.g. 'org.foo.Foo'.
+     */
+    public static String toClassName(String classFilePath) {
+        int end = classFilePath.endsWith(CLASS_FILE_EXTENSION) ? classFilePath.length() - CLASS_FILE_EXTENSION.length() : classFilePath.length();
+        return classFilePath.substring(0, end).replace('/', '.');
     }
 
     @Override
@@ -46,20 +77,62 @@ public class ClassFilesAnalyzer implements FileVisitor {
 
     @Override
     public void visitFile(FileVisitDetails fileDetails) {
-        File file = fileDetails.getFile();
-        if (!hasExtension(file, ".class")) {
+        String path = fileDetails.getPath();
+        if (!path.endsWith(CLASS_FILE_EXTENSION)) {
             return;
         }
-        String className = fileDetails.getPath().replaceAll("/", ".").replaceAll("\\.class$", "");
+        String className = toClassName(path);
         if (!className.startsWith(packagePrefix)) {
             return;
         }
 
-        ClassAnalysis analysis = analyzer.getClassAnalysis(className, file);
-        accumulator.addClass(className, analysis.isDependencyToAll(), analysis.getClassDependencies());
+        File file = fileDetails.getFile();
+        if (queue == null) {
+            ClassAnalysis analysis = analyzer.getClassAnalysis(className, file);
+            accumulator.addClass(className, analysis.isDependencyToAll(), analysis.getClassDependencies());
+        } else {
+            ClassFileAnalysisOperation operation = new ClassFileAnalysisOperation(className, file);
+            operations.add(operation);
+            queue.add(operation);
+        }
     }
 
     public ClassSetAnalysisData getAnalysis() {
+        if (queue != null) {
+            queue.waitForCompletion();
+            for (ClassFileAnalysisOperation operation : operations) {
+                accumulator.addClass(operation.className, operation.analysis.isDependencyToAll(), operation.analysis.getClassDependencies());
+            }
+            operations.clear();
+        }
         return new ClassSetAnalysisData(accumulator.getDependentsMap());
     }
+
+    private static class ClassFileAnalysisOperation implements BuildOperation {
+        private final String className;
+        private final File classFile;
+        private ClassAnalysis analysis;
+
+        private ClassFileAnalysisOperation(String className, File classFile) {
+            this.className = className;
+            this.classFile = classFile;
+        }
+
+        @Override
+        public String getDescription() {
+            return "Analyzing class file " + classFile;
+        }
+    }
+
+    private class ClassFileAnalysisWorker implements BuildOperationWorker<ClassFileAnalysisOperation> {
+        @Override
+        public String getDisplayName() {
+            return "class file analyzer";
+        }
+
+        @Override
+        public void execute(ClassFileAnalysisOperation operation) {
+            operation.analysis = analyzer.getClassAnalysis(operation.className, operation.classFile);
+        }
+    }
 }
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.incremental.deps;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A compact representation of the class dependents in {@link ClassSetAnalysisData}.
+ * Every class is assigned an integer id and the dependents of a class are stored as an array of ids,
+ * so transitive dependents can be collected into {@link BitSet}s without walking string keyed maps.
+ */
+class ClassDependentsGraph {
+
+    private static final int[] NO_DEPENDENTS = new int[0];
+
+    private final Map<String, Integer> ids;
+    private final String[] names;
+    private final int[][] dependents;
+    private final BitSet dependencyToAll;
+    private final BitSet innerClasses;
+
+    ClassDependentsGraph(Map<String, DependentsSet> dependentsMap) {
+        ids = new HashMap<String, Integer>(dependentsMap.size() * 2);
+        List<String> names = new ArrayList<String>(dependentsMap.size());
+        for (String className : dependentsMap.keySet()) {
+            assignId(className, names);
+        }
+        for (DependentsSet dependentsSet : dependentsMap.values()) {
+            if (!(dependentsSet instanceof DependencyToAll)) {
+                for (String dependent : dependentsSet.getDependentClasses()) {
+                    assignId(dependent, names);
+                }
+            }
+        }
+
+        int count = names.size();
+        this.names = names.toArray(new String[count]);
+        this.dependents = new int[count][];
+        this.dependencyToAll = new BitSet(count);
+        this.innerClasses = new BitSet(count);
+        for (int id = 0; id < count; id++) {
+            if (this.names[id].contains("$")) {
+                innerClasses.set(id);
+            }
+            DependentsSet dependentsSet = dependentsMap.get(this.names[id]);
+            if (dependentsSet == null) {
+                dependents[id] = NO_DEPENDENTS;
+                continue;
+            }
+            if (dependentsSet.isDependencyToAll()) {
+                dependencyToAll.set(id);
+            }
+            dependents[id] = dependentsSet instanceof DependencyToAll ? NO_DEPENDENTS : toIds(dependentsSet.getDependentClasses());
+        }
+    }
+
+    private void assignId(String className, List<String> names) {
+        if (!ids.containsKey(className)) {
+            ids.put(className, names.size());
+            names.add(className);
+        }
+    }
+
+    private int[] toIds(Set<String> classNames) {
+        if (classNames.isEmpty()) {
+            return NO_DEPENDENTS;
+        }
+        int[] result = new int[classNames.size()];
+        int i = 0;
+        for (String className : classNames) {
+            result[i++] = ids.get(className);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the id of the given class, or -1 when the class is not known.
+     */
+    int getId(String className) {
+        Integer id = ids.get(className);
+        return id == null ? -1 : id;
+    }
+
+    boolean isDependencyToAll(int id) {
+        return dependencyToAll.get(id);
+    }
+
+    /**
+     * Adds the transitive dependents of the given class to the result, excluding the class itself and inner classes.
+     * Classes already marked as visited are not traversed again, so the same visited set can be shared
+     * to collect the dependents of several classes in a single pass over the graph.
+     */
+    void collectDependents(int id, BitSet visited, BitSet result) {
+        int[] stack = new int[Math.max(16, dependents[id].length)];
+        int size = 0;
+        for (int dependent : dependents[id]) {
+            stack[size++] = dependent;
+        }
+        while (size > 0) {
+            int current = stack[--size];
+            if (current == id || visited.get(current)) {
+                continue;
+            }
+            visited.set(current);
+            if (!innerClasses.get(current)) {
+                result.set(current);
+            }
+            int[] next = dependents[current];
+            if (size + next.length > stack.length) {
+                int[] grown = new int[Math.max(stack.length * 2, size + next.length)];
+                System.arraycopy(stack, 0, grown, 0, size);
+                stack = grown;
+            }
+            System.arraycopy(next, 0, stack, size, next.length);
+            size += next.length;
+        }
+    }
+
+    void addNames(BitSet classes, Collection<String> target) {
+        for (int id = classes.nextSetBit(0); id >= 0; id = classes.nextSetBit(id + 1)) {
+            target.add(names[id]);
+        }
+    }
+
+    int size() {
+        return names.length;
+    }
+}
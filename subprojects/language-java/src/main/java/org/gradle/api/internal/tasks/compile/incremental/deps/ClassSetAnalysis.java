@@ -16,64 +16,67 @@
 
 package org.gradle.api.internal.tasks.compile.incremental.deps;
 
+import java.util.BitSet;
+import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 public class ClassSetAnalysis {
 
     private final ClassSetAnalysisData data;
+    private final Map<String, Set<String>> dependentsCache = new HashMap<String, Set<String>>();
 
     public ClassSetAnalysis(ClassSetAnalysisData data) {
         this.data = data;
     }
 
     public DependentsSet getRelevantDependents(Iterable<String> classes) {
-        List<String> result = new LinkedList<String>();
+        ClassDependentsGraph graph = data.getDependentsGraph();
+        BitSet visited = new BitSet(graph.size());
+        BitSet result = new BitSet(graph.size());
         for (String cls : classes) {
-            DependentsSet d = getRelevantDependents(cls);
-            if (d.isDependencyToAll()) {
-                return d;
+            int id = graph.getId(cls);
+            if (id < 0) {
+                continue;
+            }
+            if (graph.isDependencyToAll(id)) {
+                return new DependencyToAll();
             }
-            result.addAll(d.getDependentClasses());
+            graph.collectDependents(id, visited, result);
         }
-        return new DefaultDependentsSet(result);
+        Set<String> dependents = new HashSet<String>(result.cardinality() * 2);
+        graph.addNames(result, dependents);
+        return new DefaultDependentsSet(dependents);
     }
 
     public DependentsSet getRelevantDependents(String className) {
-        DependentsSet deps = data.getDependents(className);
-        if (deps == null) {
+        ClassDependentsGraph graph = data.getDependentsGraph();
+        int id = graph.getId(className);
+        if (id < 0) {
             return new DefaultDependentsSet();
         }
-        if (deps.isDependencyToAll()) {
+        if (graph.isDependencyToAll(id)) {
             return new DependencyToAll();
         }
-        Set<String> result = new HashSet<String>();
-        recurseDependents(new HashSet<String>(), result, deps.getDependentClasses());
-        result.remove(className);
-        return new DefaultDependentsSet(result);
+        Set<String> dependents = dependentsCache.get(className);
+        if (dependents == null) {
+            BitSet result = new BitSet(graph.size());
+            graph.collectDependents(id, new BitSet(graph.size()), result);
+            dependents = new HashSet<String>(result.cardinality() * 2);
+            graph.addNames(result, dependents);
+            dependentsCache.put(className, dependents);
+        }
+        return new DefaultDependentsSet(dependents);
     }
 
     public boolean isDependencyToAll(String className) {
-        DependentsSet deps = data.getDependents(className);
-        return deps != null && deps.isDependencyToAll();
-    }
-
-    private void recurseDependents(Set<String> visited, Set<String> result, Set<String> dependentClasses) {
-        for (String d : dependentClasses) {
-            if (!visited.add(d)) {
-                continue;
-            }
-            if (!d.contains("$")) { //filter out the inner classes
-                result.add(d);
-            }
-            DependentsSet currentDependents = data.getDependents(d);
-            recurseDependents(visited, result, currentDependents.getDependentClasses());
-        }
+        ClassDependentsGraph graph = data.getDependentsGraph();
+        int id = graph.getId(className);
+        return id >= 0 && graph.isDependencyToAll(id);
     }
 
     public ClassSetAnalysisData getData() {
         return data;
     }
-}
\ No newline at end of file
+}
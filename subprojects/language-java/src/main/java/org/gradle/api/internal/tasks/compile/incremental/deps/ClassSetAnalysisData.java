@@ -18,17 +18,17 @@ package org.gradle.api.internal.tasks.compile.incremental.deps;
 
 import org.gradle.internal.serialize.Decoder;
 import org.gradle.internal.serialize.Encoder;
-import org.gradle.internal.serialize.MapSerializer;
-import org.gradle.internal.serialize.SetSerializer;
 
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 
-import static org.gradle.internal.serialize.BaseSerializerFactory.STRING_SERIALIZER;
-
 public class ClassSetAnalysisData {
 
     final Map<String, DependentsSet> dependents;
+    private ClassDependentsGraph dependentsGraph;
 
     public ClassSetAnalysisData(Map<String, DependentsSet> dependents) {
         this.dependents = dependents;
@@ -38,50 +38,96 @@ public class ClassSetAnalysisData {
         return dependents.get(className);
     }
 
+    synchronized ClassDependentsGraph getDependentsGraph() {
+        if (dependentsGraph == null) {
+            dependentsGraph = new ClassDependentsGraph(dependents);
+        }
+        return dependentsGraph;
+    }
+
+    /**
+     * Writes every class name only once into a name table and refers to classes by their index in the table.
+     */
     public static class Serializer implements org.gradle.internal.serialize.Serializer<ClassSetAnalysisData> {
 
-        private final MapSerializer<String, DependentsSet> serializer = new MapSerializer<String, DependentsSet>(
-                STRING_SERIALIZER, new DependentsSetSerializer());
+        private static final int DEPENDENCY_TO_ALL = 0;
+        private static final int DEPENDENTS_AND_DEPENDENCY_TO_ALL = 1;
+        private static final int DEPENDENTS = 2;
 
         @Override
         public ClassSetAnalysisData read(Decoder decoder) throws Exception {
             //we only support one kind of data
-            return new ClassSetAnalysisData(serializer.read(decoder));
+            int nameCount = decoder.readSmallInt();
+            String[] names = new String[nameCount];
+            for (int i = 0; i < nameCount; i++) {
+                names[i] = decoder.readString();
+            }
+            int entryCount = decoder.readSmallInt();
+            Map<String, DependentsSet> dependents = new HashMap<String, DependentsSet>(entryCount * 2);
+            for (int i = 0; i < entryCount; i++) {
+                String className = names[decoder.readSmallInt()];
+                dependents.put(className, readDependentsSet(decoder, names));
+            }
+            return new ClassSetAnalysisData(dependents);
+        }
+
+        private DependentsSet readDependentsSet(Decoder decoder, String[] names) throws Exception {
+            int control = decoder.readSmallInt();
+            if (control == DEPENDENCY_TO_ALL) {
+                return new DependencyToAll();
+            }
+            if (control != DEPENDENTS_AND_DEPENDENCY_TO_ALL && control != DEPENDENTS) {
+                throw new IllegalArgumentException("Unable to read the data. Unexpected control value: " + control);
+            }
+            int count = decoder.readSmallInt();
+            Set<String> classes = new HashSet<String>(count * 2);
+            for (int i = 0; i < count; i++) {
+                classes.add(names[decoder.readSmallInt()]);
+            }
+            return new DefaultDependentsSet(control == DEPENDENTS_AND_DEPENDENCY_TO_ALL, classes);
         }
 
         @Override
         public void write(Encoder encoder, ClassSetAnalysisData value) throws Exception {
             //we only support one kind of data
-            serializer.write(encoder, value.dependents);
+            Map<String, Integer> ids = new LinkedHashMap<String, Integer>();
+            for (Map.Entry<String, DependentsSet> entry : value.dependents.entrySet()) {
+                assignId(ids, entry.getKey());
+                if (entry.getValue() instanceof DefaultDependentsSet) {
+                    for (String dependent : entry.getValue().getDependentClasses()) {
+                        assignId(ids, dependent);
+                    }
+                }
+            }
+            encoder.writeSmallInt(ids.size());
+            for (String className : ids.keySet()) {
+                encoder.writeString(className);
+            }
+            encoder.writeSmallInt(value.dependents.size());
+            for (Map.Entry<String, DependentsSet> entry : value.dependents.entrySet()) {
+                encoder.writeSmallInt(ids.get(entry.getKey()));
+                writeDependentsSet(encoder, entry.getValue(), ids);
+            }
         }
 
-        private static class DependentsSetSerializer implements org.gradle.internal.serialize.Serializer<DependentsSet> {
-
-            private SetSerializer<String> setSerializer = new SetSerializer<String>(STRING_SERIALIZER, false);
-
-            @Override
-            public DependentsSet read(Decoder decoder) throws Exception {
-                int control = decoder.readSmallInt();
-                if (control == 0) {
-                    return new DependencyToAll();
-                }
-                if (control != 1 && control != 2) {
-                    throw new IllegalArgumentException("Unable to read the data. Unexpected control value: " + control);
+        private void writeDependentsSet(Encoder encoder, DependentsSet value, Map<String, Integer> ids) throws Exception {
+            if (value instanceof DependencyToAll) {
+                encoder.writeSmallInt(DEPENDENCY_TO_ALL);
+            } else if (value instanceof DefaultDependentsSet) {
+                encoder.writeSmallInt(value.isDependencyToAll() ? DEPENDENTS_AND_DEPENDENCY_TO_ALL : DEPENDENTS);
+                Set<String> classes = value.getDependentClasses();
+                encoder.writeSmallInt(classes.size());
+                for (String className : classes) {
+                    encoder.writeSmallInt(ids.get(className));
                 }
-                Set<String> classes = setSerializer.read(decoder);
-                return new DefaultDependentsSet(control == 1, classes);
+            } else {
+                throw new IllegalArgumentException("Don't know how to serialize value of type: " + value.getClass() + ", value: " + value);
             }
+        }
 
-            @Override
-            public void write(Encoder encoder, DependentsSet value) throws Exception {
-                if (value instanceof DependencyToAll) {
-                    encoder.writeSmallInt(0);
-                } else if (value instanceof DefaultDependentsSet) {
-                    encoder.writeSmallInt(value.isDependencyToAll() ? 1 : 2);
-                    setSerializer.write(encoder, value.getDependentClasses());
-                } else {
-                    throw new IllegalArgumentException("Don't know how to serialize value of type: " + value.getClass() + ", value: " + value);
-                }
+        private static void assignId(Map<String, Integer> ids, String className) {
+            if (!ids.containsKey(className)) {
+                ids.put(className, ids.size());
             }
         }
     }
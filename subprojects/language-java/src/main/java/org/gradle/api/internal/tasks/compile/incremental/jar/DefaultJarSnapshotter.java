@@ -47,7 +47,7 @@ class DefaultJarSnapshotter {
 
             public void visitFile(FileVisitDetails fileDetails) {
                 analyzer.visitFile(fileDetails);
-                String className = fileDetails.getPath().replaceAll("/", ".").replaceAll("\\.class$", "");
+                String className = ClassFilesAnalyzer.toClassName(fileDetails.getPath());
                 byte[] classHash = hasher.hash(fileDetails.getFile());
                 hashes.put(className, classHash);
             }
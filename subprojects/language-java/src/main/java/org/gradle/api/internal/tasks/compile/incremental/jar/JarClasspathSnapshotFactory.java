@@ -16,28 +16,50 @@
 
 package org.gradle.api.internal.tasks.compile.incremental.jar;
 
+import org.gradle.internal.operations.BuildOperation;
+import org.gradle.internal.operations.BuildOperationProcessor;
+import org.gradle.internal.operations.BuildOperationQueue;
+import org.gradle.internal.operations.BuildOperationWorker;
+
 import java.io.File;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+/**
+ * Creates the snapshot of a compile classpath. The individual jars are snapshotted concurrently.
+ */
 public class JarClasspathSnapshotFactory {
 
     private final JarSnapshotter jarSnapshotter;
+    private final BuildOperationProcessor buildOperationProcessor;
 
-    public JarClasspathSnapshotFactory(JarSnapshotter jarSnapshotter) {
+    public JarClasspathSnapshotFactory(JarSnapshotter jarSnapshotter, BuildOperationProcessor buildOperationProcessor) {
         this.jarSnapshotter = jarSnapshotter;
+        this.buildOperationProcessor = buildOperationProcessor;
     }
 
     JarClasspathSnapshot createSnapshot(Iterable<JarArchive> jarArchives) {
+        List<JarSnapshotOperation> operations = new ArrayList<JarSnapshotOperation>();
+        BuildOperationQueue<JarSnapshotOperation> queue = buildOperationProcessor.newQueue(new JarSnapshotWorker(), null);
+        for (JarArchive jar : jarArchives) {
+            JarSnapshotOperation operation = new JarSnapshotOperation(jar);
+            operations.add(operation);
+            queue.add(operation);
+        }
+        queue.waitForCompletion();
+
         Map<File, JarSnapshot> jarSnapshots = new HashMap<File, JarSnapshot>();
         Map<File, byte[]> jarHashes = new HashMap<File, byte[]>();
         Set<String> allClasses = new HashSet<String>();
         Set<String> duplicateClasses = new HashSet<String>();
 
-        for (JarArchive jar : jarArchives) {
-            JarSnapshot snapshot = jarSnapshotter.createSnapshot(jar);
+        for (JarSnapshotOperation operation : operations) {
+            JarArchive jar = operation.jar;
+            JarSnapshot snapshot = operation.snapshot;
             jarSnapshots.put(jar.file, snapshot);
             jarHashes.put(jar.file, snapshot.getHash());
             for (String c : snapshot.getClasses()) {
@@ -49,4 +71,30 @@ public class JarClasspathSnapshotFactory {
         JarClasspathSnapshotData jarClasspathSnapshotData = new JarClasspathSnapshotData(jarHashes, duplicateClasses);
         return new JarClasspathSnapshot(jarSnapshots, jarClasspathSnapshotData);
     }
+
+    private static class JarSnapshotOperation implements BuildOperation {
+        private final JarArchive jar;
+        private JarSnapshot snapshot;
+
+        private JarSnapshotOperation(JarArchive jar) {
+            this.jar = jar;
+        }
+
+        @Override
+        public String getDescription() {
+            return "Snapshotting jar " + jar.file;
+        }
+    }
+
+    private class JarSnapshotWorker implements BuildOperationWorker<JarSnapshotOperation> {
+        @Override
+        public String getDisplayName() {
+            return "jar snapshotter";
+        }
+
+        @Override
+        public void execute(JarSnapshotOperation operation) {
+            operation.snapshot = jarSnapshotter.createSnapshot(operation.jar);
+        }
+    }
 }
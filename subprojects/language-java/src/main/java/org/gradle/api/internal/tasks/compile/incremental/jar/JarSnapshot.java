@@ -26,6 +26,7 @@ import java.util.Set;
 public class JarSnapshot {
 
     private final JarSnapshotData data;
+    private ClassSetAnalysis analysis;
 
     public JarSnapshot(JarSnapshotData data) {
         this.data = data;
@@ -58,13 +59,14 @@ public class JarSnapshot {
             if (thisClsBytes == null || !Arrays.equals(thisClsBytes, otherClassBytes)) {
                 //removed since or changed since
                 affected.add(otherClassName);
-                DependentsSet dependents = other.getAnalysis().getRelevantDependents(otherClassName);
-                if (dependents.isDependencyToAll()) {
-                    return dependents;
-                }
-                affected.addAll(dependents.getDependentClasses());
             }
         }
+        //collect the dependents of all affected classes in a single pass
+        DependentsSet dependents = other.getAnalysis().getRelevantDependents(affected);
+        if (dependents.isDependencyToAll()) {
+            return dependents;
+        }
+        affected.addAll(dependents.getDependentClasses());
         return new DefaultDependentsSet(affected);
     }
 
@@ -83,7 +85,10 @@ public class JarSnapshot {
     }
 
     public ClassSetAnalysis getAnalysis() {
-        return new ClassSetAnalysis(data.data);
+        if (analysis == null) {
+            analysis = new ClassSetAnalysis(data.data);
+        }
+        return analysis;
     }
 
     public Set<String> getClasses() {
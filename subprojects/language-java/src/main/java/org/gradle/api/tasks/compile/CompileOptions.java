@@ -35,7 +35,7 @@ public class CompileOptions extends AbstractOptions {
     private static final long serialVersionUID = 0;
 
     private static final ImmutableSet<String> EXCLUDE_FROM_ANT_PROPERTIES =
-            ImmutableSet.of("debugOptions", "forkOptions", "compilerArgs", "dependOptions", "useDepend", "incremental");
+            ImmutableSet.of("debugOptions", "forkOptions", "compilerArgs", "dependOptions", "useDepend", "incremental", "reuseFileManager");
 
     private boolean failOnError = true;
 
@@ -69,6 +69,8 @@ public class CompileOptions extends AbstractOptions {
 
     private boolean incremental;
 
+    private boolean reuseFileManager;
+
     private FileCollection sourcepath;
 
     /**
@@ -390,6 +392,29 @@ public class CompileOptions extends AbstractOptions {
         return incremental;
     }
 
+    /**
+     * Tells whether the in-process Java compiler keeps its file manager, together with the indexes of the jars it has read,
+     * for reuse by later compilations in the same build with the same search paths, such as compilations of other projects with the same classpath.
+     * Defaults to {@code false}.
+     * <p>
+     * File managers are only kept by the build process. Compilations in a compiler daemon do not reuse file managers.
+     * A kept file manager is discarded as soon as the content of one of the jars on its classpath, boot classpath, extension directories or processor path changes.
+     * Idle file managers are closed after a short while, so that they do not keep jars open. On Windows, file managers are closed as soon as they become idle.
+     */
+    @Incubating
+    public boolean isReuseFileManager() {
+        return reuseFileManager;
+    }
+
+    /**
+     * Sets whether the in-process Java compiler keeps its file manager for reuse by later compilations with the same compiler options.
+     * See {@link #isReuseFileManager()}.
+     */
+    @Incubating
+    public void setReuseFileManager(boolean reuseFileManager) {
+        this.reuseFileManager = reuseFileManager;
+    }
+
     /**
      * The source path to use for the compilation.
      * <p>
@@ -0,0 +1,225 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.compile
+
+import org.gradle.api.internal.cache.StringInterner
+import org.gradle.api.internal.changedetection.state.CachingFileSnapshotter
+import org.gradle.api.internal.hash.DefaultHasher
+import org.gradle.cache.internal.MapBackedInMemoryStore
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+import spock.lang.Subject
+
+import javax.tools.JavaCompiler
+import javax.tools.StandardJavaFileManager
+import javax.tools.StandardLocation
+
+class JavaFileManagerCacheTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+
+    def compiler = Mock(JavaCompiler)
+    def store = new MapBackedInMemoryStore()
+    def snapshotter = new CachingFileSnapshotter(new DefaultHasher(), store, new StringInterner())
+    @Subject cache = new JavaFileManagerCache(snapshotter, store, false, 60000)
+
+    def "reuses released file manager for same options"() {
+        def jar = tmpDir.file("lib.jar").createFile()
+        def fileManager = Mock(StandardJavaFileManager)
+
+        when:
+        def first = cache.acquire(compiler, null, classpath(jar))
+        cache.release(first)
+        def second = cache.acquire(compiler, null, classpath(jar))
+
+        then:
+        1 * compiler.getStandardFileManager(null, null, null) >> fileManager
+        second.fileManager.is(fileManager)
+        0 * fileManager.close()
+    }
+
+    def "does not share file manager between concurrent compilations"() {
+        def jar = tmpDir.file("lib.jar").createFile()
+
+        when:
+        def first = cache.acquire(compiler, null, classpath(jar))
+        def second = cache.acquire(compiler, null, classpath(jar))
+
+        then:
+        2 * compiler.getStandardFileManager(null, null, null) >> { Mock(StandardJavaFileManager) }
+        !first.fileManager.is(second.fileManager)
+    }
+
+    def "reuses file manager for compilation with same search paths and different output directories"() {
+        def jar = tmpDir.file("lib.jar").createFile()
+        def classes1 = tmpDir.createDir("classes1")
+        def classes2 = tmpDir.createDir("classes2")
+        def fileManager = Mock(StandardJavaFileManager)
+
+        when:
+        cache.release(cache.acquire(compiler, null, classpath(jar) + ["-d", classes1.path]))
+        def lease = cache.acquire(compiler, null, ["-d", classes2.path] + classpath(jar))
+
+        then:
+        1 * compiler.getStandardFileManager(null, null, null) >> fileManager
+        lease.fileManager.is(fileManager)
+        1 * fileManager.setLocation(StandardLocation.CLASS_OUTPUT, { it.toList() == [classes1] })
+        1 * fileManager.setLocation(StandardLocation.CLASS_OUTPUT, { it.toList() == [classes2] })
+    }
+
+    def "creates new file manager for different classpath"() {
+        def jar1 = tmpDir.file("lib1.jar").createFile()
+        def jar2 = tmpDir.file("lib2.jar").createFile()
+
+        when:
+        cache.release(cache.acquire(compiler, null, classpath(jar1)))
+        cache.acquire(compiler, null, classpath(jar2))
+
+        then:
+        2 * compiler.getStandardFileManager(null, null, null) >> { Mock(StandardJavaFileManager) }
+    }
+
+    def "creates new file manager when any option that sets a location differs"() {
+        def jar = tmpDir.file("lib.jar").createFile()
+        def processorJar = tmpDir.file("processor.jar").createFile()
+
+        when:
+        cache.release(cache.acquire(compiler, null, classpath(jar)))
+        cache.acquire(compiler, null, classpath(jar) + ["-processorpath", processorJar.path])
+
+        then:
+        2 * compiler.getStandardFileManager(null, null, null) >> { Mock(StandardJavaFileManager) }
+    }
+
+    def "discards file manager when content of classpath jar has changed"() {
+        def jar = tmpDir.file("lib.jar").createFile()
+        def fileManager = Mock(StandardJavaFileManager)
+        def newFileManager = Mock(StandardJavaFileManager)
+
+        given:
+        compiler.getStandardFileManager(null, null, null) >>> [fileManager, newFileManager]
+        cache.release(cache.acquire(compiler, null, classpath(jar)))
+        def lastModified = jar.lastModified()
+        jar.text = "changed"
+        jar.lastModified = lastModified
+
+        when:
+        def lease = cache.acquire(compiler, null, classpath(jar))
+
+        then:
+        1 * fileManager.close()
+        lease.fileManager.is(newFileManager)
+    }
+
+    def "reuses file manager when content of classpath directory has changed"() {
+        def dir = tmpDir.createDir("classes")
+        dir.file("A.class").createFile()
+        def fileManager = Mock(StandardJavaFileManager)
+
+        given:
+        compiler.getStandardFileManager(null, null, null) >>> [fileManager, Mock(StandardJavaFileManager)]
+        cache.release(cache.acquire(compiler, null, classpath(dir)))
+        dir.file("B.class").createFile()
+
+        when:
+        def lease = cache.acquire(compiler, null, classpath(dir))
+
+        then:
+        0 * fileManager.close()
+        lease.fileManager.is(fileManager)
+    }
+
+    def "discards file manager when processor path jar has changed"() {
+        def processorJar = tmpDir.file("processor.jar").createFile()
+        def options = ["-processorpath", processorJar.path]
+        def fileManager = Mock(StandardJavaFileManager)
+
+        given:
+        compiler.getStandardFileManager(null, null, null) >>> [fileManager, Mock(StandardJavaFileManager)]
+        cache.release(cache.acquire(compiler, null, options))
+        processorJar << "changed"
+
+        when:
+        cache.acquire(compiler, null, options)
+
+        then:
+        1 * fileManager.close()
+    }
+
+    def "closes file managers that have been idle for longer than the timeout"() {
+        def fileManager = Mock(StandardJavaFileManager)
+        compiler.getStandardFileManager(null, null, null) >> fileManager
+
+        given:
+        cache.release(cache.acquire(compiler, null, []))
+
+        when:
+        cache.closeExpired(System.currentTimeMillis() + 60000)
+
+        then:
+        1 * fileManager.close()
+    }
+
+    def "closes idle file managers and file managers released later when stopped"() {
+        def idleFileManager = Mock(StandardJavaFileManager)
+        def leasedFileManager = Mock(StandardJavaFileManager)
+        compiler.getStandardFileManager(null, null, null) >>> [idleFileManager, leasedFileManager]
+
+        given:
+        cache.release(cache.acquire(compiler, null, []))
+        def lease = cache.acquire(compiler, null, classpath(tmpDir.file("lib.jar").createFile()))
+
+        when:
+        cache.stop()
+
+        then:
+        1 * idleFileManager.close()
+        0 * leasedFileManager.close()
+
+        when:
+        cache.release(lease)
+
+        then:
+        1 * leasedFileManager.close()
+    }
+
+    def "closes released file manager when configured to close idle file managers"() {
+        def cache = new JavaFileManagerCache(snapshotter, store, true, 60000)
+        def fileManager = Mock(StandardJavaFileManager)
+        compiler.getStandardFileManager(null, null, null) >> fileManager
+
+        when:
+        cache.release(cache.acquire(compiler, null, []))
+
+        then:
+        1 * fileManager.close()
+    }
+
+    def "closes discarded file manager"() {
+        def fileManager = Mock(StandardJavaFileManager)
+        compiler.getStandardFileManager(null, null, null) >> fileManager
+
+        when:
+        cache.discard(cache.acquire(compiler, null, []))
+
+        then:
+        1 * fileManager.close()
+    }
+
+    private static List<String> classpath(File... entries) {
+        ["-classpath", entries*.path.join(File.pathSeparator)]
+    }
+}
@@ -21,6 +21,8 @@ import org.gradle.api.internal.cache.Stash
 import org.gradle.api.internal.file.FileOperations
 import org.gradle.api.internal.tasks.compile.JavaCompileSpec
 import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassDependenciesAnalyzer
+import org.gradle.internal.operations.BuildOperationProcessor
+import org.gradle.internal.operations.BuildOperationQueue
 import spock.lang.Specification
 import spock.lang.Subject
 
@@ -29,8 +31,11 @@ class ClassSetAnalysisUpdaterTest extends Specification {
     def stash = Mock(Stash)
     def operations = Mock(FileOperations)
     def analyzer = Mock(ClassDependenciesAnalyzer)
+    def buildOperationProcessor = Stub(BuildOperationProcessor) {
+        newQueue(_, _) >> Stub(BuildOperationQueue)
+    }
 
-    @Subject updater = new ClassSetAnalysisUpdater(stash, operations, analyzer)
+    @Subject updater = new ClassSetAnalysisUpdater(stash, operations, analyzer, buildOperationProcessor)
 
     def "updates"() {
         when: updater.updateAnalysis(Stub(JavaCompileSpec))
@@ -22,6 +22,8 @@ import org.gradle.api.file.FileVisitDetails
 import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassAnalysis
 import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassDependenciesAnalyzer
 import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassFilesAnalyzer
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.internal.operations.DefaultBuildOperationProcessor
 import spock.lang.Specification
 import spock.lang.Subject
 
@@ -59,4 +61,48 @@ class ClassFilesAnalyzerTest extends Specification {
         1 * accumulator.addClass("org.foo.Foo", true, new HashSet(["A"]))
         0 * _
     }
+
+    def "accumulates dependencies analyzed concurrently in visiting order"() {
+        def buildOperationProcessor = new DefaultBuildOperationProcessor(new DefaultExecutorFactory(), 4)
+        def concurrentAnalyzer = new ClassFilesAnalyzer(classAnalyzer, "org.foo", accumulator, buildOperationProcessor)
+        def foo = Stub(FileVisitDetails) {
+            getPath() >> "org/foo/Foo.class"
+            getFile() >> new File("Foo.class")
+        }
+        def bar = Stub(FileVisitDetails) {
+            getPath() >> "org/foo/Bar.class"
+            getFile() >> new File("Bar.class")
+        }
+
+        when:
+        concurrentAnalyzer.visitFile(foo)
+        concurrentAnalyzer.visitFile(bar)
+        concurrentAnalyzer.getAnalysis()
+
+        then:
+        1 * classAnalyzer.getClassAnalysis("org.foo.Foo", new File("Foo.class")) >> new ClassAnalysis(new HashSet(["A"]), true)
+        1 * classAnalyzer.getClassAnalysis("org.foo.Bar", new File("Bar.class")) >> new ClassAnalysis(new HashSet(["B"]), false)
+
+        then:
+        1 * accumulator.addClass("org.foo.Foo", true, new HashSet(["A"]))
+
+        then:
+        1 * accumulator.addClass("org.foo.Bar", false, new HashSet(["B"]))
+        1 * accumulator.getDependentsMap() >> [:]
+
+        cleanup:
+        buildOperationProcessor.stop()
+    }
+
+    def "converts class file paths to class names"() {
+        expect:
+        ClassFilesAnalyzer.toClassName(path) == className
+
+        where:
+        path                     | className
+        "Foo.class"              | "Foo"
+        "org/foo/Foo.class"      | "org.foo.Foo"
+        "org/foo/Foo\$Bar.class" | "org.foo.Foo\$Bar"
+        "org/class/Foo.class"    | "org.class.Foo"
+    }
 }
@@ -47,4 +47,19 @@ class ClassSetAnalysisDataSerializerTest extends Specification {
 
         read.dependents["D"] instanceof DependencyToAll
     }
+
+    def "serializes dependents that are not analysed classes"() {
+        def data = new ClassSetAnalysisData(["A": dependents("B", "C"), "B": dependents("C")])
+        def os = new ByteArrayOutputStream()
+        def e = new OutputStreamBackedEncoder(os)
+
+        when:
+        serializer.write(e, data)
+        ClassSetAnalysisData read = serializer.read(new InputStreamBackedDecoder(new ByteArrayInputStream(os.toByteArray())))
+
+        then:
+        read.dependents.keySet() == ["A", "B"] as Set
+        read.dependents["A"].dependentClasses == ["B", "C"] as Set
+        read.dependents["B"].dependentClasses == ["C"] as Set
+    }
 }
@@ -154,6 +154,27 @@ class ClassSetAnalysisTest extends Specification {
         deps.dependentClasses == ["E", "B", "C"] as Set
     }
 
+    def "provides input classes that are dependents of other input classes"() {
+        def a = analysis([
+                "A": dependents("B"), "B": dependents("A", "C"), "C": dependents(),
+        ])
+        def deps = a.getRelevantDependents(["A", "B"])
+
+        expect:
+        deps.dependentClasses == ["A", "B", "C"] as Set
+    }
+
+    def "provides same dependents when queried repeatedly"() {
+        def a = analysis([
+                "A": dependents("B"), "B": dependents("C"), "C": dependents(),
+        ])
+
+        expect:
+        a.getRelevantDependents("A").dependentClasses == ["B", "C"] as Set
+        a.getRelevantDependents("A").dependentClasses == ["B", "C"] as Set
+        a.getRelevantDependents("B").dependentClasses == ["C"] as Set
+    }
+
     def "knows when any of the input classes is a dependency to all"() {
         def a = analysis([
                 "A": dependents("B"), "B": dependents(),
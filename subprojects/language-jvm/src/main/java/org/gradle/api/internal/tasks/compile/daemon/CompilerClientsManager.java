@@ -17,38 +17,100 @@ package org.gradle.api.internal.tasks.compile.daemon;
 
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
+import org.gradle.internal.TimeProvider;
+import org.gradle.internal.TrueTimeProvider;
+import org.gradle.internal.UncheckedException;
 import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.logging.ProgressLogger;
+import org.gradle.logging.ProgressLoggerFactory;
 
 import java.io.File;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Keeps track of the compiler daemons of a build session.
+ *
+ * <p>At most {@code maxDaemons} daemons are kept alive. When the pool is full, the least recently used idle daemon is stopped to make
+ * room for a daemon with different fork options, or the caller waits for a busy daemon to be released. Daemons that stay idle for
+ * longer than the idle timeout are stopped by a background timer, as are idle daemons whose heap is needed to start a new daemon when
+ * the available physical memory is low. Pool activity is logged when the pool is stopped.</p>
+ */
 public class CompilerClientsManager {
 
     private static final Logger LOGGER = Logging.getLogger(CompilerDaemonManager.class);
+    static final long DEFAULT_IDLE_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(3);
 
     private final Object lock = new Object();
     private final List<CompilerDaemonClient> allClients = new ArrayList<CompilerDaemonClient>();
+    // least recently used first
     private final List<CompilerDaemonClient> idleClients = new ArrayList<CompilerDaemonClient>();
+    private final Map<CompilerDaemonClient, Long> idleSince = new HashMap<CompilerDaemonClient, Long>();
+    private int startingClients;
+    private ScheduledExecutorService expiryExecutor;
+    private ScheduledFuture<?> expiryCheck;
+
+    private int daemonsStarted;
+    private int daemonsReused;
+    private int daemonsEvicted;
+    private long waitTimeMillis;
 
-    private CompilerDaemonStarter compilerDaemonStarter;
+    private final CompilerDaemonStarter compilerDaemonStarter;
+    private final ProgressLoggerFactory progressLoggerFactory;
+    private final int maxDaemons;
+    private final long idleTimeoutMillis;
+    private final TimeProvider timeProvider;
+    private final CompilerDaemonMemoryInfo memoryInfo;
 
-    public CompilerClientsManager(CompilerDaemonStarter compilerDaemonStarter) {
+    public CompilerClientsManager(CompilerDaemonStarter compilerDaemonStarter, ProgressLoggerFactory progressLoggerFactory, int maxDaemons) {
+        this(compilerDaemonStarter, progressLoggerFactory, maxDaemons, DEFAULT_IDLE_TIMEOUT_MILLIS, new TrueTimeProvider(), new CompilerDaemonMemoryInfo());
+    }
+
+    CompilerClientsManager(CompilerDaemonStarter compilerDaemonStarter, ProgressLoggerFactory progressLoggerFactory, int maxDaemons,
+                           long idleTimeoutMillis, TimeProvider timeProvider, CompilerDaemonMemoryInfo memoryInfo) {
         this.compilerDaemonStarter = compilerDaemonStarter;
+        this.progressLoggerFactory = progressLoggerFactory;
+        this.maxDaemons = Math.max(1, maxDaemons);
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.timeProvider = timeProvider;
+        this.memoryInfo = memoryInfo;
     }
 
-    public CompilerDaemonClient reserveIdleClient(DaemonForkOptions forkOptions) {
-        return reserveIdleClient(forkOptions, idleClients);
+    /**
+     * Reserves a compatible idle daemon, or starts a new one when there is none. Blocks while the pool is full and all daemons are busy.
+     */
+    public CompilerDaemonClient reserveClient(File workingDir, DaemonForkOptions forkOptions) {
+        List<CompilerDaemonClient> evicted = new ArrayList<CompilerDaemonClient>();
+        CompilerDaemonClient client;
+        try {
+            client = reserveIdleClientOrSlot(forkOptions, evicted);
+        } finally {
+            stopEvicted(evicted);
+        }
+        if (client != null) {
+            return client;
+        }
+        return startClient(workingDir, forkOptions);
     }
 
     CompilerDaemonClient reserveIdleClient(DaemonForkOptions forkOptions, List<CompilerDaemonClient> clients) {
         synchronized (lock) {
-            Iterator<CompilerDaemonClient> it = clients.iterator();
-            while(it.hasNext()) {
-                CompilerDaemonClient candidate = it.next();
-                if(candidate.isCompatibleWith(forkOptions)) {
+            // prefer the most recently used daemon, so that rarely used ones can expire
+            ListIterator<CompilerDaemonClient> it = clients.listIterator(clients.size());
+            while (it.hasPrevious()) {
+                CompilerDaemonClient candidate = it.previous();
+                if (candidate.isCompatibleWith(forkOptions)) {
                     it.remove();
+                    idleSince.remove(candidate);
+                    daemonsReused++;
                     return candidate;
                 }
             }
@@ -56,27 +118,168 @@ public class CompilerClientsManager {
         }
     }
 
-    public CompilerDaemonClient reserveNewClient(File workingDir, DaemonForkOptions forkOptions) {
-        //allow the daemon to be started concurrently
-        CompilerDaemonClient client = compilerDaemonStarter.startDaemon(workingDir, forkOptions);
+    public void release(CompilerDaemonClient client) {
+        List<CompilerDaemonClient> evicted = new ArrayList<CompilerDaemonClient>();
         synchronized (lock) {
-            allClients.add(client);
+            collectExpiredClients(evicted);
+            if (allClients.contains(client)) {
+                idleClients.add(client);
+                idleSince.put(client, timeProvider.getCurrentTime());
+                scheduleExpiryCheck();
+            }
+            lock.notifyAll();
         }
-        return client;
+        stopEvicted(evicted);
     }
 
-    public void release(CompilerDaemonClient client) {
+    /**
+     * Stops the daemons that have been idle for longer than the idle timeout. Called periodically while there are idle daemons.
+     */
+    void stopExpiredClients() {
+        List<CompilerDaemonClient> evicted = new ArrayList<CompilerDaemonClient>();
         synchronized (lock) {
-            idleClients.add(client);
+            expiryCheck = null;
+            collectExpiredClients(evicted);
+            if (!idleClients.isEmpty()) {
+                scheduleExpiryCheck();
+            }
         }
+        stopEvicted(evicted);
     }
 
     public void stop() {
         synchronized (lock) {
+            if (expiryExecutor != null) {
+                expiryExecutor.shutdownNow();
+                expiryExecutor = null;
+                expiryCheck = null;
+            }
             LOGGER.debug("Stopping {} compiler daemon(s).", allClients.size());
             CompositeStoppable.stoppable(allClients).stop();
-            LOGGER.info("Stopped {} compiler daemon(s).", allClients.size());
+            LOGGER.info("Stopped {} compiler daemon(s). Started: {}, reused: {}, evicted: {}, waited for a free daemon: {}ms.",
+                allClients.size(), daemonsStarted, daemonsReused, daemonsEvicted, waitTimeMillis);
             allClients.clear();
+            idleClients.clear();
+            idleSince.clear();
+        }
+    }
+
+    private CompilerDaemonClient reserveIdleClientOrSlot(DaemonForkOptions forkOptions, List<CompilerDaemonClient> evicted) {
+        synchronized (lock) {
+            long waitStart = -1;
+            try {
+                while (true) {
+                    collectExpiredClients(evicted);
+                    CompilerDaemonClient client = reserveIdleClient(forkOptions, idleClients);
+                    if (client != null) {
+                        return client;
+                    }
+                    if (allClients.size() + startingClients < maxDaemons) {
+                        break;
+                    }
+                    if (!idleClients.isEmpty()) {
+                        evict(idleClients.get(0), evicted);
+                        break;
+                    }
+                    if (waitStart < 0) {
+                        waitStart = timeProvider.getCurrentTime();
+                        LOGGER.debug("All {} compiler daemon(s) are busy, waiting for one to become available.", allClients.size());
+                    }
+                    lock.wait();
+                }
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            } finally {
+                if (waitStart >= 0) {
+                    waitTimeMillis += timeProvider.getCurrentTime() - waitStart;
+                }
+            }
+            collectClientsForMemory(forkOptions, evicted);
+            startingClients++;
+            return null;
+        }
+    }
+
+    private CompilerDaemonClient startClient(File workingDir, DaemonForkOptions forkOptions) {
+        //allow the daemon to be started concurrently
+        ProgressLogger progressLogger = progressLoggerFactory.newOperation(CompilerClientsManager.class);
+        progressLogger.start("Start Gradle compiler daemon", "Starting compiler daemon");
+        CompilerDaemonClient client = null;
+        try {
+            client = compilerDaemonStarter.startDaemon(workingDir, forkOptions);
+        } finally {
+            progressLogger.completed();
+            synchronized (lock) {
+                startingClients--;
+                if (client != null) {
+                    allClients.add(client);
+                    daemonsStarted++;
+                }
+                lock.notifyAll();
+            }
+        }
+        return client;
+    }
+
+    private void stopEvicted(List<CompilerDaemonClient> evicted) {
+        if (!evicted.isEmpty()) {
+            CompositeStoppable.stoppable(evicted).stop();
+        }
+    }
+
+    private void scheduleExpiryCheck() {
+        if (expiryCheck != null || idleClients.isEmpty()) {
+            return;
+        }
+        if (expiryExecutor == null) {
+            expiryExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "Stop idle compiler daemons");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        long delay = idleSince.get(idleClients.get(0)) + idleTimeoutMillis - timeProvider.getCurrentTime();
+        expiryCheck = expiryExecutor.schedule(new Runnable() {
+            @Override
+            public void run() {
+                stopExpiredClients();
+            }
+        }, Math.max(0, delay) + 1, TimeUnit.MILLISECONDS);
+    }
+
+    private void collectExpiredClients(List<CompilerDaemonClient> evicted) {
+        long expiry = timeProvider.getCurrentTime() - idleTimeoutMillis;
+        while (!idleClients.isEmpty() && idleSince.get(idleClients.get(0)) < expiry) {
+            evict(idleClients.get(0), evicted);
+        }
+    }
+
+    private void collectClientsForMemory(DaemonForkOptions forkOptions, List<CompilerDaemonClient> evicted) {
+        long requested = forkOptions.getMaxHeapSizeMb();
+        if (requested <= 0 || idleClients.isEmpty()) {
+            return;
+        }
+        long availableBytes = memoryInfo.getAvailablePhysicalMemory();
+        if (availableBytes < 0) {
+            return;
         }
+        long available = availableBytes / (1024 * 1024);
+        while (available < requested && !idleClients.isEmpty()) {
+            CompilerDaemonClient client = idleClients.get(0);
+            LOGGER.debug("Not enough available physical memory to start a compiler daemon with {}MB heap, stopping an idle daemon.", requested);
+            evict(client, evicted);
+            available += Math.max(0, client.getForkOptions().getMaxHeapSizeMb());
+        }
+    }
+
+    private void evict(CompilerDaemonClient client, List<CompilerDaemonClient> evicted) {
+        idleClients.remove(client);
+        idleSince.remove(client);
+        allClients.remove(client);
+        evicted.add(client);
+        daemonsEvicted++;
     }
-}
\ No newline at end of file
+}
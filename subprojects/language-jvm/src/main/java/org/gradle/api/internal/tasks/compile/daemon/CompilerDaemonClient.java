@@ -48,6 +48,10 @@ class CompilerDaemonClient implements CompilerDaemon, CompilerDaemonClientProtoc
         }
     }
 
+    public DaemonForkOptions getForkOptions() {
+        return forkOptions;
+    }
+
     public boolean isCompatibleWith(DaemonForkOptions required) {
         return forkOptions.isCompatibleWith(required);
     }
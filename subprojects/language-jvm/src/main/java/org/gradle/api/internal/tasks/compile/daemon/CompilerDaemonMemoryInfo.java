@@ -0,0 +1,90 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.daemon;
+
+import org.gradle.internal.os.OperatingSystem;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.lang.reflect.Method;
+
+/**
+ * Provides the amount of physical memory available on this machine, used to decide whether idle compiler daemons should be
+ * stopped before a new one is started.
+ */
+class CompilerDaemonMemoryInfo {
+
+    private static final File MEMINFO = new File("/proc/meminfo");
+
+    /**
+     * Physical memory in bytes that can be used to start a new process without swapping, or -1 when it is not known.
+     *
+     * <p>On Linux this is {@code MemAvailable}, which includes the page cache and other reclaimable memory. Elsewhere it is the free
+     * physical memory reported by the JVM.</p>
+     */
+    long getAvailablePhysicalMemory() {
+        if (OperatingSystem.current().isLinux() && MEMINFO.isFile()) {
+            long available = readMemAvailable(MEMINFO);
+            if (available >= 0) {
+                return available;
+            }
+        }
+        return getFreePhysicalMemory();
+    }
+
+    static long readMemAvailable(File meminfo) {
+        try {
+            BufferedReader reader = new BufferedReader(new FileReader(meminfo));
+            try {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.startsWith("MemAvailable:")) {
+                        String value = line.substring("MemAvailable:".length()).trim();
+                        if (value.endsWith("kB")) {
+                            value = value.substring(0, value.length() - 2).trim();
+                        }
+                        return Long.parseLong(value) * 1024;
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (IOException e) {
+            return -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+        // kernels before 3.14 do not report MemAvailable
+        return -1;
+    }
+
+    private long getFreePhysicalMemory() {
+        OperatingSystemMXBean bean = ManagementFactory.getOperatingSystemMXBean();
+        try {
+            // com.sun.management.OperatingSystemMXBean is not available on all JVMs
+            Method method = bean.getClass().getMethod("getFreePhysicalMemorySize");
+            method.setAccessible(true);
+            return (Long) method.invoke(bean);
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+}
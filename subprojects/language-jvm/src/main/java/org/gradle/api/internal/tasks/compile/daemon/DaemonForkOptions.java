@@ -53,6 +53,13 @@ public class DaemonForkOptions {
         return maxHeapSize;
     }
 
+    /**
+     * Returns the maximum heap size in megabytes, or -1 when not specified.
+     */
+    public int getMaxHeapSizeMb() {
+        return getHeapSizeMb(maxHeapSize);
+    }
+
     public Iterable<String> getJvmArgs() {
         return jvmArgs;
     }
@@ -16,21 +16,33 @@
 
 package org.gradle.api.internal.tasks.compile.daemon
 
+import org.gradle.internal.TimeProvider
+import org.gradle.internal.TrueTimeProvider
+import org.gradle.logging.ProgressLoggerFactory
 import org.gradle.util.ConcurrentSpecification
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
 import spock.lang.Subject
 
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
 class CompilerClientsManagerTest extends ConcurrentSpecification {
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
 
     def workingDir = new File("some-dir")
 
     def options = Stub(DaemonForkOptions)
     def starter = Stub(CompilerDaemonStarter)
+    def now = 0L
+    def timeProvider = Stub(TimeProvider) { getCurrentTime() >> { now } }
+    def freeMemory = -1L
+    def memoryInfo = Stub(CompilerDaemonMemoryInfo) { getAvailablePhysicalMemory() >> { freeMemory } }
 
-    @Subject manager = new CompilerClientsManager(starter)
+    @Subject manager = new CompilerClientsManager(starter, Stub(ProgressLoggerFactory), 2, 1000, timeProvider, memoryInfo)
 
-    def "does not reserve idle client when no clients"() {
-        expect:
-        manager.reserveIdleClient(options) == null
+    def cleanup() {
+        manager.stop()
     }
 
     def "does not reserve idle client when no matching client found"() {
@@ -52,12 +64,12 @@ class CompilerClientsManagerTest extends ConcurrentSpecification {
         input == [noMatch] //match removed from input
     }
 
-    def "reserves new client"() {
+    def "starts new client when there are no idle clients"() {
         def newClient = Stub(CompilerDaemonClient)
         starter.startDaemon(workingDir, options) >> newClient
 
         when:
-        def client = manager.reserveNewClient(workingDir, options)
+        def client = manager.reserveClient(workingDir, options)
 
         then:
         newClient == client
@@ -69,8 +81,8 @@ class CompilerClientsManagerTest extends ConcurrentSpecification {
         starter.startDaemon(workingDir, options) >>> [client1, client2]
 
         when:
-        manager.reserveNewClient(workingDir, options)
-        manager.reserveNewClient(workingDir, options)
+        manager.reserveClient(workingDir, options)
+        manager.reserveClient(workingDir, options)
         manager.stop()
 
         then:
@@ -78,20 +90,168 @@ class CompilerClientsManagerTest extends ConcurrentSpecification {
         1 * client2.stop()
     }
 
-    def "clients can be released for further use"() {
+    def "does not start more clients than the pool allows"() {
+        def client1 = Mock(CompilerDaemonClient) { isCompatibleWith(_) >> false }
+        def client2 = Mock(CompilerDaemonClient) { isCompatibleWith(_) >> false }
+        def client3 = Mock(CompilerDaemonClient)
+        starter.startDaemon(workingDir, options) >>> [client1, client2, client3]
+        def waiting = new CountDownLatch(1)
+        def reserved = null
+
+        when:
+        manager.reserveClient(workingDir, options)
+        manager.reserveClient(workingDir, options)
+        start {
+            waiting.countDown()
+            reserved = manager.reserveClient(workingDir, options)
+        }
+        waiting.await()
+        Thread.sleep(200)
+
+        then:
+        reserved == null
+
+        when:
+        manager.release(client1)
+        finished()
+
+        then:
+        reserved == client3
+        1 * client1.stop()
+    }
+
+    def "reuses compatible idle client when reserving"() {
         def client = Mock(CompilerDaemonClient) { isCompatibleWith(_) >> true }
         starter.startDaemon(workingDir, options) >> client
 
         when:
-        manager.reserveNewClient(workingDir, options)
+        def first = manager.reserveClient(workingDir, options)
+        manager.release(first)
+        def second = manager.reserveClient(workingDir, options)
+
+        then:
+        first == client
+        second == client
+    }
+
+    def "stops least recently used idle client when pool is full"() {
+        def client1 = Mock(CompilerDaemonClient) { isCompatibleWith(_) >> false }
+        def client2 = Mock(CompilerDaemonClient) { isCompatibleWith(_) >> false }
+        def client3 = Mock(CompilerDaemonClient)
+        starter.startDaemon(workingDir, options) >>> [client1, client2, client3]
+
+        when:
+        manager.reserveClient(workingDir, options)
+        manager.reserveClient(workingDir, options)
+        manager.release(client1)
+        manager.release(client2)
+
+        then:
+        0 * client1.stop()
+
+        when:
+        def client = manager.reserveClient(workingDir, options)
+
+        then:
+        client == client3
+        1 * client1.stop()
+        0 * client2.stop()
+    }
+
+    def "stops clients that have been idle for too long"() {
+        def client1 = Mock(CompilerDaemonClient)
+        def client2 = Mock(CompilerDaemonClient)
+        starter.startDaemon(workingDir, options) >>> [client1, client2]
+
+        when:
+        manager.reserveClient(workingDir, options)
+        manager.reserveClient(workingDir, options)
+        manager.release(client1)
+        now = 2000
+        manager.release(client2)
 
         then:
-        manager.reserveIdleClient(options) == null
+        1 * client1.stop()
+        0 * client2.stop()
+    }
+
+    def "stops idle clients when there is not enough free memory to start a new one"() {
+        def forkOptions = new DaemonForkOptions(null, "512m", [])
+        def client1 = Mock(CompilerDaemonClient) {
+            isCompatibleWith(_) >> false
+            getForkOptions() >> forkOptions
+        }
+        def client2 = Mock(CompilerDaemonClient)
+        starter.startDaemon(workingDir, forkOptions) >>> [client1, client2]
+        freeMemory = 100 * 1024 * 1024
 
         when:
-        manager.release(client)
+        manager.reserveClient(workingDir, forkOptions)
+        manager.release(client1)
+        manager.reserveClient(workingDir, forkOptions)
+
+        then:
+        1 * client1.stop()
+    }
+
+    def "waits for a busy client when pool is full"() {
+        def client1 = Mock(CompilerDaemonClient) { isCompatibleWith(_) >> true }
+        def client2 = Mock(CompilerDaemonClient) { isCompatibleWith(_) >> true }
+        starter.startDaemon(workingDir, options) >>> [client1, client2]
+        def waiting = new CountDownLatch(1)
+        def reserved = null
+
+        when:
+        manager.reserveClient(workingDir, options)
+        manager.reserveClient(workingDir, options)
+        start {
+            waiting.countDown()
+            reserved = manager.reserveClient(workingDir, options)
+        }
+        waiting.await()
+        Thread.sleep(200)
+        manager.release(client2)
+        finished()
 
         then:
-        manager.reserveIdleClient(options) == client
+        reserved == client2
+    }
+
+    def "stops expired idle clients on a timer"() {
+        def stopped = new CountDownLatch(1)
+        def client = Stub(CompilerDaemonClient) { stop() >> { stopped.countDown() } }
+        starter.startDaemon(workingDir, options) >> client
+        def timedManager = new CompilerClientsManager(starter, Stub(ProgressLoggerFactory), 2, 50, new TrueTimeProvider(), memoryInfo)
+
+        when:
+        timedManager.release(timedManager.reserveClient(workingDir, options))
+
+        then:
+        stopped.await(10, TimeUnit.SECONDS)
+
+        cleanup:
+        timedManager.stop()
+    }
+
+    def "reads available memory from meminfo"() {
+        def meminfo = tmpDir.file("meminfo")
+        meminfo.text = """MemTotal:       16318800 kB
+MemFree:          428124 kB
+MemAvailable:    8421376 kB
+Buffers:          123456 kB
+"""
+
+        expect:
+        CompilerDaemonMemoryInfo.readMemAvailable(meminfo) == 8421376L * 1024
+    }
+
+    def "does not report available memory when meminfo does not contain it"() {
+        def meminfo = tmpDir.file("meminfo")
+        meminfo.text = """MemTotal:       16318800 kB
+MemFree:          428124 kB
+"""
+
+        expect:
+        CompilerDaemonMemoryInfo.readMemAvailable(meminfo) == -1
     }
 }
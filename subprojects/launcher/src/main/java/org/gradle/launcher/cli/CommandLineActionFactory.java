@@ -203,7 +203,12 @@ public class CommandLineActionFactory {
             NativeServices.initialize(buildLayout.getGradleUserHomeDir());
             loggingManager.attachProcessConsole(loggingConfiguration.getConsoleOutput());
 
-            action.execute(executionListener);
+            try {
+                action.execute(executionListener);
+            } finally {
+                // output is rendered on a separate thread, make sure it is written before the process exits
+                loggingManager.flush();
+            }
         }
     }
 
@@ -69,5 +69,6 @@ public class PropertiesToDaemonParametersConverter {
             target.setEnabled(isTrue(daemonEnabledPropertyValue));
         }
         target.setDebug(isTrue(properties.get(DEBUG_MODE_PROPERTY)));
+        target.setStandby(isTrue(properties.get(DAEMON_STANDBY_PROPERTY)));
     }
 }
@@ -35,6 +35,7 @@ import org.gradle.logging.LoggingManagerInternal;
 import org.gradle.logging.LoggingServiceRegistry;
 import org.gradle.messaging.remote.Address;
 import org.gradle.process.internal.child.EncodedStream;
+import org.gradle.util.Clock;
 
 import java.io.*;
 import java.util.ArrayList;
@@ -70,6 +71,7 @@ public class DaemonMain extends EntryPoint {
         int idleTimeoutMs;
         String daemonUid;
         List<File> additionalClassPath;
+        boolean standby;
 
         KryoBackedDecoder decoder = new KryoBackedDecoder(new EncodedStream.EncodedInput(System.in));
         try {
@@ -87,6 +89,7 @@ public class DaemonMain extends EntryPoint {
             for (int i = 0; i < additionalClassPathLength; i++) {
                 additionalClassPath.add(new File(decoder.readString()));
             }
+            standby = decoder.readBoolean();
         } catch (EOFException e) {
             throw new UncheckedIOException(e);
         }
@@ -94,7 +97,7 @@ public class DaemonMain extends EntryPoint {
         LOGGER.debug("Assuming the daemon was started with following jvm opts: {}", startupOpts);
 
         NativeServices.initialize(gradleHomeDir);
-        DaemonServerConfiguration parameters = new DefaultDaemonServerConfiguration(daemonUid, daemonBaseDir, idleTimeoutMs, startupOpts);
+        DaemonServerConfiguration parameters = new DefaultDaemonServerConfiguration(daemonUid, daemonBaseDir, idleTimeoutMs, startupOpts, standby);
         LoggingServiceRegistry loggingRegistry = LoggingServiceRegistry.newCommandLineProcessLogging();
         LoggingManagerInternal loggingManager = loggingRegistry.newInstance(LoggingManagerInternal.class);
         DaemonServices daemonServices = new DaemonServices(parameters, loggingRegistry, loggingManager, new DefaultClassPath(additionalClassPath));
@@ -110,6 +113,13 @@ public class DaemonMain extends EntryPoint {
             Long pid = daemonContext.getPid();
             daemonStarted(pid, daemon.getUid(), daemon.getAddress(), daemonLog);
 
+            if (parameters.isStandby()) {
+                Clock clock = new Clock();
+                daemonServices.warmUp();
+                LOGGER.info("Standby daemon warmed up in {}.", clock.getTime());
+                daemon.advertiseIdle();
+            }
+
             // Block until idle
             daemon.requestStopOnIdleTimeout(parameters.getIdleTimeout(), TimeUnit.MILLISECONDS);
         } finally {
@@ -28,6 +28,7 @@ import org.gradle.launcher.daemon.protocol.DaemonMessageSerializer;
 import org.gradle.launcher.daemon.protocol.Message;
 import org.gradle.launcher.daemon.registry.DaemonInfo;
 import org.gradle.launcher.daemon.registry.DaemonRegistry;
+import org.gradle.launcher.daemon.registry.DaemonStopEvent;
 import org.gradle.messaging.remote.internal.*;
 
 import java.util.List;
@@ -43,12 +44,21 @@ public class DefaultDaemonConnector implements DaemonConnector {
     private final DaemonRegistry daemonRegistry;
     protected final OutgoingConnector connector;
     private final DaemonStarter daemonStarter;
+    private final StandbyDaemonStarter standbyDaemonStarter;
     private long connectTimeout = DefaultDaemonConnector.DEFAULT_CONNECT_TIMEOUT;
 
     public DefaultDaemonConnector(DaemonRegistry daemonRegistry, OutgoingConnector connector, DaemonStarter daemonStarter) {
+        this(daemonRegistry, connector, daemonStarter, null);
+    }
+
+    /**
+     * @param standbyDaemonStarter Starts a standby daemon after connecting to a daemon for a build. Can be null, when standby daemons are not used.
+     */
+    public DefaultDaemonConnector(DaemonRegistry daemonRegistry, OutgoingConnector connector, DaemonStarter daemonStarter, StandbyDaemonStarter standbyDaemonStarter) {
         this.daemonRegistry = daemonRegistry;
         this.connector = connector;
         this.daemonStarter = daemonStarter;
+        this.standbyDaemonStarter = standbyDaemonStarter;
     }
 
     public void setConnectTimeout(long connectTimeout) {
@@ -78,14 +88,30 @@ public class DefaultDaemonConnector implements DaemonConnector {
 
     public DaemonClientConnection connect(ExplainingSpec<DaemonContext> constraint) {
         DaemonClientConnection connection = findConnection(daemonRegistry.getIdle(), constraint);
-        if (connection != null) {
-            return connection;
+        if (connection == null) {
+            reportStopEvents();
+            if (!Boolean.getBoolean(DISABLE_STARTING_DAEMON_MESSAGE_PROPERTY)) {
+                LOGGER.lifecycle(STARTING_DAEMON_MESSAGE);
+            }
+            connection = startDaemon(constraint);
         }
+        if (standbyDaemonStarter != null) {
+            standbyDaemonStarter.maybeStartStandbyDaemon(constraint, connection.getDaemon());
+        }
+        return connection;
+    }
 
-        if (!Boolean.getBoolean(DISABLE_STARTING_DAEMON_MESSAGE_PROPERTY)) {
-            LOGGER.lifecycle(STARTING_DAEMON_MESSAGE);
+    /**
+     * Tells the user why previous daemons stopped themselves, as this explains why a new daemon needs to be started.
+     */
+    private void reportStopEvents() {
+        List<DaemonStopEvent> stopEvents = daemonRegistry.getStopEvents();
+        for (DaemonStopEvent stopEvent : stopEvents) {
+            LOGGER.lifecycle("A Gradle daemon (pid {}) stopped at {} because {}.", stopEvent.getPid(), stopEvent.getTimestamp(), stopEvent.getReason());
+        }
+        if (!stopEvents.isEmpty()) {
+            daemonRegistry.removeStopEvents(stopEvents);
         }
-        return startDaemon(constraint);
     }
 
     private DaemonClientConnection findConnection(List<DaemonInfo> daemons, ExplainingSpec<DaemonContext> constraint) {
@@ -65,6 +65,30 @@ public class DefaultDaemonStarter implements DaemonStarter {
     }
 
     public DaemonStartupInfo startDaemon() {
+        return startDaemon(false);
+    }
+
+    /**
+     * Starts a daemon that warms itself up and then advertises itself as idle, without a client connecting to it.
+     */
+    public DaemonStartupInfo startStandbyDaemon() {
+        return startDaemon(true);
+    }
+
+    private DaemonStartupInfo startDaemon(boolean standby) {
+        List<String> daemonArgs = new ArrayList<String>();
+        ByteArrayInputStream stdInput;
+        // The uid is held by the shared parameters, so a standby daemon must not be prepared concurrently with a regular one
+        synchronized (daemonParameters) {
+            stdInput = prepareDaemon(standby, daemonArgs);
+        }
+
+        DaemonStartupInfo daemonInfo = startProcess(daemonArgs, daemonDir.getVersionedDir(), stdInput);
+        listener.daemonStarted(daemonInfo);
+        return daemonInfo;
+    }
+
+    private ByteArrayInputStream prepareDaemon(boolean standby, List<String> daemonArgs) {
         // Ensure we have a unique UID any time we start a new daemon
         daemonParameters.resetUid();
 
@@ -89,7 +113,6 @@ public class DefaultDaemonStarter implements DaemonStarter {
 
         versionValidator.validate(daemonParameters);
 
-        List<String> daemonArgs = new ArrayList<String>();
         daemonArgs.add(daemonParameters.getEffectiveJvm().getJavaExecutable().getAbsolutePath());
 
         List<String> daemonOpts = daemonParameters.getEffectiveJvmArgs();
@@ -123,15 +146,12 @@ public class DefaultDaemonStarter implements DaemonStarter {
             for (File file : searchClassPath) {
                 encoder.writeString(file.getAbsolutePath());
             }
+            encoder.writeBoolean(standby);
             encoder.flush();
         } catch (IOException e) {
             throw new UncheckedIOException(e);
         }
-        ByteArrayInputStream stdInput = new ByteArrayInputStream(serializedConfig.toByteArray());
-
-        DaemonStartupInfo daemonInfo = startProcess(daemonArgs, daemonDir.getVersionedDir(), stdInput);
-        listener.daemonStarted(daemonInfo);
-        return daemonInfo;
+        return new ByteArrayInputStream(serializedConfig.toByteArray());
     }
 
     private DaemonStartupInfo startProcess(List<String> args, File workingDir, InputStream stdInput) {
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.launcher.daemon.client;
+
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.specs.Spec;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.concurrent.StoppableExecutor;
+import org.gradle.launcher.daemon.context.DaemonContext;
+import org.gradle.launcher.daemon.context.DaemonInstanceDetails;
+import org.gradle.launcher.daemon.diagnostics.DaemonStartupInfo;
+import org.gradle.launcher.daemon.registry.DaemonInfo;
+import org.gradle.launcher.daemon.registry.DaemonRegistry;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Starts a standby daemon in the background when a client takes the last compatible idle daemon, so that the next build
+ * can connect to a warmed up daemon instead of waiting for a new one to start.
+ *
+ * <p>The standby daemon is started in the busy state and advertises itself as idle once it has warmed up.</p>
+ */
+public class StandbyDaemonStarter implements Stoppable {
+    private static final Logger LOGGER = Logging.getLogger(StandbyDaemonStarter.class);
+
+    private final DaemonRegistry daemonRegistry;
+    private final DefaultDaemonStarter daemonStarter;
+    private final ExecutorFactory executorFactory;
+    private final AtomicBoolean started = new AtomicBoolean();
+    private StoppableExecutor executor;
+
+    public StandbyDaemonStarter(DaemonRegistry daemonRegistry, DefaultDaemonStarter daemonStarter, ExecutorFactory executorFactory) {
+        this.daemonRegistry = daemonRegistry;
+        this.daemonStarter = daemonStarter;
+        this.executorFactory = executorFactory;
+    }
+
+    /**
+     * Starts a standby daemon unless there is another idle daemon that satisfies the given constraint. At most one standby daemon is started per client.
+     *
+     * @param connectedDaemon the daemon the client has just connected to, which is about to become busy.
+     */
+    public void maybeStartStandbyDaemon(Spec<DaemonContext> constraint, DaemonInstanceDetails connectedDaemon) {
+        for (DaemonInfo daemon : daemonRegistry.getIdle()) {
+            if (!daemon.getUid().equals(connectedDaemon.getUid()) && constraint.isSatisfiedBy(daemon.getContext())) {
+                LOGGER.debug("Not starting a standby daemon, as daemon {} is idle.", daemon);
+                return;
+            }
+        }
+        if (!started.compareAndSet(false, true)) {
+            return;
+        }
+        synchronized (this) {
+            executor = executorFactory.create("Standby daemon starter");
+            executor.execute(new Runnable() {
+                public void run() {
+                    try {
+                        DaemonStartupInfo startupInfo = daemonStarter.startStandbyDaemon();
+                        LOGGER.info("Started standby Gradle daemon {}", startupInfo);
+                    } catch (Exception e) {
+                        LOGGER.info("Could not start a standby Gradle daemon.", e);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Waits for a standby daemon that is being started, as the process would otherwise be killed when this client exits.
+     */
+    public synchronized void stop() {
+        if (executor != null) {
+            executor.stop();
+            executor = null;
+        }
+    }
+}
@@ -45,6 +45,7 @@ public class DaemonParameters {
     private boolean hasJvmArgs;
     private boolean foreground;
     private boolean stop;
+    private boolean standby;
     private boolean interactive = System.console() != null || Boolean.getBoolean(INTERACTIVE_TOGGLE);
     private JavaInfo jvm = Jvm.current();
 
@@ -169,4 +170,15 @@ public class DaemonParameters {
     public void setStop(boolean stop) {
         this.stop = stop;
     }
+
+    /**
+     * Whether a warmed up standby daemon should be started in the background when a build takes the last compatible idle daemon.
+     */
+    public boolean isStandby() {
+        return standby;
+    }
+
+    public void setStandby(boolean standby) {
+        this.standby = standby;
+    }
 }
@@ -28,4 +28,9 @@ public interface DaemonServerConfiguration {
     String getUid();
 
     List<String> getJvmOptions();
+
+    /**
+     * Whether the daemon was started as a standby, which warms itself up and then waits idle for a client.
+     */
+    boolean isStandby();
 }
@@ -28,11 +28,17 @@ public class DaemonDiagnostics implements Serializable {
 
     private final Long pid;
     private final File daemonLog;
+    private final Long startupToFirstBuildMillis;
     private final static int TAIL_SIZE = 20;
 
     public DaemonDiagnostics(File daemonLog, Long pid) {
+        this(daemonLog, pid, null);
+    }
+
+    public DaemonDiagnostics(File daemonLog, Long pid, Long startupToFirstBuildMillis) {
         this.daemonLog = daemonLog;
         this.pid = pid;
+        this.startupToFirstBuildMillis = startupToFirstBuildMillis;
     }
 
     /**
@@ -46,11 +52,19 @@ public class DaemonDiagnostics implements Serializable {
         return daemonLog;
     }
 
+    /**
+     * @return the time between the start of the daemon process and the start of its first build, in milliseconds. Can be null, when not known.
+     */
+    public Long getStartupToFirstBuildMillis() {
+        return startupToFirstBuildMillis;
+    }
+
     @Override
     public String toString() {
         return "{"
                 + "pid=" + pid
                 + ", daemonLog=" + daemonLog
+                + ", startupToFirstBuildMillis=" + startupToFirstBuildMillis
                 + '}';
     }
 
@@ -46,7 +46,9 @@ public class DaemonMessageSerializer {
         outputEventRegistry.register(ProgressCompleteEvent.class, new ProgressCompleteEventSerializer());
         outputEventRegistry.register(ProgressEvent.class, new ProgressEventSerializer());
         outputEventRegistry.register(LogLevelChangeEvent.class, new LogLevelChangeEventSerializer(logLevelSerializer));
-        registry.register(OutputMessage.class, new OutputMessageSerializer(outputEventRegistry.build()));
+        Serializer<OutputEvent> outputEventSerializer = outputEventRegistry.build();
+        registry.register(OutputMessage.class, new OutputMessageSerializer(outputEventSerializer));
+        registry.register(OutputMessageBatch.class, new OutputMessageBatchSerializer(new ListSerializer<OutputEvent>(outputEventSerializer)));
 
         // Default for everything else
         registry.useJavaSerialization(Message.class);
@@ -292,4 +294,22 @@ public class DaemonMessageSerializer {
             return new OutputMessage(eventSerializer.read(decoder));
         }
     }
+
+    private static class OutputMessageBatchSerializer implements Serializer<OutputMessageBatch> {
+        private final Serializer<List<OutputEvent>> eventsSerializer;
+
+        public OutputMessageBatchSerializer(Serializer<List<OutputEvent>> eventsSerializer) {
+            this.eventsSerializer = eventsSerializer;
+        }
+
+        @Override
+        public void write(Encoder encoder, OutputMessageBatch message) throws Exception {
+            eventsSerializer.write(encoder, message.getEvents());
+        }
+
+        @Override
+        public OutputMessageBatch read(Decoder decoder) throws Exception {
+            return new OutputMessageBatch(eventsSerializer.read(decoder));
+        }
+    }
 }
@@ -20,6 +20,7 @@ import net.jcip.annotations.ThreadSafe;
 import org.gradle.messaging.remote.Address;
 import org.gradle.launcher.daemon.context.DaemonContext;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -39,6 +40,10 @@ public interface DaemonRegistry {
     void markBusy(Address address);
     void markIdle(Address address);
 
+    void storeStopEvent(DaemonStopEvent stopEvent);
+    List<DaemonStopEvent> getStopEvents();
+    void removeStopEvents(Collection<DaemonStopEvent> stopEvents);
+
     static class EmptyRegistryException extends RuntimeException {
         public EmptyRegistryException(String message) {
             super(message);
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.launcher.daemon.registry;
+
+import com.google.common.base.Objects;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * Records that a daemon stopped itself, and why, so that clients can tell the user why the daemon is no longer available.
+ */
+public class DaemonStopEvent implements Serializable {
+
+    private final Date timestamp;
+    private final Long pid;
+    private final String reason;
+
+    public DaemonStopEvent(Date timestamp, Long pid, String reason) {
+        this.timestamp = timestamp;
+        this.pid = pid;
+        this.reason = reason;
+    }
+
+    public Date getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * @return pid. Can be null, it means the daemon was not able to identify its pid.
+     */
+    public Long getPid() {
+        return pid;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        DaemonStopEvent that = (DaemonStopEvent) o;
+        return timestamp.equals(that.timestamp) && Objects.equal(pid, that.pid) && reason.equals(that.reason);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(timestamp, pid, reason);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("DaemonStopEvent{timestamp=%s, pid=%s, reason=%s}", timestamp, pid, reason);
+    }
+}
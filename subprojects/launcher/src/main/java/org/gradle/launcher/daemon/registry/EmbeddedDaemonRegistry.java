@@ -21,9 +21,11 @@ import org.gradle.launcher.daemon.context.DaemonContext;
 import org.gradle.messaging.remote.Address;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * A daemon registry for daemons running in the same JVM.
@@ -37,6 +39,7 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 public class EmbeddedDaemonRegistry implements DaemonRegistry {
     private final Map<Address, DaemonInfo> daemonInfos = new ConcurrentHashMap<Address, DaemonInfo>();
+    private final List<DaemonStopEvent> stopEvents = new CopyOnWriteArrayList<DaemonStopEvent>();
     private final Spec<DaemonInfo> allSpec = new Spec<DaemonInfo>() {
         public boolean isSatisfiedBy(DaemonInfo entry) {
             return true;
@@ -89,6 +92,18 @@ public class EmbeddedDaemonRegistry implements DaemonRegistry {
         }
     }
 
+    public void storeStopEvent(DaemonStopEvent stopEvent) {
+        stopEvents.add(stopEvent);
+    }
+
+    public List<DaemonStopEvent> getStopEvents() {
+        return new ArrayList<DaemonStopEvent>(stopEvents);
+    }
+
+    public void removeStopEvents(Collection<DaemonStopEvent> events) {
+        stopEvents.removeAll(events);
+    }
+
     private List<DaemonInfo> daemonInfosOfEntriesMatching(Spec<DaemonInfo> spec) {
         List<DaemonInfo> matches = new ArrayList<DaemonInfo>();
         for (DaemonInfo daemonInfo : daemonInfos.values()) {
@@ -0,0 +1,271 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.launcher.daemon.registry;
+
+import org.gradle.api.GradleException;
+import org.gradle.api.JavaVersion;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.Cast;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.hash.HashUtil;
+import org.gradle.internal.reflect.DirectInstantiator;
+import org.gradle.internal.serialize.DefaultSerializer;
+import org.gradle.internal.serialize.InputStreamBackedDecoder;
+import org.gradle.internal.serialize.OutputStreamBackedEncoder;
+import org.gradle.internal.serialize.Serializer;
+import org.gradle.launcher.daemon.context.DaemonContext;
+import org.gradle.messaging.remote.Address;
+import org.gradle.util.GFileUtils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A daemon registry that keeps one small file per daemon and per stop event in a directory, rather than a single file guarded by a
+ * cross-process lock.
+ *
+ * <p>Records are replaced atomically by writing a temporary file and moving it over the record, so that readers always see either
+ * the old or the new content. The move is retried with a backoff, as it can fail while another process has the record open. Readers
+ * scan the directory without taking a lock, skip records that disappear or cannot be read while they scan, and delete temporary files
+ * left behind by writers that did not finish.</p>
+ *
+ * <p>A status update skips a record that has already been removed, so a daemon that a client removed after failing to connect to it is
+ * not registered again. A removal that happens between reading and rewriting a record is undone by the rewrite. The record then remains
+ * until a client fails to connect to the daemon again, or the daemon stops and removes it.</p>
+ */
+public class ShardedDaemonRegistry implements DaemonRegistry {
+    private static final Logger LOGGER = Logging.getLogger(ShardedDaemonRegistry.class);
+    private static final String DAEMON_SUFFIX = ".daemon";
+    private static final String STOP_EVENT_SUFFIX = ".stop";
+    private static final String TMP_SUFFIX = ".tmp";
+    private static final long STALE_TMP_FILE_AGE_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private static final int MAX_REPLACE_ATTEMPTS = 8;
+    private static final long INITIAL_REPLACE_BACKOFF_MILLIS = 10;
+
+    private final File registryDir;
+    private final FileReplacer fileReplacer;
+    private final Serializer<DaemonInfo> daemonSerializer = new DefaultSerializer<DaemonInfo>();
+    private final Serializer<DaemonStopEvent> stopEventSerializer = new DefaultSerializer<DaemonStopEvent>();
+
+    public ShardedDaemonRegistry(File registryDir) {
+        this(registryDir, createFileReplacer());
+    }
+
+    ShardedDaemonRegistry(File registryDir, FileReplacer fileReplacer) {
+        this.registryDir = registryDir;
+        this.fileReplacer = fileReplacer;
+    }
+
+    private static FileReplacer createFileReplacer() {
+        if (JavaVersion.current().isJava7Compatible()) {
+            try {
+                Class<?> clazz = ShardedDaemonRegistry.class.getClassLoader().loadClass("org.gradle.launcher.daemon.registry.jdk7.Jdk7FileReplacer");
+                return Cast.uncheckedCast(DirectInstantiator.instantiate(clazz));
+            } catch (ClassNotFoundException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        }
+        return new FileReplacer() {
+            public boolean replace(File source, File target) {
+                return source.renameTo(target);
+            }
+        };
+    }
+
+    public List<DaemonInfo> getAll() {
+        return readAll(DAEMON_SUFFIX, daemonSerializer);
+    }
+
+    public List<DaemonInfo> getIdle() {
+        List<DaemonInfo> out = new LinkedList<DaemonInfo>();
+        for (DaemonInfo daemonInfo : getAll()) {
+            if (daemonInfo.isIdle()) {
+                out.add(daemonInfo);
+            }
+        }
+        return out;
+    }
+
+    public List<DaemonInfo> getBusy() {
+        List<DaemonInfo> out = new LinkedList<DaemonInfo>();
+        for (DaemonInfo daemonInfo : getAll()) {
+            if (!daemonInfo.isIdle()) {
+                out.add(daemonInfo);
+            }
+        }
+        return out;
+    }
+
+    public void remove(Address address) {
+        LOGGER.debug("Removing daemon address: {}", address);
+        delete(daemonFile(address));
+    }
+
+    public void markBusy(Address address) {
+        LOGGER.debug("Marking busy by address: {}", address);
+        setIdle(address, false);
+    }
+
+    public void markIdle(Address address) {
+        LOGGER.debug("Marking idle by address: {}", address);
+        setIdle(address, true);
+    }
+
+    private void setIdle(Address address, boolean idle) {
+        File file = daemonFile(address);
+        DaemonInfo daemonInfo = read(file, daemonSerializer);
+        if (daemonInfo == null) {
+            // Has been removed by something else - ignore
+            return;
+        }
+        write(file, daemonInfo.setIdle(idle), daemonSerializer);
+    }
+
+    public void store(Address address, DaemonContext daemonContext, String password, boolean idle) {
+        LOGGER.debug("Storing daemon address: {}, context: {}", address, daemonContext);
+        write(daemonFile(address), new DaemonInfo(address, daemonContext, password, idle), daemonSerializer);
+    }
+
+    public void storeStopEvent(DaemonStopEvent stopEvent) {
+        LOGGER.debug("Storing daemon stop event: {}", stopEvent);
+        write(stopEventFile(stopEvent), stopEvent, stopEventSerializer);
+    }
+
+    public List<DaemonStopEvent> getStopEvents() {
+        List<DaemonStopEvent> stopEvents = readAll(STOP_EVENT_SUFFIX, stopEventSerializer);
+        Collections.sort(stopEvents, new Comparator<DaemonStopEvent>() {
+            public int compare(DaemonStopEvent left, DaemonStopEvent right) {
+                return left.getTimestamp().compareTo(right.getTimestamp());
+            }
+        });
+        return stopEvents;
+    }
+
+    public void removeStopEvents(Collection<DaemonStopEvent> stopEvents) {
+        LOGGER.debug("Removing {} daemon stop events", stopEvents.size());
+        for (DaemonStopEvent stopEvent : stopEvents) {
+            delete(stopEventFile(stopEvent));
+        }
+    }
+
+    private File daemonFile(Address address) {
+        return new File(registryDir, HashUtil.createCompactMD5(address.getDisplayName()) + DAEMON_SUFFIX);
+    }
+
+    private File stopEventFile(DaemonStopEvent stopEvent) {
+        return new File(registryDir, HashUtil.createCompactMD5(stopEvent.toString()) + STOP_EVENT_SUFFIX);
+    }
+
+    private <T> List<T> readAll(String suffix, Serializer<T> serializer) {
+        List<T> out = new ArrayList<T>();
+        File[] files = registryDir.listFiles();
+        if (files == null) {
+            //when no daemon process has started yet
+            return out;
+        }
+        long staleBefore = System.currentTimeMillis() - STALE_TMP_FILE_AGE_MILLIS;
+        for (File file : files) {
+            if (file.getName().endsWith(TMP_SUFFIX) && file.lastModified() < staleBefore) {
+                LOGGER.debug("Deleting stale daemon registry file {}.", file);
+                delete(file);
+            } else if (file.getName().endsWith(suffix)) {
+                T value = read(file, serializer);
+                if (value != null) {
+                    out.add(value);
+                }
+            }
+        }
+        return out;
+    }
+
+    private <T> T read(File file, Serializer<T> serializer) {
+        try {
+            InputStreamBackedDecoder decoder = new InputStreamBackedDecoder(new BufferedInputStream(new FileInputStream(file)));
+            try {
+                return serializer.read(decoder);
+            } finally {
+                decoder.close();
+            }
+        } catch (FileNotFoundException e) {
+            return null;
+        } catch (Exception e) {
+            LOGGER.debug("Ignoring daemon registry record {} that cannot be read.", file, e);
+            return null;
+        }
+    }
+
+    private <T> void write(File file, T value, Serializer<T> serializer) {
+        GFileUtils.mkdirs(registryDir);
+        File tmpFile = null;
+        try {
+            tmpFile = File.createTempFile(file.getName(), TMP_SUFFIX, registryDir);
+            OutputStreamBackedEncoder encoder = new OutputStreamBackedEncoder(new BufferedOutputStream(new FileOutputStream(tmpFile)));
+            try {
+                serializer.write(encoder, value);
+            } finally {
+                encoder.close();
+            }
+            replace(tmpFile, file);
+        } catch (Exception e) {
+            if (tmpFile != null) {
+                tmpFile.delete();
+            }
+            throw new GradleException(String.format("Could not write daemon registry record '%s'.", file), e);
+        }
+    }
+
+    private void replace(File source, File target) throws IOException, InterruptedException {
+        long backoff = INITIAL_REPLACE_BACKOFF_MILLIS;
+        for (int attempt = 1; !fileReplacer.replace(source, target); attempt++) {
+            if (attempt == MAX_REPLACE_ATTEMPTS) {
+                throw new IOException(String.format("Could not move '%s' to '%s'.", source, target));
+            }
+            Thread.sleep(backoff);
+            backoff *= 2;
+        }
+    }
+
+    private void delete(File file) {
+        if (!file.delete() && file.exists()) {
+            LOGGER.debug("Could not delete daemon registry record {}.", file);
+        }
+    }
+
+    public String toString() {
+        return String.format("ShardedDaemonRegistry[dir=%s]", registryDir);
+    }
+
+    public interface FileReplacer {
+        /**
+         * Moves the source file over the target file, replacing it atomically. Returns false when the file could not be moved.
+         */
+        boolean replace(File source, File target);
+    }
+}
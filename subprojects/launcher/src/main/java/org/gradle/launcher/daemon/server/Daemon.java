@@ -140,6 +140,24 @@ public class Daemon implements Stoppable {
         LOGGER.lifecycle(DaemonMessages.PROCESS_STARTED);
     }
 
+    /**
+     * Advertises this daemon as idle in the registry before it has run a build, so that a client can connect to it.
+     * A daemon is advertised as busy when it starts, as it is normally reserved for the client that started it.
+     *
+     * @throws IllegalStateException if this daemon has not been started.
+     */
+    public void advertiseIdle() {
+        lifecyleLock.lock();
+        try {
+            if (stateCoordinator == null) {
+                throw new IllegalStateException("cannot advertise daemon as idle as it has not been started.");
+            }
+            registryUpdater.onCompleteActivity();
+        } finally {
+            lifecyleLock.unlock();
+        }
+    }
+
     /**
      * Stops the daemon, blocking until any current requests/connections have been satisfied.
      * <p>
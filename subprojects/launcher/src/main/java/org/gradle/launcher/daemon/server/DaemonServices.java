@@ -17,10 +17,13 @@ package org.gradle.launcher.daemon.server;
 
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
+import org.gradle.configuration.ImportsReader;
+import org.gradle.initialization.ClassLoaderRegistry;
 import org.gradle.internal.classpath.ClassPath;
 import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.nativeintegration.ProcessEnvironment;
 import org.gradle.internal.nativeintegration.services.NativeServices;
+import org.gradle.internal.reflect.Instantiator;
 import org.gradle.internal.service.DefaultServiceRegistry;
 import org.gradle.internal.service.ServiceRegistry;
 import org.gradle.internal.service.scopes.GlobalScopeServices;
@@ -37,14 +40,25 @@ import org.gradle.launcher.exec.BuildExecuter;
 import org.gradle.logging.LoggingManagerInternal;
 import org.gradle.messaging.remote.internal.MessagingServices;
 import org.gradle.messaging.remote.internal.inet.InetAddressFactory;
+import org.gradle.model.internal.inspect.ModelRuleExtractor;
 
 import java.io.File;
+import java.util.Arrays;
+import java.util.List;
 import java.util.UUID;
 
 /**
  * Takes care of instantiating and wiring together the services required by the daemon server.
  */
 public class DaemonServices extends DefaultServiceRegistry {
+    private static final List<String> WARM_UP_CLASSES = Arrays.asList(
+        "org.gradle.initialization.DefaultGradleLauncherFactory",
+        "org.gradle.api.internal.project.DefaultProject",
+        "org.gradle.api.internal.tasks.DefaultTaskContainer",
+        "org.gradle.groovy.scripts.internal.DefaultScriptCompilationHandler",
+        "org.gradle.execution.taskgraph.DefaultTaskGraphExecuter",
+        "org.codehaus.groovy.control.CompilationUnit"
+    );
     private final DaemonServerConfiguration configuration;
     private final LoggingManagerInternal loggingManager;
     private final static Logger LOGGER = Logging.getLogger(DaemonServices.class);
@@ -78,8 +92,27 @@ public class DaemonServices extends DefaultServiceRegistry {
         return new File(get(DaemonDir.class).getVersionedDir(), fileName);
     }
 
-    protected DaemonHealthServices createDaemonHealthServices() {
-        return new DefaultDaemonHealthServices();
+    /**
+     * Creates the global services that are expensive to create and loads the classes used by every build, so that the first build
+     * run by a standby daemon does not pay for them.
+     */
+    public void warmUp() {
+        ClassLoaderRegistry classLoaderRegistry = get(ClassLoaderRegistry.class);
+        get(ImportsReader.class).getSimpleNameToFullClassNamesMapping();
+        get(ModelRuleExtractor.class);
+        get(Instantiator.class);
+        ClassLoader classLoader = classLoaderRegistry.getRuntimeClassLoader();
+        for (String className : WARM_UP_CLASSES) {
+            try {
+                Class.forName(className, false, classLoader);
+            } catch (ClassNotFoundException e) {
+                LOGGER.debug("Could not preload class {}.", className);
+            }
+        }
+    }
+
+    protected DaemonHealthServices createDaemonHealthServices(DaemonRegistry daemonRegistry) {
+        return new DefaultDaemonHealthServices(daemonRegistry);
     }
 
     protected Daemon createDaemon(BuildExecuter buildActionExecuter) {
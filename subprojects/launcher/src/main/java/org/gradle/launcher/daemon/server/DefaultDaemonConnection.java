@@ -30,6 +30,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.LinkedList;
+import java.util.List;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
@@ -120,6 +121,14 @@ public class DefaultDaemonConnection implements DaemonConnection {
         connection.dispatch(new OutputMessage(logEvent));
     }
 
+    public void logEvents(List<OutputEvent> logEvents) {
+        if (logEvents.size() == 1) {
+            logEvent(logEvents.get(0));
+        } else {
+            connection.dispatch(new OutputMessageBatch(logEvents));
+        }
+    }
+
     @Override
     public void event(Object event) {
         connection.dispatch(new BuildEvent(event));
@@ -32,7 +32,7 @@ import java.util.List;
  */
 public class DaemonCommandExecution {
 
-    final private DaemonConnection connection;
+    private DaemonConnection connection;
     final private Command command;
     final private DaemonContext daemonContext;
     final private DaemonStateControl daemonStateControl;
@@ -54,6 +54,13 @@ public class DaemonCommandExecution {
         return connection;
     }
 
+    /**
+     * Replaces the connection used by the actions that have not executed yet, for example to decorate how messages are sent to the client.
+     */
+    public void setConnection(DaemonConnection connection) {
+        this.connection = connection;
+    }
+
     /**
      * The command to execute.
      * <p>
@@ -16,10 +16,14 @@
 package org.gradle.launcher.daemon.server.exec;
 
 import com.google.common.collect.ImmutableList;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.nativeintegration.ProcessEnvironment;
 import org.gradle.internal.service.ServiceRegistry;
 import org.gradle.launcher.daemon.context.DaemonContext;
 import org.gradle.launcher.daemon.diagnostics.DaemonDiagnostics;
+import org.gradle.launcher.daemon.protocol.Build;
 import org.gradle.launcher.daemon.protocol.Command;
 import org.gradle.launcher.daemon.server.api.*;
 import org.gradle.launcher.daemon.server.health.DaemonHealthServices;
@@ -29,18 +33,23 @@ import org.gradle.logging.LoggingManagerInternal;
 import org.gradle.logging.internal.LoggingOutputInternal;
 
 import java.io.File;
+import java.lang.management.ManagementFactory;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * The default implementation of how to execute commands that the daemon receives.
  */
 public class DefaultDaemonCommandExecuter implements DaemonCommandExecuter {
+    private static final Logger LOGGER = Logging.getLogger(DefaultDaemonCommandExecuter.class);
     private final LoggingOutputInternal loggingOutput;
     private final BuildActionExecuter<BuildActionParameters> actionExecuter;
     private final DaemonHealthServices healthServices;
     private final ProcessEnvironment processEnvironment;
     private final File daemonLog;
     private final ServiceRegistry contextServices;
+    private final long processStartTime = ManagementFactory.getRuntimeMXBean().getStartTime();
+    private final AtomicLong startupToFirstBuildMillis = new AtomicLong(-1);
 
     public DefaultDaemonCommandExecuter(BuildActionExecuter<BuildActionParameters> actionExecuter, ServiceRegistry contextServices, ProcessEnvironment processEnvironment,
                                         LoggingManagerInternal loggingOutput, File daemonLog, DaemonHealthServices healthServices) {
@@ -53,6 +62,9 @@ public class DefaultDaemonCommandExecuter implements DaemonCommandExecuter {
     }
 
     public void executeCommand(DaemonConnection connection, Command command, DaemonContext daemonContext, DaemonStateControl daemonStateControl) {
+        if (command instanceof Build && startupToFirstBuildMillis.compareAndSet(-1, System.currentTimeMillis() - processStartTime)) {
+            LOGGER.info("First build requested {}ms after the daemon process started.", startupToFirstBuildMillis.get());
+        }
         new DaemonCommandExecution(
             connection,
             command,
@@ -63,7 +75,8 @@ public class DefaultDaemonCommandExecuter implements DaemonCommandExecuter {
     }
 
     protected List<DaemonCommandAction> createActions(DaemonContext daemonContext) {
-        DaemonDiagnostics daemonDiagnostics = new DaemonDiagnostics(daemonLog, daemonContext.getPid());
+        long startupToFirstBuild = startupToFirstBuildMillis.get();
+        DaemonDiagnostics daemonDiagnostics = new DaemonDiagnostics(daemonLog, daemonContext.getPid(), startupToFirstBuild < 0 ? null : startupToFirstBuild);
         return ImmutableList.of(
             new HandleStop(),
             new HandleCancel(),
@@ -71,7 +84,7 @@ public class DefaultDaemonCommandExecuter implements DaemonCommandExecuter {
             new StartBuildOrRespondWithBusy(daemonDiagnostics), // from this point down, the daemon is 'busy'
             healthServices.getGCHintAction(), //TODO SF needs to happen after the result is returned to the client
             new EstablishBuildEnvironment(processEnvironment),
-            new LogToClient(loggingOutput, daemonDiagnostics), // from this point down, logging is sent back to the client
+            new LogToClient(loggingOutput, daemonDiagnostics, contextServices.get(ExecutorFactory.class)), // from this point down, logging is sent back to the client
             healthServices.getHealthTrackerAction(),
             new ForwardClientInput(),
             new RequestStopIfSingleUsedDaemon(),
@@ -15,28 +15,62 @@
  */
 package org.gradle.launcher.daemon.server.exec;
 
+import org.gradle.api.Nullable;
 import org.gradle.api.logging.LogLevel;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.StoppableExecutor;
 import org.gradle.launcher.daemon.diagnostics.DaemonDiagnostics;
 import org.gradle.launcher.daemon.logging.DaemonMessages;
 import org.gradle.launcher.daemon.protocol.Build;
+import org.gradle.launcher.daemon.protocol.BuildStarted;
+import org.gradle.launcher.daemon.protocol.DaemonUnavailable;
+import org.gradle.launcher.daemon.protocol.Result;
 import org.gradle.launcher.daemon.server.api.DaemonCommandExecution;
+import org.gradle.launcher.daemon.server.api.DaemonConnection;
+import org.gradle.launcher.daemon.server.api.StdinHandler;
 import org.gradle.logging.internal.LoggingOutputInternal;
 import org.gradle.logging.internal.OutputEvent;
 import org.gradle.logging.internal.OutputEventListener;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Forwards the build output to the client. Output events are collected into batches, which are sent when they reach
+ * {@link #MAX_BATCH_SIZE} events or when the oldest event has waited for the configured maximum latency. Build events
+ * are sent through the same queue, so that the client receives them in order with the output. At most {@link #MAX_PENDING}
+ * messages are queued, after which the producers wait for the queue to drain.
+ */
 public class LogToClient extends BuildCommandOnly {
 
     public static final String DISABLE_OUTPUT = "org.gradle.daemon.disable-output";
+    public static final String MAX_OUTPUT_LATENCY = "org.gradle.daemon.output.max-latency-ms";
+    static final int MAX_BATCH_SIZE = 500;
+    static final int MAX_PENDING = 10 * MAX_BATCH_SIZE;
+    private static final long DEFAULT_MAX_OUTPUT_LATENCY_MS = 10;
     private static final Logger LOGGER = Logging.getLogger(LogToClient.class);
 
     private final LoggingOutputInternal loggingOutput;
     private final DaemonDiagnostics diagnostics;
+    private final ExecutorFactory executorFactory;
+    private final long maxLatencyMs;
 
-    public LogToClient(LoggingOutputInternal loggingOutput, DaemonDiagnostics diagnostics) {
+    public LogToClient(LoggingOutputInternal loggingOutput, DaemonDiagnostics diagnostics, ExecutorFactory executorFactory) {
+        this(loggingOutput, diagnostics, executorFactory, Long.getLong(MAX_OUTPUT_LATENCY, DEFAULT_MAX_OUTPUT_LATENCY_MS));
+    }
+
+    LogToClient(LoggingOutputInternal loggingOutput, DaemonDiagnostics diagnostics, ExecutorFactory executorFactory, long maxLatencyMs) {
         this.loggingOutput = loggingOutput;
         this.diagnostics = diagnostics;
+        this.executorFactory = executorFactory;
+        this.maxLatencyMs = maxLatencyMs;
     }
 
     protected void doBuild(final DaemonCommandExecution execution, Build build) {
@@ -46,27 +80,224 @@ public class LogToClient extends BuildCommandOnly {
         }
 
         final LogLevel buildLogLevel = build.getParameters().getLogLevel();
+        final DaemonConnection connection = execution.getConnection();
+        final AsynchronousLogDispatcher dispatcher = new AsynchronousLogDispatcher(connection);
         OutputEventListener listener = new OutputEventListener() {
             public void onOutput(OutputEvent event) {
-                try {
-                    if (event.getLogLevel() != null && event.getLogLevel().compareTo(buildLogLevel) >= 0) {
-                        execution.getConnection().logEvent(event);
-                    }
-                } catch (Exception e) {
-                    //Ignore. It means the client has disconnected so no point sending him any log output.
-                    //we should be checking if client still listens elsewhere anyway.
+                if (event.getLogLevel() != null && event.getLogLevel().compareTo(buildLogLevel) >= 0) {
+                    dispatcher.submit(event);
                 }
             }
         };
 
         LOGGER.debug(DaemonMessages.ABOUT_TO_START_RELAYING_LOGS);
+        StoppableExecutor executor = executorFactory.create("Daemon client output forwarder");
+        executor.execute(dispatcher);
         loggingOutput.addOutputEventListener(listener);
+        execution.setConnection(new EventQueueingConnection(connection, dispatcher));
         try {
             LOGGER.info("{}{}). The daemon log file: {}", DaemonMessages.STARTED_RELAYING_LOGS, diagnostics.getPid(), diagnostics.getDaemonLog());
             execution.proceed();
         } finally {
+            execution.setConnection(connection);
             loggingOutput.removeOutputEventListener(listener);
+            // send any remaining output before the build result
+            dispatcher.requestStop();
+            executor.stop();
+        }
+    }
+
+    private static class BuildEventMessage {
+        private final Object event;
+
+        private BuildEventMessage(Object event) {
+            this.event = event;
         }
     }
-}
 
+    private class AsynchronousLogDispatcher implements Runnable {
+        private final DaemonConnection connection;
+        private final Lock lock = new ReentrantLock();
+        private final Condition condition = lock.newCondition();
+        private final Condition notFull = lock.newCondition();
+        // output events and build events, in the order they were submitted
+        private List<Object> pending = new ArrayList<Object>();
+        private long firstPendingAt;
+        private boolean buildEventPending;
+        private boolean stopped;
+
+        private AsynchronousLogDispatcher(DaemonConnection connection) {
+            this.connection = connection;
+        }
+
+        void submit(OutputEvent event) {
+            enqueue(event);
+        }
+
+        void submitBuildEvent(Object event) {
+            enqueue(new BuildEventMessage(event));
+        }
+
+        private void enqueue(Object message) {
+            lock.lock();
+            try {
+                while (pending.size() >= MAX_PENDING && !stopped) {
+                    notFull.await();
+                }
+                if (pending.isEmpty()) {
+                    firstPendingAt = System.nanoTime();
+                }
+                pending.add(message);
+                if (message instanceof BuildEventMessage) {
+                    // build events are not delayed, they drive progress reporting on the client
+                    buildEventPending = true;
+                    condition.signalAll();
+                } else if (pending.size() == 1 || pending.size() >= MAX_BATCH_SIZE) {
+                    condition.signalAll();
+                }
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void requestStop() {
+            lock.lock();
+            try {
+                stopped = true;
+                condition.signalAll();
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public void run() {
+            List<OutputEvent> logEvents = new ArrayList<OutputEvent>();
+            while (true) {
+                List<Object> batch = takeBatch();
+                if (batch == null) {
+                    return;
+                }
+                for (Object message : batch) {
+                    if (message instanceof BuildEventMessage) {
+                        sendLogEvents(logEvents);
+                        sendBuildEvent(((BuildEventMessage) message).event);
+                    } else {
+                        logEvents.add((OutputEvent) message);
+                    }
+                }
+                sendLogEvents(logEvents);
+            }
+        }
+
+        private void sendLogEvents(List<OutputEvent> logEvents) {
+            if (logEvents.isEmpty()) {
+                return;
+            }
+            try {
+                connection.logEvents(new ArrayList<OutputEvent>(logEvents));
+            } catch (Exception e) {
+                //Ignore. It means the client has disconnected so no point sending him any log output.
+                //we should be checking if client still listens elsewhere anyway.
+            }
+            logEvents.clear();
+        }
+
+        private void sendBuildEvent(Object event) {
+            try {
+                connection.event(event);
+            } catch (Exception e) {
+                //Ignore, the client has disconnected
+            }
+        }
+
+        @Nullable
+        private List<Object> takeBatch() {
+            lock.lock();
+            try {
+                while (pending.isEmpty()) {
+                    if (stopped) {
+                        return null;
+                    }
+                    condition.await();
+                }
+                long deadline = firstPendingAt + TimeUnit.MILLISECONDS.toNanos(maxLatencyMs);
+                while (!stopped && !buildEventPending && pending.size() < MAX_BATCH_SIZE) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    condition.awaitNanos(remaining);
+                }
+                List<Object> batch = pending;
+                pending = new ArrayList<Object>();
+                buildEventPending = false;
+                notFull.signalAll();
+                return batch;
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Sends build events through the dispatcher, and everything else directly to the client.
+     */
+    private static class EventQueueingConnection implements DaemonConnection {
+        private final DaemonConnection delegate;
+        private final AsynchronousLogDispatcher dispatcher;
+
+        private EventQueueingConnection(DaemonConnection delegate, AsynchronousLogDispatcher dispatcher) {
+            this.delegate = delegate;
+            this.dispatcher = dispatcher;
+        }
+
+        public void event(Object event) {
+            dispatcher.submitBuildEvent(event);
+        }
+
+        public void onStdin(@Nullable StdinHandler handler) {
+            delegate.onStdin(handler);
+        }
+
+        public void onDisconnect(@Nullable Runnable handler) {
+            delegate.onDisconnect(handler);
+        }
+
+        public void onCancel(@Nullable Runnable handler) {
+            delegate.onCancel(handler);
+        }
+
+        public void daemonUnavailable(DaemonUnavailable unavailable) {
+            delegate.daemonUnavailable(unavailable);
+        }
+
+        public void buildStarted(BuildStarted buildStarted) {
+            delegate.buildStarted(buildStarted);
+        }
+
+        public void logEvent(OutputEvent logEvent) {
+            delegate.logEvent(logEvent);
+        }
+
+        public void logEvents(List<OutputEvent> logEvents) {
+            delegate.logEvents(logEvents);
+        }
+
+        public void completed(Result result) {
+            delegate.completed(result);
+        }
+
+        public Object receive(long timeoutValue, TimeUnit timeoutUnits) {
+            return delegate.receive(timeoutValue, timeoutUnits);
+        }
+
+        public void stop() {
+            delegate.stop();
+        }
+    }
+}
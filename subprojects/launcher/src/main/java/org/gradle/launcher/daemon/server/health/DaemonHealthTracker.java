@@ -18,9 +18,13 @@ package org.gradle.launcher.daemon.server.health;
 
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
+import org.gradle.launcher.daemon.registry.DaemonRegistry;
+import org.gradle.launcher.daemon.registry.DaemonStopEvent;
 import org.gradle.launcher.daemon.server.api.DaemonCommandAction;
 import org.gradle.launcher.daemon.server.api.DaemonCommandExecution;
 
+import java.util.Date;
+
 class DaemonHealthTracker implements DaemonCommandAction {
 
     private final static Logger LOG = Logging.getLogger(DaemonHealthTracker.class);
@@ -28,11 +32,13 @@ class DaemonHealthTracker implements DaemonCommandAction {
     private final DaemonStats stats;
     private final DaemonStatus status;
     private final HealthLogger logger;
+    private final DaemonRegistry registry;
 
-    DaemonHealthTracker(DaemonStats stats, DaemonStatus status, HealthLogger logger) {
+    DaemonHealthTracker(DaemonStats stats, DaemonStatus status, HealthLogger logger, DaemonRegistry registry) {
         this.stats = stats;
         this.status = status;
         this.logger = logger;
+        this.registry = registry;
     }
 
     public void execute(DaemonCommandExecution execution) {
@@ -49,7 +55,11 @@ class DaemonHealthTracker implements DaemonCommandAction {
             stats.buildFinished();
         }
 
-        if(status.isDaemonTired(stats)) {
+        String expirationReason = status.getExpirationReason(stats);
+        if (expirationReason != null) {
+            // still forwarded to the client of this build
+            LOG.lifecycle("The Gradle daemon will stop after this build because {}.", expirationReason);
+            registry.storeStopEvent(new DaemonStopEvent(new Date(), execution.getDaemonContext().getPid(), expirationReason));
             execution.getDaemonStateControl().requestStop();
         }
     }
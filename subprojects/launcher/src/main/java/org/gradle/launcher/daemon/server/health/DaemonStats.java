@@ -33,6 +33,9 @@ class DaemonStats {
     private long currentBuildStart;
     private long allBuildsTime;
     private int currentPerformance;
+    private long currentBuildStartCollectionTime;
+    private int lastBuildGcOverhead;
+    private int tenuredUsageAfterGc = -1;
 
     DaemonStats() {
         this(new Clock(), new TrueTimeProvider(), new MemoryInfo());
@@ -50,6 +53,7 @@ class DaemonStats {
     void buildStarted() {
         ++buildCount;
         currentBuildStart = timeProvider.getCurrentTime();
+        currentBuildStartCollectionTime = memory.getCollectionTime();
     }
 
     /**
@@ -59,6 +63,9 @@ class DaemonStats {
         long buildTime = Math.max(timeProvider.getCurrentTime() - currentBuildStart, 1);
         allBuildsTime += buildTime;
         currentPerformance = performance(allBuildsTime, memory);
+        long buildCollectionTime = Math.max(memory.getCollectionTime() - currentBuildStartCollectionTime, 0);
+        lastBuildGcOverhead = NumberUtil.percentOf(Math.min(buildCollectionTime, buildTime), buildTime);
+        tenuredUsageAfterGc = memory.getTenuredUsageAfterGc();
     }
 
     private static int performance(long totalTime, MemoryInfo memoryInfo) {
@@ -77,6 +84,20 @@ class DaemonStats {
         return currentPerformance;
     }
 
+    /**
+     * 0-100, the percentage of the most recent build's time spent in gc
+     */
+    int getLastBuildGcOverhead() {
+        return lastBuildGcOverhead;
+    }
+
+    /**
+     * 0-100, the percentage of the tenured space still used after it was last collected, or -1 when unknown
+     */
+    int getTenuredUsageAfterGc() {
+        return tenuredUsageAfterGc;
+    }
+
     /**
      * elegant description of daemon's health
      */
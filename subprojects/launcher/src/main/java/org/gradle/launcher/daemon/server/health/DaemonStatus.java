@@ -23,26 +23,56 @@ import static java.lang.String.format;
 class DaemonStatus {
 
     public static final String EXPIRE_AT_PROPERTY = "org.gradle.daemon.performance.expire-at";
+    public static final String TENURED_USAGE_EXPIRE_AT_PROPERTY = "org.gradle.daemon.performance.tenured-usage-expire-at";
+    public static final String GC_OVERHEAD_EXPIRE_AT_PROPERTY = "org.gradle.daemon.performance.gc-overhead-expire-at";
     static final int DEFAULT_EXPIRE_AT = 0;
+    static final int DEFAULT_TENURED_USAGE_EXPIRE_AT = 90;
+    static final int DEFAULT_GC_OVERHEAD_EXPIRE_AT = 20;
 
     boolean isDaemonTired(DaemonStats stats) {
-        String expireAt = System.getProperty(EXPIRE_AT_PROPERTY);
-        int threshold = parseValue(expireAt, DEFAULT_EXPIRE_AT);
+        int threshold = parseValue(EXPIRE_AT_PROPERTY, DEFAULT_EXPIRE_AT);
         return threshold != 0 //zero means the feature is off
                 && stats.getMemoryUsed() > 85 //the daemon is not tired if the memory is not sufficiently exhausted
                 && stats.getCurrentPerformance() <= threshold; //performance below threshold
     }
 
-    private static int parseValue(String expireAt, int defaultValue) {
-        if (expireAt == null) {
+    /**
+     * The daemon is running out of memory when the tenured space stays nearly full after garbage collection, and the last build
+     * spent a significant part of its time collecting garbage. This is typically caused by a leak that retains memory across builds.
+     */
+    boolean isDaemonOutOfMemory(DaemonStats stats) {
+        int tenuredThreshold = parseValue(TENURED_USAGE_EXPIRE_AT_PROPERTY, DEFAULT_TENURED_USAGE_EXPIRE_AT);
+        int gcOverheadThreshold = parseValue(GC_OVERHEAD_EXPIRE_AT_PROPERTY, DEFAULT_GC_OVERHEAD_EXPIRE_AT);
+        return tenuredThreshold != 0 && gcOverheadThreshold != 0 //zero means the feature is off
+                && stats.getTenuredUsageAfterGc() >= tenuredThreshold
+                && stats.getLastBuildGcOverhead() >= gcOverheadThreshold;
+    }
+
+    /**
+     * Returns the reason why the daemon should stop after the current build, or null when the daemon is healthy.
+     */
+    String getExpirationReason(DaemonStats stats) {
+        if (isDaemonOutOfMemory(stats)) {
+            return format("the daemon is running out of memory (%s%% of the tenured space used after garbage collection, %s%% of the last build spent in garbage collection)",
+                    stats.getTenuredUsageAfterGc(), stats.getLastBuildGcOverhead());
+        }
+        if (isDaemonTired(stats)) {
+            return format("the daemon's performance dropped to %s%%", stats.getCurrentPerformance());
+        }
+        return null;
+    }
+
+    private static int parseValue(String property, int defaultValue) {
+        String value = System.getProperty(property);
+        if (value == null) {
             return defaultValue;
         }
         try {
-            return Integer.parseInt(expireAt);
+            return Integer.parseInt(value);
         } catch (Exception e) {
             throw new GradleException(format(
                     "System property '%s' has incorrect value: '%s'. The value needs to be integer.",
-                    EXPIRE_AT_PROPERTY, expireAt));
+                    property, value));
         }
     }
 }
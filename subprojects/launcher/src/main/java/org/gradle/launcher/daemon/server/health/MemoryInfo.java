@@ -16,8 +16,13 @@
 
 package org.gradle.launcher.daemon.server.health;
 
+import org.gradle.internal.util.NumberUtil;
+
 import java.lang.management.GarbageCollectorMXBean;
 import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
 
 class MemoryInfo {
 
@@ -58,4 +63,26 @@ class MemoryInfo {
         //querying runtime for each invocation
         return Runtime.getRuntime().totalMemory();
     }
+
+    /**
+     * Occupancy of the tenured space right after it was last garbage collected, as a percentage of its maximum size.
+     * Returns -1 when the JVM does not report this.
+     */
+    int getTenuredUsageAfterGc() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() != MemoryType.HEAP || !isTenured(pool.getName())) {
+                continue;
+            }
+            MemoryUsage usage = pool.getCollectionUsage();
+            if (usage == null || usage.getMax() <= 0) {
+                return -1;
+            }
+            return NumberUtil.percentOf(usage.getUsed(), usage.getMax());
+        }
+        return -1;
+    }
+
+    private static boolean isTenured(String poolName) {
+        return poolName.contains("Old Gen") || poolName.contains("Tenured");
+    }
 }
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.tooling.internal.provider;
+
+import org.gradle.StartParameter;
+
+import java.util.List;
+
+/**
+ * Builds several models from a single configuration of the build. The result is a map from model name to model, and the failure, if any,
+ * is a map from model name to the failure to build that model.
+ */
+public class BatchedBuildModelAction extends SubscribableBuildAction {
+    private final StartParameter startParameter;
+    private final List<String> modelNames;
+
+    public BatchedBuildModelAction(StartParameter startParameter, List<String> modelNames, BuildClientSubscriptions clientSubscriptions) {
+        super(clientSubscriptions);
+        this.startParameter = startParameter;
+        this.modelNames = modelNames;
+    }
+
+    @Override
+    public StartParameter getStartParameter() {
+        return startParameter;
+    }
+
+    public List<String> getModelNames() {
+        return modelNames;
+    }
+}
@@ -93,6 +93,9 @@ public class DaemonBuildActionExecuter implements BuildActionExecuter<ProviderOp
     }
 
     private boolean isNotBuildingModel(BuildAction action) {
+        if (action instanceof BatchedBuildModelAction) {
+            return false;
+        }
         if (!(action instanceof BuildModelAction)) {
             return true;
         }
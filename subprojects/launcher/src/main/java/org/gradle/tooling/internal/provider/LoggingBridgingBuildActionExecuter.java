@@ -27,6 +27,9 @@ import org.gradle.logging.internal.ProgressStartEvent;
 import org.gradle.tooling.internal.protocol.ProgressListenerVersion1;
 import org.gradle.tooling.internal.provider.connection.ProviderOperationParameters;
 
+import java.util.Collections;
+import java.util.List;
+
 /**
  * A {@link org.gradle.launcher.exec.BuildActionExecuter} which routes Gradle logging to those listeners specified in the {@link ProviderOperationParameters} provided with a tooling api build
  * request.
@@ -34,26 +37,32 @@ import org.gradle.tooling.internal.provider.connection.ProviderOperationParamete
 public class LoggingBridgingBuildActionExecuter implements BuildActionExecuter<ProviderOperationParameters> {
     private final LoggingManagerInternal loggingManager;
     private final BuildActionExecuter<ProviderOperationParameters> executer;
+    private final List<ProviderOperationParameters> additionalOutputParameters;
 
     public LoggingBridgingBuildActionExecuter(BuildActionExecuter<ProviderOperationParameters> executer, LoggingManagerInternal loggingManager) {
+        this(executer, loggingManager, Collections.<ProviderOperationParameters>emptyList());
+    }
+
+    /**
+     * @param additionalOutputParameters the parameters of other requests that are served by the same build, whose listeners also receive the output of the build.
+     */
+    public LoggingBridgingBuildActionExecuter(BuildActionExecuter<ProviderOperationParameters> executer, LoggingManagerInternal loggingManager, List<ProviderOperationParameters> additionalOutputParameters) {
         this.executer = executer;
         this.loggingManager = loggingManager;
+        this.additionalOutputParameters = additionalOutputParameters;
     }
 
     public Object execute(BuildAction action, BuildRequestContext buildRequestContext, ProviderOperationParameters actionParameters, ServiceRegistry contextServices) {
         if (Boolean.TRUE.equals(actionParameters.isColorOutput(null)) && actionParameters.getStandardOutput() != null) {
             loggingManager.attachAnsiConsole(actionParameters.getStandardOutput());
         } else {
-            if (actionParameters.getStandardOutput() != null) {
-                loggingManager.addStandardOutputListener(actionParameters.getStandardOutput());
-            }
-            if (actionParameters.getStandardError() != null) {
-                loggingManager.addStandardErrorListener(actionParameters.getStandardError());
-            }
+            addOutputListeners(actionParameters);
+        }
+        loggingManager.addOutputEventListener(new OutputEventListenerAdapter(actionParameters.getProgressListener()));
+        for (ProviderOperationParameters parameters : additionalOutputParameters) {
+            addOutputListeners(parameters);
+            loggingManager.addOutputEventListener(new OutputEventListenerAdapter(parameters.getProgressListener()));
         }
-        ProgressListenerVersion1 progressListener = actionParameters.getProgressListener();
-        OutputEventListenerAdapter listener = new OutputEventListenerAdapter(progressListener);
-        loggingManager.addOutputEventListener(listener);
         loggingManager.setLevel(actionParameters.getBuildLogLevel());
         loggingManager.start();
         try {
@@ -63,6 +72,15 @@ public class LoggingBridgingBuildActionExecuter implements BuildActionExecuter<P
         }
     }
 
+    private void addOutputListeners(ProviderOperationParameters parameters) {
+        if (parameters.getStandardOutput() != null) {
+            loggingManager.addStandardOutputListener(parameters.getStandardOutput());
+        }
+        if (parameters.getStandardError() != null) {
+            loggingManager.addStandardErrorListener(parameters.getStandardError());
+        }
+    }
+
     private static class OutputEventListenerAdapter implements OutputEventListener {
         private final ProgressListenerVersion1 progressListener;
 
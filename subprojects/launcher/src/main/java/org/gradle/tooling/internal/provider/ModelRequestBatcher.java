@@ -0,0 +1,192 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.tooling.internal.provider;
+
+import org.gradle.api.BuildCancelledException;
+import org.gradle.initialization.BuildCancellationToken;
+import org.gradle.internal.UncheckedException;
+import org.gradle.tooling.internal.protocol.InternalBuildCancelledException;
+import org.gradle.tooling.internal.provider.connection.ProviderOperationParameters;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Combines model requests that are made while a request with the same build parameters is running. Each daemon runs one build at a time,
+ * so these requests would otherwise each start another daemon and configure the build again.
+ *
+ * <p>The first request for a given key runs immediately. Requests that arrive while it runs are queued, even when they ask for a model
+ * that is already being built, as the running build may not see their changes and forwards its output and progress only to the requests
+ * it started with. The queued requests are executed together as a single batch once it completes, on the thread of the request that was
+ * queued first, and requests for the same model in that batch share the model.</p>
+ */
+public class ModelRequestBatcher {
+    private final Object lock = new Object();
+    private final Map<Object, RequestsForKey> requestsByKey = new HashMap<Object, RequestsForKey>();
+    private final BatchExecuter executer;
+
+    public ModelRequestBatcher(BatchExecuter executer) {
+        this.executer = executer;
+    }
+
+    /**
+     * Runs the given request, possibly together with other requests with an equal key, and returns its result.
+     */
+    public Object run(Object key, final ModelRequest request) {
+        List<ModelRequest> batch;
+        synchronized (lock) {
+            RequestsForKey requests = requestsByKey.get(key);
+            if (requests == null) {
+                requests = new RequestsForKey();
+                requestsByKey.put(key, requests);
+                batch = Collections.singletonList(request);
+            } else {
+                requests.pending.add(request);
+                awaitTurn(requests.pending, request);
+                if (request.completed) {
+                    return request.getResult();
+                }
+                batch = new ArrayList<ModelRequest>(requests.pending);
+                requests.pending.clear();
+            }
+        }
+
+        try {
+            executer.execute(batch);
+        } catch (Throwable t) {
+            for (ModelRequest batchedRequest : batch) {
+                if (!batchedRequest.completed) {
+                    batchedRequest.failed(t);
+                }
+            }
+        } finally {
+            synchronized (lock) {
+                RequestsForKey requests = requestsByKey.get(key);
+                if (requests.pending.isEmpty()) {
+                    requestsByKey.remove(key);
+                } else {
+                    requests.pending.get(0).leader = true;
+                }
+                lock.notifyAll();
+            }
+        }
+        return request.getResult();
+    }
+
+    private void awaitTurn(List<ModelRequest> pending, ModelRequest request) {
+        Runnable wakeUp = wakeUp();
+        request.getCancellationToken().addCallback(wakeUp);
+        try {
+            while (!request.completed && !request.leader) {
+                if (request.getCancellationToken().isCancellationRequested()) {
+                    pending.remove(request);
+                    throw cancelled();
+                }
+                try {
+                    waitForChange();
+                } catch (RuntimeException e) {
+                    pending.remove(request);
+                    throw e;
+                }
+            }
+        } finally {
+            request.getCancellationToken().removeCallback(wakeUp);
+        }
+    }
+
+    private Runnable wakeUp() {
+        return new Runnable() {
+            public void run() {
+                synchronized (lock) {
+                    lock.notifyAll();
+                }
+            }
+        };
+    }
+
+    private void waitForChange() {
+        try {
+            lock.wait();
+        } catch (InterruptedException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    private static InternalBuildCancelledException cancelled() {
+        return new InternalBuildCancelledException(new BuildCancelledException("Build cancelled."));
+    }
+
+    private static class RequestsForKey {
+        final List<ModelRequest> pending = new LinkedList<ModelRequest>();
+    }
+
+    public interface BatchExecuter {
+        /**
+         * Executes the given requests, completing each of them. Requests that are not completed fail with the exception thrown by this method.
+         */
+        void execute(List<ModelRequest> requests);
+    }
+
+    public static class ModelRequest {
+        private final String modelName;
+        private final BuildCancellationToken cancellationToken;
+        private final ProviderOperationParameters parameters;
+        private volatile boolean completed;
+        private boolean leader;
+        private Object result;
+        private Throwable failure;
+
+        public ModelRequest(String modelName, BuildCancellationToken cancellationToken, ProviderOperationParameters parameters) {
+            this.modelName = modelName;
+            this.cancellationToken = cancellationToken;
+            this.parameters = parameters;
+        }
+
+        public String getModelName() {
+            return modelName;
+        }
+
+        public BuildCancellationToken getCancellationToken() {
+            return cancellationToken;
+        }
+
+        public ProviderOperationParameters getParameters() {
+            return parameters;
+        }
+
+        public void completed(Object result) {
+            this.result = result;
+            completed = true;
+        }
+
+        public void failed(Throwable failure) {
+            this.failure = failure;
+            completed = true;
+        }
+
+        Object getResult() {
+            if (failure != null) {
+                throw UncheckedException.throwAsUncheckedException(failure);
+            }
+            return result;
+        }
+    }
+}
@@ -16,9 +16,11 @@
 
 package org.gradle.tooling.internal.provider;
 
+import com.google.common.base.Joiner;
 import org.gradle.StartParameter;
 import org.gradle.api.logging.LogLevel;
 import org.gradle.initialization.*;
+import org.gradle.internal.Cast;
 import org.gradle.internal.invocation.BuildAction;
 import org.gradle.internal.jvm.Jvm;
 import org.gradle.internal.service.ServiceRegistry;
@@ -38,9 +40,12 @@ import org.gradle.process.internal.streams.SafeStreams;
 import org.gradle.tooling.internal.build.DefaultBuildEnvironment;
 import org.gradle.tooling.internal.consumer.parameters.FailsafeBuildProgressListenerAdapter;
 import org.gradle.tooling.internal.consumer.versioning.ModelMapping;
+import org.gradle.tooling.internal.gradle.DeferredDependenciesModel;
+import org.gradle.tooling.internal.protocol.BuildExceptionVersion1;
 import org.gradle.tooling.internal.protocol.InternalBuildAction;
 import org.gradle.tooling.internal.protocol.InternalBuildEnvironment;
 import org.gradle.tooling.internal.protocol.InternalBuildProgressListener;
+import org.gradle.tooling.internal.protocol.InternalUnsupportedModelException;
 import org.gradle.tooling.internal.protocol.ModelIdentifier;
 import org.gradle.tooling.internal.protocol.events.InternalProgressEvent;
 import org.gradle.tooling.internal.provider.connection.ProviderConnectionParameters;
@@ -52,9 +57,14 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class ProviderConnection {
     private static final Logger LOGGER = LoggerFactory.getLogger(ProviderConnection.class);
@@ -64,6 +74,7 @@ public class ProviderConnection {
     private final BuildActionExecuter<BuildActionParameters> embeddedExecutor;
     private final ServiceRegistry sharedServices;
     private final JvmVersionDetector jvmVersionDetector;
+    private final ModelRequestBatcher modelRequestBatcher = new ModelRequestBatcher(new BatchedModelRequestExecuter());
 
     public ProviderConnection(ServiceRegistry sharedServices, LoggingServiceRegistry loggingServices, DaemonClientFactory daemonClientFactory,
                               BuildActionExecuter<BuildActionParameters> embeddedExecutor, PayloadSerializer payloadSerializer, JvmVersionDetector jvmVersionDetector) {
@@ -104,8 +115,48 @@ public class ProviderConnection {
 
         StartParameter startParameter = new ProviderStartParameterConverter().toStartParameter(providerParameters, params.properties);
         ProgressListenerConfiguration listenerConfig = ProgressListenerConfiguration.from(providerParameters);
+        if (tasks == null && canBatch(providerParameters, listenerConfig)) {
+            return modelRequestBatcher.run(batchKey(providerParameters), new ModelRequestBatcher.ModelRequest(modelName, cancellationToken, providerParameters));
+        }
         BuildAction action = new BuildModelAction(startParameter, modelName, tasks != null, listenerConfig.clientSubscriptions);
-        return run(action, cancellationToken, listenerConfig, providerParameters, params);
+        return withDependenciesFetcher(run(action, cancellationToken, listenerConfig, providerParameters, params), modelName, providerParameters);
+    }
+
+    /**
+     * Arranges for the dependencies that the daemon left out of the given model to be fetched with further requests when first queried.
+     */
+    private Object withDependenciesFetcher(Object model, String modelName, ProviderOperationParameters providerParameters) {
+        if (model instanceof DeferredDependenciesModel) {
+            ((DeferredDependenciesModel) model).setDependenciesFetcher(new FetchDeferredDependencies(modelName, providerParameters));
+        }
+        return model;
+    }
+
+    /**
+     * Model requests can share a build with other requests when all of the build's output can be forwarded to each of them.
+     */
+    private static boolean canBatch(ProviderOperationParameters providerParameters, ProgressListenerConfiguration listenerConfig) {
+        return !Boolean.TRUE.equals(providerParameters.isEmbedded())
+            && providerParameters.getBuilds(null) == null
+            && providerParameters.getStandardInput() == null
+            && !Boolean.TRUE.equals(providerParameters.isColorOutput(null))
+            && !listenerConfig.clientSubscriptions.isSendAnyProgressEvents();
+    }
+
+    private static Object batchKey(ProviderOperationParameters providerParameters) {
+        return Arrays.asList(
+            providerParameters.getProjectDir(),
+            providerParameters.isSearchUpwards(),
+            providerParameters.getGradleUserHomeDir(),
+            providerParameters.getArguments(),
+            providerParameters.getJavaHome(),
+            providerParameters.getJvmArguments(),
+            providerParameters.getDaemonBaseDir(null),
+            providerParameters.getDaemonMaxIdleTimeValue(),
+            providerParameters.getDaemonMaxIdleTimeUnits(),
+            providerParameters.getBuildLogLevel(),
+            providerParameters.getVerboseLogging(),
+            providerParameters.getInjectedPluginClasspath(Collections.<File>emptyList()));
     }
 
     public Object buildModels(String modelName, BuildCancellationToken cancellationToken, ProviderOperationParameters providerParameters) {
@@ -141,7 +192,7 @@ public class ProviderConnection {
 
     private Object run(BuildAction action, BuildCancellationToken cancellationToken, ProgressListenerConfiguration progressListenerConfiguration, ProviderOperationParameters providerParameters, Parameters parameters) {
         try {
-            BuildActionExecuter<ProviderOperationParameters> executer = createExecuter(providerParameters, parameters);
+            BuildActionExecuter<ProviderOperationParameters> executer = createExecuter(providerParameters, parameters, Collections.<ProviderOperationParameters>emptyList());
             BuildRequestContext buildRequestContext = new DefaultBuildRequestContext(new DefaultBuildRequestMetaData(providerParameters.getStartTime()), cancellationToken, progressListenerConfiguration.buildEventConsumer);
             BuildActionResult result = (BuildActionResult) executer.execute(action, buildRequestContext, providerParameters, sharedServices);
             if (result.failure != null) {
@@ -153,7 +204,7 @@ public class ProviderConnection {
         }
     }
 
-    private BuildActionExecuter<ProviderOperationParameters> createExecuter(ProviderOperationParameters operationParameters, Parameters params) {
+    private BuildActionExecuter<ProviderOperationParameters> createExecuter(ProviderOperationParameters operationParameters, Parameters params, List<ProviderOperationParameters> additionalOutputParameters) {
         LoggingManagerInternal loggingManager;
         BuildActionExecuter<BuildActionParameters> executer;
         if (Boolean.TRUE.equals(operationParameters.isEmbedded())) {
@@ -168,7 +219,7 @@ public class ProviderConnection {
             ServiceRegistry clientServices = daemonClientFactory.createBuildClientServices(loggingServices.get(OutputEventListener.class), params.daemonParams, standardInput == null ? SafeStreams.emptyInput() : standardInput);
             executer = clientServices.get(DaemonClient.class);
         }
-        return new LoggingBridgingBuildActionExecuter(new DaemonBuildActionExecuter(executer, params.daemonParams), loggingManager);
+        return new LoggingBridgingBuildActionExecuter(new DaemonBuildActionExecuter(executer, params.daemonParams), loggingManager, additionalOutputParameters);
     }
 
     private Parameters initParams(ProviderOperationParameters operationParameters) {
@@ -207,6 +258,131 @@ public class ProviderConnection {
         return new Parameters(daemonParams, properties, layout.getGradleUserHomeDir());
     }
 
+    private class BatchedModelRequestExecuter implements ModelRequestBatcher.BatchExecuter {
+        public void execute(List<ModelRequestBatcher.ModelRequest> requests) {
+            // all requests have equivalent parameters, so build using those of the first one
+            ModelRequestBatcher.ModelRequest first = requests.get(0);
+            ProviderOperationParameters providerParameters = first.getParameters();
+            Parameters params = initParams(providerParameters);
+            StartParameter startParameter = new ProviderStartParameterConverter().toStartParameter(providerParameters, params.properties);
+            ProgressListenerConfiguration listenerConfig = ProgressListenerConfiguration.from(providerParameters);
+            if (requests.size() == 1) {
+                BuildAction action = new BuildModelAction(startParameter, first.getModelName(), false, listenerConfig.clientSubscriptions);
+                first.completed(withDependenciesFetcher(run(action, first.getCancellationToken(), listenerConfig, providerParameters, params), first.getModelName(), providerParameters));
+                return;
+            }
+
+            Set<String> modelNames = new LinkedHashSet<String>();
+            List<ProviderOperationParameters> additionalOutputParameters = new ArrayList<ProviderOperationParameters>();
+            for (ModelRequestBatcher.ModelRequest request : requests) {
+                modelNames.add(request.getModelName());
+                if (request != first) {
+                    additionalOutputParameters.add(request.getParameters());
+                }
+            }
+            LOGGER.debug("Building models {} in a single build.", modelNames);
+            BuildAction action = new BatchedBuildModelAction(startParameter, new ArrayList<String>(modelNames), listenerConfig.clientSubscriptions);
+            BuildCancellationToken cancellationToken = new DefaultBuildCancellationToken();
+            Runnable cancellationHandler = new CancelWhenAllCancelled(requests, cancellationToken);
+            for (ModelRequestBatcher.ModelRequest request : requests) {
+                request.getCancellationToken().addCallback(cancellationHandler);
+            }
+            BuildActionResult result;
+            try {
+                cancellationHandler.run();
+                BuildActionExecuter<ProviderOperationParameters> executer = createExecuter(providerParameters, params, additionalOutputParameters);
+                BuildRequestContext buildRequestContext = new DefaultBuildRequestContext(new DefaultBuildRequestMetaData(providerParameters.getStartTime()), cancellationToken, listenerConfig.buildEventConsumer);
+                result = (BuildActionResult) executer.execute(action, buildRequestContext, providerParameters, sharedServices);
+            } finally {
+                for (ModelRequestBatcher.ModelRequest request : requests) {
+                    request.getCancellationToken().removeCallback(cancellationHandler);
+                }
+                listenerConfig.failsafeWrapper.rethrowErrors();
+            }
+
+            Map<String, Object> models = Cast.uncheckedCast(payloadSerializer.deserialize(result.result));
+            for (Map.Entry<String, Object> entry : models.entrySet()) {
+                withDependenciesFetcher(entry.getValue(), entry.getKey(), providerParameters);
+            }
+            Map<String, RuntimeException> failures = result.failure == null
+                ? Collections.<String, RuntimeException>emptyMap()
+                : Cast.<Map<String, RuntimeException>>uncheckedCast(payloadSerializer.deserialize(result.failure));
+            completeRequests(requests, models, failures);
+        }
+    }
+
+    /**
+     * Completes each of the given requests with its model from the result of a batched build, or with the failure to build that model.
+     */
+    static void completeRequests(List<ModelRequestBatcher.ModelRequest> requests, Map<String, Object> models, Map<String, RuntimeException> failures) {
+        for (ModelRequestBatcher.ModelRequest request : requests) {
+            RuntimeException failure = failures.get(request.getModelName());
+            if (failure == null) {
+                request.completed(models.get(request.getModelName()));
+            } else if (failure instanceof InternalUnsupportedModelException) {
+                request.failed(failure);
+            } else {
+                request.failed(new BuildExceptionVersion1(failure));
+            }
+        }
+    }
+
+    /**
+     * Fetches the deferred dependencies of a model that was returned earlier, for the project that is queried. Each request also
+     * resolves as many further deferred projects as all previous requests together, so that a client that walks every project
+     * needs a number of requests logarithmic in the number of projects, while a client that queries one project resolves only that one.
+     * The requests run without the client's progress listeners, as the operation that returned the model has already finished.
+     */
+    private class FetchDeferredDependencies implements DeferredDependenciesModel.DependenciesFetcher {
+        private final String modelName;
+        private final ProviderOperationParameters providerParameters;
+        private int batchSize = 1;
+
+        FetchDeferredDependencies(String modelName, ProviderOperationParameters providerParameters) {
+            this.modelName = modelName;
+            this.providerParameters = providerParameters;
+        }
+
+        public synchronized DeferredDependenciesModel fetch(String projectPath, List<String> deferredProjectPaths) {
+            Set<String> batch = new LinkedHashSet<String>();
+            batch.add(projectPath);
+            for (String path : deferredProjectPaths) {
+                if (batch.size() >= batchSize) {
+                    break;
+                }
+                batch.add(path);
+            }
+            batchSize *= 2;
+            LOGGER.debug("Fetching deferred dependencies of model {} for projects {}.", modelName, batch);
+            Parameters params = initParams(providerParameters);
+            StartParameter startParameter = new ProviderStartParameterConverter().toStartParameter(providerParameters, params.properties);
+            startParameter.getSystemPropertiesArgs().put(DeferredDependenciesModel.DEFER_DEPENDENCIES_PROPERTY, "true");
+            startParameter.getSystemPropertiesArgs().put(DeferredDependenciesModel.FETCH_DEPENDENCIES_PROPERTY, Joiner.on(',').join(batch));
+            ProgressListenerConfiguration listenerConfig = ProgressListenerConfiguration.none();
+            BuildAction action = new BuildModelAction(startParameter, modelName, false, listenerConfig.clientSubscriptions);
+            return (DeferredDependenciesModel) run(action, new DefaultBuildCancellationToken(), listenerConfig, providerParameters, params);
+        }
+    }
+
+    private static class CancelWhenAllCancelled implements Runnable {
+        private final List<ModelRequestBatcher.ModelRequest> requests;
+        private final BuildCancellationToken cancellationToken;
+
+        CancelWhenAllCancelled(List<ModelRequestBatcher.ModelRequest> requests, BuildCancellationToken cancellationToken) {
+            this.requests = requests;
+            this.cancellationToken = cancellationToken;
+        }
+
+        public void run() {
+            for (ModelRequestBatcher.ModelRequest request : requests) {
+                if (!request.getCancellationToken().isCancellationRequested()) {
+                    return;
+                }
+            }
+            cancellationToken.cancel();
+        }
+    }
+
     private static class Parameters {
         DaemonParameters daemonParams;
         Map<String, String> properties;
@@ -245,6 +421,10 @@ public class ProviderConnection {
             this.failsafeWrapper = failsafeWrapper;
         }
 
+        private static ProgressListenerConfiguration none() {
+            return new ProgressListenerConfiguration(new BuildClientSubscriptions(false, false, false), new NoOpBuildEventConsumer(), new FailsafeBuildProgressListenerAdapter(null));
+        }
+
         private static ProgressListenerConfiguration from(ProviderOperationParameters providerParameters) {
             InternalBuildProgressListener buildProgressListener = providerParameters.getBuildProgressListener(null);
             boolean listenToTestProgress = buildProgressListener != null && buildProgressListener.getSubscribedOperations().contains(InternalBuildProgressListener.TEST_EXECUTION);
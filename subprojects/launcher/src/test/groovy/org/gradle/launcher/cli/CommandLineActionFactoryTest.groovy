@@ -113,6 +113,9 @@ class CommandLineActionFactoryTest extends Specification {
         1 * actionFactory1.configureCommandLineParser(!null)
         1 * actionFactory2.configureCommandLineParser(!null)
         1 * actionFactory1.createAction(!null, !null) >> rawAction
+
+        then:
+        1 * loggingManager.flush()
     }
 
     def "reports command-line parse failure"() {
@@ -73,6 +73,7 @@ class PropertiesToDaemonParametersConverterTest extends Specification {
                 (DAEMON_BASE_DIR_PROPERTY): new File("baseDir").absolutePath,
                 (IDLE_TIMEOUT_PROPERTY)   : "115",
                 (DEBUG_MODE_PROPERTY)     : "true",
+                (DAEMON_STANDBY_PROPERTY) : "true",
         ], params)
 
         then:
@@ -82,6 +83,15 @@ class PropertiesToDaemonParametersConverterTest extends Specification {
         params.daemonUsage == EXPLICITLY_ENABLED
         params.baseDir == new File("baseDir").absoluteFile
         params.idleTimeout == 115
+        params.standby
+    }
+
+    def "standby daemon is disabled by default"() {
+        when:
+        converter.convert([:], params)
+
+        then:
+        !params.standby
     }
 
     def "shows nice message for dummy java home"() {
@@ -20,6 +20,7 @@ import org.gradle.api.internal.specs.ExplainingSpecs
 import org.gradle.launcher.daemon.context.DaemonContext
 import org.gradle.launcher.daemon.context.DefaultDaemonContext
 import org.gradle.launcher.daemon.diagnostics.DaemonStartupInfo
+import org.gradle.launcher.daemon.registry.DaemonStopEvent
 import org.gradle.launcher.daemon.registry.EmbeddedDaemonRegistry
 import org.gradle.messaging.remote.Address
 import org.gradle.messaging.remote.internal.ConnectCompletion
@@ -154,6 +155,17 @@ class DefaultDaemonConnectorTest extends Specification {
         numAllDaemons == 2
     }
 
+    def "connect() consumes stop events when starting a new daemon"() {
+        given:
+        registry.storeStopEvent(new DaemonStopEvent(new Date(), 12L, "the daemon is running out of memory"))
+
+        when:
+        connector.connect({it.pid >= 0} as DummyExplainingSpec)
+
+        then:
+        registry.stopEvents.empty
+    }
+
     def "connect() will not use existing connection if it fails the compatibility spec"() {
         given:
         startIdleDaemon()
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.launcher.daemon.client
+
+import org.gradle.api.specs.Spec
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.launcher.daemon.context.DaemonContext
+import org.gradle.launcher.daemon.context.DefaultDaemonContext
+import org.gradle.launcher.daemon.diagnostics.DaemonStartupInfo
+import org.gradle.launcher.daemon.registry.DaemonInfo
+import org.gradle.launcher.daemon.registry.EmbeddedDaemonRegistry
+import org.gradle.messaging.remote.Address
+import spock.lang.Specification
+
+class StandbyDaemonStarterTest extends Specification {
+    def registry = new EmbeddedDaemonRegistry()
+    def daemonStarter = Mock(DefaultDaemonStarter)
+    def executorFactory = new DefaultExecutorFactory()
+    def standbyStarter = new StandbyDaemonStarter(registry, daemonStarter, executorFactory)
+    def javaHome = new File("tmp")
+
+    def cleanup() {
+        executorFactory.stop()
+    }
+
+    def "starts standby daemon when the connected daemon is the only compatible idle daemon"() {
+        def connected = idleDaemon(1)
+        busyDaemon(2)
+
+        when:
+        standbyStarter.maybeStartStandbyDaemon({ true } as Spec, connected)
+        standbyStarter.stop()
+
+        then:
+        1 * daemonStarter.startStandbyDaemon() >> new DaemonStartupInfo("standby", null, null)
+        0 * daemonStarter._
+    }
+
+    def "does not start standby daemon when another compatible daemon is idle"() {
+        def connected = idleDaemon(1)
+        idleDaemon(2)
+
+        when:
+        standbyStarter.maybeStartStandbyDaemon({ true } as Spec, connected)
+        standbyStarter.stop()
+
+        then:
+        0 * daemonStarter._
+    }
+
+    def "ignores idle daemons that do not match the constraint"() {
+        def connected = idleDaemon(1)
+        idleDaemon(2)
+
+        when:
+        standbyStarter.maybeStartStandbyDaemon({ it.pid == 1 } as Spec, connected)
+        standbyStarter.stop()
+
+        then:
+        1 * daemonStarter.startStandbyDaemon() >> new DaemonStartupInfo("standby", null, null)
+    }
+
+    def "starts at most one standby daemon"() {
+        def connected = idleDaemon(1)
+
+        when:
+        standbyStarter.maybeStartStandbyDaemon({ true } as Spec, connected)
+        standbyStarter.maybeStartStandbyDaemon({ true } as Spec, connected)
+        standbyStarter.stop()
+
+        then:
+        1 * daemonStarter.startStandbyDaemon() >> new DaemonStartupInfo("standby", null, null)
+        0 * daemonStarter._
+    }
+
+    def "ignores failure to start standby daemon"() {
+        def connected = idleDaemon(1)
+
+        when:
+        standbyStarter.maybeStartStandbyDaemon({ true } as Spec, connected)
+        standbyStarter.stop()
+
+        then:
+        1 * daemonStarter.startStandbyDaemon() >> { throw new RuntimeException("broken") }
+        noExceptionThrown()
+    }
+
+    private DaemonInfo idleDaemon(int num) {
+        DaemonContext context = new DefaultDaemonContext(num.toString(), javaHome, javaHome, num, 1000, [])
+        def address = new TestAddress(num)
+        registry.store(address, context, "password", true)
+        return registry.all.find { it.address == address }
+    }
+
+    private DaemonInfo busyDaemon(int num) {
+        def daemon = idleDaemon(num)
+        registry.markBusy(daemon.address)
+        return daemon
+    }
+
+    private static class TestAddress implements Address {
+        final int num
+
+        TestAddress(int num) {
+            this.num = num
+        }
+
+        String getDisplayName() {
+            return "address ${num}"
+        }
+    }
+}
@@ -165,6 +165,20 @@ class DaemonMessageSerializerTest extends SerializerSpec {
         messageResult.bytes == message.bytes
     }
 
+    def "can serialize batches of output events"() {
+        expect:
+        def message = new OutputMessageBatch([
+            new LogEvent(1234, "category", LogLevel.LIFECYCLE, "message", null),
+            new LogLevelChangeEvent(LogLevel.INFO),
+            new LogEvent(5678, "category", LogLevel.ERROR, "error", null)])
+        def result = serialize(message, serializer)
+        result instanceof OutputMessageBatch
+        result.events.size() == 3
+        result.events[0].message == "message"
+        result.events[1] instanceof LogLevelChangeEvent
+        result.events[2].logLevel == LogLevel.ERROR
+    }
+
     def "can serialize other messages"() {
         expect:
         def message = new Cancel("id")
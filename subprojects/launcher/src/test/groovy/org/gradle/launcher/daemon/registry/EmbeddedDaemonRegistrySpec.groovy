@@ -80,4 +80,21 @@ class EmbeddedDaemonRegistrySpec extends Specification {
         idle.empty
         busy.empty
     }
-}
\ No newline at end of file
+
+    def "stores and removes stop events"() {
+        given:
+        def first = new DaemonStopEvent(new Date(1000), 12L, "first reason")
+        def second = new DaemonStopEvent(new Date(2000), 34L, "second reason")
+        storeStopEvent(first)
+        storeStopEvent(second)
+
+        expect:
+        stopEvents == [first, second]
+
+        when:
+        removeStopEvents([first])
+
+        then:
+        stopEvents == [second]
+    }
+}
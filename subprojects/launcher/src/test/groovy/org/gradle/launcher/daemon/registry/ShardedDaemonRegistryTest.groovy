@@ -0,0 +1,220 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.launcher.daemon.registry
+
+import org.gradle.api.GradleException
+import org.gradle.internal.nativeintegration.ProcessEnvironment
+import org.gradle.launcher.daemon.context.DaemonContext
+import org.gradle.launcher.daemon.context.DaemonContextBuilder
+import org.gradle.messaging.remote.Address
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+import java.util.concurrent.TimeUnit
+
+class ShardedDaemonRegistryTest extends Specification {
+
+    @Rule TestNameTestDirectoryProvider tmp = new TestNameTestDirectoryProvider()
+
+    int addressCounter = 0
+    def dir = tmp.file("registry")
+    def registry = new ShardedDaemonRegistry(dir)
+
+    def "is empty when no daemon has registered yet"() {
+        expect:
+        registry.all.empty
+        registry.idle.empty
+        registry.busy.empty
+        registry.stopEvents.empty
+    }
+
+    def "stores one record per daemon"() {
+        when:
+        registry.store(address(), daemonContext(), "password", true)
+        registry.store(address(), daemonContext(), "password", false)
+
+        then:
+        dir.list().findAll { it.endsWith(".daemon") }.size() == 2
+        registry.all.size() == 2
+        registry.idle.size() == 1
+        registry.busy.size() == 1
+    }
+
+    def "tracks daemon status"() {
+        given:
+        def address = address()
+        registry.store(address, daemonContext(), "password", true)
+
+        when:
+        registry.markBusy(address)
+
+        then:
+        registry.idle.empty
+        registry.busy*.address == [address]
+
+        when:
+        registry.markIdle(address)
+
+        then:
+        registry.idle*.address == [address]
+        registry.busy.empty
+    }
+
+    def "other registries see changes"() {
+        given:
+        def address = address()
+        def other = new ShardedDaemonRegistry(dir)
+
+        when:
+        registry.store(address, daemonContext(), "password", true)
+        other.markBusy(address)
+
+        then:
+        registry.busy*.address == [address]
+    }
+
+    def "corrupt record is ignored"() {
+        given:
+        registry.store(address(), daemonContext(), "password", true)
+        registry.store(address(), daemonContext(), "password", true)
+
+        when:
+        dir.listFiles().find { it.name.endsWith(".daemon") }.text = "corrupt"
+
+        then:
+        registry.all.size() == 1
+    }
+
+    def "safely removes from registry"() {
+        given:
+        def address = address()
+        registry.store(address, daemonContext(), "password", true)
+
+        when:
+        registry.remove(address)
+
+        then:
+        registry.all.empty
+        dir.list().length == 0
+
+        and: //it is safe to remove it again
+        registry.remove(address)
+    }
+
+    def "mark busy and idle ignore entry that has been removed"() {
+        given:
+        def address = address()
+
+        when:
+        registry.markBusy(address)
+        registry.markIdle(address)
+
+        then:
+        registry.all.empty
+    }
+
+    def "retries moving a record into place"() {
+        given:
+        def replacer = Mock(ShardedDaemonRegistry.FileReplacer)
+        def registry = new ShardedDaemonRegistry(dir, replacer)
+        def address = address()
+
+        when:
+        registry.store(address, daemonContext(), "password", true)
+
+        then:
+        2 * replacer.replace(_, _) >> false
+        1 * replacer.replace(_, _) >> { File source, File target -> source.renameTo(target) }
+        registry.all*.address == [address]
+    }
+
+    def "fails and cleans up when a record cannot be moved into place"() {
+        given:
+        def replacer = Stub(ShardedDaemonRegistry.FileReplacer) {
+            replace(_, _) >> false
+        }
+        def registry = new ShardedDaemonRegistry(dir, replacer)
+
+        when:
+        registry.store(address(), daemonContext(), "password", true)
+
+        then:
+        thrown(GradleException)
+        dir.list() as List == []
+    }
+
+    def "deletes stale temporary files when scanning"() {
+        given:
+        def stale = dir.file("abc.daemon123.tmp").createFile()
+        stale.lastModified = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(5)
+        def fresh = dir.file("def.daemon456.tmp").createFile()
+
+        when:
+        registry.all
+
+        then:
+        !stale.exists()
+        fresh.exists()
+    }
+
+    def "stores and removes stop events"() {
+        given:
+        def first = new DaemonStopEvent(new Date(1000), 12L, "first reason")
+        def second = new DaemonStopEvent(new Date(2000), 34L, "second reason")
+        registry.storeStopEvent(second)
+        registry.storeStopEvent(first)
+
+        expect:
+        registry.stopEvents == [first, second]
+
+        when:
+        registry.removeStopEvents([first])
+
+        then:
+        registry.stopEvents == [second]
+        registry.all.empty
+    }
+
+    DaemonContext daemonContext() {
+        new DaemonContextBuilder([maybeGetPid: {null}] as ProcessEnvironment).with {
+            daemonRegistryDir = tmp.createDir("daemons")
+            create()
+        }
+    }
+
+    Address address(int i = addressCounter++) {
+        new TestAddress(i.toString())
+    }
+
+    private static class TestAddress implements Address {
+
+        final String displayName
+
+        TestAddress(String displayName) {
+            this.displayName = displayName
+        }
+
+        boolean equals(o) {
+            displayName == o.displayName
+        }
+
+        int hashCode() {
+            displayName.hashCode()
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.launcher.daemon.server.exec
+
+import org.gradle.api.logging.LogLevel
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.launcher.daemon.diagnostics.DaemonDiagnostics
+import org.gradle.launcher.daemon.protocol.Build
+import org.gradle.launcher.daemon.server.api.DaemonCommandAction
+import org.gradle.launcher.daemon.server.api.DaemonCommandExecution
+import org.gradle.launcher.daemon.server.api.DaemonConnection
+import org.gradle.launcher.exec.BuildActionParameters
+import org.gradle.logging.internal.LogEvent
+import org.gradle.logging.internal.LoggingOutputInternal
+import org.gradle.logging.internal.OutputEvent
+import org.gradle.logging.internal.OutputEventListener
+import spock.lang.Specification
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+class LogToClientTest extends Specification {
+    def connection = Mock(DaemonConnection)
+    def executorFactory = new DefaultExecutorFactory()
+    def build = Stub(Build) {
+        getParameters() >> Stub(BuildActionParameters) { getLogLevel() >> LogLevel.LIFECYCLE }
+    }
+    def listeners = []
+    def loggingOutput = Stub(LoggingOutputInternal) {
+        addOutputEventListener(_) >> { OutputEventListener listener -> listeners << listener }
+    }
+    def logToClient = new LogToClient(loggingOutput, new DaemonDiagnostics(new File("daemon.log"), 123L), executorFactory, 1000)
+
+    def cleanup() {
+        executorFactory.stop()
+    }
+
+    def "sends build events in order with the output"() {
+        def action = { DaemonCommandExecution execution ->
+            output("one")
+            execution.connection.event("build event")
+            output("two")
+        } as DaemonCommandAction
+
+        when:
+        execute(action)
+
+        then:
+        1 * connection.logEvents({ it*.message == ["one"] })
+
+        then:
+        1 * connection.event("build event")
+
+        then:
+        1 * connection.logEvents({ it*.message == ["two"] })
+        0 * connection._
+    }
+
+    def "restores the connection after the build"() {
+        def connectionSeenByBuild = null
+        def action = { DaemonCommandExecution execution ->
+            connectionSeenByBuild = execution.connection
+        } as DaemonCommandAction
+
+        when:
+        def execution = execute(action)
+
+        then:
+        connectionSeenByBuild != connection
+        execution.connection == connection
+    }
+
+    def "blocks producers while too many messages are waiting to be sent"() {
+        def sending = new CountDownLatch(1)
+        def release = new CountDownLatch(1)
+        def produced = 0
+        connection.logEvents(_) >> {
+            sending.countDown()
+            release.await(10, TimeUnit.SECONDS)
+        }
+        def action = { DaemonCommandExecution execution ->
+            output("first")
+            sending.await(10, TimeUnit.SECONDS)
+            def producer = Thread.start {
+                (LogToClient.MAX_PENDING + 1).times {
+                    output("next")
+                    produced++
+                }
+            }
+            producer.join(500)
+            assert producer.alive
+            assert produced == LogToClient.MAX_PENDING
+            release.countDown()
+            producer.join(10000)
+            assert !producer.alive
+        } as DaemonCommandAction
+
+        expect:
+        execute(action)
+    }
+
+    private DaemonCommandExecution execute(DaemonCommandAction action) {
+        def execution = new DaemonCommandExecution(connection, build, null, null, [logToClient, action])
+        execution.proceed()
+        return execution
+    }
+
+    private void output(String message) {
+        OutputEvent event = new LogEvent(0, "category", LogLevel.LIFECYCLE, message, null)
+        listeners.each { it.onOutput(event) }
+    }
+}
@@ -16,6 +16,9 @@
 
 package org.gradle.launcher.daemon.server.health
 
+import org.gradle.launcher.daemon.context.DaemonContext
+import org.gradle.launcher.daemon.registry.DaemonRegistry
+import org.gradle.launcher.daemon.registry.DaemonStopEvent
 import org.gradle.launcher.daemon.server.api.DaemonCommandExecution
 import org.gradle.launcher.daemon.server.api.DaemonStateControl
 import spock.lang.Specification
@@ -25,11 +28,15 @@ class DaemonHealthTrackerTest extends Specification {
     def control = Mock(DaemonStateControl)
     def exec = Mock(DaemonCommandExecution) {
         getDaemonStateControl() >> control
+        getDaemonContext() >> Stub(DaemonContext) {
+            getPid() >> 123L
+        }
     }
     def stats = Mock(DaemonStats)
     def status = Mock(DaemonStatus)
     def logger = Mock(HealthLogger)
-    def tracker = new DaemonHealthTracker(stats, status, logger)
+    def registry = Mock(DaemonRegistry)
+    def tracker = new DaemonHealthTracker(stats, status, logger, registry)
 
     def "tracks start and complete events"() {
         when: tracker.execute(exec)
@@ -49,21 +56,23 @@ class DaemonHealthTrackerTest extends Specification {
         0 * _
     }
 
-    def "stops after the build when performance goes down"() {
-        1 * status.isDaemonTired(stats) >> true
+    def "stops after the build when the daemon expires"() {
+        1 * status.getExpirationReason(stats) >> "the daemon is running out of memory"
 
         when: tracker.execute(exec)
 
         then:
+        1 * registry.storeStopEvent({ DaemonStopEvent event -> event.pid == 123L && event.reason == "the daemon is running out of memory" })
         1 * control.requestStop()
     }
 
-    def "does not stop after the build when performance is acceptable"() {
-        1 * status.isDaemonTired(stats) >> false
+    def "does not stop after the build when the daemon is healthy"() {
+        1 * status.getExpirationReason(stats) >> null
 
         when: tracker.execute(exec)
 
         then:
+        0 * registry._
         0 * control.requestStop()
     }
 }
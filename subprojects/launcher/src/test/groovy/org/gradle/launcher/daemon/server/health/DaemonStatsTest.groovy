@@ -89,4 +89,20 @@ class DaemonStatsTest extends Specification {
         then:
         stats.healthInfo == String.format("Starting 2nd build in daemon [uptime: %s, performance: 98%%, memory: 50%% of %.1f MB]", Clock.prettyTime(1), 10.0)
     }
+
+    def "tracks gc overhead of the last build"() {
+        time.getCurrentTime() >>> [1000, 2000]
+        memory.getCollectionTime() >>> [100, 350]
+        memory.getTenuredUsageAfterGc() >> 93
+
+        def stats = new DaemonStats(clock, time, memory)
+
+        when:
+        stats.buildStarted()
+        stats.buildFinished()
+
+        then:
+        stats.lastBuildGcOverhead == 25
+        stats.tenuredUsageAfterGc == 93
+    }
 }
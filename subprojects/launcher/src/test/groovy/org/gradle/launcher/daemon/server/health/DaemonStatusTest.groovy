@@ -24,6 +24,8 @@ import spock.lang.Subject
 import spock.lang.Unroll
 
 import static org.gradle.launcher.daemon.server.health.DaemonStatus.EXPIRE_AT_PROPERTY
+import static org.gradle.launcher.daemon.server.health.DaemonStatus.GC_OVERHEAD_EXPIRE_AT_PROPERTY
+import static org.gradle.launcher.daemon.server.health.DaemonStatus.TENURED_USAGE_EXPIRE_AT_PROPERTY
 
 class DaemonStatusTest extends Specification {
 
@@ -73,4 +75,44 @@ class DaemonStatusTest extends Specification {
         then:
         !status.isDaemonTired(stats)
     }
+
+    @Unroll
+    def "knows when daemon is running out of memory"() {
+        when:
+        System.setProperty(TENURED_USAGE_EXPIRE_AT_PROPERTY, tenuredThreshold.toString())
+        System.setProperty(GC_OVERHEAD_EXPIRE_AT_PROPERTY, gcThreshold.toString())
+        stats.getTenuredUsageAfterGc() >> tenured
+        stats.getLastBuildGcOverhead() >> gc
+
+        then:
+        status.isDaemonOutOfMemory(stats) == outOfMemory
+
+        where:
+        tenuredThreshold | gcThreshold | tenured | gc | outOfMemory
+        90               | 20          | 95      | 30 | true
+        90               | 20          | 90      | 20 | true
+        90               | 20          | 89      | 30 | false
+        90               | 20          | 95      | 19 | false
+        90               | 20          | -1      | 30 | false
+        0                | 20          | 95      | 30 | false
+        90               | 0           | 95      | 30 | false
+    }
+
+    def "gives no expiration reason when daemon is healthy"() {
+        when:
+        stats.getTenuredUsageAfterGc() >> 50
+        stats.getLastBuildGcOverhead() >> 5
+
+        then:
+        status.getExpirationReason(stats) == null
+    }
+
+    def "gives expiration reason when daemon is running out of memory"() {
+        when:
+        stats.getTenuredUsageAfterGc() >> 95
+        stats.getLastBuildGcOverhead() >> 40
+
+        then:
+        status.getExpirationReason(stats) == "the daemon is running out of memory (95% of the tenured space used after garbage collection, 40% of the last build spent in garbage collection)"
+    }
 }
@@ -70,4 +70,22 @@ class LoggingBridgingBuildActionExecuterTest extends Specification {
         then:
         1 * loggingManager.setLevel(LogLevel.QUIET)
     }
+
+    def "forwards output to the listeners of other requests served by the same build"() {
+        def otherParameters = Mock(ProviderOperationParameters)
+        def otherOutput = new ByteArrayOutputStream()
+        def otherError = new ByteArrayOutputStream()
+        otherParameters.getStandardOutput() >> otherOutput
+        otherParameters.getStandardError() >> otherError
+        def executer = new LoggingBridgingBuildActionExecuter(target, loggingManager, [otherParameters])
+
+        when:
+        executer.execute(action, buildRequestContext, parameters, contextServices)
+
+        then:
+        1 * loggingManager.addStandardOutputListener(otherOutput)
+        1 * loggingManager.addStandardErrorListener(otherError)
+        2 * loggingManager.addOutputEventListener(!null)
+        1 * target.execute(action, buildRequestContext, parameters, contextServices)
+    }
 }
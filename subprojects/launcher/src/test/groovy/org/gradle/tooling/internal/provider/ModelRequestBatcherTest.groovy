@@ -0,0 +1,231 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.tooling.internal.provider
+
+import org.gradle.initialization.BuildCancellationToken
+import org.gradle.test.fixtures.concurrent.ConcurrentSpec
+import org.gradle.tooling.internal.protocol.InternalBuildCancelledException
+import org.gradle.tooling.internal.provider.connection.ProviderOperationParameters
+
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.CopyOnWriteArrayList
+
+class ModelRequestBatcherTest extends ConcurrentSpec {
+    final batches = new CopyOnWriteArrayList<List<String>>()
+    final results = new ConcurrentHashMap<String, Object>()
+
+    def "runs request immediately when no other request is running"() {
+        def batcher = batcher { requests ->
+            requests.each { it.completed("${it.modelName} model".toString()) }
+        }
+
+        expect:
+        batcher.run("key", request("a")) == "a model"
+        batches == [["a"]]
+    }
+
+    def "requests made while another request is running are executed together once it completes"() {
+        def batcher = batcher { requests ->
+            if (requests*.modelName == ["a"]) {
+                instant.aRunning
+                thread.blockUntil.bQueued
+                thread.blockUntil.cQueued
+            }
+            requests.each { it.completed("${it.modelName} model".toString()) }
+        }
+
+        when:
+        async {
+            start {
+                results.a = batcher.run("key", request("a"))
+            }
+            start {
+                thread.blockUntil.aRunning
+                results.b = batcher.run("key", request("b"))
+            }
+            start {
+                thread.blockUntil.aRunning
+                results.c = batcher.run("key", request("c"))
+            }
+        }
+
+        then:
+        batches.size() == 2
+        batches[0] == ["a"]
+        batches[1] as Set == ["b", "c"] as Set
+        results == [a: "a model", b: "b model", c: "c model"]
+    }
+
+    def "request for a model that is already being built is queued for the next batch"() {
+        def batcher = batcher { requests ->
+            if (batches.size() == 1) {
+                instant.aRunning
+                thread.blockUntil.aQueued
+            }
+            requests.each { it.completed("${it.modelName} model ${batches.size()}".toString()) }
+        }
+
+        when:
+        async {
+            start {
+                results.first = batcher.run("key", request("a"))
+            }
+            start {
+                thread.blockUntil.aRunning
+                results.second = batcher.run("key", request("a"))
+            }
+        }
+
+        then:
+        batches == [["a"], ["a"]]
+        results == [first: "a model 1", second: "a model 2"]
+    }
+
+    def "queued request does not share the failure of the running request"() {
+        def failure = new RuntimeException("broken")
+        def batcher = batcher { requests ->
+            if (batches.size() == 1) {
+                instant.aRunning
+                thread.blockUntil.aQueued
+                throw failure
+            }
+            requests.each { it.completed(it.modelName) }
+        }
+
+        when:
+        async {
+            start {
+                try {
+                    batcher.run("key", request("a"))
+                } catch (RuntimeException e) {
+                    results.first = e
+                }
+            }
+            start {
+                thread.blockUntil.aRunning
+                results.second = batcher.run("key", request("a"))
+            }
+        }
+
+        then:
+        batches == [["a"], ["a"]]
+        results.first == failure
+        results.second == "a"
+    }
+
+    def "does not combine requests with different keys"() {
+        def batcher = batcher { requests ->
+            if (requests*.modelName == ["a"]) {
+                thread.blockUntil.bCompleted
+            }
+            requests.each { it.completed(it.modelName) }
+        }
+
+        when:
+        async {
+            start {
+                batcher.run("key-1", request("a"))
+            }
+            start {
+                batcher.run("key-2", request("b"))
+                instant.bCompleted
+            }
+        }
+
+        then:
+        batches as Set == [["a"], ["b"]] as Set
+    }
+
+    def "fails all requests of a batch when the batch fails"() {
+        def failure = new RuntimeException("broken")
+        def batcher = batcher { requests ->
+            if (requests*.modelName == ["a"]) {
+                instant.aRunning
+                thread.blockUntil.bQueued
+                requests.each { it.completed(it.modelName) }
+            } else {
+                throw failure
+            }
+        }
+
+        when:
+        async {
+            start {
+                batcher.run("key", request("a"))
+            }
+            start {
+                thread.blockUntil.aRunning
+                try {
+                    batcher.run("key", request("b"))
+                } catch (RuntimeException e) {
+                    results.b = e
+                }
+            }
+        }
+
+        then:
+        results.b == failure
+    }
+
+    def "cancelled request is not executed"() {
+        def batcher = batcher { requests ->
+            if (requests*.modelName == ["a"]) {
+                instant.aRunning
+                thread.blockUntil.bCancelled
+            }
+            requests.each { it.completed(it.modelName) }
+        }
+        def cancelledToken = Stub(BuildCancellationToken) {
+            isCancellationRequested() >> true
+        }
+
+        when:
+        async {
+            start {
+                batcher.run("key", request("a"))
+            }
+            start {
+                thread.blockUntil.aRunning
+                try {
+                    batcher.run("key", new ModelRequestBatcher.ModelRequest("b", cancelledToken, Stub(ProviderOperationParameters)))
+                } catch (InternalBuildCancelledException e) {
+                    instant.bCancelled
+                }
+            }
+        }
+
+        then:
+        batches == [["a"]]
+    }
+
+    def batcher(Closure execute) {
+        return new ModelRequestBatcher({ List<ModelRequestBatcher.ModelRequest> requests ->
+            batches << requests*.modelName
+            execute(requests)
+        } as ModelRequestBatcher.BatchExecuter)
+    }
+
+    def request(String modelName) {
+        def cancellationToken = Stub(BuildCancellationToken) {
+            addCallback(_) >> {
+                instant."${modelName}Queued"
+                return false
+            }
+        }
+        return new ModelRequestBatcher.ModelRequest(modelName, cancellationToken, Stub(ProviderOperationParameters))
+    }
+}
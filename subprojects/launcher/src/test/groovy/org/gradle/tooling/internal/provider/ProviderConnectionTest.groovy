@@ -0,0 +1,77 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.tooling.internal.provider
+
+import org.gradle.initialization.BuildCancellationToken
+import org.gradle.tooling.internal.protocol.BuildExceptionVersion1
+import org.gradle.tooling.internal.protocol.InternalUnsupportedModelException
+import org.gradle.tooling.internal.provider.connection.ProviderOperationParameters
+import spock.lang.Specification
+
+class ProviderConnectionTest extends Specification {
+    def "completes each request of a batch with its model"() {
+        def a = request("a")
+        def b = request("b")
+        def otherA = request("a")
+        def modelA = new Object()
+        def modelB = new Object()
+
+        when:
+        ProviderConnection.completeRequests([a, b, otherA], [a: modelA, b: modelB], [:])
+
+        then:
+        a.result.is(modelA)
+        b.result.is(modelB)
+        otherA.result.is(modelA)
+    }
+
+    def "fails only the requests for a model that could not be built"() {
+        def a = request("a")
+        def b = request("b")
+        def failure = new RuntimeException("broken")
+
+        when:
+        ProviderConnection.completeRequests([a, b], [b: "b model"], [a: failure])
+
+        then:
+        b.result == "b model"
+
+        when:
+        a.result
+
+        then:
+        BuildExceptionVersion1 e = thrown()
+        e.cause == failure
+    }
+
+    def "reports unknown model to the request without wrapping"() {
+        def a = request("a")
+        def failure = new InternalUnsupportedModelException()
+
+        when:
+        ProviderConnection.completeRequests([a], [:], [a: failure])
+        a.result
+
+        then:
+        InternalUnsupportedModelException e = thrown()
+        e == failure
+    }
+
+    def request(String modelName) {
+        return new ModelRequestBatcher.ModelRequest(modelName, Stub(BuildCancellationToken), Stub(ProviderOperationParameters))
+    }
+}
@@ -38,8 +38,16 @@ import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
 import java.nio.channels.SocketChannel;
 
+/**
+ * A {@link RemoteConnection} over a socket channel. The serialized messages are sent as length-prefixed frames of at most
+ * {@link #MAX_FRAME_LENGTH} bytes, so that each flushed message is written with as few gathering writes as possible and read with
+ * as few socket reads as possible, while each connection holds only small fixed size buffers.
+ */
 public class SocketConnection<T> implements RemoteConnection<T> {
     private static final Logger LOGGER = LoggerFactory.getLogger(SocketConnection.class);
+    private static final int FRAME_HEADER_LENGTH = 4;
+    static final int MAX_FRAME_LENGTH = 64 * 1024;
+    private static final int READ_BUFFER_SIZE = 32 * 1024;
     private final SocketChannel socket;
     private final SocketInetAddress localAddress;
     private final SocketInetAddress remoteAddress;
@@ -125,12 +133,13 @@ public class SocketConnection<T> implements RemoteConnection<T> {
         private final ByteBuffer buffer;
         private final SocketChannel socket;
         private final byte[] readBuffer = new byte[1];
+        private int frameRemaining;
 
         public SocketInputStream(SocketChannel socket) throws IOException {
             this.socket = socket;
             selector = Selector.open();
             socket.register(selector, SelectionKey.OP_READ);
-            buffer = ByteBuffer.allocateDirect(4096);
+            buffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
             buffer.limit(0);
         }
 
@@ -140,7 +149,7 @@ public class SocketConnection<T> implements RemoteConnection<T> {
             if (nread <= 0) {
                 return nread;
             }
-            return readBuffer[0];
+            return readBuffer[0] & 0xff;
         }
 
         @Override
@@ -149,17 +158,41 @@ public class SocketConnection<T> implements RemoteConnection<T> {
                 return 0;
             }
 
-            if (buffer.remaining() == 0) {
+            while (frameRemaining == 0) {
+                if (!fill(FRAME_HEADER_LENGTH)) {
+                    return -1;
+                }
+                frameRemaining = buffer.getInt();
+                if (frameRemaining < 0 || frameRemaining > MAX_FRAME_LENGTH) {
+                    throw new IOException(String.format("Received a frame with invalid length %d.", frameRemaining));
+                }
+            }
+            if (!fill(1)) {
+                return -1;
+            }
+
+            // never hand out bytes of the next frame, they start with its header
+            int count = Math.min(buffer.remaining(), Math.min(max, frameRemaining));
+            buffer.get(dest, offset, count);
+            frameRemaining -= count;
+            return count;
+        }
+
+        /**
+         * Reads from the socket until at least the given number of bytes is buffered. Returns false on end of stream.
+         */
+        private boolean fill(int required) throws IOException {
+            while (buffer.remaining() < required) {
                 try {
                     selector.select();
                 } catch (ClosedSelectorException e) {
-                    return -1;
+                    return false;
                 }
                 if (!selector.isOpen()) {
-                    return -1;
+                    return false;
                 }
 
-                buffer.clear();
+                buffer.compact();
                 int nread;
                 try {
                     nread = socket.read(buffer);
@@ -167,20 +200,17 @@ public class SocketConnection<T> implements RemoteConnection<T> {
                     if (isEndOfStream(e)) {
                         buffer.position(0);
                         buffer.limit(0);
-                        return -1;
+                        return false;
                     }
                     throw e;
                 }
                 buffer.flip();
 
                 if (nread < 0) {
-                    return -1;
+                    return false;
                 }
             }
-
-            int count = Math.min(buffer.remaining(), max);
-            buffer.get(dest, offset, count);
-            return count;
+            return true;
         }
 
         @Override
@@ -189,22 +219,30 @@ public class SocketConnection<T> implements RemoteConnection<T> {
         }
     }
 
+    /**
+     * Collects the bytes written between flushes into frames, and writes the length header and each frame with one gathering write.
+     * Messages larger than a frame are sent as several frames.
+     */
     private static class SocketOutputStream extends OutputStream {
         private static final int RETRIES_WHEN_BUFFER_FULL = 2;
         private Selector selector;
         private final SocketChannel socket;
+        private final ByteBuffer header;
+        private final ByteBuffer[] frame = new ByteBuffer[2];
         private final ByteBuffer buffer;
-        private final byte[] writeBuffer = new byte[1];
 
         public SocketOutputStream(SocketChannel socket) throws IOException {
             this.socket = socket;
-            buffer = ByteBuffer.allocateDirect(32 * 1024);
+            header = ByteBuffer.allocateDirect(FRAME_HEADER_LENGTH);
+            buffer = ByteBuffer.allocateDirect(MAX_FRAME_LENGTH);
         }
 
         @Override
         public void write(int b) throws IOException {
-            writeBuffer[0] = (byte) b;
-            write(writeBuffer);
+            if (!buffer.hasRemaining()) {
+                writeFrameToChannel();
+            }
+            buffer.put((byte) b);
         }
 
         @Override
@@ -212,40 +250,45 @@ public class SocketConnection<T> implements RemoteConnection<T> {
             int remaining = max;
             int currentPos = offset;
             while (remaining > 0) {
-                int count = Math.min(remaining, buffer.remaining());
-                if (count > 0) {
-                    buffer.put(src, currentPos, count);
-                    remaining -= count;
-                    currentPos += count;
-                }
-                while (buffer.remaining() == 0) {
-                    writeBufferToChannel();
+                if (!buffer.hasRemaining()) {
+                    writeFrameToChannel();
                 }
+                int count = Math.min(remaining, buffer.remaining());
+                buffer.put(src, currentPos, count);
+                remaining -= count;
+                currentPos += count;
             }
         }
 
         @Override
         public void flush() throws IOException {
-            while (buffer.position() > 0) {
-                writeBufferToChannel();
+            if (buffer.position() > 0) {
+                writeFrameToChannel();
             }
         }
 
-        private void writeBufferToChannel() throws IOException {
+        private void writeFrameToChannel() throws IOException {
             buffer.flip();
-            int count = writeWithNonBlockingRetry();
-            if (count == 0) {
-                // buffer was still full after non-blocking retries, now block
-                waitForWriteBufferToDrain();
+            header.clear();
+            header.putInt(buffer.remaining());
+            header.flip();
+            frame[0] = header;
+            frame[1] = buffer;
+            while (buffer.hasRemaining()) {
+                long count = writeWithNonBlockingRetry();
+                if (count == 0) {
+                    // socket buffer was still full after non-blocking retries, now block
+                    waitForWriteBufferToDrain();
+                }
             }
-            buffer.compact();
+            buffer.clear();
         }
 
-        private int writeWithNonBlockingRetry() throws IOException {
-            int count = 0;
+        private long writeWithNonBlockingRetry() throws IOException {
+            long count = 0;
             int retryCount = 0;
             while (count == 0 && retryCount++ < RETRIES_WHEN_BUFFER_FULL) {
-                count = socket.write(buffer);
+                count = socket.write(frame);
                 if (count < 0) {
                     throw new EOFException();
                 } else if (count == 0) {
@@ -223,6 +223,37 @@ class TcpConnectorTest extends ConcurrentSpec {
         kryoSerializer    | "kryo"
     }
 
+    @Unroll
+    def "can send a mix of small and large messages using #serializerName"() {
+        def messages = (1..200).collect { it % 50 == 0 ? ("x" * (2 * 1024 * 1024)) + it : "message " + it }
+
+        when:
+        def acceptor = incomingConnector.accept({ ConnectCompletion event ->
+            def connection = event.create(messageSerializer)
+            messages.each { connection.dispatch(it) }
+            connection.stop()
+        } as Action, false)
+
+        def connection = outgoingConnector.connect(acceptor.address).create(messageSerializer)
+        def received = []
+        def message
+        while ((message = connection.receive()) != null) {
+            received << message
+        }
+
+        then:
+        received == messages
+
+        cleanup:
+        connection?.stop()
+        acceptor?.stop()
+
+        where:
+        messageSerializer | serializerName
+        serializer        | "java"
+        kryoSerializer    | "kryo"
+    }
+
     def "returns null on failure to receive due to truncated input"() {
         given:
         def incomingSerializer = { Encoder encoder, String value ->
@@ -19,6 +19,7 @@ package org.gradle.model.internal.inspect;
 import com.google.common.base.Joiner;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
 import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Ordering;
@@ -55,6 +56,7 @@ import java.util.concurrent.ExecutionException;
 public class ModelRuleExtractor {
     private final LoadingCache<Class<?>, CachedRuleSource> cache = CacheBuilder.newBuilder()
             .weakKeys()
+            .recordStats()
             .build(new CacheLoader<Class<?>, CachedRuleSource>() {
                 public CachedRuleSource load(Class<?> source) {
                     return doExtract(source);
@@ -97,6 +99,13 @@ public class ModelRuleExtractor {
         }
     }
 
+    /**
+     * Returns the statistics of the cache of extracted rule sources. The cache is shared by all builds run by this process.
+     */
+    public CacheStats getCacheStats() {
+        return cache.stats();
+    }
+
     private <T> CachedRuleSource doExtract(final Class<T> source) {
         final ModelType<T> type = ModelType.of(source);
         FormattingValidationProblemCollector problems = new FormattingValidationProblemCollector("rule source", type);
@@ -21,17 +21,14 @@ import com.google.common.base.Function;
 import com.google.common.base.Joiner;
 import com.google.common.base.Objects;
 import com.google.common.base.Predicate;
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
+import com.google.common.cache.CacheStats;
 import com.google.common.collect.*;
-import com.google.common.util.concurrent.UncheckedExecutionException;
 import org.gradle.api.Named;
 import org.gradle.internal.Cast;
-import org.gradle.internal.UncheckedException;
 import org.gradle.model.Managed;
 import org.gradle.model.Unmanaged;
 import org.gradle.model.internal.manage.schema.*;
+import org.gradle.model.internal.manage.schema.cache.WeakClassSet;
 import org.gradle.model.internal.manage.schema.extract.ModelSchemaUtils;
 import org.gradle.model.internal.manage.schema.extract.PropertyAccessorType;
 import org.gradle.model.internal.method.WeaklyTypeReferencingMethod;
@@ -43,7 +40,8 @@ import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.*;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.gradle.internal.reflect.Methods.DESCRIPTOR_EQUIVALENCE;
 import static org.gradle.internal.reflect.Methods.SIGNATURE_EQUIVALENCE;
@@ -51,14 +49,11 @@ import static org.gradle.model.internal.manage.schema.extract.ModelSchemaUtils.w
 import static org.gradle.model.internal.manage.schema.extract.PropertyAccessorType.*;
 
 public class DefaultStructBindingsStore implements StructBindingsStore {
-    private final LoadingCache<CacheKey, StructBindings<?>> bindings = CacheBuilder.newBuilder()
-        .weakValues()
-        .build(new CacheLoader<CacheKey, StructBindings<?>>() {
-            @Override
-            public StructBindings<?> load(CacheKey key) throws Exception {
-                return extract(key.publicType, key.viewTypes, key.delegateType);
-            }
-        });
+    // Keyed weakly by all the classes of the public, view and delegate types, as the bindings are only valid while all of these classes are loaded.
+    // Bindings do not retain strong class references. Entries for unloaded classes are removed by cleanUp().
+    private final ConcurrentMap<WeakClassSet, ConcurrentMap<CacheKey, StructBindings<?>>> bindings = Maps.newConcurrentMap();
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
 
     private final ModelSchemaStore schemaStore;
 
@@ -73,15 +68,55 @@ public class DefaultStructBindingsStore implements StructBindingsStore {
 
     @Override
     public <T> StructBindings<T> getBindings(ModelType<T> publicType, Iterable<? extends ModelType<?>> internalViewTypes, ModelType<?> delegateType) {
-        try {
-            return Cast.uncheckedCast(bindings.get(new CacheKey(publicType, internalViewTypes, delegateType)));
-        } catch (ExecutionException e) {
-            throw UncheckedException.throwAsUncheckedException(e);
-        } catch (UncheckedExecutionException e) {
-            throw UncheckedException.throwAsUncheckedException(e.getCause());
+        CacheKey key = new CacheKey(publicType, internalViewTypes, delegateType);
+        WeakClassSet classes = key.getClasses();
+        ConcurrentMap<CacheKey, StructBindings<?>> typeBindings = bindings.get(classes);
+        StructBindings<?> result = typeBindings == null ? null : typeBindings.get(key);
+        if (result != null) {
+            hitCount.incrementAndGet();
+            return Cast.uncheckedCast(result);
+        }
+        missCount.incrementAndGet();
+        result = extract(publicType, key.viewTypes, delegateType);
+        if (typeBindings == null) {
+            ConcurrentMap<CacheKey, StructBindings<?>> newTypeBindings = Maps.newConcurrentMap();
+            typeBindings = bindings.putIfAbsent(classes, newTypeBindings);
+            if (typeBindings == null) {
+                typeBindings = newTypeBindings;
+            }
+        }
+        StructBindings<?> existing = typeBindings.putIfAbsent(key, result);
+        return Cast.uncheckedCast(existing != null ? existing : result);
+    }
+
+    /**
+     * Removes the bindings of types whose classes have been unloaded.
+     */
+    public void cleanUp() {
+        Iterator<WeakClassSet> iterator = bindings.keySet().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().isCollected()) {
+                iterator.remove();
+            }
         }
     }
 
+    public long size() {
+        cleanUp();
+        long size = 0;
+        for (Map<CacheKey, StructBindings<?>> typeBindings : bindings.values()) {
+            size += typeBindings.size();
+        }
+        return size;
+    }
+
+    /**
+     * Returns the statistics of the bindings cache. The cache is shared by all builds run by this process.
+     */
+    public CacheStats getCacheStats() {
+        return new CacheStats(hitCount.get(), missCount.get(), 0, 0, 0, 0);
+    }
+
     <T, D> StructBindings<T> extract(ModelType<T> publicType, Iterable<? extends ModelType<?>> internalViewTypes, ModelType<D> delegateType) {
         if (delegateType != null && Modifier.isAbstract(delegateType.getConcreteClass().getModifiers())) {
             throw new InvalidManagedTypeException(String.format("Type '%s' is not a valid managed type: delegate type must be null or a non-abstract type instead of '%s'.",
@@ -507,6 +542,17 @@ public class DefaultStructBindingsStore implements StructBindingsStore {
             this.delegateType = delegateType;
         }
 
+        public WeakClassSet getClasses() {
+            List<ModelType<?>> types = Lists.newArrayList();
+            types.add(publicType);
+            // sort so that the same view types given in a different order use the same key
+            types.addAll(Ordering.usingToString().sortedCopy(viewTypes));
+            if (delegateType != null) {
+                types.add(delegateType);
+            }
+            return WeakClassSet.of(types);
+        }
+
         @Override
         public boolean equals(Object o) {
             if (this == o) {
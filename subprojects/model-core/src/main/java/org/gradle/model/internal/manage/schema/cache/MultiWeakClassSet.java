@@ -68,7 +68,7 @@ class MultiWeakClassSet extends WeakClassSet {
     }
 
     @Override
-    boolean isCollected() {
+    public boolean isCollected() {
         for (WeakReference<Class<?>> reference : references) {
             if (reference.get() == null) {
                 return true;
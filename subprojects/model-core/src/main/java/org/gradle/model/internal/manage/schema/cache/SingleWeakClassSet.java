@@ -51,7 +51,7 @@ class SingleWeakClassSet extends WeakClassSet {
     }
 
     @Override
-    boolean isCollected() {
+    public boolean isCollected() {
         Class<?> referent = reference.get();
         return referent == null;
     }
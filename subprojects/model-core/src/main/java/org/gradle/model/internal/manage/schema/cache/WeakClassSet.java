@@ -16,14 +16,32 @@
 
 package org.gradle.model.internal.manage.schema.cache;
 
+import com.google.common.collect.Lists;
 import org.gradle.model.internal.type.ModelType;
 
 import java.util.List;
 
-abstract class WeakClassSet {
+/**
+ * A set of classes, referenced weakly, for use as a cache key. See {@link ModelSchemaCache}.
+ */
+public abstract class WeakClassSet {
+
+    public static WeakClassSet of(ModelType<?> type) {
+        return of(type.getAllClasses());
+    }
+
+    /**
+     * Returns the set of all classes involved in the given types.
+     */
+    public static WeakClassSet of(Iterable<? extends ModelType<?>> types) {
+        List<Class<?>> allClasses = Lists.newArrayList();
+        for (ModelType<?> type : types) {
+            allClasses.addAll(type.getAllClasses());
+        }
+        return of(allClasses);
+    }
 
-    static WeakClassSet of(ModelType<?> type) {
-        List<Class<?>> allClasses = type.getAllClasses();
+    private static WeakClassSet of(List<Class<?>> allClasses) {
         if (allClasses.size() == 1) {
             return new SingleWeakClassSet(allClasses.iterator().next());
         } else {
@@ -31,6 +49,9 @@ abstract class WeakClassSet {
         }
     }
 
-    abstract boolean isCollected();
+    /**
+     * Returns true when any of the classes has been collected.
+     */
+    public abstract boolean isCollected();
 
 }
@@ -16,6 +16,7 @@
 
 package org.gradle.model.internal.manage.schema.extract;
 
+import com.google.common.cache.CacheStats;
 import net.jcip.annotations.ThreadSafe;
 import org.gradle.model.internal.manage.schema.ModelSchema;
 import org.gradle.model.internal.manage.schema.ModelSchemaStore;
@@ -27,6 +28,8 @@ public class DefaultModelSchemaStore implements ModelSchemaStore {
     final Object lock = new Object();
     final ModelSchemaCache cache = new ModelSchemaCache();
     final ModelSchemaExtractor schemaExtractor;
+    private long hitCount;
+    private long missCount;
 
     public DefaultModelSchemaStore(ModelSchemaExtractor schemaExtractor) {
         this.schemaExtractor = schemaExtractor;
@@ -37,8 +40,10 @@ public class DefaultModelSchemaStore implements ModelSchemaStore {
         synchronized (lock) {
             ModelSchema<T> schema = cache.get(type);
             if (schema != null) {
+                hitCount++;
                 return schema;
             }
+            missCount++;
             return schemaExtractor.extract(type, cache);
         }
     }
@@ -55,6 +60,16 @@ public class DefaultModelSchemaStore implements ModelSchemaStore {
         }
     }
 
+    /**
+     * Returns the statistics of the schema cache, counting the schemas requested from this store. The schemas of property types that are extracted along
+     * with a requested schema are not counted.
+     */
+    public CacheStats getCacheStats() {
+        synchronized (lock) {
+            return new CacheStats(hitCount, missCount, 0, 0, 0, 0);
+        }
+    }
+
     public long size() {
         synchronized (lock) {
             return cache.size();
@@ -46,6 +46,11 @@ public class DefaultModelRegistry implements ModelRegistryInternal {
     private final RuleBindings ruleBindings;
     private final ModelRuleExtractor ruleExtractor;
     private final Set<RuleBinder> unboundRules = Sets.newIdentityHashSet();
+    // Goals achieved by previous top level transitions, reused by later ones
+    private GoalGraph goalGraph;
+    private int transitionDepth;
+    // Incremented whenever a node is created, discovered or removed, which may allow rules to be bound
+    private int modelChanges;
 
     public DefaultModelRegistry(ModelRuleExtractor ruleExtractor, String projectPath) {
         this.ruleExtractor = ruleExtractor;
@@ -81,6 +86,7 @@ public class DefaultModelRegistry implements ModelRegistryInternal {
         addRuleBindings(node, actions);
         modelGraph.add(node);
         ruleBindings.nodeCreated(node);
+        modelChanges++;
     }
 
     private void addRuleBindings(ModelNodeInternal node, Multimap<ModelActionRole, ? extends ModelAction> actions) {
@@ -249,7 +255,11 @@ public class DefaultModelRegistry implements ModelRegistryInternal {
             modelGraph.remove(nodeToRemove);
             ruleBindings.remove(nodeToRemove);
             unboundRules.removeAll(nodeToRemove.getRegistrationActionBinders());
+            if (goalGraph != null) {
+                goalGraph.nodeRemoved(nodeToRemove.getPath());
+            }
         }
+        modelChanges++;
     }
 
     private void ensureCanRemove(ModelNodeInternal node, List<ModelNodeInternal> nodesToRemove) {
@@ -266,24 +276,34 @@ public class DefaultModelRegistry implements ModelRegistryInternal {
 
     @Override
     public void bindAllReferences() throws UnboundModelRulesException {
-        GoalGraph graph = new GoalGraph();
-        for (ModelNodeInternal node : modelGraph.getFlattened().values()) {
-            if (!node.isAtLeast(Discovered)) {
-                transitionTo(graph, new Discover(node.getPath()));
+        GoalGraph graph = beginTransition();
+        boolean completed = false;
+        try {
+            for (ModelNodeInternal node : modelGraph.getFlattened().values()) {
+                if (!node.isAtLeast(Discovered)) {
+                    transitionTo(graph, new Discover(node.getPath()));
+                }
             }
-        }
 
-        if (unboundRules.isEmpty()) {
-            return;
-        }
-        boolean newInputsBound = true;
-        while (!unboundRules.isEmpty() && newInputsBound) {
-            newInputsBound = false;
-            RuleBinder[] unboundBinders = unboundRules.toArray(new RuleBinder[0]);
-            for (RuleBinder binder : unboundBinders) {
-                transitionTo(graph, new TryBindInputs(binder));
-                newInputsBound = newInputsBound || binder.isBound();
+            // Only retry a rule when nodes have been created, discovered or removed since it was last attempted, as nothing else allows it to bind
+            Map<RuleBinder, Integer> attemptedAt = new IdentityHashMap<RuleBinder, Integer>();
+            boolean newInputsBound = true;
+            while (!unboundRules.isEmpty() && newInputsBound) {
+                newInputsBound = false;
+                RuleBinder[] unboundBinders = unboundRules.toArray(new RuleBinder[0]);
+                for (RuleBinder binder : unboundBinders) {
+                    Integer lastAttempt = attemptedAt.get(binder);
+                    if (lastAttempt != null && lastAttempt == modelChanges) {
+                        continue;
+                    }
+                    transitionTo(graph, new TryBindInputs(binder));
+                    attemptedAt.put(binder, modelChanges);
+                    newInputsBound = newInputsBound || binder.isBound();
+                }
             }
+            completed = true;
+        } finally {
+            endTransition(completed);
         }
 
         if (!unboundRules.isEmpty()) {
@@ -319,20 +339,50 @@ public class DefaultModelRegistry implements ModelRegistryInternal {
     }
 
     private ModelNodeInternal get(ModelPath path) {
-        GoalGraph graph = new GoalGraph();
-        transitionTo(graph, graph.nodeAtState(new NodeAtState(path, Registered)));
         ModelNodeInternal node = modelGraph.find(path);
-        if (node == null) {
-            return null;
+        if (node != null && node.isAtLeast(GraphClosed)) {
+            return node;
+        }
+        GoalGraph graph = beginTransition();
+        boolean completed = false;
+        try {
+            transitionTo(graph, graph.nodeAtState(new NodeAtState(path, Registered)));
+            node = modelGraph.find(path);
+            if (node != null) {
+                transitionTo(graph, graph.nodeAtState(new NodeAtState(path, GraphClosed)));
+            }
+            completed = true;
+        } finally {
+            endTransition(completed);
         }
-        transitionTo(graph, graph.nodeAtState(new NodeAtState(path, GraphClosed)));
         return node;
     }
 
+    /**
+     * Returns the graph to use for a transition. Top level transitions share a graph, so that the goals already achieved are not calculated again. Transitions
+     * started by rules while another transition is in progress use a graph of their own, as the goals of the enclosing transition have not been achieved yet.
+     */
+    private GoalGraph beginTransition() {
+        if (transitionDepth++ > 0) {
+            return new GoalGraph();
+        }
+        if (goalGraph == null) {
+            goalGraph = new GoalGraph();
+        }
+        return goalGraph;
+    }
+
+    private void endTransition(boolean completed) {
+        transitionDepth--;
+        if (transitionDepth == 0 && !completed) {
+            // Goals may have been left part way through, start again with a new graph
+            goalGraph = null;
+        }
+    }
+
     /**
      * Attempts to achieve the given goal.
      */
-    // TODO - reuse graph, discard state once not required
     private void transitionTo(GoalGraph goalGraph, ModelGoal targetGoal) {
         Deque<ModelGoal> queue = new ArrayDeque<ModelGoal>();
         queue.add(targetGoal);
@@ -433,8 +483,14 @@ public class DefaultModelRegistry implements ModelRegistryInternal {
             return;
         }
 
-        GoalGraph goalGraph = new GoalGraph();
-        transitionTo(goalGraph, goalGraph.nodeAtState(new NodeAtState(node.getPath(), desired)));
+        GoalGraph graph = beginTransition();
+        boolean completed = false;
+        try {
+            transitionTo(graph, graph.nodeAtState(new NodeAtState(node.getPath(), desired)));
+            completed = true;
+        } finally {
+            endTransition(completed);
+        }
     }
 
     private void fireAction(RuleBinder boundMutator) {
@@ -505,11 +561,11 @@ public class DefaultModelRegistry implements ModelRegistryInternal {
     }
 
     private class GoalGraph {
-        private final Map<NodeAtState, ModelGoal> nodeStates = new HashMap<NodeAtState, ModelGoal>();
+        private final Map<NodeAtState, ModelNodeGoal> nodeStates = new HashMap<NodeAtState, ModelNodeGoal>();
 
         public ModelGoal nodeAtState(NodeAtState goal) {
-            ModelGoal node = nodeStates.get(goal);
-            if (node == null) {
+            ModelNodeGoal node = nodeStates.get(goal);
+            if (node == null || node.isStale()) {
                 switch (goal.state) {
                     case Registered:
                         node = new MakeKnown(goal.path);
@@ -527,6 +583,16 @@ public class DefaultModelRegistry implements ModelRegistryInternal {
             }
             return node;
         }
+
+        public void nodeRemoved(ModelPath path) {
+            Iterator<Map.Entry<NodeAtState, ModelNodeGoal>> iterator = nodeStates.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<NodeAtState, ModelNodeGoal> entry = iterator.next();
+                if (entry.getKey().path.equals(path) && entry.getValue().state == ModelGoal.State.Achieved) {
+                    iterator.remove();
+                }
+            }
+        }
     }
 
     /**
@@ -616,6 +682,13 @@ public class DefaultModelRegistry implements ModelRegistryInternal {
             }
             node = modelGraph.find(getPath());
         }
+
+        /**
+         * Returns true if this goal was achieved for a node that is no longer the node at its path, or before any node existed at its path.
+         */
+        public boolean isStale() {
+            return state == State.Achieved && (node == null || modelGraph.find(target) != node);
+        }
     }
 
     private class MakeKnown extends ModelNodeGoal {
@@ -1164,6 +1237,7 @@ public class DefaultModelRegistry implements ModelRegistryInternal {
         void apply() {
             ruleBindings.nodeDiscovered(node);
             modelGraph.nodeDiscovered(node);
+            modelChanges++;
         }
 
         @Override
@@ -17,9 +17,9 @@
 package org.gradle.model.internal.registry;
 
 import com.google.common.collect.LinkedHashMultimap;
-import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
+import com.google.common.collect.Sets;
 import org.gradle.model.internal.core.ModelNode;
 import org.gradle.model.internal.core.ModelPath;
 import org.gradle.model.internal.type.ModelType;
@@ -178,7 +178,7 @@ class RuleBindings {
 
     private class ScopeIndex {
         final Map<ModelType<?>, PredicateMatches> types = Maps.newLinkedHashMap();
-        final List<ModelNodeInternal> nodes = Lists.newArrayList();
+        final Set<ModelNodeInternal> nodes = Sets.newLinkedHashSet();
 
         public void addNode(ModelNodeInternal node) {
             nodes.add(node);
@@ -20,10 +20,14 @@ import org.gradle.api.Named
 import org.gradle.model.*
 import org.gradle.model.internal.manage.schema.extract.DefaultModelSchemaExtractor
 import org.gradle.model.internal.manage.schema.extract.DefaultModelSchemaStore
+import org.gradle.model.internal.manage.schema.extract.ModelStoreTestUtils
 import org.gradle.model.internal.type.ModelType
+import org.gradle.test.fixtures.ConcurrentTestUtil
 import spock.lang.Specification
 import spock.lang.Unroll
 
+import java.beans.Introspector
+
 class DefaultStructBindingsStoreTest extends Specification {
     def schemaStore = new DefaultModelSchemaStore(DefaultModelSchemaExtractor.withDefaultStrategies())
     def bindingStore = new DefaultStructBindingsStore(schemaStore)
@@ -81,6 +85,29 @@ class DefaultStructBindingsStoreTest extends Specification {
         bindings.methodBindings*.getClass() == [DelegateMethodBinding, DelegateMethodBinding]
     }
 
+    def "discards bindings once the delegate type has been unloaded"() {
+        def cl = new GroovyClassLoader(getClass().classLoader)
+        def delegateType = cl.parseClass("class SomeDelegate { int z }")
+        bindingStore.getBindings(ModelType.of(TypeWithAbstractProperty), [], ModelType.of(delegateType))
+        bindingStore.getBindings(ModelType.of(TypeWithAbstractProperty))
+
+        expect:
+        bindingStore.size() == 2
+
+        when:
+        cl.clearCache()
+        ModelStoreTestUtils.removeClassFromGlobalClassSet(delegateType)
+        Introspector.flushFromCaches(delegateType)
+        delegateType = null
+
+        then:
+        ConcurrentTestUtil.poll(10) {
+            System.gc()
+            bindingStore.cleanUp()
+            assert bindingStore.size() == 1
+        }
+    }
+
     def "fails when delegate type is abstract"() {
         when: extract(Object, Serializable)
         then: def ex = thrown InvalidManagedTypeException
@@ -657,6 +684,19 @@ class DefaultStructBindingsStoreTest extends Specification {
     }
 
 
+    def "caches bindings for a type"() {
+        when:
+        def bindings = bindingStore.getBindings(ModelType.of(TypeWithAbstractProperty))
+
+        then:
+        bindingStore.getBindings(ModelType.of(TypeWithAbstractProperty)).is(bindings)
+        !bindingStore.getBindings(ModelType.of(TypeWithAbstractProperty), [], ModelType.of(DelegateTypeWithImplementedProperty)).is(bindings)
+
+        and:
+        bindingStore.cacheStats.hitCount() == 1
+        bindingStore.cacheStats.missCount() == 2
+    }
+
     def extract(Class<?> type, Class<?> delegateType = null) {
         return extract(type, [], delegateType)
     }
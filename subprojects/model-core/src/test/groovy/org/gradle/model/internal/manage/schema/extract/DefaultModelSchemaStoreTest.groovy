@@ -42,6 +42,17 @@ class DefaultModelSchemaStoreTest extends ConcurrentSpec {
         store.getSchema(type1).is(store.getSchema(type2))
     }
 
+    def "counts cache hits and misses"() {
+        when:
+        store.getSchema(SimpleManagedType)
+        store.getSchema(SimpleManagedType)
+        store.getSchema(SimpleManagedType)
+
+        then:
+        store.cacheStats.hitCount() == 2
+        store.cacheStats.missCount() == 1
+    }
+
     def "each thread receives same schema object"() {
         def seen = new CopyOnWriteArraySet()
 
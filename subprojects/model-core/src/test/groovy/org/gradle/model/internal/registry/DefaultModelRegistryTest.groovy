@@ -56,6 +56,18 @@ class DefaultModelRegistryTest extends Specification {
         modelElement == null
     }
 
+    def "can get element registered after it was looked up and not found"() {
+        expect:
+        registry.find("foo", ModelType.untyped()) == null
+
+        when:
+        registry.registerInstance("foo", "value")
+
+        then:
+        registry.realize("foo", String) == "value"
+        registry.find("foo", String) == "value"
+    }
+
     def "can get element for which a registration has been registered"() {
         given:
         registry.registerInstance("foo", "value")
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.performance
+
+import org.gradle.performance.categories.BasicPerformanceTest
+import org.junit.experimental.categories.Category
+
+import static org.gradle.performance.measure.Duration.millis
+
+@Category([BasicPerformanceTest])
+class DaemonConnectionPerformanceTest extends AbstractCrossVersionPerformanceTest {
+    def "build that sends large messages from the daemon to the client"() {
+        given:
+        runner.testId = "large messages over daemon connection"
+        runner.testProject = "verboseLogging"
+        runner.tasksToRun = ['logLargeMessages']
+        runner.maxExecutionTimeRegression = millis(500)
+        runner.targetVersions = ['2.13', 'last']
+        runner.useDaemon = true
+
+        when:
+        def result = runner.run()
+
+        then:
+        result.assertCurrentVersionHasNotRegressed()
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.performance
+
+import org.gradle.performance.categories.JavaPerformanceTest
+import org.junit.experimental.categories.Category
+
+@Category([JavaPerformanceTest])
+class JavaCompilerFileManagerReusePerformanceTest extends AbstractCrossBuildPerformanceTest {
+
+    def "compile many small modules sharing a classpath"() {
+        when:
+        runner.testId = "compile many small modules sharing a classpath"
+        runner.testGroup = "java compiler file manager reuse"
+        runner.buildSpec {
+            projectName("manySmallJavaModules").displayName("reused file manager").invocation {
+                tasksToRun("clean", "compileJava").useDaemon().args("-PreuseFileManager").gradleOpts("-Xms1G", "-Xmx1G")
+            }
+        }
+        runner.baseline {
+            projectName("manySmallJavaModules").displayName("new file manager per compilation").invocation {
+                tasksToRun("clean", "compileJava").useDaemon().gradleOpts("-Xms1G", "-Xmx1G")
+            }
+        }
+
+        then:
+        runner.run()
+    }
+}
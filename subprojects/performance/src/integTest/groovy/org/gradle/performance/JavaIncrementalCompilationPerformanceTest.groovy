@@ -0,0 +1,51 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.performance
+
+import org.gradle.performance.categories.JavaPerformanceTest
+import org.junit.experimental.categories.Category
+import spock.lang.Unroll
+
+import static org.gradle.performance.measure.DataAmount.mbytes
+import static org.gradle.performance.measure.Duration.millis
+
+@Category([JavaPerformanceTest])
+class JavaIncrementalCompilationPerformanceTest extends AbstractCrossVersionPerformanceTest {
+    @Unroll("incremental Java compilation after source change - #testProject")
+    def "incremental Java compilation after source change"() {
+        given:
+        runner.testId = "incremental Java compilation after source change $testProject"
+        runner.testProject = testProject
+        runner.tasksToRun = ['compileJava']
+        runner.maxExecutionTimeRegression = maxTimeRegression
+        runner.maxMemoryRegression = maxMemoryRegression
+        runner.targetVersions = ['last']
+        runner.useDaemon = true
+        runner.gradleOpts = ["-Xms1g", "-Xmx1g"]
+        runner.buildExperimentListener = new JavaOldModelSourceFileUpdater(50)
+
+        when:
+        def result = runner.run()
+
+        then:
+        result.assertCurrentVersionHasNotRegressed()
+
+        where:
+        testProject             | maxTimeRegression | maxMemoryRegression
+        "mediumIncrementalJava" | millis(500)       | mbytes(50)
+    }
+}
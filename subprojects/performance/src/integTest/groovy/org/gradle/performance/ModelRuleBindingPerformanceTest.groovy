@@ -0,0 +1,54 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.performance
+
+import org.gradle.performance.categories.Experiment
+import org.junit.experimental.categories.Category
+import spock.lang.Unroll
+
+import static org.gradle.performance.measure.Duration.millis
+
+/**
+ * Measures the time spent binding and closing model rules for projects that use the software model. Running {@code help} configures the
+ * build and binds all model rules without running any other rules.
+ */
+@Category(Experiment)
+class ModelRuleBindingPerformanceTest extends AbstractCrossVersionPerformanceTest {
+    @Unroll("Project '#testProject' model rule binding")
+    def "model rule binding"() {
+        given:
+        runner.testId = "model rule binding $testProject"
+        runner.testProject = testProject
+        runner.tasksToRun = ['help']
+        runner.maxExecutionTimeRegression = maxExecutionTimeRegression
+        runner.targetVersions = ['2.11', 'last']
+        runner.useDaemon = true
+
+        when:
+        def result = runner.run()
+
+        then:
+        result.assertCurrentVersionHasNotRegressed()
+
+        where:
+        testProject                    | maxExecutionTimeRegression
+        "bigNative"                    | millis(500)
+        "manyProjectsNative"           | millis(1000)
+        "bigVariantsNewModel"          | millis(500)
+        "variantsNewModelMultiproject" | millis(1000)
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.plugins
+
+import org.gradle.integtests.fixtures.AbstractIntegrationSpec
+
+class JavaPluginTaskRegistrationIntegrationTest extends AbstractIntegrationSpec {
+
+    def setup() {
+        buildFile << """
+            tasks.whenTaskAdded { println "created task \$it.name" }
+            apply plugin: 'java'
+        """
+    }
+
+    def "running a task does not create the registered tasks it does not depend on"() {
+        when:
+        succeeds "compileJava"
+
+        then:
+        output.contains("created task compileJava")
+        !output.contains("created task test")
+        !output.contains("created task javadoc")
+        !output.contains("created task buildNeeded")
+        !output.contains("created task buildDependents")
+    }
+
+    def "registered tasks are created when they are needed"() {
+        when:
+        succeeds "test"
+
+        then:
+        output.contains("created task test")
+        !output.contains("created task javadoc")
+    }
+
+    def "registered tasks can be configured by name, by type and by filtering the container"() {
+        buildFile << """
+            test {
+                ext.configuredByName = true
+            }
+            tasks.withType(Test) {
+                ext.configuredByType = true
+            }
+            tasks.matching { it.name == 'javadoc' }.each {
+                it.ext.configuredByFilter = true
+            }
+            task verify << {
+                assert test.configuredByName
+                assert test.configuredByType
+                assert javadoc.configuredByFilter
+                assert tasks.withType(Test)*.name == ['test']
+                assert tasks.withType(Javadoc).toList() == [javadoc]
+            }
+        """
+
+        expect:
+        succeeds "verify"
+    }
+}
@@ -25,18 +25,23 @@ import java.util.HashMap;
 import java.util.Map;
 
 /**
- * Collects the test results into memory and spools the test output to file during execution (to avoid holding it all in memory).
+ * Collects the test results and spools the test output to file during execution (to avoid holding it all in memory).
+ * The results of a test class are kept in memory only until the class completes, after which they are written to the results store.
+ * Results reported for a class after it has completed, for example when the class is executed again, are written under the same id.
  */
 public class TestReportDataCollector implements TestListener, TestOutputListener {
 
     private final Map<String, TestClassResult> results;
     private final TestOutputStore.Writer outputWriter;
+    private final TestResultSerializer.Writer resultsWriter;
     private final Map<TestDescriptor, TestMethodResult> currentTestMethods = new HashMap<TestDescriptor, TestMethodResult>();
+    private final Map<String, Long> completedClassIds = new HashMap<String, Long>();
     private long internalIdCounter = 1;
 
-    public TestReportDataCollector(Map<String, TestClassResult> results, TestOutputStore.Writer outputWriter) {
+    public TestReportDataCollector(Map<String, TestClassResult> results, TestOutputStore.Writer outputWriter, TestResultSerializer.Writer resultsWriter) {
         this.results = results;
         this.outputWriter = outputWriter;
+        this.resultsWriter = resultsWriter;
     }
 
     @Override
@@ -53,10 +58,32 @@ public class TestReportDataCollector implements TestListener, TestOutputListener
                 methodResult.addFailure(failureMessage(throwable), stackTrace(throwable), exceptionClassName(throwable));
             }
             methodResult.completed(result);
-            TestClassResult classResult = new TestClassResult(internalIdCounter++, suite.getName(), result.getStartTime());
+            TestClassResult classResult = results.get(suite.getName());
+            if (classResult == null) {
+                classResult = new TestClassResult(classIdFor(suite.getName()), suite.getName(), result.getStartTime());
+                results.put(suite.getName(), classResult);
+            }
             classResult.add(methodResult);
-            results.put(suite.getName(), classResult);
         }
+        if (suite.getClassName() != null) {
+            //the class has completed, no further results are expected for it
+            TestClassResult classResult = results.remove(suite.getClassName());
+            if (classResult != null) {
+                completedClassIds.put(classResult.getClassName(), classResult.getId());
+                resultsWriter.write(classResult);
+            }
+        }
+    }
+
+    /**
+     * Writes the results of the classes that have not completed yet, for example for test frameworks that do not report class level events.
+     */
+    public void writeRemainingResults() {
+        for (TestClassResult classResult : results.values()) {
+            completedClassIds.put(classResult.getClassName(), classResult.getId());
+            resultsWriter.write(classResult);
+        }
+        results.clear();
     }
 
     @Override
@@ -74,7 +101,7 @@ public class TestReportDataCollector implements TestListener, TestOutputListener
         }
         TestClassResult classResult = results.get(className);
         if (classResult == null) {
-            classResult = new TestClassResult(internalIdCounter++, className, result.getStartTime());
+            classResult = new TestClassResult(classIdFor(className), className, result.getStartTime());
             results.put(className, classResult);
         } else if (classResult.getStartTime() == 0) {
             //class results may be created earlier, where we don't yet have access to the start time
@@ -83,6 +110,11 @@ public class TestReportDataCollector implements TestListener, TestOutputListener
         classResult.add(methodResult);
     }
 
+    private long classIdFor(String className) {
+        Long completedId = completedClassIds.get(className);
+        return completedId != null ? completedId : internalIdCounter++;
+    }
+
     private String failureMessage(Throwable throwable) {
         try {
             return throwable.toString();
@@ -126,6 +158,11 @@ public class TestReportDataCollector implements TestListener, TestOutputListener
             return;
         }
         TestClassResult classResult = results.get(className);
+        if (classResult == null && completedClassIds.containsKey(className)) {
+            //late output for a class whose results have already been written
+            outputWriter.onOutput(completedClassIds.get(className), outputEvent);
+            return;
+        }
         if (classResult == null) {
             //it's possible that we receive an output for a suite here
             //in this case we will create the test result for a suite that normally would not be created
@@ -16,54 +16,125 @@
 
 package org.gradle.api.internal.tasks.testing.junit.result;
 
+import com.google.common.io.CountingOutputStream;
 import org.gradle.api.Action;
+import org.gradle.api.Nullable;
 import org.gradle.api.UncheckedIOException;
 import org.gradle.api.tasks.testing.TestResult;
 import org.gradle.internal.UncheckedException;
+import org.gradle.internal.io.RandomAccessFileInputStream;
 import org.gradle.internal.serialize.Decoder;
 import org.gradle.internal.serialize.Encoder;
-import org.gradle.internal.serialize.FlushableEncoder;
 import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
 import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
 
 import java.io.*;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
+/**
+ * Stores test class results in a binary file, one record per class, together with an index of the record offsets.
+ * Results are streamed to disk as they are written, and can be visited one at a time or looked up by id without
+ * reading the whole file. Several records may be written for the same class id, for example when a class is executed
+ * more than once, and are merged into a single result when read.
+ */
 public class TestResultSerializer {
-    private static final int RESULT_VERSION = 3;
+    private static final int RESULT_VERSION = 5;
 
     private final File resultsFile;
+    private final File indexFile;
+    private Map<Long, List<Long>> index;
 
     public TestResultSerializer(File resultsDir) {
         this.resultsFile = new File(resultsDir, "results.bin");
+        this.indexFile = new File(resultsDir, resultsFile.getName() + ".idx");
     }
 
     public void write(Collection<TestClassResult> results) {
+        Writer writer = writer();
         try {
-            OutputStream outputStream = new FileOutputStream(resultsFile);
+            for (TestClassResult result : results) {
+                writer.write(result);
+            }
+        } finally {
+            writer.close();
+        }
+    }
+
+    // IMPORTANT: return must be closed when done with.
+    public Writer writer() {
+        return new Writer();
+    }
+
+    public class Writer implements Closeable {
+        private final Map<Long, List<Long>> offsets = new LinkedHashMap<Long, List<Long>>();
+        private final CountingOutputStream outputStream;
+        private final KryoBackedEncoder encoder;
+
+        private Writer() {
+            try {
+                outputStream = new CountingOutputStream(new FileOutputStream(resultsFile));
+                encoder = new KryoBackedEncoder(outputStream);
+            } catch (FileNotFoundException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * Appends the result of a completed test class. The result can be discarded once this method returns.
+         */
+        public void write(TestClassResult result) {
             try {
-                if (!results.isEmpty()) { // only write if we have results, otherwise truncate
-                    FlushableEncoder encoder = new KryoBackedEncoder(outputStream);
+                if (offsets.isEmpty()) { // only write the header if we have results, otherwise leave the file empty
                     encoder.writeSmallInt(RESULT_VERSION);
-                    write(results, encoder);
-                    encoder.flush();
                 }
-            } finally {
-                outputStream.close();
+                // the encoder only counts bytes in an int, so flush and use the byte count of the stream
+                encoder.flush();
+                List<Long> classOffsets = offsets.get(result.getId());
+                if (classOffsets == null) {
+                    classOffsets = new ArrayList<Long>(1);
+                    offsets.put(result.getId(), classOffsets);
+                }
+                classOffsets.add(outputStream.getCount());
+                TestResultSerializer.write(result, encoder);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
             }
-        } catch (IOException e) {
-            throw new UncheckedIOException(e);
         }
-    }
 
-    private void write(Collection<TestClassResult> results, Encoder encoder) throws IOException {
-        encoder.writeSmallInt(results.size());
-        for (TestClassResult result : results) {
-            write(result, encoder);
+        @Override
+        public void close() {
+            encoder.close();
+            writeIndex();
+            resetIndex();
+        }
+
+        private void writeIndex() {
+            KryoBackedEncoder indexEncoder;
+            try {
+                indexEncoder = new KryoBackedEncoder(new FileOutputStream(indexFile));
+            } catch (FileNotFoundException e) {
+                throw new UncheckedIOException(e);
+            }
+            try {
+                indexEncoder.writeSmallInt(offsets.size());
+                for (Map.Entry<Long, List<Long>> entry : offsets.entrySet()) {
+                    indexEncoder.writeSmallLong(entry.getKey());
+                    indexEncoder.writeSmallInt(entry.getValue().size());
+                    for (Long offset : entry.getValue()) {
+                        indexEncoder.writeSmallLong(offset);
+                    }
+                }
+            } finally {
+                indexEncoder.close();
+            }
         }
     }
 
-    private void write(TestClassResult classResult, Encoder encoder) throws IOException {
+    private static void write(TestClassResult classResult, Encoder encoder) throws IOException {
         encoder.writeSmallLong(classResult.getId());
         encoder.writeString(classResult.getClassName());
         encoder.writeLong(classResult.getStartTime());
@@ -73,7 +144,7 @@ public class TestResultSerializer {
         }
     }
 
-    private void write(TestMethodResult methodResult, Encoder encoder) throws IOException {
+    private static void write(TestMethodResult methodResult, Encoder encoder) throws IOException {
         encoder.writeSmallLong(methodResult.getId());
         encoder.writeString(methodResult.getName());
         encoder.writeSmallInt(methodResult.getResultType().ordinal());
@@ -87,21 +158,48 @@ public class TestResultSerializer {
         }
     }
 
+    /**
+     * Visits the stored results in the order the classes were first written, reading one class at a time.
+     */
     public void read(Action<? super TestClassResult> visitor) {
         if (!isHasResults()) {
             return;
         }
         try {
-            InputStream inputStream = new FileInputStream(resultsFile);
+            Map<Long, List<Long>> index = readIndex();
+            RandomAccessFile dataFile = new RandomAccessFile(resultsFile, "r");
             try {
-                Decoder decoder = new KryoBackedDecoder(inputStream);
-                int version = decoder.readSmallInt();
-                if (version != RESULT_VERSION) {
-                    throw new IllegalArgumentException(String.format("Unexpected result file version %d found in %s.", version, resultsFile));
+                checkVersion(new KryoBackedDecoder(new RandomAccessFileInputStream(dataFile)));
+                for (List<Long> offsets : index.values()) {
+                    visitor.execute(readClassResult(dataFile, offsets));
                 }
-                readResults(decoder, visitor);
             } finally {
-                inputStream.close();
+                dataFile.close();
+            }
+        } catch (Exception e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    /**
+     * Reads the result of the test class with the given id, or returns null when there is no such class.
+     */
+    @Nullable
+    public TestClassResult read(long classId) {
+        if (!isHasResults()) {
+            return null;
+        }
+        try {
+            List<Long> offsets = readIndex().get(classId);
+            if (offsets == null) {
+                return null;
+            }
+            RandomAccessFile dataFile = new RandomAccessFile(resultsFile, "r");
+            try {
+                checkVersion(new KryoBackedDecoder(new RandomAccessFileInputStream(dataFile)));
+                return readClassResult(dataFile, offsets);
+            } finally {
+                dataFile.close();
             }
         } catch (Exception e) {
             throw UncheckedException.throwAsUncheckedException(e);
@@ -112,14 +210,65 @@ public class TestResultSerializer {
         return resultsFile.exists() && resultsFile.length() > 0;
     }
 
-    private void readResults(Decoder decoder, Action<? super TestClassResult> visitor) throws ClassNotFoundException, IOException {
-        int classCount = decoder.readSmallInt();
-        for (int i = 0; i < classCount; i++) {
-            TestClassResult classResult = readClassResult(decoder);
-            visitor.execute(classResult);
+    private synchronized void resetIndex() {
+        index = null;
+    }
+
+    private synchronized Map<Long, List<Long>> readIndex() throws IOException {
+        if (index != null) {
+            return index;
+        }
+        if (!indexFile.exists()) {
+            throw new IllegalStateException(String.format("Test results file '%s' exists but the index file '%s' does not", resultsFile, indexFile));
+        }
+        InputStream inputStream = new FileInputStream(indexFile);
+        try {
+            Decoder decoder = new KryoBackedDecoder(inputStream);
+            int count = decoder.readSmallInt();
+            Map<Long, List<Long>> entries = new LinkedHashMap<Long, List<Long>>(count);
+            for (int i = 0; i < count; i++) {
+                long classId = decoder.readSmallLong();
+                int records = decoder.readSmallInt();
+                List<Long> offsets = new ArrayList<Long>(records);
+                for (int j = 0; j < records; j++) {
+                    offsets.add(decoder.readSmallLong());
+                }
+                entries.put(classId, offsets);
+            }
+            index = entries;
+            return entries;
+        } finally {
+            inputStream.close();
+        }
+    }
+
+    private void checkVersion(Decoder decoder) throws IOException {
+        int version = decoder.readSmallInt();
+        if (version != RESULT_VERSION) {
+            throw new IllegalArgumentException(String.format("Unexpected result file version %d found in %s.", version, resultsFile));
         }
     }
 
+    private TestClassResult readClassResult(RandomAccessFile dataFile, List<Long> offsets) throws IOException, ClassNotFoundException {
+        TestClassResult result = null;
+        for (Long offset : offsets) {
+            dataFile.seek(offset);
+            TestClassResult record = readClassResult(new KryoBackedDecoder(new RandomAccessFileInputStream(dataFile)));
+            if (result == null) {
+                result = record;
+            } else {
+                // the class was executed again, report all of its tests under one class
+                for (TestMethodResult methodResult : record.getResults()) {
+                    result.add(methodResult);
+                }
+                if (record.getStartTime() > 0 && (result.getStartTime() == 0 || record.getStartTime() < result.getStartTime())) {
+                    result.setStartTime(record.getStartTime());
+                }
+            }
+        }
+        return result;
+    }
+
     private TestClassResult readClassResult(Decoder decoder) throws IOException, ClassNotFoundException {
         long id = decoder.readSmallLong();
         String className = decoder.readString();
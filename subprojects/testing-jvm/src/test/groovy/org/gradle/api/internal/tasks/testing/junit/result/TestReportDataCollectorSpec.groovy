@@ -31,7 +31,8 @@ import static org.gradle.api.tasks.testing.TestResult.ResultType.SUCCESS
 class TestReportDataCollectorSpec extends Specification {
     def Map<String, TestClassResult> results = [:]
     def TestOutputStore.Writer writer = Mock()
-    def collector = new TestReportDataCollector(results, writer)
+    def TestResultSerializer.Writer resultsWriter = Mock()
+    def collector = new TestReportDataCollector(results, writer, resultsWriter)
 
     def "keeps track of test results"() {
         def root = new DefaultTestSuiteDescriptor("1", "Suite")
@@ -219,4 +220,67 @@ class TestReportDataCollectorSpec extends Specification {
         then:
         results.get("FooTest").startTime == 100
     }
+
+    def "writes results of a class once the class completes"() {
+        def root = new DefaultTestSuiteDescriptor("1", "Suite")
+        def clazz = new DecoratingTestDescriptor(new DefaultTestClassDescriptor("1.1", "FooTest"), root)
+        def test = new DecoratingTestDescriptor(new DefaultTestDescriptor("1.1.1", "FooTest", "testMethod"), clazz)
+
+        when:
+        collector.beforeSuite(root)
+        collector.beforeSuite(clazz)
+        collector.beforeTest(test)
+        collector.afterTest(test, new DefaultTestResult(SUCCESS, 100, 200, 1, 1, 0, []))
+
+        then:
+        0 * resultsWriter._
+
+        when:
+        collector.afterSuite(clazz, new DefaultTestResult(SUCCESS, 100, 200, 1, 1, 0, []))
+
+        then:
+        1 * resultsWriter.write({ it.className == 'FooTest' && it.testsCount == 1 })
+        results.isEmpty()
+
+        when:
+        collector.onOutput(clazz, new DefaultTestOutputEvent(StdOut, "late-out"))
+        collector.writeRemainingResults()
+
+        then:
+        1 * writer.onOutput(2, new DefaultTestOutputEvent(StdOut, "late-out"))
+        0 * resultsWriter._
+    }
+
+    def "writes results of classes that did not complete"() {
+        def test = new DefaultTestDescriptor("1.1.1", "FooTest", "testMethod")
+
+        when:
+        collector.beforeTest(test)
+        collector.afterTest(test, new DefaultTestResult(SUCCESS, 100, 200, 1, 1, 0, []))
+        collector.writeRemainingResults()
+
+        then:
+        1 * resultsWriter.write({ it.className == 'FooTest' })
+        results.isEmpty()
+    }
+
+    def "writes results of a class that is executed again under the same id"() {
+        def root = new DefaultTestSuiteDescriptor("1", "Suite")
+        def clazz = new DecoratingTestDescriptor(new DefaultTestClassDescriptor("1.1", "FooTest"), root)
+        def test = new DecoratingTestDescriptor(new DefaultTestDescriptor("1.1.1", "FooTest", "testMethod"), clazz)
+        def ids = []
+
+        when:
+        2.times {
+            collector.beforeSuite(clazz)
+            collector.beforeTest(test)
+            collector.afterTest(test, new DefaultTestResult(SUCCESS, 100, 200, 1, 1, 0, []))
+            collector.afterSuite(clazz, new DefaultTestResult(SUCCESS, 100, 200, 1, 1, 0, []))
+        }
+
+        then:
+        2 * resultsWriter.write({ it.className == 'FooTest' }) >> { TestClassResult result -> ids << result.id }
+        ids.size() == 2
+        ids[0] == ids[1]
+    }
 }
@@ -67,6 +67,64 @@ class TestResultSerializerTest extends Specification {
         readClass2.results.empty
     }
 
+    def "can look up results of a single class"() {
+        def class1 = new TestClassResult(1, 'Class1', 1234)
+        class1.add(new TestMethodResult(1, "method1", TestResult.ResultType.SUCCESS, 100, 2300))
+        def class2 = new TestClassResult(2, 'Class2', 5678)
+        class2.add(new TestMethodResult(2, "method2", TestResult.ResultType.SKIPPED, 0, 5678))
+        def serializer = new TestResultSerializer(tmp.createDir("results"))
+
+        when:
+        def writer = serializer.writer()
+        writer.write(class1)
+        writer.write(class2)
+        writer.close()
+
+        then:
+        serializer.read(2).className == 'Class2'
+        serializer.read(2).results*.name == ['method2']
+        serializer.read(1).className == 'Class1'
+        serializer.read(3) == null
+    }
+
+    def "merges results written for the same class id"() {
+        def first = new TestClassResult(1, 'Class1', 2000)
+        first.add(new TestMethodResult(1, "method1", TestResult.ResultType.SUCCESS, 100, 2300))
+        def other = new TestClassResult(2, 'Class2', 5678)
+        other.add(new TestMethodResult(2, "method2", TestResult.ResultType.SUCCESS, 0, 5678))
+        def second = new TestClassResult(1, 'Class1', 1000)
+        second.add(new TestMethodResult(3, "method1", TestResult.ResultType.FAILURE, 100, 1300))
+        def serializer = new TestResultSerializer(tmp.createDir("results"))
+
+        when:
+        def writer = serializer.writer()
+        writer.write(first)
+        writer.write(other)
+        writer.write(second)
+        writer.close()
+        def visited = []
+        serializer.read({ visited << it } as Action)
+
+        then:
+        visited*.className == ['Class1', 'Class2']
+        visited[0].id == 1
+        visited[0].results*.id == [1, 3]
+        visited[0].startTime == 1000
+        visited[0].failuresCount == 1
+        serializer.read(1).results*.id == [1, 3]
+    }
+
+    def "has no results when nothing was written"() {
+        def serializer = new TestResultSerializer(tmp.createDir("results"))
+
+        when:
+        serializer.write([])
+
+        then:
+        !serializer.isHasResults()
+        serializer.read(1) == null
+    }
+
     List<TestClassResult> serialize(Collection<TestClassResult> results) {
         def serializer = new TestResultSerializer(tmp.createDir("results"))
         serializer.write(results)
@@ -23,7 +23,9 @@ import org.gradle.execution.ProjectConfigurer;
 import org.gradle.internal.invocation.BuildAction;
 import org.gradle.internal.invocation.BuildActionRunner;
 import org.gradle.internal.invocation.BuildController;
+import org.gradle.tooling.internal.gradle.DeferredDependenciesModel;
 import org.gradle.tooling.internal.protocol.InternalUnsupportedModelException;
+import org.gradle.tooling.internal.provider.BatchedBuildModelAction;
 import org.gradle.tooling.internal.provider.BuildActionResult;
 import org.gradle.tooling.internal.provider.BuildModelAction;
 import org.gradle.tooling.internal.provider.PayloadSerializer;
@@ -32,9 +34,20 @@ import org.gradle.tooling.provider.model.ToolingModelBuilder;
 import org.gradle.tooling.provider.model.ToolingModelBuilderRegistry;
 import org.gradle.tooling.provider.model.UnknownModelException;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
 public class BuildModelActionRunner implements BuildActionRunner {
     @Override
     public void run(BuildAction action, BuildController buildController) {
+        if (action instanceof BatchedBuildModelAction) {
+            runBatch((BatchedBuildModelAction) action, buildController);
+            return;
+        }
         if (!(action instanceof BuildModelAction)) {
             return;
         }
@@ -45,17 +58,48 @@ public class BuildModelActionRunner implements BuildActionRunner {
         if (buildModelAction.isRunTasks()) {
             buildController.run();
         } else {
-            buildController.configure();
-            // Currently need to force everything to be configured
-            gradle.getServices().get(ProjectConfigurer.class).configureHierarchy(gradle.getRootProject());
-            for (Project project : gradle.getRootProject().getAllprojects()) {
-                ProjectInternal projectInternal = (ProjectInternal) project;
-                projectInternal.getTasks().discoverTasks();
-                projectInternal.bindAllModelRules();
+            configureAll(buildController);
+        }
+
+        Object result = buildModel(gradle, buildModelAction.getModelName());
+
+        PayloadSerializer payloadSerializer = gradle.getServices().get(PayloadSerializer.class);
+        BuildActionResult buildActionResult = new BuildActionResult(payloadSerializer.serialize(result), null);
+        buildController.setResult(buildActionResult);
+    }
+
+    private void runBatch(BatchedBuildModelAction action, BuildController buildController) {
+        GradleInternal gradle = buildController.getGradle();
+        configureAll(buildController);
+
+        // a model that cannot be built does not fail the other models of the batch
+        Map<String, Object> models = new LinkedHashMap<String, Object>();
+        Map<String, RuntimeException> failures = new LinkedHashMap<String, RuntimeException>();
+        for (String modelName : action.getModelNames()) {
+            try {
+                models.put(modelName, buildModel(gradle, modelName));
+            } catch (RuntimeException e) {
+                failures.put(modelName, e);
             }
         }
 
-        String modelName = buildModelAction.getModelName();
+        PayloadSerializer payloadSerializer = gradle.getServices().get(PayloadSerializer.class);
+        buildController.setResult(new BuildActionResult(payloadSerializer.serialize(models), failures.isEmpty() ? null : payloadSerializer.serialize(failures)));
+    }
+
+    private void configureAll(BuildController buildController) {
+        GradleInternal gradle = buildController.getGradle();
+        buildController.configure();
+        // Currently need to force everything to be configured
+        gradle.getServices().get(ProjectConfigurer.class).configureHierarchy(gradle.getRootProject());
+        for (Project project : gradle.getRootProject().getAllprojects()) {
+            ProjectInternal projectInternal = (ProjectInternal) project;
+            projectInternal.getTasks().discoverTasks();
+            projectInternal.bindAllModelRules();
+        }
+    }
+
+    private Object buildModel(GradleInternal gradle, String modelName) {
         ToolingModelBuilderRegistry builderRegistry = getToolingModelBuilderRegistry(gradle);
         ToolingModelBuilder builder;
         try {
@@ -64,16 +108,24 @@ public class BuildModelActionRunner implements BuildActionRunner {
             throw (InternalUnsupportedModelException) new InternalUnsupportedModelException().initCause(e);
         }
 
-        Object result;
+        Object model;
         if (builder instanceof ProjectSensitiveToolingModelBuilder) {
-            result = ((ProjectSensitiveToolingModelBuilder) builder).buildAll(modelName, gradle.getDefaultProject(), true);
+            model = ((ProjectSensitiveToolingModelBuilder) builder).buildAll(modelName, gradle.getDefaultProject(), true);
         } else {
-            result = builder.buildAll(modelName, gradle.getDefaultProject());
+            model = builder.buildAll(modelName, gradle.getDefaultProject());
         }
+        Map<String, String> systemProperties = gradle.getStartParameter().getSystemPropertiesArgs();
+        if (model instanceof DeferredDependenciesModel && Boolean.parseBoolean(systemProperties.get(DeferredDependenciesModel.DEFER_DEPENDENCIES_PROPERTY))) {
+            ((DeferredDependenciesModel) model).deferDependencies(fetchedProjectPaths(systemProperties.get(DeferredDependenciesModel.FETCH_DEPENDENCIES_PROPERTY)));
+        }
+        return model;
+    }
 
-        PayloadSerializer payloadSerializer = gradle.getServices().get(PayloadSerializer.class);
-        BuildActionResult buildActionResult = new BuildActionResult(payloadSerializer.serialize(result), null);
-        buildController.setResult(buildActionResult);
+    private static Set<String> fetchedProjectPaths(String projectPaths) {
+        if (projectPaths == null || projectPaths.length() == 0) {
+            return Collections.emptySet();
+        }
+        return new HashSet<String>(Arrays.asList(projectPaths.split(",")));
     }
 
     private ToolingModelBuilderRegistry getToolingModelBuilderRegistry(GradleInternal gradle) {
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.tooling.internal.provider.runner
+
+import org.gradle.StartParameter
+import org.gradle.api.internal.GradleInternal
+import org.gradle.api.internal.project.ProjectInternal
+import org.gradle.api.internal.tasks.TaskContainerInternal
+import org.gradle.execution.ProjectConfigurer
+import org.gradle.internal.invocation.BuildController
+import org.gradle.internal.service.ServiceRegistry
+import org.gradle.tooling.internal.protocol.InternalUnsupportedModelException
+import org.gradle.tooling.internal.provider.BatchedBuildModelAction
+import org.gradle.tooling.internal.provider.BuildActionResult
+import org.gradle.tooling.internal.provider.BuildClientSubscriptions
+import org.gradle.tooling.internal.provider.PayloadSerializer
+import org.gradle.tooling.internal.provider.SerializedPayload
+import org.gradle.tooling.provider.model.ToolingModelBuilder
+import org.gradle.tooling.provider.model.ToolingModelBuilderRegistry
+import org.gradle.tooling.provider.model.UnknownModelException
+import spock.lang.Specification
+
+class BuildModelActionRunnerTest extends Specification {
+    def payloadSerializer = Mock(PayloadSerializer)
+    def projectConfigurer = Mock(ProjectConfigurer)
+    def builderRegistry = Mock(ToolingModelBuilderRegistry)
+    def tasks = Mock(TaskContainerInternal)
+    def project = Stub(ProjectInternal) {
+        getAllprojects() >> { [project] as Set }
+        getTasks() >> tasks
+        getServices() >> Stub(ServiceRegistry) {
+            get(ToolingModelBuilderRegistry) >> builderRegistry
+        }
+    }
+    def buildController = Mock(BuildController) {
+        getGradle() >> Stub(GradleInternal) {
+            getRootProject() >> project
+            getDefaultProject() >> project
+            getServices() >> Stub(ServiceRegistry) {
+                get(PayloadSerializer) >> payloadSerializer
+                get(ProjectConfigurer) >> projectConfigurer
+            }
+        }
+    }
+    def runner = new BuildModelActionRunner()
+
+    def "configures the build once and builds each model of a batch"() {
+        def modelA = new Object()
+        def modelB = new Object()
+        def output = Mock(SerializedPayload)
+
+        when:
+        runner.run(batch("a", "b"), buildController)
+
+        then:
+        1 * buildController.configure()
+        1 * projectConfigurer.configureHierarchy(project)
+        1 * tasks.discoverTasks()
+        1 * builderRegistry.getBuilder("a") >> builder("a", modelA)
+        1 * builderRegistry.getBuilder("b") >> builder("b", modelB)
+        1 * payloadSerializer.serialize([a: modelA, b: modelB]) >> output
+        1 * buildController.setResult(_) >> { BuildActionResult result ->
+            assert result.result == output
+            assert result.failure == null
+        }
+        0 * buildController.run()
+    }
+
+    def "a model that cannot be built does not fail the other models of a batch"() {
+        def modelA = new Object()
+        def failure = new RuntimeException("broken")
+        def output = Mock(SerializedPayload)
+        def failureOutput = Mock(SerializedPayload)
+
+        when:
+        runner.run(batch("a", "b", "c"), buildController)
+
+        then:
+        1 * builderRegistry.getBuilder("a") >> builder("a", modelA)
+        1 * builderRegistry.getBuilder("b") >> Stub(ToolingModelBuilder) {
+            buildAll("b", project) >> { throw failure }
+        }
+        1 * builderRegistry.getBuilder("c") >> { throw new UnknownModelException("unknown") }
+        1 * payloadSerializer.serialize([a: modelA]) >> output
+        1 * payloadSerializer.serialize(_ as Map) >> { Map<String, RuntimeException> failures ->
+            assert failures.keySet() == ["b", "c"] as Set
+            assert failures.b == failure
+            assert failures.c instanceof InternalUnsupportedModelException
+            assert failures.c.cause instanceof UnknownModelException
+            return failureOutput
+        }
+        1 * buildController.setResult(_) >> { BuildActionResult result ->
+            assert result.result == output
+            assert result.failure == failureOutput
+        }
+    }
+
+    def batch(String... modelNames) {
+        return new BatchedBuildModelAction(Stub(StartParameter), modelNames as List, Stub(BuildClientSubscriptions))
+    }
+
+    def builder(String modelName, Object model) {
+        return Stub(ToolingModelBuilder) {
+            buildAll(modelName, project) >> model
+        }
+    }
+}
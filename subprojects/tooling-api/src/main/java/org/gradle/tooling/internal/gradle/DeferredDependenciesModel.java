@@ -0,0 +1,62 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.tooling.internal.gradle;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A model whose dependencies are resolved on demand. Dependencies that have not been resolved by the time the model is returned to
+ * the client can be left out of the model, and fetched by the client, a few projects per request, the first time they are queried.
+ * A client that only inspects the project structure then does not pay for dependency resolution, and a client that inspects a few
+ * projects only pays for those.
+ *
+ * <p>A client asks for this by setting the {@link #DEFER_DEPENDENCIES_PROPERTY} system property to {@code true} in the arguments of
+ * the model request, for example {@code withArguments("-Dorg.gradle.tooling.deferDependencies=true")}.</p>
+ */
+public interface DeferredDependenciesModel {
+    /**
+     * The system property that a client sets to ask for dependencies to be deferred.
+     */
+    String DEFER_DEPENDENCIES_PROPERTY = "org.gradle.tooling.deferDependencies";
+
+    /**
+     * The system property with which a request for deferred dependencies names, as a comma separated list of project paths, the
+     * projects whose dependencies are resolved. The dependencies of every other project stay deferred.
+     */
+    String FETCH_DEPENDENCIES_PROPERTY = "org.gradle.internal.tooling.fetchDependenciesOf";
+
+    /**
+     * Leaves the dependencies of every element of this model that have not been resolved yet to be fetched by the client, rather than
+     * resolving them when the model is serialized. Elements of the projects with the given paths are still resolved.
+     */
+    void deferDependencies(Set<String> resolvedProjectPaths);
+
+    /**
+     * Sets the fetcher to use when the deferred dependencies of this model are queried. Does nothing when no dependencies were deferred.
+     */
+    void setDependenciesFetcher(DependenciesFetcher fetcher);
+
+    interface DependenciesFetcher {
+        /**
+         * Returns a copy of the model with the dependencies of the project with the given path resolved. The copy may also resolve
+         * the dependencies of some of the other given projects, whose dependencies are still deferred, so that a client that walks
+         * the whole model needs few requests.
+         */
+        DeferredDependenciesModel fetch(String projectPath, List<String> deferredProjectPaths);
+    }
+}